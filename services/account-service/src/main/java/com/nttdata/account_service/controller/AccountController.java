@@ -1,7 +1,7 @@
 package com.nttdata.account_service.controller;
 
 import com.nttdata.account_service.model.BankAccount;
-import com.nttdata.account_service.service.AccountService;
+import com.nttdata.account_service.service.AccountOperations;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -16,10 +16,13 @@ import java.math.BigDecimal;
 @RequiredArgsConstructor
 public class AccountController {
 
-    private final AccountService service;
+    private final AccountOperations service;
 
     @GetMapping public Flux<BankAccount> findAll() { return service.findAll(); }
     @GetMapping("/{id}") public Mono<BankAccount> findById(@PathVariable String id) { return service.findById(id); }
+    @GetMapping("/by-customer/{customerId}") public Flux<BankAccount> findByCustomer(@PathVariable String customerId) {
+        return service.findByCustomer(customerId);
+    }
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping public Mono<BankAccount> create(@RequestBody BankAccount a) { return service.create(a); }
@@ -0,0 +1,36 @@
+package com.nttdata.account_service.domain;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Vista de dominio de la colección "accounts" (misma colección que model.BankAccount).
+ * El saldo se guarda como Decimal128 para poder actualizarlo con $inc.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+@Document(collection = "accounts")
+public class Account {
+    @Id
+    private String id;
+    private String customerId;
+
+    @Field("type")
+    private AccountType accountType;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal balance;
+
+    private BigDecimal maintenanceFee;      // para CURRENT
+    private Integer monthlyMovementLimit;   // para SAVINGS
+
+    private String movementPeriod;          // mes del contador (yyyy-MM)
+    private Integer movementCount;          // movimientos realizados en movementPeriod
+
+    private List<PendingMovement> outbox;   // movimientos aún no entregados a transaction-service
+}
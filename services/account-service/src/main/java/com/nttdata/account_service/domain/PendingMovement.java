@@ -0,0 +1,25 @@
+package com.nttdata.account_service.domain;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Movimiento pendiente de enviar a transaction-service (outbox embebido en la cuenta).
+ * Se escribe en la misma operación que cambia el saldo y lo retira el relay una vez entregado.
+ * El id se reutiliza como id de la transacción, así un reenvío no la duplica.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class PendingMovement {
+    private String id;
+    private String operation;     // DEPOSIT | WITHDRAW | TRANSFER_IN | TRANSFER_OUT | FEE
+    private BigDecimal amount;
+    private Instant occurredAt;
+    private String description;
+
+    public static PendingMovement of(String operation, BigDecimal amount, String description) {
+        return new PendingMovement(UUID.randomUUID().toString(), operation, amount, Instant.now(), description);
+    }
+}
\ No newline at end of file
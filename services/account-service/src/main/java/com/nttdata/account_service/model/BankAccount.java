@@ -2,6 +2,8 @@ package com.nttdata.account_service.model;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 
@@ -12,7 +14,8 @@ public class BankAccount {
     private String id;
     private String customerId;   // referencia lógica (sin FK entre servicios)
     private String type;         // SAVINGS | CURRENT | FIXED_TERM
-    private BigDecimal balance;  // saldo
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal balance;  // saldo (Decimal128 para poder usar $inc)
     private BigDecimal maintenanceFee; // para CURRENT
     private Integer monthlyMovementLimit; // para SAVINGS
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.nttdata.account_service.repository;
+
+import com.nttdata.account_service.domain.Account;
+import com.nttdata.account_service.domain.PendingMovement;
+import org.springframework.data.mongodb.core.query.Criteria;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Actualizaciones atómicas de saldo (y contador mensual de movimientos).
+ * Cada cambio de saldo deja sus movimientos en el outbox de la cuenta en la misma escritura.
+ */
+public interface AccountMovementRepository {
+
+    /**
+     * Aplica {@code delta} al saldo e incrementa el contador de movimientos de {@code period}
+     * en una sola escritura (si el mes cambió, el contador se reinicia a 1). Solo se aplica si el mes
+     * del contador sigue siendo el leído en {@code observed}, si el contador está por debajo de
+     * {@code countBelow} (null: sin condición) y si el saldo resultante no queda negativo. Así las
+     * operaciones concurrentes no se invalidan entre sí mientras no crucen el tope.
+     *
+     * @return la cuenta actualizada, o vacío si ya no se cumple alguna de esas condiciones
+     */
+    Mono<Account> applyMovement(Account observed, YearMonth period, Integer countBelow, BigDecimal delta,
+                                List<PendingMovement> movements);
+
+    /**
+     * Suma {@code delta} al saldo en una sola operación ($inc). Si es un débito solo se aplica
+     * cuando el saldo alcanza; {@code extra} permite añadir condiciones sobre el documento.
+     *
+     * @return la cuenta ya actualizada, o vacío si no existe, no cumple {@code extra} o no tiene saldo
+     */
+    Mono<Account> adjustBalance(String id, BigDecimal delta, Criteria extra, PendingMovement movement);
+
+    /**
+     * Aplica en bloque (bulk writes) el neto por cuenta de un lote de transferencias.
+     * Primero los débitos, cada uno condicionado a saldo suficiente; si alguno no se pudo aplicar
+     * (otra operación gastó el saldo entretanto) se revierten los aplicados y no se abona nada.
+     * Después los abonos: una cuenta borrada entre los dos pasos no recibe el suyo y se informa.
+     *
+     * @param batchId   identificador del lote, marca temporalmente las cuentas debitadas
+     * @param deltas    neto a sumar por id de cuenta
+     * @param movements movimientos a dejar en el outbox de cada cuenta
+     * @return las cuentas a abonar que ya no existían (vacío si se abonó todo), o vacío si se revirtió
+     */
+    Mono<Set<String>> applyNetDeltas(String batchId, Map<String, BigDecimal> deltas,
+                                     Map<String, List<PendingMovement>> movements);
+
+    /**
+     * Actualiza solo los campos de configuración no nulos de {@code patch} ($set), sin reescribir
+     * el documento (saldo, contador y outbox quedan intactos).
+     */
+    Mono<Account> updateSettings(String id, Account patch);
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.nttdata.account_service.repository;
+
+import com.nttdata.account_service.domain.Account;
+import com.nttdata.account_service.domain.PendingMovement;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@RequiredArgsConstructor
+class AccountMovementRepositoryImpl implements AccountMovementRepository {
+
+    private static final String OUTBOX = "outbox";
+
+    /** Lotes cuyo débito ya se aplicó en la cuenta pero aún no se confirmó. */
+    private static final String PENDING_BATCHES = "pendingBatches";
+
+    private final ReactiveMongoTemplate mongo;
+
+    @Override
+    public Mono<Account> applyMovement(Account observed, YearMonth period, Integer countBelow, BigDecimal delta,
+                                       List<PendingMovement> movements) {
+        return mongo.findAndModify(new Query(BalanceUpdates.movementGuard(observed, period, countBelow, delta)),
+                BalanceUpdates.movement(observed, period, delta, movements),
+                FindAndModifyOptions.options().returnNew(true), Account.class);
+    }
+
+    @Override
+    public Mono<Account> adjustBalance(String id, BigDecimal delta, Criteria extra, PendingMovement movement) {
+        Query query = new Query(BalanceUpdates.guard(id, delta));
+        if (extra != null) query.addCriteria(extra);
+        return mongo.findAndModify(query, BalanceUpdates.inc(delta).push(OUTBOX, movement),
+                FindAndModifyOptions.options().returnNew(true), Account.class);
+    }
+
+    @Override
+    public Mono<Set<String>> applyNetDeltas(String batchId, Map<String, BigDecimal> deltas,
+                                            Map<String, List<PendingMovement>> movements) {
+        Map<String, BigDecimal> debits = new LinkedHashMap<>();
+        Map<String, BigDecimal> credits = new LinkedHashMap<>();
+        deltas.forEach((id, delta) -> {
+            if (delta.signum() < 0) debits.put(id, delta);
+            else if (delta.signum() > 0 || movements.containsKey(id)) credits.put(id, delta); // neto 0: solo outbox
+        });
+
+        Mono<Boolean> debited = Mono.just(true);
+        if (!debits.isEmpty()) {
+            ReactiveBulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+            debits.forEach((id, delta) -> ops.updateOne(new Query(BalanceUpdates.guard(id, delta)),
+                    withOutbox(BalanceUpdates.inc(delta), movements.get(id)).addToSet(PENDING_BATCHES, batchId)));
+            debited = ops.execute().map(r -> r.getMatchedCount() == debits.size());
+        }
+
+        return debited.flatMap(ok -> ok
+                ? settle(batchId, debits, credits, movements)
+                : revert(batchId, debits, movements).then(Mono.empty()));
+    }
+
+    /**
+     * Abona los créditos y limpia la marca del lote en las cuentas debitadas.
+     * @return las cuentas a abonar que ya no existen
+     */
+    private Mono<Set<String>> settle(String batchId, Map<String, BigDecimal> debits, Map<String, BigDecimal> credits,
+                                     Map<String, List<PendingMovement>> movements) {
+        if (debits.isEmpty() && credits.isEmpty()) return Mono.just(Set.of());
+
+        ReactiveBulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+        credits.forEach((id, delta) -> ops.updateOne(byId(id), withOutbox(BalanceUpdates.inc(delta), movements.get(id))));
+        debits.keySet().forEach(id -> ops.updateOne(byId(id), new Update().pull(PENDING_BATCHES, batchId)));
+        int expected = debits.size() + credits.size();
+        return ops.execute()
+                .flatMap(r -> {
+                    if (r.getMatchedCount() == expected || credits.isEmpty()) return Mono.just(Set.<String>of());
+                    // solo si algo no coincidió: qué cuentas a abonar ya no están
+                    Query existing = new Query(Criteria.where("_id").in(credits.keySet()));
+                    existing.fields().include("_id");
+                    return mongo.find(existing, Account.class)
+                            .map(Account::getId)
+                            .collect(Collectors.toSet())
+                            .map(found -> {
+                                Set<String> missing = new HashSet<>(credits.keySet());
+                                missing.removeAll(found);
+                                return missing;
+                            })
+                            .doOnNext(missing -> log.warn("Batch {}: accounts deleted before being credited: {}", batchId, missing));
+                });
+    }
+
+    /**
+     * Devuelve el dinero a las cuentas cuyo débito sí se aplicó (las marcadas con el lote)
+     * y retira del outbox los movimientos que ese débito había dejado.
+     */
+    private Mono<Void> revert(String batchId, Map<String, BigDecimal> debits,
+                              Map<String, List<PendingMovement>> movements) {
+        Query applied = new Query(Criteria.where("_id").in(debits.keySet()).and(PENDING_BATCHES).is(batchId));
+        applied.fields().include("_id");
+
+        return mongo.find(applied, Account.class)
+                .map(Account::getId)
+                .collectList()
+                .flatMap(ids -> {
+                    if (ids.isEmpty()) return Mono.empty();
+                    ReactiveBulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+                    ids.forEach(id -> ops.updateOne(byId(id), BalanceUpdates.inc(debits.get(id).negate())
+                            .pull(PENDING_BATCHES, batchId)
+                            .pull(OUTBOX, new Document("id", new Document("$in", movementIds(movements.get(id)))))));
+                    return ops.execute().then();
+                });
+    }
+
+    @Override
+    public Mono<Account> updateSettings(String id, Account patch) {
+        Update update = new Update();
+        if (patch.getAccountType() != null) update.set("type", patch.getAccountType());
+        if (patch.getMaintenanceFee() != null) update.set("maintenanceFee", patch.getMaintenanceFee());
+        if (patch.getMonthlyMovementLimit() != null) update.set("monthlyMovementLimit", patch.getMonthlyMovementLimit());
+        if (update.getUpdateObject().isEmpty()) return mongo.findById(id, Account.class);
+        return mongo.findAndModify(byId(id), update, FindAndModifyOptions.options().returnNew(true), Account.class);
+    }
+
+    private static Update withOutbox(Update update, List<PendingMovement> movements) {
+        if (movements != null && !movements.isEmpty()) update.push(OUTBOX).each(movements.toArray());
+        return update;
+    }
+
+    private static List<String> movementIds(List<PendingMovement> movements) {
+        return movements == null ? List.of() : movements.stream().map(PendingMovement::getId).toList();
+    }
+
+    private static Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+}
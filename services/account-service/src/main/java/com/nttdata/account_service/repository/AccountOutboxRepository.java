@@ -0,0 +1,23 @@
+package com.nttdata.account_service.repository;
+
+import com.nttdata.account_service.domain.Account;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lectura y confirmación del outbox de movimientos embebido en las cuentas.
+ */
+public interface AccountOutboxRepository {
+
+    /** Cuentas (solo id, cliente y outbox) con movimientos pendientes de entregar. */
+    Flux<Account> findWithPendingMovements(int limit);
+
+    /** Retira del outbox los movimientos ya entregados, por id de cuenta. */
+    Mono<Void> acknowledge(Map<String, List<String>> deliveredByAccount);
+
+    /** Índice disperso sobre outbox.id para que el relay no recorra toda la colección. */
+    Mono<Void> ensureOutboxIndex();
+}
\ No newline at end of file
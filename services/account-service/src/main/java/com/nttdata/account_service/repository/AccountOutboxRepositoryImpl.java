@@ -0,0 +1,51 @@
+package com.nttdata.account_service.repository;
+
+import com.nttdata.account_service.domain.Account;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class AccountOutboxRepositoryImpl implements AccountOutboxRepository {
+
+    private static final String OUTBOX_ID = "outbox.id";
+
+    private final ReactiveMongoTemplate mongo;
+
+    @Override
+    public Flux<Account> findWithPendingMovements(int limit) {
+        Query query = new Query(Criteria.where(OUTBOX_ID).exists(true)).limit(limit);
+        query.fields().include("_id").include("customerId").include("outbox");
+        return mongo.find(query, Account.class);
+    }
+
+    @Override
+    public Mono<Void> acknowledge(Map<String, List<String>> deliveredByAccount) {
+        if (deliveredByAccount.isEmpty()) return Mono.empty();
+
+        ReactiveBulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+        deliveredByAccount.forEach((accountId, ids) -> ops.updateOne(
+                new Query(Criteria.where("_id").is(accountId)),
+                new Update().pull("outbox", new Document("id", new Document("$in", ids)))));
+        return ops.execute().then();
+    }
+
+    @Override
+    public Mono<Void> ensureOutboxIndex() {
+        return mongo.indexOps(Account.class)
+                .ensureIndex(new Index(OUTBOX_ID, Sort.Direction.ASC).sparse().named("outbox_pending"))
+                .then();
+    }
+}
\ No newline at end of file
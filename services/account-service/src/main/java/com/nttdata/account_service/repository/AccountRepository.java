@@ -0,0 +1,7 @@
+package com.nttdata.account_service.repository;
+
+import com.nttdata.account_service.domain.Account;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface AccountRepository extends ReactiveMongoRepository<Account, String>,
+        AccountMovementRepository, AccountOutboxRepository { }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.nttdata.account_service.repository;
+
+import com.nttdata.account_service.domain.Account;
+import com.nttdata.account_service.domain.PendingMovement;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Piezas comunes de las actualizaciones atómicas de saldo ($inc condicionado).
+ * El saldo debe estar guardado como Decimal128 para que $inc y las comparaciones sean numéricas.
+ */
+final class BalanceUpdates {
+
+    static final String BALANCE = "balance";
+
+    private BalanceUpdates() { }
+
+    /** Filtro por id; si {@code delta} es un débito exige saldo >= débito. */
+    static Criteria guard(String id, BigDecimal delta) {
+        Criteria c = Criteria.where("_id").is(id);
+        if (delta.signum() < 0) {
+            c = c.and(BALANCE).gte(new Decimal128(delta.negate()));
+        }
+        return c;
+    }
+
+    static Update inc(BigDecimal delta) {
+        return new Update().inc(BALANCE, new Decimal128(delta));
+    }
+
+    /**
+     * {@link #guard} más el contador mensual: mismo mes que el leído en {@code observed} y, si
+     * {@code countBelow} no es null, contador aún por debajo. Al cambiar de mes se exige el mes leído.
+     */
+    static Criteria movementGuard(Account observed, YearMonth period, Integer countBelow, BigDecimal delta) {
+        Criteria c = guard(observed.getId(), delta).and("movementPeriod").is(observed.getMovementPeriod());
+        if (countBelow != null && period.toString().equals(observed.getMovementPeriod())) {
+            c = c.and("movementCount").lt(countBelow);
+        }
+        return c;
+    }
+
+    /** Saldo, outbox y contador del mes {@code period} en una sola actualización. */
+    static Update movement(Account observed, YearMonth period, BigDecimal delta, List<PendingMovement> movements) {
+        String ym = period.toString();
+        Update update = inc(delta);
+        update.push("outbox").each(movements.toArray());
+        if (ym.equals(observed.getMovementPeriod())) {
+            update.inc("movementCount", 1);
+        } else {
+            // cambio de mes: el contador arranca de nuevo
+            update.set("movementPeriod", ym).set("movementCount", 1);
+        }
+        return update;
+    }
+}
@@ -0,0 +1,27 @@
+package com.nttdata.account_service.repository;
+
+import com.nttdata.account_service.model.BankAccount;
+import reactor.core.publisher.Mono;
+
+public interface BankAccountBalanceRepository {
+
+    /**
+     * Actualiza solo los datos de configuración de la cuenta ($set), sin reescribir el documento:
+     * el saldo y el contador mensual de movimientos (ver domain.Account) no se tocan.
+     *
+     * @return la cuenta ya actualizada, o vacío si no existe
+     */
+    Mono<BankAccount> updateSettings(String id, BankAccount changes);
+
+    /**
+     * Convierte a Decimal128 ($toDecimal) los saldos guardados antes de que balance fuera Decimal128
+     * (texto o número). Solo toca documentos con saldo no decimal, así que repetirlo no cambia nada;
+     * un valor que no convierte queda como estaba.
+     *
+     * @return documentos convertidos
+     */
+    Mono<Long> convertBalancesToDecimal();
+
+    /** Cuentas cuyo saldo sigue sin ser Decimal128 (no convertible): sus $inc y guardas no aplican. */
+    Mono<Long> countNonDecimalBalances();
+}
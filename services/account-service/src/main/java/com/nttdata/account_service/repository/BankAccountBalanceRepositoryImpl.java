@@ -0,0 +1,57 @@
+package com.nttdata.account_service.repository;
+
+import com.nttdata.account_service.model.BankAccount;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+class BankAccountBalanceRepositoryImpl implements BankAccountBalanceRepository {
+
+    private static final String BALANCE = "balance";
+
+    private final ReactiveMongoTemplate mongo;
+
+    @Override
+    public Mono<BankAccount> updateSettings(String id, BankAccount changes) {
+        Update update = new Update()
+                .set("type", changes.getType())
+                .set("maintenanceFee", changes.getMaintenanceFee())
+                .set("monthlyMovementLimit", changes.getMonthlyMovementLimit());
+        return mongo.findAndModify(Query.query(Criteria.where("_id").is(id)), update,
+                FindAndModifyOptions.options().returnNew(true), BankAccount.class);
+    }
+
+    @Override
+    public Mono<Long> convertBalancesToDecimal() {
+        AggregationUpdate toDecimal = AggregationUpdate.update()
+                .set(BALANCE).toValue(ConvertOperators.Convert.convertValueOf(BALANCE)
+                        .to("decimal")
+                        .onErrorReturnValueOf(BALANCE));
+        return mongo.updateMulti(nonDecimal(), toDecimal, collection())
+                .map(UpdateResult::getModifiedCount);
+    }
+
+    @Override
+    public Mono<Long> countNonDecimalBalances() {
+        return mongo.count(nonDecimal(), collection());
+    }
+
+    /** Por nombre de colección: con la entidad, el $type se mapearía al tipo de balance (Decimal128). */
+    private String collection() {
+        return mongo.getCollectionName(BankAccount.class);
+    }
+
+    private static Query nonDecimal() {
+        return Query.query(Criteria.where(BALANCE).type(JsonSchemaObject.Type.stringType(),
+                JsonSchemaObject.Type.doubleType(), JsonSchemaObject.Type.intType(), JsonSchemaObject.Type.longType()));
+    }
+}
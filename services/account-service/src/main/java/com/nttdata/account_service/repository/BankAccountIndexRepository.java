@@ -0,0 +1,9 @@
+package com.nttdata.account_service.repository;
+
+import reactor.core.publisher.Mono;
+
+public interface BankAccountIndexRepository {
+
+    /** Índice por cliente de la colección accounts (idempotente). */
+    Mono<Void> ensureCustomerIndex();
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.nttdata.account_service.repository;
+
+import com.nttdata.account_service.model.BankAccount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+class BankAccountIndexRepositoryImpl implements BankAccountIndexRepository {
+
+    private final ReactiveMongoTemplate mongo;
+
+    @Override
+    public Mono<Void> ensureCustomerIndex() {
+        return mongo.indexOps(BankAccount.class)
+                .ensureIndex(new Index("customerId", Sort.Direction.ASC).named("customer_id"))
+                .then();
+    }
+}
\ No newline at end of file
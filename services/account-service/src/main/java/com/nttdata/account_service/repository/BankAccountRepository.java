@@ -2,5 +2,11 @@ package com.nttdata.account_service.repository;
 
 import com.nttdata.account_service.model.BankAccount;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
 
-public interface BankAccountRepository extends ReactiveMongoRepository<BankAccount, String> { }
\ No newline at end of file
+public interface BankAccountRepository extends ReactiveMongoRepository<BankAccount, String>, BankAccountBalanceRepository,
+        BankAccountIndexRepository {
+
+    /** Resuelto sobre el índice customerId. */
+    Flux<BankAccount> findByCustomerId(String customerId);
+}
\ No newline at end of file
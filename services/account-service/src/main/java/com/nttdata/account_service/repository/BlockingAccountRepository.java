@@ -0,0 +1,184 @@
+package com.nttdata.account_service.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.nttdata.account_service.domain.Account;
+import com.nttdata.account_service.domain.PendingMovement;
+import com.nttdata.account_service.model.BankAccount;
+import com.nttdata.account_service.service.BlockingExecution;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Las mismas consultas y escrituras atómicas que BankAccountRepository y AccountRepository, sobre el
+ * driver síncrono (MongoTemplate), para el perfil blocking. Cada método bloquea el hilo que lo llama
+ * hasta que Mongo responde; se llama desde BlockingExecution.
+ */
+@Slf4j
+@Repository
+@Profile(BlockingExecution.PROFILE)
+@RequiredArgsConstructor
+public class BlockingAccountRepository {
+
+    private static final String OUTBOX = "outbox";
+
+    /** Lotes cuyo débito ya se aplicó en la cuenta pero aún no se confirmó. */
+    private static final String PENDING_BATCHES = "pendingBatches";
+
+    private final MongoTemplate mongo;
+
+    /* ----------------- model.BankAccount (AccountController) ----------------- */
+
+    /** Cursor abierto: quien consume el stream debe cerrarlo. */
+    public Stream<BankAccount> findAll() {
+        return mongo.stream(new Query(), BankAccount.class);
+    }
+
+    public BankAccount findById(String id) {
+        return mongo.findById(id, BankAccount.class);
+    }
+
+    /** Resuelto sobre el índice customerId; cursor abierto, como {@link #findAll()}. */
+    public Stream<BankAccount> findByCustomerId(String customerId) {
+        return mongo.stream(new Query(Criteria.where("customerId").is(customerId)), BankAccount.class);
+    }
+
+    public void delete(BankAccount account) {
+        mongo.remove(account);
+    }
+
+    /** Ver BankAccountBalanceRepository#updateSettings: null si no existe. */
+    public BankAccount updateSettings(String id, BankAccount changes) {
+        Update update = new Update()
+                .set("type", changes.getType())
+                .set("maintenanceFee", changes.getMaintenanceFee())
+                .set("monthlyMovementLimit", changes.getMonthlyMovementLimit());
+        return mongo.findAndModify(byId(id), update, FindAndModifyOptions.options().returnNew(true), BankAccount.class);
+    }
+
+    /** Ver BankAccountIndexRepository#ensureCustomerIndex. */
+    public void ensureCustomerIndex() {
+        mongo.indexOps(BankAccount.class)
+                .ensureIndex(new Index("customerId", Sort.Direction.ASC).named("customer_id"));
+    }
+
+    /* -------------------- domain.Account (transferencias) -------------------- */
+
+    /** Alta con su outbox (el depósito de apertura); model.BankAccount no lo lleva. */
+    public Account saveAccount(Account account) {
+        return mongo.save(account);
+    }
+
+    public Account findAccount(String id) {
+        return mongo.findById(id, Account.class);
+    }
+
+    public List<Account> findAccounts(Collection<String> ids) {
+        return mongo.find(new Query(Criteria.where("_id").in(ids)), Account.class);
+    }
+
+    /** Ver AccountMovementRepository#applyMovement: null si el saldo no alcanza o el plan dejó de valer. */
+    public Account applyMovement(Account observed, YearMonth period, Integer countBelow, BigDecimal delta, List<PendingMovement> movements) {
+        return mongo.findAndModify(new Query(BalanceUpdates.movementGuard(observed, period, countBelow, delta)),
+                BalanceUpdates.movement(observed, period, delta, movements),
+                FindAndModifyOptions.options().returnNew(true), Account.class);
+    }
+
+    /** Ver AccountMovementRepository#adjustBalance: null si no existe, no cumple {@code extra} o no tiene saldo. */
+    public Account adjustBalance(String id, BigDecimal delta, Criteria extra, PendingMovement movement) {
+        Query query = new Query(BalanceUpdates.guard(id, delta));
+        if (extra != null) query.addCriteria(extra);
+        return mongo.findAndModify(query, BalanceUpdates.inc(delta).push(OUTBOX, movement),
+                FindAndModifyOptions.options().returnNew(true), Account.class);
+    }
+
+    /**
+     * Ver AccountMovementRepository#applyNetDeltas: débitos condicionados primero; si alguno falla se revierten.
+     * @return las cuentas a abonar que ya no existían, o null si se revirtió
+     */
+    public Set<String> applyNetDeltas(String batchId, Map<String, BigDecimal> deltas,
+                                  Map<String, List<PendingMovement>> movements) {
+        Map<String, BigDecimal> debits = new LinkedHashMap<>();
+        Map<String, BigDecimal> credits = new LinkedHashMap<>();
+        deltas.forEach((id, delta) -> {
+            if (delta.signum() < 0) debits.put(id, delta);
+            else if (delta.signum() > 0 || movements.containsKey(id)) credits.put(id, delta); // neto 0: solo outbox
+        });
+
+        if (!debits.isEmpty()) {
+            BulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+            debits.forEach((id, delta) -> ops.updateOne(new Query(BalanceUpdates.guard(id, delta)),
+                    withOutbox(BalanceUpdates.inc(delta), movements.get(id)).addToSet(PENDING_BATCHES, batchId)));
+            if (ops.execute().getMatchedCount() != debits.size()) {
+                revert(batchId, debits, movements);
+                return null;
+            }
+        }
+        return settle(batchId, debits, credits, movements);
+    }
+
+    private Set<String> settle(String batchId, Map<String, BigDecimal> debits, Map<String, BigDecimal> credits,
+                               Map<String, List<PendingMovement>> movements) {
+        if (debits.isEmpty() && credits.isEmpty()) return Set.of();
+
+        BulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+        credits.forEach((id, delta) -> ops.updateOne(byId(id), withOutbox(BalanceUpdates.inc(delta), movements.get(id))));
+        debits.keySet().forEach(id -> ops.updateOne(byId(id), new Update().pull(PENDING_BATCHES, batchId)));
+        int expected = debits.size() + credits.size();
+        BulkWriteResult result = ops.execute();
+        if (result.getMatchedCount() == expected || credits.isEmpty()) return Set.of();
+
+        Query existing = new Query(Criteria.where("_id").in(credits.keySet()));
+        existing.fields().include("_id");
+        Set<String> missing = new HashSet<>(credits.keySet());
+        mongo.find(existing, Account.class).forEach(a -> missing.remove(a.getId()));
+        log.warn("Batch {}: accounts deleted before being credited: {}", batchId, missing);
+        return missing;
+    }
+
+    private void revert(String batchId, Map<String, BigDecimal> debits, Map<String, List<PendingMovement>> movements) {
+        Query applied = new Query(Criteria.where("_id").in(debits.keySet()).and(PENDING_BATCHES).is(batchId));
+        applied.fields().include("_id");
+
+        List<String> ids = mongo.find(applied, Account.class).stream().map(Account::getId).toList();
+        if (ids.isEmpty()) return;
+        BulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+        ids.forEach(id -> ops.updateOne(byId(id), BalanceUpdates.inc(debits.get(id).negate())
+                .pull(PENDING_BATCHES, batchId)
+                .pull(OUTBOX, new Document("id", new Document("$in", movementIds(movements.get(id)))))));
+        ops.execute();
+    }
+
+    private static Update withOutbox(Update update, List<PendingMovement> movements) {
+        if (movements != null && !movements.isEmpty()) update.push(OUTBOX).each(movements.toArray());
+        return update;
+    }
+
+    private static List<String> movementIds(List<PendingMovement> movements) {
+        return movements == null ? List.of() : movements.stream().map(PendingMovement::getId).toList();
+    }
+
+    private static Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+}
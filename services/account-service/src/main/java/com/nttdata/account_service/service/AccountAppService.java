@@ -1,27 +1,27 @@
 package com.nttdata.account_service.service;
 
 import com.nttdata.account_service.domain.Account;
-import com.nttdata.account_service.domain.AccountType;
 import com.nttdata.account_service.repository.AccountRepository;
 import com.nttdata.account_service.service.AccountDomainService;
-import com.nttdata.account_service.service.TransactionClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 import java.math.BigDecimal;
-import java.time.YearMonth;
+import java.util.ConcurrentModificationException;
 import java.util.NoSuchElementException;
-import java.util.Objects;
 
 /**
  * Application service for Accounts.
  * - Exposes CRUD use cases
  * - Domain rules: min opening amount, VIP/PYME requirements (delegated to AccountDomainService)
- * - Deposit/Withdraw with free-transaction limit and per-transaction fee after the limit
- * - Records movements via TransactionClient (transaction-service)
+ * - Deposit/Withdraw with free-transaction limit and per-transaction fee after the limit,
+ *   decided from the account's own monthly movement counter (no remote count)
+ * - Movements are left in the account outbox in the same write as the balance change;
+ *   MovementOutboxRelay delivers them to transaction-service in batches
  *
  * Reactive, side-effect free (except persistence) and composable.
  */
@@ -32,7 +32,8 @@ public class AccountAppService {
 
     private final AccountRepository accountRepository;
     private final AccountDomainService domain;     // reglas de negocio parametrizadas (Parte II)
-    private final TransactionClient txClient;      // adapter WebClient hacia transaction-service
+
+    static final int MAX_MOVEMENT_RETRIES = 5;
 
     /* ---------------------------- CRUD ---------------------------- */
 
@@ -48,8 +49,8 @@ public class AccountAppService {
     public Mono<Account> create(Account input) {
         // reglas de dominio (mínimos, VIP/PYME, etc.)
         return domain.validateCreation(input)
-                .flatMap((Account -> accountRepository.save(Acount))
-                //.flatMap(accountRepository::save)
+                .doOnNext(a -> a.setOutbox(MovementPlan.opening(a.getBalance())))
+                .flatMap(accountRepository::save)
                 .doOnSuccess(a -> log.info("Account created: {}", a.getId()));
 
     }
@@ -57,12 +58,9 @@ public class AccountAppService {
     public Mono<Account> update(String id, Account patch) {
         return findById(id)
                 .flatMap(existing -> {
-                    // Campos permitidos a actualizar (ajusta según tu modelo)
-                    if (patch.getAccountType() != null) existing.setAccountType(patch.getAccountType());
-                    if (patch.getMaintenanceFee() != null) existing.setMaintenanceFee(patch.getMaintenanceFee());
-                    if (patch.getMonthlyMovementLimit() != null) existing.setMonthlyMovementLimit(patch.getMonthlyMovementLimit());
-                    // Por regla general, el balance no se parchea por update sino por operaciones (dep/with)
-                    return accountRepository.save(existing);
+                    // Solo campos de configuración; el balance no se parchea por update sino por operaciones (dep/with).
+                    // $set parcial: un save completo podría pisar el saldo/outbox de un movimiento concurrente
+                    return accountRepository.updateSettings(existing.getId(), patch);
                 })
                 .doOnSuccess(a -> log.info("Account updated: {}", a.getId()));
     }
@@ -76,66 +74,36 @@ public class AccountAppService {
     /* ----------------------- Movimientos -------------------------- */
 
     public Mono<Account> deposit(String accountId, BigDecimal amount) {
-        validateAmountPositive(amount, "amount must be > 0");
-
-        return accountRepository.findById(accountId)
-                .switchIfEmpty(Mono.error(new NoSuchElementException("Account not found: " + accountId)))
-                .flatMap(acc ->
-                        shouldChargeFeeThisMonth(acc)
-                                .flatMap(chargeFee -> {
-                                    BigDecimal fee = chargeFee ? domain.fee(acc.getAccountType()) : BigDecimal.ZERO;
-                                    BigDecimal newBalance = acc.getBalance().add(amount).subtract(fee);
-                                    if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
-                                        return Mono.error(new IllegalStateException("Resulting balance cannot be negative"));
-                                    }
-                                    acc.setBalance(newBalance);
-                                    return accountRepository.save(acc)
-                                            .then(txClient.recordDeposit(acc.getId(), amount, fee))
-                                            .thenReturn(acc);
-                                })
-                )
+        MovementPlan.validateAmount(amount);
+        return applyMovement(accountId, MovementPlan.DEPOSIT, amount)
                 .doOnSuccess(a -> log.info("Deposit ok. account={}, balance={}", a.getId(), a.getBalance()));
     }
 
     public Mono<Account> withdraw(String accountId, BigDecimal amount) {
-        validateAmountPositive(amount, "amount must be > 0");
-
-        return accountRepository.findById(accountId)
-                .switchIfEmpty(Mono.error(new NoSuchElementException("Account not found: " + accountId)))
-                .flatMap(acc ->
-                        shouldChargeFeeThisMonth(acc)
-                                .flatMap(chargeFee -> {
-                                    BigDecimal fee = chargeFee ? domain.fee(acc.getAccountType()) : BigDecimal.ZERO;
-                                    BigDecimal totalDebit = amount.add(fee);
-                                    if (acc.getBalance().compareTo(totalDebit) < 0) {
-                                        return Mono.error(new IllegalStateException("Insufficient funds"));
-                                    }
-                                    acc.setBalance(acc.getBalance().subtract(totalDebit));
-                                    return accountRepository.save(acc)
-                                            .then(txClient.recordWithdraw(acc.getId(), amount, fee))
-                                            .thenReturn(acc);
-                                })
-                )
+        MovementPlan.validateAmount(amount);
+        return applyMovement(accountId, MovementPlan.WITHDRAW, amount)
                 .doOnSuccess(a -> log.info("Withdraw ok. account={}, balance={}", a.getId(), a.getBalance()));
     }
 
     /* ----------------------- Helpers ------------------------------ */
 
     /**
-     * Decide si se cobra comisión según # de transacciones del mes en curso y el límite free por tipo de cuenta.
+     * Lee la cuenta, decide la comisión con el contador mensual local (MovementPlan) y aplica el movimiento
+     * (saldo + contador + outbox) en una sola escritura condicional. Si entre la lectura y la escritura
+     * otra operación agotó las gratuitas, el cupo o el saldo, o cambió el mes, se vuelve a leer y decidir.
      */
-    private Mono<Boolean> shouldChargeFeeThisMonth(Account acc) {
-        AccountType type = Objects.requireNonNull(acc.getAccountType(), "accountType is required");
-        int freeAllowed = domain.freeTransactions(type);
-
-        YearMonth ym = YearMonth.now();
-        return txClient.countAccountTransactionsThisMonth(acc.getId(), ym)
-                .map(count -> count >= freeAllowed);
-    }
-
-    private static void validateAmountPositive(BigDecimal amount, String message) {
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException(message);
-        }
+    private Mono<Account> applyMovement(String accountId, String operation, BigDecimal amount) {
+        return Mono.defer(() -> accountRepository.findById(accountId)
+                        .switchIfEmpty(Mono.error(new NoSuchElementException("Account not found: " + accountId)))
+                        .flatMap(acc -> {
+                            MovementPlan plan = MovementPlan.of(acc, operation, amount, domain);
+                            return accountRepository.applyMovement(acc, plan.period(), plan.countBelow(),
+                                            plan.delta(), plan.movements())
+                                    .switchIfEmpty(Mono.error(new ConcurrentModificationException(
+                                            "Account changed concurrently: " + accountId)));
+                        }))
+                .retryWhen(Retry.max(MAX_MOVEMENT_RETRIES)
+                        .filter(ConcurrentModificationException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
     }
 }
\ No newline at end of file
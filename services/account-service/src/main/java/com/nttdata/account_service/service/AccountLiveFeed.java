@@ -0,0 +1,243 @@
+package com.nttdata.account_service.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.reactivestreams.client.ChangeStreamPublisher;
+import com.nttdata.account_service.domain.Account;
+import com.nttdata.account_service.domain.PendingMovement;
+import com.nttdata.account_service.repository.AccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Saldo y movimientos en vivo de las cuentas (SSE), a partir de un único change stream de la
+ * colección "accounts" por instancia.
+ *
+ * - El change stream se abre con el primer suscriptor y se cierra con el último; si se corta, se
+ *   reabre desde el último resume token (con backoff).
+ * - Cada cambio se reparte en memoria solo a los suscriptores de esa cuenta.
+ * - Cada suscriptor tiene un buffer acotado (accounts.live.buffer); si se llena (cliente lento) se
+ *   le cierra el stream, sin frenar a los demás ni crecer sin límite. El cliente SSE reconecta y
+ *   vuelve a recibir el saldo actual.
+ * - Movimientos: los que entran al outbox de la cuenta, en la misma escritura que cambia el saldo.
+ *
+ * Los change streams requieren replica set; en local basta uno de un nodo
+ * (mongod --replSet rs0 y luego rs.initiate()).
+ */
+@Slf4j
+@Component
+public class AccountLiveFeed {
+
+    private static final String COLLECTION = "accounts";
+    private static final String OUTBOX = "outbox";
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final int SEEN_MOVEMENTS = 256;
+
+    private static final List<Bson> PIPELINE = List.of(
+            Aggregates.match(Filters.in("operationType", "update", "replace", "delete")));
+
+    private final ReactiveMongoTemplate mongo;
+    private final AccountRepository accounts;
+    private final int bufferSize;
+
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+    private Disposable watch;                    // protegido por synchronized (attach/detach)
+    private volatile BsonDocument resumeToken;
+
+    public AccountLiveFeed(ReactiveMongoTemplate mongo, AccountRepository accounts,
+                           @Value("${accounts.live.buffer:256}") int bufferSize) {
+        this.mongo = mongo;
+        this.accounts = accounts;
+        this.bufferSize = bufferSize;
+    }
+
+    /** Saldo actual y luego cada cambio de saldo o movimiento nuevo de la cuenta. */
+    public Flux<Update> subscribe(String accountId) {
+        return Flux.defer(() -> {
+            Sinks.Many<Update> sink = Sinks.many().unicast()
+                    .onBackpressureBuffer(Queues.<Update>get(bufferSize).get());
+            // suscrito antes de leer el saldo: un cambio posterior a la lectura queda en el buffer
+            Topic topic = attach(accountId, sink);
+            return accounts.findById(accountId)
+                    .switchIfEmpty(Mono.error(new NoSuchElementException("Account not found: " + accountId)))
+                    .map(a -> Update.balance(a.getId(), a.getBalance()))
+                    .concatWith(sink.asFlux())
+                    .doFinally(s -> detach(accountId, topic, sink));
+        });
+    }
+
+    private synchronized Topic attach(String accountId, Sinks.Many<Update> sink) {
+        Topic topic = topics.computeIfAbsent(accountId, id -> new Topic());
+        topic.sinks.add(sink);
+        if (watch == null) {
+            watch = changes().subscribe(this::dispatch,
+                    e -> log.error("Accounts change stream stopped: {}", e.getMessage()));
+        }
+        return topic;
+    }
+
+    private synchronized void detach(String accountId, Topic topic, Sinks.Many<Update> sink) {
+        topic.sinks.remove(sink);
+        if (topic.sinks.isEmpty()) topics.remove(accountId, topic);
+        if (topics.isEmpty() && watch != null) {
+            watch.dispose();
+            watch = null;
+            resumeToken = null;
+        }
+    }
+
+    private Flux<ChangeStreamDocument<Document>> changes() {
+        return Flux.defer(() -> mongo.getMongoDatabase().flatMapMany(db -> {
+                    ChangeStreamPublisher<Document> stream = db.getCollection(COLLECTION).watch(PIPELINE);
+                    BsonDocument token = resumeToken;
+                    return token == null ? stream : stream.resumeAfter(token);
+                }))
+                .doOnError(this::interrupted)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)));
+    }
+
+    private void interrupted(Throwable e) {
+        log.warn("Accounts change stream interrupted: {}", e.getMessage());
+        if (e instanceof MongoCommandException mce && mce.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+            // ya no se puede retomar sin perder cambios: se cierran los streams para que resincronicen
+            resumeToken = null;
+            topics.values().forEach(Topic::close);
+        }
+    }
+
+    private void dispatch(ChangeStreamDocument<Document> change) {
+        resumeToken = change.getResumeToken();
+        String accountId = idOf(change.getDocumentKey());
+        Topic topic = accountId == null ? null : topics.get(accountId);
+        if (topic == null) return;
+        try {
+            switch (change.getOperationType()) {
+                case DELETE -> topic.close();
+                case REPLACE -> {
+                    Document doc = change.getFullDocument();      // PUT de la cuenta (save completo)
+                    if (doc != null) {
+                        topic.emit(Update.balance(accountId, mongo.getConverter().read(Account.class, doc).getBalance()));
+                    }
+                }
+                case UPDATE -> updated(topic, accountId, change.getUpdateDescription().getUpdatedFields());
+                default -> { }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Account {} change not published: {}", accountId, e.getMessage());
+        }
+    }
+
+    /**
+     * Un $push al outbox llega como "outbox.N" (elemento nuevo) o, si el arreglo no existía, como
+     * "outbox" completo; el relay al retirar entregados también reescribe "outbox" completo. Por eso
+     * del arreglo completo solo se toman los movimientos no publicados y posteriores a la suscripción.
+     */
+    private void updated(Topic topic, String accountId, BsonDocument fields) {
+        if (fields == null) return;
+        for (Map.Entry<String, BsonValue> field : fields.entrySet()) {
+            String name = field.getKey();
+            if (name.equals(OUTBOX) && field.getValue().isArray()) {
+                for (BsonValue value : field.getValue().asArray()) {
+                    PendingMovement m = movement(value);
+                    if (m.getOccurredAt() == null || !m.getOccurredAt().isBefore(topic.since)) {
+                        topic.publishMovement(m);
+                    }
+                }
+            } else if (name.startsWith(OUTBOX + ".") && name.indexOf('.', OUTBOX.length() + 1) < 0
+                    && field.getValue().isDocument()) {
+                topic.publishMovement(movement(field.getValue()));
+            }
+        }
+        BsonValue balance = fields.get("balance");
+        if (balance != null) topic.emit(Update.balance(accountId, decimal(balance)));
+    }
+
+    private PendingMovement movement(BsonValue value) {
+        Document doc = new DocumentCodec().decode(value.asDocument().asBsonReader(), DecoderContext.builder().build());
+        return mongo.getConverter().read(PendingMovement.class, doc);
+    }
+
+    private static String idOf(BsonDocument key) {
+        BsonValue id = key == null ? null : key.get("_id");
+        if (id == null) return null;
+        if (id.isObjectId()) return id.asObjectId().getValue().toHexString();
+        return id.isString() ? id.asString().getValue() : null;
+    }
+
+    private static BigDecimal decimal(BsonValue value) {
+        if (value.isDecimal128()) return value.asDecimal128().getValue().bigDecimalValue();
+        if (value.isInt32() || value.isInt64()) return BigDecimal.valueOf(value.asNumber().longValue());
+        if (value.isDouble()) return BigDecimal.valueOf(value.asDouble().getValue());
+        return value.isString() ? new BigDecimal(value.asString().getValue()) : null;
+    }
+
+    /** Suscriptores de una cuenta. Lo que no sea alta/baja de suscriptores corre en el hilo del change stream. */
+    private final class Topic {
+        private final List<Sinks.Many<Update>> sinks = new CopyOnWriteArrayList<>();
+        private final Instant since = Instant.now();
+        private final Set<String> published = Collections.newSetFromMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > SEEN_MOVEMENTS;
+            }
+        });
+
+        void publishMovement(PendingMovement m) {
+            if (m.getId() == null || published.add(m.getId())) emit(new Update("movement", m));
+        }
+
+        void emit(Update update) {
+            List<Sinks.Many<Update>> slow = new ArrayList<>();
+            for (Sinks.Many<Update> sink : sinks) {
+                if (sink.tryEmitNext(update) == Sinks.EmitResult.FAIL_OVERFLOW) slow.add(sink);
+            }
+            for (Sinks.Many<Update> sink : slow) {
+                log.debug("Dropping slow live-feed subscriber ({} updates buffered)", bufferSize);
+                sinks.remove(sink);
+                sink.tryEmitComplete();     // recibe lo ya encolado y termina; el cliente reconecta
+            }
+        }
+
+        void close() {
+            sinks.forEach(Sinks.Many::tryEmitComplete);
+        }
+    }
+
+    /** Evento para el cliente: "balance" (Balance) o "movement" (PendingMovement). */
+    public record Update(String event, Object data) {
+        static Update balance(String accountId, BigDecimal balance) {
+            return new Update("balance", new Balance(accountId, balance));
+        }
+    }
+
+    public record Balance(String accountId, BigDecimal balance) { }
+}
@@ -0,0 +1,33 @@
+package com.nttdata.account_service.service;
+
+import com.nttdata.account_service.model.BankAccount;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Casos de uso de cuentas detrás de AccountController.
+ *
+ * - AccountService: cadenas reactivas sobre el driver reactivo (por defecto).
+ * - BlockingAccountService: código secuencial sobre el driver síncrono (perfil blocking, ver BlockingExecution).
+ */
+public interface AccountOperations {
+
+    Flux<BankAccount> findAll();
+
+    Mono<BankAccount> findById(String id);
+
+    Flux<BankAccount> findByCustomer(String customerId);
+
+    Mono<BankAccount> create(BankAccount a);
+
+    Mono<BankAccount> update(String id, BankAccount dto);
+
+    Mono<Void> delete(String id);
+
+    Mono<BankAccount> deposit(String id, BigDecimal amount);
+
+    /** Vacío si la cuenta no existe; IllegalStateException si no alcanza el saldo. */
+    Mono<BankAccount> withdraw(String id, BigDecimal amount);
+}
@@ -0,0 +1,172 @@
+package com.nttdata.account_service.service;
+
+import com.nttdata.account_service.domain.AccountType;
+import com.nttdata.account_service.domain.CustomerProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.BindHandler;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.handler.NoUnboundElementsBindHandler;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reglas de negocio de cuentas (rules.* en account-service.yml), compiladas en una tabla inmutable.
+ *
+ * - Se validan al cargar: cada AccountType debe tener valor, no hay montos negativos y una clave
+ *   desconocida (incluido un tipo o perfil que no existe) es un error. La tabla cubre todas las
+ *   combinaciones AccountType × CustomerProfile: ninguna consulta cae en un valor por defecto.
+ * - Al refrescar la configuración (POST /actuator/refresh) se compila una tabla nueva y se
+ *   reemplaza de una vez; si no es válida se registra el error y sigue la anterior.
+ * - Leer una regla es leer una referencia volatile y un EnumMap: sin locks ni objetos nuevos.
+ */
+@Slf4j
+@Component
+public class AccountRules {
+
+    static final String PREFIX = "rules";
+
+    private final Environment environment;
+    private volatile Table table;
+
+    public AccountRules(Environment environment) {
+        this.environment = environment;
+        this.table = compile(bind(environment));   // al arrancar, reglas inválidas impiden levantar el servicio
+    }
+
+    /** Tabla vigente; quien valida varias reglas juntas debe tomarla una vez y usar esa. */
+    public Table current() {
+        return table;
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().noneMatch(key -> key.startsWith(PREFIX + "."))) return;
+        try {
+            table = compile(bind(environment));
+            log.info("Account rules reloaded");
+        } catch (RuntimeException e) {
+            log.error("Account rules not reloaded, keeping previous ones: {}", e.getMessage());
+        }
+    }
+
+    static Properties bind(Environment environment) {
+        BindHandler strict = new NoUnboundElementsBindHandler(BindHandler.DEFAULT);
+        return Binder.get(environment)
+                .bind(PREFIX, Bindable.of(Properties.class), strict)
+                .orElseThrow(() -> new IllegalArgumentException("Missing account rules (" + PREFIX + ".*)"));
+    }
+
+    static Table compile(Properties p) {
+        if (p.opening() == null) throw new IllegalArgumentException(PREFIX + ".opening.minimum is required");
+        if (p.vip() == null) throw new IllegalArgumentException(PREFIX + ".vip is required");
+        if (p.pyme() == null) throw new IllegalArgumentException(PREFIX + ".pyme is required");
+
+        EnumMap<AccountType, Movement> byType = new EnumMap<>(AccountType.class);
+        for (AccountType type : AccountType.values()) {
+            Integer free = require(p.freeTransactions(), "freeTransactions", type);
+            if (free < 0) throw new IllegalArgumentException(PREFIX + ".freeTransactions." + type + " must be >= 0");
+            byType.put(type, new Movement(
+                    nonNegative(require(p.opening().minimum(), "opening.minimum", type), "opening.minimum." + type),
+                    free,
+                    nonNegative(require(p.transactionFee(), "transactionFee", type), "transactionFee." + type)));
+        }
+
+        BigDecimal vipMinDailyAvg = nonNegative(p.vip().minDailyAvg(), "vip.minDailyAvg");
+        BigDecimal pymeMaintenanceFee = nonNegative(p.pyme().maintenanceFee(), "pyme.maintenanceFee");
+        Set<AccountType> pymeTypes = EnumSet.noneOf(AccountType.class);
+        if (p.pyme().accountTypes() == null) pymeTypes.add(AccountType.CURRENT);
+        else pymeTypes.addAll(p.pyme().accountTypes());
+
+        EnumMap<CustomerProfile, Map<AccountType, Opening>> opening = new EnumMap<>(CustomerProfile.class);
+        for (CustomerProfile profile : CustomerProfile.values()) {
+            EnumMap<AccountType, Opening> row = new EnumMap<>(AccountType.class);
+            for (AccountType type : AccountType.values()) {
+                row.put(type, switch (profile) {
+                    case PERSONAL_VIP -> new Opening(true, orTrue(p.vip().requiresCreditCard()), vipMinDailyAvg, null);
+                    case BUSINESS_PYME -> new Opening(pymeTypes.contains(type), orTrue(p.pyme().requiresCreditCard()),
+                            null, pymeMaintenanceFee);
+                    case PERSONAL_STANDARD, BUSINESS_STANDARD -> Opening.UNRESTRICTED;
+                });
+            }
+            opening.put(profile, Collections.unmodifiableMap(row));
+        }
+        return new Table(byType, opening);
+    }
+
+    private static <T> T require(Map<AccountType, T> values, String key, AccountType type) {
+        T value = values == null ? null : values.get(type);
+        if (value == null) throw new IllegalArgumentException(PREFIX + "." + key + " has no value for " + type);
+        return value;
+    }
+
+    private static BigDecimal nonNegative(BigDecimal value, String key) {
+        if (value == null) throw new IllegalArgumentException(PREFIX + "." + key + " is required");
+        if (value.signum() < 0) throw new IllegalArgumentException(PREFIX + "." + key + " must be >= 0");
+        return value;
+    }
+
+    private static boolean orTrue(Boolean value) {
+        return value == null || value;
+    }
+
+    /** Reglas compiladas; nunca cambian (al refrescar se crea otra tabla). */
+    public static final class Table {
+        private final EnumMap<AccountType, Movement> byType;
+        private final EnumMap<CustomerProfile, Map<AccountType, Opening>> opening;
+
+        private Table(EnumMap<AccountType, Movement> byType, EnumMap<CustomerProfile, Map<AccountType, Opening>> opening) {
+            this.byType = byType;
+            this.opening = opening;
+        }
+
+        public Movement movement(AccountType type) {
+            return byType.get(type);
+        }
+
+        /** Sin perfil (cliente sin clasificar): sin requisitos adicionales, como un perfil estándar. */
+        public Opening opening(CustomerProfile profile, AccountType type) {
+            return profile == null ? Opening.UNRESTRICTED : opening.get(profile).get(type);
+        }
+    }
+
+    /**
+     * Reglas por tipo de cuenta.
+     *
+     * @param minimumOpening   saldo mínimo de apertura
+     * @param freeTransactions movimientos del mes sin comisión
+     * @param fee              comisión por movimiento después de los gratuitos
+     */
+    public record Movement(BigDecimal minimumOpening, int freeTransactions, BigDecimal fee) { }
+
+    /**
+     * Reglas de apertura por perfil de cliente y tipo de cuenta.
+     *
+     * @param minDailyAverage promedio diario mínimo del mes (null: sin requisito)
+     * @param maintenanceFee  comisión de mantenimiento que se fija a la cuenta (null: la del request)
+     */
+    public record Opening(boolean allowed, boolean requiresCreditCard, BigDecimal minDailyAverage,
+                          BigDecimal maintenanceFee) {
+        static final Opening UNRESTRICTED = new Opening(true, false, null, null);
+    }
+
+    /** Forma de rules.* en la configuración. */
+    record Properties(OpeningProperties opening, Map<AccountType, Integer> freeTransactions,
+                      Map<AccountType, BigDecimal> transactionFee, Vip vip, Pyme pyme) {
+
+        record OpeningProperties(Map<AccountType, BigDecimal> minimum) { }
+
+        record Vip(BigDecimal minDailyAvg, Boolean requiresCreditCard) { }
+
+        record Pyme(BigDecimal maintenanceFee, Boolean requiresCreditCard, Set<AccountType> accountTypes) { }
+    }
+}
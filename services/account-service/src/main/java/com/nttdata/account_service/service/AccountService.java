@@ -1,49 +1,97 @@
 package com.nttdata.account_service.service;
 
+import com.nttdata.account_service.domain.Account;
+import com.nttdata.account_service.domain.AccountType;
 import com.nttdata.account_service.model.BankAccount;
 import com.nttdata.account_service.repository.BankAccountRepository;
+import com.nttdata.changenotifier.ChangeNotifier;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.util.NoSuchElementException;
 
+/** Reactiva, sobre el driver reactivo; con el perfil blocking la reemplaza BlockingAccountService. */
+@Slf4j
 @Service @RequiredArgsConstructor
-public class AccountService {
+@Profile("!" + BlockingExecution.PROFILE)
+public class AccountService implements AccountOperations {
 
     private final BankAccountRepository repository;
+    private final ChangeNotifier changeNotifier; // invalida cachés de otros servicios
+    private final AccountAppService accounts;           // reglas de apertura y contador mensual (domain.Account)
 
-    public Flux<BankAccount> findAll() { return repository.findAll(); }
-    public Mono<BankAccount> findById(String id) { return repository.findById(id); }
-    public Mono<BankAccount> create(BankAccount a) {
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        repository.ensureCustomerIndex()
+                .subscribe(null, e -> log.warn("accounts customerId index not created: {}", e.getMessage()));
+    }
+
+    @Override public Flux<BankAccount> findAll() { return repository.findAll(); }
+    @Override public Mono<BankAccount> findById(String id) { return repository.findById(id); }
+    @Override public Flux<BankAccount> findByCustomer(String customerId) { return repository.findByCustomerId(customerId); }
+    /** Pasa por AccountAppService: mínimo de apertura y requisitos VIP/PYME (AccountDomainService). */
+    @Override public Mono<BankAccount> create(BankAccount a) {
         if (a.getBalance() == null) a.setBalance(BigDecimal.ZERO);
-        return repository.save(a);
+        return Mono.defer(() -> accounts.create(toAccount(a)))
+                .map(AccountService::view)
+                .flatMap(saved -> changeNotifier.changed(saved.getCustomerId()).thenReturn(saved));
     }
-    public Mono<BankAccount> update(String id, BankAccount dto) {
-        return repository.findById(id).flatMap(db -> {
-            db.setType(dto.getType());
-            db.setMaintenanceFee(dto.getMaintenanceFee());
-            db.setMonthlyMovementLimit(dto.getMonthlyMovementLimit());
-            return repository.save(db);
-        });
+    @Override public Mono<BankAccount> update(String id, BankAccount dto) {
+        return repository.updateSettings(id, dto)
+                .flatMap(saved -> changeNotifier.changed(saved.getCustomerId()).thenReturn(saved));
     }
-    public Mono<Void> delete(String id) { return repository.deleteById(id); }
-
-    public Mono<BankAccount> deposit(String id, BigDecimal amount) {
+    @Override public Mono<Void> delete(String id) {
         return repository.findById(id)
-                .flatMap(acc -> {
-                    acc.setBalance(acc.getBalance().add(amount));
-                    return repository.save(acc);
-                });
+                .flatMap(acc -> repository.delete(acc).then(changeNotifier.changed(acc.getCustomerId())));
     }
 
-    public Mono<BankAccount> withdraw(String id, BigDecimal amount) {
-        return repository.findById(id)
-                .flatMap(acc -> {
-                    if (acc.getBalance().compareTo(amount) < 0) return Mono.error(new IllegalStateException("Insufficient funds"));
-                    acc.setBalance(acc.getBalance().subtract(amount));
-                    return repository.save(acc);
-                });
+    /** Pasa por AccountAppService: comisión tras las operaciones gratuitas, límite SAVINGS y outbox. */
+    @Override public Mono<BankAccount> deposit(String id, BigDecimal amount) {
+        return accounts.deposit(id, amount).map(AccountService::view)
+                .onErrorResume(NoSuchElementException.class, e -> Mono.empty());
+    }
+
+    @Override public Mono<BankAccount> withdraw(String id, BigDecimal amount) {
+        return accounts.withdraw(id, amount).map(AccountService::view)
+                .onErrorResume(NoSuchElementException.class, e -> Mono.empty());
+    }
+
+    /** La cuenta recibida por AccountController como domain.Account; el tipo debe ser uno de AccountType. */
+    static Account toAccount(BankAccount a) {
+        AccountType type = null;
+        if (a.getType() != null) {
+            try {
+                type = AccountType.valueOf(a.getType());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported account type: " + a.getType());
+            }
+        }
+        return Account.builder()
+                .id(a.getId())
+                .customerId(a.getCustomerId())
+                .accountType(type)
+                .balance(a.getBalance())
+                .maintenanceFee(a.getMaintenanceFee())
+                .monthlyMovementLimit(a.getMonthlyMovementLimit())
+                .build();
+    }
+
+    /** La misma cuenta vista como model.BankAccount (lo que devuelve AccountController). */
+    static BankAccount view(Account a) {
+        return BankAccount.builder()
+                .id(a.getId())
+                .customerId(a.getCustomerId())
+                .type(a.getAccountType() == null ? null : a.getAccountType().name())
+                .balance(a.getBalance())
+                .maintenanceFee(a.getMaintenanceFee())
+                .monthlyMovementLimit(a.getMonthlyMovementLimit())
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package com.nttdata.account_service.service;
+
+import com.nttdata.account_service.repository.BankAccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Al arrancar, convierte a Decimal128 los saldos de cuentas creadas cuando balance se guardaba como
+ * texto: los débitos y abonos son $inc con guarda sobre el saldo, que no aplican a un saldo no
+ * decimal (la operación se rechaza, no se corrompe). Idempotente y seguro con varias instancias a la vez;
+ * si queda alguna cuenta sin convertir se informa para corregirla a mano.
+ *
+ * Se desactiva con accounts.balance-migration.enabled=false una vez migrada la base.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "accounts.balance-migration.enabled", matchIfMissing = true)
+public class BalanceMigration {
+
+    private final BankAccountRepository repository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void convertBalances() {
+        repository.convertBalancesToDecimal()
+                .doOnNext(converted -> { if (converted > 0) log.info("Account balances converted to Decimal128: {}", converted); })
+                .then(repository.countNonDecimalBalances())
+                .subscribe(left -> { if (left > 0) log.error("Accounts with a non-decimal balance left (not convertible): {}", left); },
+                        e -> log.warn("Account balances not migrated to Decimal128: {}", e.getMessage()));
+    }
+}
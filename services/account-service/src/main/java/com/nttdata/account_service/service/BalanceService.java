@@ -0,0 +1,49 @@
+package com.nttdata.account_service.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Saldo promedio diario del mes en curso, leído del reporte de transaction-service
+ * (proyección daily_balances). Lo usa la regla VIP al abrir una cuenta.
+ */
+@Component
+public class BalanceService {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(3);
+
+    private final WebClient webClient;
+
+    public BalanceService(WebClient.Builder builder,
+                          @Value("${services.transaction.base-url:http://localhost:8085}") String baseUrl) {
+        this.webClient = builder.baseUrl(baseUrl).build();
+    }
+
+    /**
+     * Promedio diario del mes hasta hoy: el de {@code accountId} si ya tiene movimientos; si no (cuenta
+     * aún no creada), la suma de los promedios de todos los productos del cliente.
+     */
+    public Mono<BigDecimal> monthToDateDailyAverage(String customerId, String accountId) {
+        return webClient.get()
+                .uri("/api/v1/reports/customers/{id}/daily-balance", customerId)
+                .retrieve()
+                .bodyToFlux(DailyAverage.class)
+                .timeout(TIMEOUT)
+                .collectList()
+                .map(rows -> rows.stream()
+                        .filter(r -> accountId != null && accountId.equals(r.productId()))
+                        .map(DailyAverage::averageDailyBalance)
+                        .findFirst()
+                        .orElseGet(() -> rows.stream()
+                                .map(DailyAverage::averageDailyBalance)
+                                .filter(avg -> avg != null)
+                                .reduce(BigDecimal.ZERO, BigDecimal::add)));
+    }
+
+    record DailyAverage(String productId, String productType, BigDecimal averageDailyBalance) { }
+}
@@ -0,0 +1,91 @@
+package com.nttdata.account_service.service;
+
+import com.nttdata.account_service.domain.Account;
+import com.nttdata.account_service.model.BankAccount;
+import com.nttdata.account_service.repository.BlockingAccountRepository;
+import com.nttdata.changenotifier.ChangeNotifier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ConcurrentModificationException;
+
+/** AccountService en modo bloqueante (perfil blocking): mismas operaciones, en orden y en un solo hilo. */
+@Slf4j
+@Service @RequiredArgsConstructor
+@Profile(BlockingExecution.PROFILE)
+public class BlockingAccountService implements AccountOperations {
+
+    private final BlockingAccountRepository repository;
+    private final ChangeNotifier changeNotifier; // invalida cachés de otros servicios
+    private final BlockingExecution execution;
+    private final AccountDomainService domain;   // reglas de apertura, comisiones y límites por tipo
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        execution.run(repository::ensureCustomerIndex)
+                .subscribe(null, e -> log.warn("accounts customerId index not created: {}", e.getMessage()));
+    }
+
+    @Override public Flux<BankAccount> findAll() { return execution.flux(repository::findAll); }
+    @Override public Mono<BankAccount> findById(String id) { return execution.mono(() -> repository.findById(id)); }
+    @Override public Flux<BankAccount> findByCustomer(String customerId) {
+        return execution.flux(() -> repository.findByCustomerId(customerId));
+    }
+    /** Ver AccountService#create: las reglas se validan antes de pasar al hilo bloqueante. */
+    @Override public Mono<BankAccount> create(BankAccount a) {
+        if (a.getBalance() == null) a.setBalance(BigDecimal.ZERO);
+        return Mono.defer(() -> domain.validateCreation(AccountService.toAccount(a)))
+                .flatMap(valid -> execution.mono(() -> {
+                    valid.setOutbox(MovementPlan.opening(valid.getBalance()));
+                    BankAccount saved = AccountService.view(repository.saveAccount(valid));
+                    changeNotifier.changed(saved.getCustomerId()).block();
+                    return saved;
+                }));
+    }
+    @Override public Mono<BankAccount> update(String id, BankAccount dto) {
+        return execution.mono(() -> {
+            BankAccount saved = repository.updateSettings(id, dto);
+            if (saved != null) changeNotifier.changed(saved.getCustomerId()).block();
+            return saved;
+        });
+    }
+    @Override public Mono<Void> delete(String id) {
+        return execution.run(() -> {
+            BankAccount acc = repository.findById(id);
+            if (acc == null) return;
+            repository.delete(acc);
+            changeNotifier.changed(acc.getCustomerId()).block();
+        });
+    }
+
+    /** Ver AccountService#deposit. */
+    @Override public Mono<BankAccount> deposit(String id, BigDecimal amount) {
+        MovementPlan.validateAmount(amount);
+        return execution.mono(() -> applyMovement(id, MovementPlan.DEPOSIT, amount));
+    }
+
+    @Override public Mono<BankAccount> withdraw(String id, BigDecimal amount) {
+        MovementPlan.validateAmount(amount);
+        return execution.mono(() -> applyMovement(id, MovementPlan.WITHDRAW, amount));
+    }
+
+    /** Ver AccountAppService#applyMovement: se vuelve a leer y decidir si el plan dejó de valer. */
+    private BankAccount applyMovement(String id, String operation, BigDecimal amount) {
+        for (int attempt = 0; attempt <= AccountAppService.MAX_MOVEMENT_RETRIES; attempt++) {
+            Account acc = repository.findAccount(id);
+            if (acc == null) return null;
+            MovementPlan plan = MovementPlan.of(acc, operation, amount, domain);
+            Account updated = repository.applyMovement(acc, plan.period(), plan.countBelow(),
+                    plan.delta(), plan.movements());
+            if (updated != null) return AccountService.view(updated);
+        }
+        throw new ConcurrentModificationException("Account changed concurrently: " + id);
+    }
+}
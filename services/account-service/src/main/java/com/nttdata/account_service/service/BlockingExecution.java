@@ -0,0 +1,54 @@
+package com.nttdata.account_service.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Modo de ejecución bloqueante (perfil blocking): BlockingAccountService y BlockingTransferService
+ * escriben cada caso de uso como código secuencial (driver síncrono de Mongo, RestClient) y lo corren
+ * entero en un hilo de applicationTaskExecutor. Los controladores no cambian: reciben Mono/Flux.
+ *
+ * - Java 21+ con spring.threads.virtual.enabled=true: un hilo virtual por petición.
+ * - Java 17: la propiedad se ignora y es un pool de hilos de plataforma (spring.task.execution.pool.*);
+ *   las peticiones por encima del pool esperan en su cola.
+ *
+ * Los stack traces y perfiles de asignación muestran el caso de uso completo en un solo hilo.
+ */
+@Component
+@Profile(BlockingExecution.PROFILE)
+public class BlockingExecution {
+
+    public static final String PROFILE = "blocking";
+
+    private final Scheduler scheduler;
+
+    public BlockingExecution(@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor) {
+        // trampolín: las tareas de una misma suscripción (p. ej. cada request de un Flux) corren en orden
+        this.scheduler = Schedulers.fromExecutor(executor, true);
+    }
+
+    /** {@code call} en un hilo del executor; null se emite como vacío. */
+    <T> Mono<T> mono(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(scheduler);
+    }
+
+    Mono<Void> run(Runnable action) {
+        return Mono.<Void>fromRunnable(action).subscribeOn(scheduler);
+    }
+
+    /** Recorre el stream (p. ej. un cursor de Mongo) en hilos del executor y lo cierra al terminar o cancelar. */
+    <T> Flux<T> flux(Supplier<Stream<? extends T>> stream) {
+        return Flux.fromStream(stream).subscribeOn(scheduler);
+    }
+}
@@ -0,0 +1,136 @@
+package com.nttdata.account_service.service;
+
+import com.nttdata.account_service.domain.Account;
+import com.nttdata.account_service.repository.BlockingAccountRepository;
+import com.nttdata.account_service.service.TransferService.ChunkPlan;
+import com.nttdata.account_service.service.TransferService.CustomerRule;
+import com.nttdata.account_service.service.TransferService.Reversal;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * TransferService en modo bloqueante (perfil blocking): el mismo débito condicionado, abono y
+ * reverso, y el mismo lote por bloques (ChunkPlan), escritos en secuencia sobre el driver síncrono.
+ */
+@Slf4j
+@Service
+@Profile(BlockingExecution.PROFILE)
+@RequiredArgsConstructor
+public class BlockingTransferService implements TransferOperations {
+
+    private final BlockingAccountRepository accountRepo;
+    private final BlockingExecution execution;
+
+    @Override
+    public Mono<Void> transferSameCustomer(String fromId, String toId, BigDecimal amount) {
+        return execution.run(() -> transfer(fromId, toId, amount, CustomerRule.SAME));
+    }
+
+    @Override
+    public Mono<Void> transferThirdParty(String fromId, String toId, BigDecimal amount) {
+        return execution.run(() -> transfer(fromId, toId, amount, CustomerRule.OTHER));
+    }
+
+    /** El cuerpo llega como stream: se agrupa en bloques y cada bloque se procesa en un hilo del executor. */
+    @Override
+    public Flux<BatchResult> transferBatch(Flux<BatchItem> items) {
+        return items.index()
+                .buffer(TransferService.BATCH_CHUNK)
+                .concatMap(chunk -> execution.mono(() -> processChunk(chunk)).flatMapIterable(results -> results));
+    }
+
+    private List<BatchResult> processChunk(List<Tuple2<Long, BatchItem>> chunk) {
+        Map<String, Account> accounts = new HashMap<>();
+        for (Account a : accountRepo.findAccounts(ChunkPlan.accountIds(chunk))) accounts.put(a.getId(), a);
+
+        ChunkPlan plan = ChunkPlan.of(chunk, accounts);
+        if (plan.movements().isEmpty()) return plan.results();
+        Set<String> missing = accountRepo.applyNetDeltas(UUID.randomUUID().toString(), plan.net(), plan.movements());
+        if (missing != null) {
+            if (missing.isEmpty()) return plan.results();
+            plan.reversals(missing).forEach(this::undo);
+            return plan.resultsWithout(missing);
+        }
+        log.info("Batch chunk of {} transfers hit a concurrent debit, retrying one by one", chunk.size());
+        List<BatchResult> results = new ArrayList<>(chunk.size());
+        for (Tuple2<Long, BatchItem> t : chunk) {
+            BatchItem it = t.getT2();
+            try {
+                transfer(it.fromAccountId(), it.toAccountId(), it.amount(), CustomerRule.of(it.scope()));
+                results.add(BatchResult.applied(t.getT1(), it));
+            } catch (RuntimeException e) {
+                results.add(BatchResult.rejected(t.getT1(), it, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /** Ver TransferService#undo. */
+    private void undo(Reversal r) {
+        try {
+            if (accountRepo.adjustBalance(r.accountId(), r.delta(), null, r.movement()) == null) {
+                log.error("Batch transfer not undone on {}: {} (insufficient funds)", r.accountId(), r.delta());
+            }
+        } catch (RuntimeException e) {
+            log.error("Batch transfer not undone on {}: {}: {}", r.accountId(), r.delta(), e.getMessage());
+        }
+    }
+
+    private void transfer(String fromId, String toId, BigDecimal amount, CustomerRule rule) {
+        if (amount == null || amount.signum() <= 0) throw new IllegalArgumentException("amount must be > 0");
+
+        Account to = findAccount(toId);
+        Account from = accountRepo.adjustBalance(fromId, amount.negate(), rule.criteria(to),
+                TransferService.transferOut(toId, amount));
+        // solo en el camino de error: se relee el origen para explicar por qué no se aplicó el débito
+        if (from == null) throw rule.rejection(findAccount(fromId), to);
+
+        Account credited;
+        try {
+            credited = accountRepo.adjustBalance(to.getId(), amount, null, TransferService.transferIn(fromId, amount));
+        } catch (RuntimeException e) {
+            reverse(fromId, to.getId(), amount);
+            throw e;
+        }
+        if (credited == null) {
+            // el destino desapareció tras el débito: se devuelve el dinero al origen
+            reverse(fromId, to.getId(), amount);
+            throw new NoSuchElementException("Account not found: " + to.getId());
+        }
+    }
+
+    /** Ver TransferService#reverse. */
+    private void reverse(String fromId, String toId, BigDecimal amount) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                accountRepo.adjustBalance(fromId, amount, null, TransferService.reversal(toId, amount));
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == TransferService.REVERSAL_RETRIES) {
+                    log.error("Transfer {} -> {} of {}: debit not reversed: {}", fromId, toId, amount, e.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+
+    private Account findAccount(String id) {
+        Account account = accountRepo.findAccount(id);
+        if (account == null) throw new NoSuchElementException("Account not found: " + id);
+        return account;
+    }
+}
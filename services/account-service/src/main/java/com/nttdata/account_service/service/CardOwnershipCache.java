@@ -0,0 +1,49 @@
+package com.nttdata.account_service.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Caché de "el cliente tiene al menos una tarjeta" delante de ExternalCardClient.
+ *
+ * Solo se guardan respuestas positivas: un cliente sin tarjeta puede sacar una en cualquier momento
+ * y debe poder abrir su cuenta VIP/PYME enseguida. card-service avisa al eliminar una tarjeta (evict);
+ * el TTL acota el caso en que ese aviso se pierda. Mismo esquema que CustomerProfileCache.
+ */
+@Slf4j
+@Component
+public class CardOwnershipCache {
+
+    static final String CACHE_NAME = "cardOwners";
+
+    private final AsyncLoadingCache<String, Boolean> cache;
+
+    public CardOwnershipCache(ExternalCardClient client, MeterRegistry registry,
+                              @Value("${cards.cache.max-size:10000}") long maxSize,
+                              @Value("${cards.cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                // false -> null: no se cachea
+                .buildAsync((id, executor) -> client.hasAnyCard(id).filter(Boolean::booleanValue).toFuture());
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    public Mono<Boolean> hasAnyCard(String customerId) {
+        return Mono.fromFuture(cache.get(customerId), true).defaultIfEmpty(false);
+    }
+
+    public void evict(String customerId) {
+        cache.synchronous().invalidate(customerId);
+        log.debug("Customer {} evicted from {}", customerId, CACHE_NAME);
+    }
+}
\ No newline at end of file
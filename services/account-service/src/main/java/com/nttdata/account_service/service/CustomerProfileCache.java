@@ -0,0 +1,52 @@
+package com.nttdata.account_service.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nttdata.account_service.service.ExternalCustomerClient.CustomerInfo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Near-cache de clientes (perfil) delante de ExternalCustomerClient.
+ *
+ * - Acotado en tamaño y con TTL: el perfil casi no cambia y customer-service avisa cambios (evict).
+ * - Cargas concurrentes del mismo cliente comparten una única llamada remota (p. ej. aperturas
+ *   masivas de un mismo cliente empresarial).
+ * - Solo se guardan respuestas encontradas; un error o un cliente inexistente no se cachean.
+ * - Métricas: cache.gets{cache=customerProfiles,result=hit|miss}, cache.evictions, cache.size...
+ */
+@Slf4j
+@Component
+public class CustomerProfileCache {
+
+    static final String CACHE_NAME = "customerProfiles";
+
+    private final AsyncLoadingCache<String, CustomerInfo> cache;
+
+    public CustomerProfileCache(ExternalCustomerClient client, MeterRegistry registry,
+                                @Value("${customers.cache.max-size:10000}") long maxSize,
+                                @Value("${customers.cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync((id, executor) -> client.findById(id).toFuture());
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    public Mono<CustomerInfo> findById(String customerId) {
+        // suppressCancel: si quien pidió primero cancela, la carga sigue para los demás que la esperan
+        return Mono.fromFuture(cache.get(customerId), true);
+    }
+
+    public void evict(String customerId) {
+        cache.synchronous().invalidate(customerId);
+        log.debug("Customer {} evicted from {}", customerId, CACHE_NAME);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.nttdata.account_service.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Adapter WebClient hacia card-service. No cachea: AccountDomainService lo usa a través de
+ * CardOwnershipCache.
+ */
+@Component
+public class ExternalCardClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(3);
+
+    private final WebClient webClient;
+
+    public ExternalCardClient(WebClient.Builder builder,
+                              @Value("${services.card.base-url:http://localhost:8084}") String baseUrl) {
+        this.webClient = builder.baseUrl(baseUrl).build();
+    }
+
+    /** Consulta indexada por customerId en card-service (no lista tarjetas). */
+    public Mono<Boolean> hasAnyCard(String customerId) {
+        return webClient.get()
+                .uri("/api/v1/cards/customers/{id}/exists", customerId)
+                .retrieve()
+                .bodyToMono(Boolean.class)
+                .timeout(TIMEOUT);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.nttdata.account_service.service;
+
+import com.nttdata.account_service.domain.CustomerProfile;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Adapter WebClient hacia customer-service. No cachea: AccountDomainService lo usa a través de
+ * CustomerProfileCache.
+ */
+@Component
+public class ExternalCustomerClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(3);
+
+    private final WebClient webClient;
+
+    public ExternalCustomerClient(WebClient.Builder builder,
+                                  @Value("${services.customer.base-url:http://localhost:8081}") String baseUrl) {
+        this.webClient = builder.baseUrl(baseUrl).build();
+    }
+
+    /** @return el cliente, o vacío si customer-service no lo conoce */
+    public Mono<CustomerInfo> findById(String customerId) {
+        return webClient.get()
+                .uri("/api/v1/customers/{id}", customerId)
+                .retrieve()
+                .onStatus(s -> s == HttpStatus.NOT_FOUND, r -> Mono.empty())
+                .bodyToMono(CustomerInfo.class)
+                .timeout(TIMEOUT);
+    }
+
+    /** Lo que account-service necesita del cliente. */
+    @Data
+    public static class CustomerInfo {
+        private String id;
+        private String type;              // PERSONAL | BUSINESS (EMPRESARIAL)
+        private CustomerProfile profile;
+
+        /** Sin perfil informado se asume el estándar de su tipo. */
+        public CustomerProfile getProfile() {
+            if (profile != null) return profile;
+            return "BUSINESS".equalsIgnoreCase(type) || "EMPRESARIAL".equalsIgnoreCase(type)
+                    ? CustomerProfile.BUSINESS_STANDARD
+                    : CustomerProfile.PERSONAL_STANDARD;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.nttdata.account_service.service;
+
+import com.nttdata.account_service.domain.Account;
+import com.nttdata.account_service.domain.PendingMovement;
+import com.nttdata.account_service.repository.AccountRepository;
+import com.nttdata.account_service.service.TransactionService.MovementRecord;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Relay del outbox: entrega a transaction-service, en bloque, los movimientos que las
+ * operaciones de saldo dejaron en las cuentas, y los retira una vez confirmados.
+ *
+ * Orden por cuenta: todos los pendientes de una cuenta viajan juntos y en el orden en que se
+ * generaron; si el envío falla no se retira ninguno y se reintenta en la siguiente pasada.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MovementOutboxRelay {
+
+    private static final String FEE = "FEE";
+
+    private final AccountRepository accountRepository;
+    private final TransactionService txService;
+
+    @Value("${outbox.relay.batch-accounts:200}")
+    private int batchAccounts;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndex() {
+        accountRepository.ensureOutboxIndex()
+                .subscribe(null, e -> log.warn("Outbox index not created: {}", e.getMessage()));
+    }
+
+    /** Vacía el outbox por bloques hasta dejarlo al día. Corre en el hilo del scheduler, no en el event loop. */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:1000}")
+    public void drain() {
+        try {
+            Integer accounts;
+            do {
+                accounts = drainOnce().block();
+            } while (accounts != null && accounts == batchAccounts);
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay: delivery failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    /** @return cantidad de cuentas atendidas en esta pasada */
+    Mono<Integer> drainOnce() {
+        return accountRepository.findWithPendingMovements(batchAccounts)
+                .collectList()
+                .flatMap(accounts -> {
+                    if (accounts.isEmpty()) return Mono.just(0);
+
+                    List<MovementRecord> records = new ArrayList<>();
+                    Map<String, List<String>> delivered = new LinkedHashMap<>();
+                    for (Account acc : accounts) {
+                        List<String> ids = delivered.computeIfAbsent(acc.getId(), k -> new ArrayList<>());
+                        for (PendingMovement m : acc.getOutbox()) {
+                            records.add(toRecord(acc, m));
+                            ids.add(m.getId());
+                        }
+                    }
+
+                    return txService.record(records)
+                            .retryWhen(Retry.backoff(3, Duration.ofMillis(200)))
+                            .then(accountRepository.acknowledge(delivered))
+                            .doOnSuccess(v -> log.debug("Outbox relay: {} movements from {} accounts delivered",
+                                    records.size(), accounts.size()))
+                            .thenReturn(accounts.size());
+                });
+    }
+
+    private static MovementRecord toRecord(Account acc, PendingMovement m) {
+        BigDecimal commission = FEE.equals(m.getOperation()) ? m.getAmount() : BigDecimal.ZERO;
+        return new MovementRecord(m.getId(), acc.getId(), "ACCOUNT", acc.getCustomerId(), m.getOperation(),
+                m.getAmount(), commission, LocalDateTime.ofInstant(m.getOccurredAt(), ZoneId.systemDefault()),
+                m.getDescription());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.nttdata.account_service.service;
+
+import com.nttdata.account_service.domain.Account;
+import com.nttdata.account_service.domain.AccountType;
+import com.nttdata.account_service.domain.PendingMovement;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Lo que un depósito o retiro le hace a una cuenta leída: la comisión sale del contador mensual
+ * local (free transactions por tipo), el límite mensual de SAVINGS se aplica antes de decidir y
+ * los movimientos a registrar (la operación y, si aplica, su comisión) van al outbox.
+ *
+ * Se decide sobre {@code observed}; la decisión sigue valiendo mientras el contador esté por debajo
+ * de {@code countBelow} (null: sin tope). Quien lo aplica lo condiciona a eso
+ * (ver AccountMovementRepository#applyMovement) y vuelve a planificar si dejó de valer.
+ */
+record MovementPlan(YearMonth period, Integer countBelow, BigDecimal delta, List<PendingMovement> movements) {
+
+    static final String DEPOSIT = "DEPOSIT";
+    static final String WITHDRAW = "WITHDRAW";
+
+    static MovementPlan of(Account observed, String operation, BigDecimal amount, AccountDomainService domain) {
+        YearMonth ym = YearMonth.now();
+        int done = movementsIn(observed, ym);
+        checkMovementLimit(observed, done);
+
+        AccountType type = Objects.requireNonNull(observed.getAccountType(), "accountType is required");
+        int freeTransactions = domain.freeTransactions(type);
+        boolean free = done < freeTransactions;
+        BigDecimal fee = free ? BigDecimal.ZERO : domain.fee(type);
+        BigDecimal balance = observed.getBalance() == null ? BigDecimal.ZERO : observed.getBalance();
+
+        BigDecimal delta;
+        if (DEPOSIT.equals(operation)) {
+            delta = amount.subtract(fee);
+            if (balance.add(delta).signum() < 0) {
+                throw new IllegalStateException("Resulting balance cannot be negative");
+            }
+        } else if (WITHDRAW.equals(operation)) {
+            BigDecimal totalDebit = amount.add(fee);
+            if (balance.compareTo(totalDebit) < 0) throw new IllegalStateException("Insufficient funds");
+            delta = totalDebit.negate();
+        } else {
+            throw new IllegalArgumentException("Unsupported operation: " + operation);
+        }
+        // gratis solo mientras no se agoten las operaciones gratuitas; en SAVINGS, mientras quede cupo
+        Integer countBelow = free ? freeTransactions : null;
+        Integer limit = savingsLimit(observed);
+        if (limit != null) countBelow = countBelow == null ? limit : Math.min(countBelow, limit);
+        return new MovementPlan(ym, countBelow, delta, movements(operation, amount, fee));
+    }
+
+    /**
+     * Saldo inicial de una cuenta nueva como DEPOSIT en su outbox: transaction-service lo recibe como
+     * primer movimiento, así la proyección de saldos diarios no parte de 0.
+     */
+    static List<PendingMovement> opening(BigDecimal balance) {
+        if (balance == null || balance.signum() <= 0) return new ArrayList<>();
+        return new ArrayList<>(List.of(PendingMovement.of(DEPOSIT, balance, "Opening deposit")));
+    }
+
+    static void validateAmount(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) throw new IllegalArgumentException("amount must be > 0");
+    }
+
+    /** Movimientos a registrar en transaction-service (vía outbox): la operación y, si aplica, su comisión. */
+    private static List<PendingMovement> movements(String operation, BigDecimal amount, BigDecimal fee) {
+        PendingMovement main = PendingMovement.of(operation, amount, null);
+        if (fee.signum() == 0) return List.of(main);
+        return List.of(main, PendingMovement.of("FEE", fee, "Commission on " + operation.toLowerCase()));
+    }
+
+    /** Movimientos ya realizados en el mes {@code ym} según el contador de la cuenta. */
+    private static int movementsIn(Account acc, YearMonth ym) {
+        if (!ym.toString().equals(acc.getMovementPeriod()) || acc.getMovementCount() == null) return 0;
+        return acc.getMovementCount();
+    }
+
+    /** Las cuentas de ahorro tienen un máximo de movimientos mensuales. */
+    private static void checkMovementLimit(Account acc, int done) {
+        Integer limit = savingsLimit(acc);
+        if (limit != null && done >= limit) {
+            throw new IllegalStateException("Monthly movement limit reached: " + limit);
+        }
+    }
+
+    private static Integer savingsLimit(Account acc) {
+        return acc.getAccountType() == AccountType.SAVINGS ? acc.getMonthlyMovementLimit() : null;
+    }
+}
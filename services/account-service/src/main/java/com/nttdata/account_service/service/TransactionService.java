@@ -0,0 +1,45 @@
+package com.nttdata.account_service.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Adapter WebClient hacia transaction-service. Lo usa el relay del outbox para entregar
+ * movimientos en bloque; el id de cada movimiento se envía como id de la transacción,
+ * por lo que reenviar un bloque no genera duplicados.
+ */
+@Service
+public class TransactionService {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final WebClient webClient;
+
+    public TransactionService(WebClient.Builder builder,
+                              @Value("${services.transaction.base-url:http://localhost:8085}") String baseUrl) {
+        this.webClient = builder.baseUrl(baseUrl).build();
+    }
+
+    public Mono<Void> record(List<MovementRecord> movements) {
+        if (movements.isEmpty()) return Mono.empty();
+        return webClient.post()
+                .uri("/api/v1/transactions/batch")
+                .bodyValue(movements)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(TIMEOUT)
+                .then();
+    }
+
+    /** Cuerpo de cada transacción; occurredAt en hora local, como la guarda transaction-service. */
+    public record MovementRecord(String id, String productId, String productType, String customerId, String type,
+                                 BigDecimal amount, BigDecimal commission, LocalDateTime occurredAt,
+                                 String description) { }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.nttdata.account_service.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Casos de uso de transferencias detrás de TransferController.
+ *
+ * - TransferService: cadenas reactivas sobre el driver reactivo (por defecto).
+ * - BlockingTransferService: código secuencial sobre el driver síncrono (perfil blocking, ver BlockingExecution).
+ */
+public interface TransferOperations {
+
+    Mono<Void> transferSameCustomer(String fromId, String toId, BigDecimal amount);
+
+    Mono<Void> transferThirdParty(String fromId, String toId, BigDecimal amount);
+
+    /** Un resultado por transferencia, en el mismo orden en que llegaron. */
+    Flux<BatchResult> transferBatch(Flux<BatchItem> items);
+
+    /** Titularidad exigida a una transferencia del lote: como /own, como /third-party, o ninguna. */
+    enum Scope { OWN, THIRD_PARTY, ANY }
+
+    record BatchItem(String fromAccountId, String toAccountId, BigDecimal amount, Scope scope) { }
+
+    record BatchResult(long index, String fromAccountId, String toAccountId, BigDecimal amount,
+                       String status, String error) {
+
+        static BatchResult applied(long index, BatchItem it) {
+            return new BatchResult(index, it.fromAccountId(), it.toAccountId(), it.amount(), "APPLIED", null);
+        }
+
+        static BatchResult rejected(long index, BatchItem it, String error) {
+            return new BatchResult(index, it.fromAccountId(), it.toAccountId(), it.amount(), "REJECTED", error);
+        }
+    }
+}
@@ -1,55 +1,295 @@
 package com.nttdata.account_service.service;
 
 import com.nttdata.account_service.domain.Account;
+import com.nttdata.account_service.domain.PendingMovement;
 import com.nttdata.account_service.repository.AccountRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.retry.Retry;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 
+/**
+ * Transferencias entre cuentas.
+ * El débito es un único $inc condicionado (saldo suficiente y regla de cliente), por lo que
+ * dos transferencias concurrentes sobre la misma cuenta no pisan sus saldos.
+ * Cada débito/abono deja su movimiento en el outbox de la cuenta (ver MovementOutboxRelay).
+ * Con el perfil blocking la reemplaza BlockingTransferService, que reutiliza las reglas de aquí.
+ */
+@Slf4j
 @Service
+@Profile("!" + BlockingExecution.PROFILE)
 @RequiredArgsConstructor
-public class TransferService {
+public class TransferService implements TransferOperations {
+
+    /** Transferencias por bloque en el endpoint batch (una lectura + un bulk write por bloque). */
+    static final int BATCH_CHUNK = 500;
+
+    static final int REVERSAL_RETRIES = 3;
 
     private final AccountRepository accountRepo;
-    private final TransactionService txService; // registra movimientos
 
+    @Override
     public Mono<Void> transferSameCustomer(String fromId, String toId, BigDecimal amount) {
-        return Mono.zip(accountRepo.findById(fromId), accountRepo.findById(toId))
-                .flatMap(tuple -> {
-                    Account from = tuple.getT1(); Account to = tuple.getT2();
-                    if (!from.getCustomerId().equals(to.getCustomerId())) {
-                        return Mono.error(new IllegalArgumentException("Accounts belong to different customers"));
-                    }
-                    if (from.getBalance().compareTo(amount) < 0) {
-                        return Mono.error(new IllegalStateException("Insufficient funds"));
-                    }
-                    from.setBalance(from.getBalance().subtract(amount));
-                    to.setBalance(to.getBalance().add(amount));
-                    return accountRepo.save(from)
-                            .then(accountRepo.save(to))
-                            .then(txService.recordTransfer(from.getId(), to.getId(), amount))
-                            .then();
-                });
+        return transfer(fromId, toId, amount, CustomerRule.SAME);
     }
 
+    @Override
     public Mono<Void> transferThirdParty(String fromId, String toId, BigDecimal amount) {
-        return Mono.zip(accountRepo.findById(fromId), accountRepo.findById(toId))
-                .flatMap(tuple -> {
-                    Account from = tuple.getT1(); Account to = tuple.getT2();
-                    if (from.getCustomerId().equals(to.getCustomerId())) {
-                        return Mono.error(new IllegalArgumentException("Use /own for same customer"));
-                    }
-                    if (from.getBalance().compareTo(amount) < 0) {
-                        return Mono.error(new IllegalStateException("Insufficient funds"));
-                    }
-                    from.setBalance(from.getBalance().subtract(amount));
-                    to.setBalance(to.getBalance().add(amount));
-                    return accountRepo.save(from)
-                            .then(accountRepo.save(to))
-                            .then(txService.recordTransfer(from.getId(), to.getId(), amount))
-                            .then();
+        return transfer(fromId, toId, amount, CustomerRule.OTHER);
+    }
+
+    /**
+     * Transferencias en lote (nóminas, proveedores), con un resultado por transferencia en el mismo orden.
+     * Por bloque: una sola lectura de las cuentas involucradas, validación en orden en memoria (saldo y
+     * scope de cada transferencia), un bulk write con el neto por cuenta (que deja también los
+     * movimientos en el outbox). Si el bulk no puede aplicarse (otra operación consumió el saldo
+     * entretanto) el bloque se procesa transferencia por transferencia, con la misma regla de cada una.
+     * Si una cuenta a abonar se borró antes del abono, sus transferencias se deshacen y se rechazan.
+     */
+    @Override
+    public Flux<BatchResult> transferBatch(Flux<BatchItem> items) {
+        return items.index()
+                .buffer(BATCH_CHUNK)
+                .concatMap(this::processChunk);
+    }
+
+    private Flux<BatchResult> processChunk(List<Tuple2<Long, BatchItem>> chunk) {
+        return accountRepo.findAllById(ChunkPlan.accountIds(chunk))
+                .collectMap(Account::getId)
+                .flatMapMany(accounts -> {
+                    ChunkPlan plan = ChunkPlan.of(chunk, accounts);
+                    if (plan.movements().isEmpty()) return Flux.fromIterable(plan.results());
+                    return accountRepo.applyNetDeltas(UUID.randomUUID().toString(), plan.net(), plan.movements())
+                            .flatMapMany(missing -> missing.isEmpty()
+                                    ? Flux.fromIterable(plan.results())
+                                    : Flux.fromIterable(plan.reversals(missing))
+                                            .concatMap(this::undo)
+                                            .thenMany(Flux.fromIterable(plan.resultsWithout(missing))))
+                            .switchIfEmpty(Flux.defer(() -> {
+                                log.info("Batch chunk of {} transfers hit a concurrent debit, retrying one by one", chunk.size());
+                                return Flux.fromIterable(chunk).concatMap(this::transferOne);
+                            }));
                 });
     }
-}
\ No newline at end of file
+
+    private Mono<BatchResult> transferOne(Tuple2<Long, BatchItem> t) {
+        BatchItem it = t.getT2();
+        return transfer(it.fromAccountId(), it.toAccountId(), it.amount(), CustomerRule.of(it.scope()))
+                .thenReturn(BatchResult.applied(t.getT1(), it))
+                .onErrorResume(e -> Mono.just(BatchResult.rejected(t.getT1(), it, e.getMessage())));
+    }
+
+    /** Deshace en la otra cuenta una transferencia del lote cuya cuenta a abonar ya no existe. */
+    private Mono<Void> undo(Reversal r) {
+        return accountRepo.adjustBalance(r.accountId(), r.delta(), null, r.movement())
+                .switchIfEmpty(Mono.fromRunnable(() -> log.error("Batch transfer not undone on {}: {} (insufficient funds)",
+                        r.accountId(), r.delta())))
+                .onErrorResume(e -> {
+                    log.error("Batch transfer not undone on {}: {}: {}", r.accountId(), r.delta(), e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /** Valida una transferencia del lote contra los saldos en curso; null si es válida. */
+    private static String validate(BatchItem it, Map<String, Account> accounts, Map<String, BigDecimal> balances) {
+        if (it.amount() == null || it.amount().signum() <= 0) return "amount must be > 0";
+        if (it.fromAccountId() == null || it.fromAccountId().equals(it.toAccountId())) {
+            return "Source and destination accounts must differ";
+        }
+        if (!accounts.containsKey(it.fromAccountId())) return "Account not found: " + it.fromAccountId();
+        if (!accounts.containsKey(it.toAccountId())) return "Account not found: " + it.toAccountId();
+        String violation = CustomerRule.of(it.scope()).violation(accounts.get(it.fromAccountId()), accounts.get(it.toAccountId()));
+        if (violation != null) return violation;
+        if (balances.get(it.fromAccountId()).compareTo(it.amount()) < 0) return "Insufficient funds";
+        return null;
+    }
+
+    private Mono<Void> transfer(String fromId, String toId, BigDecimal amount, CustomerRule rule) {
+        if (amount == null || amount.signum() <= 0) {
+            return Mono.error(new IllegalArgumentException("amount must be > 0"));
+        }
+        return findAccount(toId)
+                .flatMap(to -> accountRepo.adjustBalance(fromId, amount.negate(), rule.criteria(to), transferOut(toId, amount))
+                        .switchIfEmpty(Mono.defer(() -> debitRejected(fromId, to, rule)))
+                        .flatMap(from -> credit(from, to, amount)))
+                .then();
+    }
+
+    /**
+     * Abona al destino; si el abono no se aplica (el destino desapareció tras el débito, o la escritura
+     * falló) se devuelve el dinero al origen y se informa el error.
+     */
+    private Mono<Account> credit(Account from, Account to, BigDecimal amount) {
+        return accountRepo.adjustBalance(to.getId(), amount, null, transferIn(from.getId(), amount))
+                .onErrorResume(e -> reverse(from, to, amount).then(Mono.error(e)))
+                .switchIfEmpty(Mono.defer(() -> reverse(from, to, amount)
+                        .then(Mono.error(new NoSuchElementException("Account not found: " + to.getId())))));
+    }
+
+    /** Devuelve al origen un débito cuyo abono no se aplicó; si tampoco se puede, queda en el log. */
+    private Mono<Void> reverse(Account from, Account to, BigDecimal amount) {
+        return Mono.defer(() -> accountRepo.adjustBalance(from.getId(), amount, null, reversal(to.getId(), amount)))
+                .retryWhen(Retry.backoff(REVERSAL_RETRIES, Duration.ofMillis(100)))
+                .doOnError(e -> log.error("Transfer {} -> {} of {}: debit not reversed: {}",
+                        from.getId(), to.getId(), amount, e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    static PendingMovement reversal(String toId, BigDecimal amount) {
+        return PendingMovement.of("TRANSFER_IN", amount, "Reversal of transfer to " + toId);
+    }
+
+    static PendingMovement transferOut(String toId, BigDecimal amount) {
+        return PendingMovement.of("TRANSFER_OUT", amount, "Transfer to " + toId);
+    }
+
+    static PendingMovement transferIn(String fromId, BigDecimal amount) {
+        return PendingMovement.of("TRANSFER_IN", amount, "Transfer from " + fromId);
+    }
+
+    /** Solo en el camino de error: relee el origen para explicar por qué no se aplicó el débito. */
+    private Mono<Account> debitRejected(String fromId, Account to, CustomerRule rule) {
+        return findAccount(fromId)
+                .flatMap(from -> Mono.error(rule.rejection(from, to)));
+    }
+
+    private Mono<Account> findAccount(String id) {
+        return accountRepo.findById(id)
+                .switchIfEmpty(Mono.error(new NoSuchElementException("Account not found: " + id)));
+    }
+
+    /**
+     * Resultado de validar un bloque en orden contra los saldos leídos: el neto y los movimientos
+     * a aplicar por cuenta, y el resultado de cada transferencia si ese bulk se aplica.
+     */
+    record ChunkPlan(Map<String, BigDecimal> net, Map<String, List<PendingMovement>> movements,
+                     List<BatchResult> results) {
+
+        static Set<String> accountIds(List<Tuple2<Long, BatchItem>> chunk) {
+            Set<String> ids = new HashSet<>();
+            for (Tuple2<Long, BatchItem> t : chunk) {
+                if (t.getT2().fromAccountId() != null) ids.add(t.getT2().fromAccountId());
+                if (t.getT2().toAccountId() != null) ids.add(t.getT2().toAccountId());
+            }
+            return ids;
+        }
+
+        /** @param accounts cuentas encontradas por id; el saldo en curso parte del suyo */
+        static ChunkPlan of(List<Tuple2<Long, BatchItem>> chunk, Map<String, Account> accounts) {
+            Map<String, BigDecimal> balances = new HashMap<>();
+            accounts.forEach((id, a) -> balances.put(id, a.getBalance() == null ? BigDecimal.ZERO : a.getBalance()));
+            Map<String, BigDecimal> net = new HashMap<>();
+            Map<String, List<PendingMovement>> movements = new HashMap<>();
+            List<BatchResult> results = new ArrayList<>(chunk.size());
+
+            for (Tuple2<Long, BatchItem> t : chunk) {
+                BatchItem it = t.getT2();
+                String error = validate(it, accounts, balances);
+                if (error != null) {
+                    results.add(BatchResult.rejected(t.getT1(), it, error));
+                    continue;
+                }
+                balances.merge(it.fromAccountId(), it.amount().negate(), BigDecimal::add);
+                balances.merge(it.toAccountId(), it.amount(), BigDecimal::add);
+                net.merge(it.fromAccountId(), it.amount().negate(), BigDecimal::add);
+                net.merge(it.toAccountId(), it.amount(), BigDecimal::add);
+                movements.computeIfAbsent(it.fromAccountId(), k -> new ArrayList<>()).add(transferOut(it.toAccountId(), it.amount()));
+                movements.computeIfAbsent(it.toAccountId(), k -> new ArrayList<>()).add(transferIn(it.fromAccountId(), it.amount()));
+                results.add(BatchResult.applied(t.getT1(), it));
+            }
+            return new ChunkPlan(net, movements, results);
+        }
+
+        /**
+         * Ajustes que deshacen, en la otra cuenta, cada transferencia aplicada que tocaba una cuenta de
+         * {@code missing} (no abonada): al origen se le devuelve lo debitado, al destino se le retira lo abonado.
+         */
+        List<Reversal> reversals(Set<String> missing) {
+            List<Reversal> out = new ArrayList<>();
+            for (BatchResult r : results) {
+                if (!"APPLIED".equals(r.status())) continue;
+                boolean fromGone = missing.contains(r.fromAccountId());
+                boolean toGone = missing.contains(r.toAccountId());
+                if (toGone && !fromGone) {
+                    out.add(new Reversal(r.fromAccountId(), r.amount(), reversal(r.toAccountId(), r.amount())));
+                } else if (fromGone && !toGone) {
+                    out.add(new Reversal(r.toAccountId(), r.amount().negate(),
+                            PendingMovement.of("TRANSFER_OUT", r.amount(), "Reversal of transfer from " + r.fromAccountId())));
+                }
+            }
+            return out;
+        }
+
+        /** Resultados con las transferencias que tocaban una cuenta de {@code missing} como rechazadas. */
+        List<BatchResult> resultsWithout(Set<String> missing) {
+            List<BatchResult> out = new ArrayList<>(results.size());
+            for (BatchResult r : results) {
+                String gone = missing.contains(r.toAccountId()) ? r.toAccountId()
+                        : missing.contains(r.fromAccountId()) ? r.fromAccountId() : null;
+                out.add(gone == null || !"APPLIED".equals(r.status()) ? r
+                        : new BatchResult(r.index(), r.fromAccountId(), r.toAccountId(), r.amount(), "REJECTED",
+                                "Account not found: " + gone));
+            }
+            return out;
+        }
+    }
+
+    /** Ajuste de saldo que deshace una transferencia del lote en la cuenta que sí existe. */
+    record Reversal(String accountId, BigDecimal delta, PendingMovement movement) { }
+
+    /** Regla de titularidad entre origen y destino, aplicada dentro del débito condicionado. */
+    enum CustomerRule {
+        SAME, OTHER, ANY;
+
+        static CustomerRule of(Scope scope) {
+            if (scope == null) return ANY;
+            return switch (scope) {
+                case OWN -> SAME;
+                case THIRD_PARTY -> OTHER;
+                case ANY -> ANY;
+            };
+        }
+
+        Criteria criteria(Account to) {
+            return switch (this) {
+                case SAME -> Criteria.where("customerId").is(to.getCustomerId());
+                case OTHER -> Criteria.where("customerId").ne(to.getCustomerId());
+                case ANY -> null;
+            };
+        }
+
+        /** Motivo por el que la regla no admite la transferencia entre {@code from} y {@code to}; null si la admite. */
+        String violation(Account from, Account to) {
+            boolean same = Objects.equals(from.getCustomerId(), to.getCustomerId());
+            if (this == SAME && !same) return "Accounts belong to different customers";
+            if (this == OTHER && same) return "Use /own for same customer";
+            return null;
+        }
+
+        /** Motivo de un débito rechazado, una vez releído el origen. */
+        RuntimeException rejection(Account from, Account to) {
+            String violation = violation(from, to);
+            if (violation != null) return new IllegalArgumentException(violation);
+            return new IllegalStateException("Insufficient funds");
+        }
+    }
+}
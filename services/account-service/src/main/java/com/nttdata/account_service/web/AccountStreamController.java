@@ -0,0 +1,26 @@
+package com.nttdata.account_service.web;
+
+import com.nttdata.account_service.service.AccountLiveFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+/**
+ * Saldo y movimientos en vivo por Server-Sent Events, en lugar de consultar GET /accounts/{id}
+ * periódicamente. Primer evento: "balance" con el saldo actual; luego "balance" y "movement".
+ */
+@RestController
+@RequestMapping("/api/v1/accounts")
+@RequiredArgsConstructor
+public class AccountStreamController {
+
+    private final AccountLiveFeed feed;
+
+    @GetMapping(path = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> stream(@PathVariable String id) {
+        return feed.subscribe(id)
+                .map(u -> ServerSentEvent.builder(u.data()).event(u.event()).build());
+    }
+}
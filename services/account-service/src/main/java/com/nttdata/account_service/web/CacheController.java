@@ -0,0 +1,33 @@
+package com.nttdata.account_service.web;
+
+import com.nttdata.account_service.service.CardOwnershipCache;
+import com.nttdata.account_service.service.CustomerProfileCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Invalidación de datos remotos cacheados en account-service. La llaman customer-service
+ * (cliente actualizado o eliminado) y card-service (tarjeta creada o eliminada).
+ */
+@RestController
+@RequestMapping("/api/v1/cache")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final CustomerProfileCache customers;
+    private final CardOwnershipCache cardOwners;
+
+    @DeleteMapping("/customers/{customerId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> evictCustomer(@PathVariable String customerId) {
+        return Mono.fromRunnable(() -> customers.evict(customerId));
+    }
+
+    @DeleteMapping("/cards/{customerId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> evictCardOwner(@PathVariable String customerId) {
+        return Mono.fromRunnable(() -> cardOwners.evict(customerId));
+    }
+}
\ No newline at end of file
@@ -1,10 +1,11 @@
 package com.nttdata.account_service.web;
 
-import com.nttdata.account_service.service.TransferService;
+import com.nttdata.account_service.service.TransferOperations;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
@@ -14,7 +15,7 @@ import java.math.BigDecimal;
 @RequiredArgsConstructor
 public class TransferController {
 
-    private final TransferService transferService;
+    private final TransferOperations transferService;
 
     @PostMapping("/own")
     @ResponseStatus(HttpStatus.OK)
@@ -28,10 +29,23 @@ public class TransferController {
         return transferService.transferThirdParty(r.getFromAccountId(), r.getToAccountId(), r.getAmount());
     }
 
+    /**
+     * Lote de transferencias (JSON array o application/x-ndjson); devuelve un resultado por
+     * transferencia, en el mismo orden, a medida que se procesa cada bloque.
+     * Cada transferencia puede indicar su scope (OWN, THIRD_PARTY); sin scope no se exige titularidad.
+     */
+    @PostMapping("/batch")
+    public Flux<TransferOperations.BatchResult> transferBatch(@RequestBody Flux<TransferRequest> requests) {
+        return transferService.transferBatch(requests.map(r ->
+                new TransferOperations.BatchItem(r.getFromAccountId(), r.getToAccountId(), r.getAmount(),
+                        r.getScope() == null ? TransferOperations.Scope.ANY : r.getScope())));
+    }
+
     @Data
     public static class TransferRequest {
         private String fromAccountId;
         private String toAccountId;
         private BigDecimal amount;
+        private TransferOperations.Scope scope;   // solo en /batch
     }
 }
\ No newline at end of file
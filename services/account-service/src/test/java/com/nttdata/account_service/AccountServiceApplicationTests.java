@@ -3,7 +3,8 @@ package com.nttdata.account_service;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// sin config-server: el mismo yml que serviría (reglas de apertura incluidas)
+@SpringBootTest(properties = "spring.config.import=optional:file:../../config/account-service.yml")
 class AccountServiceApplicationTests {
 
 	@Test
@@ -0,0 +1,120 @@
+package com.nttdata.account_service.service;
+
+import com.nttdata.account_service.domain.AccountType;
+import com.nttdata.account_service.model.BankAccount;
+import com.nttdata.account_service.repository.AccountRepository;
+import com.nttdata.account_service.repository.BankAccountRepository;
+import com.nttdata.changenotifier.ChangeNotifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Muchos suscriptores concurrentes sobre la misma cuenta: el saldo final debe ser exacto.
+ * Requiere Docker (se omite si no está disponible).
+ */
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+class AccountBalanceConcurrencyTests {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private static final int OPERATIONS = 500;
+
+    @Autowired
+    private BankAccountRepository repository;
+
+    @Autowired
+    private AccountRepository accounts;
+
+    private AccountService service;
+    private String accountId;
+
+    @BeforeEach
+    void setUp() {
+        service = new AccountService(repository, new ChangeNotifier("accounts", WebClient.builder(), List.of(), null),
+                new AccountAppService(accounts, freeMovements()));
+        accountId = repository.deleteAll()
+                .then(repository.save(BankAccount.builder()
+                        .customerId("c-1").type("SAVINGS").balance(new BigDecimal("1000.00")).build()))
+                .map(BankAccount::getId)
+                .block();
+    }
+
+    @Test
+    void concurrentDepositsAreNotLost() {
+        Flux.range(0, OPERATIONS)
+                .parallel(32).runOn(Schedulers.parallel())
+                .flatMap(i -> service.deposit(accountId, new BigDecimal("1.25")))
+                .sequential()
+                .blockLast();
+
+        assertThat(balance()).isEqualByComparingTo("1625.00");
+    }
+
+    @Test
+    void concurrentWithdrawalsNeverOverdraw() {
+        // 500 x 3.00 = 1500 > 1000: solo deben pasar 333 retiros
+        Long ok = Flux.range(0, OPERATIONS)
+                .parallel(32).runOn(Schedulers.parallel())
+                .flatMap(i -> service.withdraw(accountId, new BigDecimal("3.00"))
+                        .map(a -> 1)
+                        .onErrorResume(IllegalStateException.class, e -> Mono.empty()))
+                .sequential()
+                .count()
+                .block();
+
+        assertThat(ok).isEqualTo(333L);
+        assertThat(balance()).isEqualByComparingTo("1.00");
+    }
+
+    @Test
+    void mixedDepositsAndWithdrawalsAddUp() {
+        Flux.range(0, OPERATIONS)
+                .parallel(32).runOn(Schedulers.parallel())
+                .flatMap(i -> i % 2 == 0
+                        ? service.deposit(accountId, new BigDecimal("2.00"))
+                        : service.withdraw(accountId, new BigDecimal("1.00")))
+                .sequential()
+                .blockLast();
+
+        assertThat(balance()).isEqualByComparingTo("1250.00");
+    }
+
+    private BigDecimal balance() {
+        return repository.findById(accountId).map(BankAccount::getBalance).block();
+    }
+
+    /** Operaciones siempre gratuitas y sin límite: aquí solo interesa el saldo. */
+    private static AccountDomainService freeMovements() {
+        Map<String, Object> rules = new HashMap<>();
+        for (AccountType type : AccountType.values()) {
+            rules.put("rules.opening.minimum." + type, "0");
+            rules.put("rules.freeTransactions." + type, String.valueOf(OPERATIONS));
+            rules.put("rules.transactionFee." + type, "0");
+        }
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("rules", rules));
+        return new AccountDomainService(new AccountRules(environment), null, null, null);
+    }
+}
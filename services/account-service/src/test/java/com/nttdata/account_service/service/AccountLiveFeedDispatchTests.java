@@ -0,0 +1,167 @@
+package com.nttdata.account_service.service;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import com.mongodb.reactivestreams.client.ChangeStreamPublisher;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import com.nttdata.account_service.domain.Account;
+import com.nttdata.account_service.domain.PendingMovement;
+import com.nttdata.account_service.repository.AccountRepository;
+import org.bson.BsonArray;
+import org.bson.BsonDateTime;
+import org.bson.BsonDecimal128;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reparto de cambios y corte de suscriptores lentos sin Mongo: el change stream es un sink en memoria
+ * que recibe ChangeStreamDocument armados a mano (AccountLiveFeedTests cubre el change stream real).
+ */
+class AccountLiveFeedDispatchTests {
+
+    private final Sinks.Many<ChangeStreamDocument<Document>> changes = Sinks.many().multicast().onBackpressureBuffer();
+    private AccountRepository accounts;
+    private ReactiveMongoTemplate template;
+    private int tokens;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ChangeStreamPublisher<Document> stream = mock(ChangeStreamPublisher.class);
+        doAnswer(i -> {
+            changes.asFlux().subscribe(i.<Subscriber<ChangeStreamDocument<Document>>>getArgument(0));
+            return null;
+        }).when(stream).subscribe(any());
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        doReturn(stream).when(collection).watch(anyList());
+        MongoDatabase database = mock(MongoDatabase.class);
+        doReturn(collection).when(database).getCollection("accounts");
+
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        template = mock(ReactiveMongoTemplate.class);
+        when(template.getMongoDatabase()).thenReturn(Mono.just(database));
+        when(template.getConverter()).thenReturn(converter);
+
+        accounts = mock(AccountRepository.class);
+        account("A1", "100.00");
+        account("A2", "50.00");
+    }
+
+    @Test
+    void dispatchesEachChangeOnlyToThatAccountsSubscribers() {
+        AccountLiveFeed feed = new AccountLiveFeed(template, accounts, 16);
+        List<AccountLiveFeed.Update> other = new CopyOnWriteArrayList<>();
+        Disposable a2 = feed.subscribe("A2").subscribe(other::add);
+
+        StepVerifier.create(feed.subscribe("A1"))
+                .assertNext(u -> assertBalance(u, "100.00"))
+                .then(() -> changes.tryEmitNext(update("A1", new BsonDocument("balance", decimal("125.00"))
+                        .append("outbox.0", movement("m-1", "25.00")))))
+                .assertNext(u -> assertMovement(u, "m-1"))
+                .assertNext(u -> assertBalance(u, "125.00"))
+                // el relay reescribe el arreglo completo: m-1 ya se publicó, m-2 es nuevo
+                .then(() -> changes.tryEmitNext(update("A1", new BsonDocument("outbox",
+                        new BsonArray(List.of(movement("m-1", "25.00"), movement("m-2", "5.00")))))))
+                .assertNext(u -> assertMovement(u, "m-2"))
+                .then(() -> changes.tryEmitNext(update("B9", new BsonDocument("balance", decimal("1.00")))))
+                .then(() -> changes.tryEmitNext(delete("A1")))
+                .verifyComplete();
+
+        assertThat(other).singleElement().satisfies(u -> assertBalance(u, "50.00"));
+        a2.dispose();
+        assertThat(changes.currentSubscriberCount()).isZero();    // sin suscriptores se cierra el change stream
+    }
+
+    @Test
+    void dropsOnlyTheSlowSubscriber() {
+        AccountLiveFeed feed = new AccountLiveFeed(template, accounts, 4);
+        List<AccountLiveFeed.Update> fast = new CopyOnWriteArrayList<>();
+        Disposable fastSubscription = feed.subscribe("A1").subscribe(fast::add);
+
+        // pide solo el saldo inicial: el buffer admite 4 cambios y llegan 5
+        StepVerifier.create(feed.subscribe("A1"), 1)
+                .expectNextCount(1)
+                .then(() -> {
+                    for (int i = 1; i <= 5; i++) {
+                        changes.tryEmitNext(update("A1", new BsonDocument("balance", decimal(100 + i + ".00"))));
+                    }
+                })
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(4)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        changes.tryEmitNext(update("A1", new BsonDocument("balance", decimal("106.00"))));
+        assertThat(fast).hasSize(7);
+        assertBalance(fast.get(6), "106.00");
+        fastSubscription.dispose();
+    }
+
+    private void account(String id, String balance) {
+        when(accounts.findById(id)).thenReturn(Mono.just(Account.builder().id(id).balance(new BigDecimal(balance)).build()));
+    }
+
+    private ChangeStreamDocument<Document> update(String accountId, BsonDocument fields) {
+        return change("update", accountId, new UpdateDescription(List.of(), fields));
+    }
+
+    private ChangeStreamDocument<Document> delete(String accountId) {
+        return change("delete", accountId, null);
+    }
+
+    private ChangeStreamDocument<Document> change(String operation, String accountId, UpdateDescription description) {
+        BsonDocument token = new BsonDocument("_data", new BsonString(String.valueOf(++tokens)));
+        return new ChangeStreamDocument<>(operation, token, null, null, null, null,
+                new BsonDocument("_id", new BsonString(accountId)), null, description, null, null, null, null, null);
+    }
+
+    private static BsonDocument movement(String id, String amount) {
+        return new BsonDocument("_id", new BsonString(id))
+                .append("operation", new BsonString("DEPOSIT"))
+                .append("amount", decimal(amount))
+                .append("occurredAt", new BsonDateTime(Instant.now().plusSeconds(1).toEpochMilli()));
+    }
+
+    private static BsonDecimal128 decimal(String value) {
+        return new BsonDecimal128(new Decimal128(new BigDecimal(value)));
+    }
+
+    private static void assertBalance(AccountLiveFeed.Update update, String expected) {
+        assertThat(update.event()).isEqualTo("balance");
+        assertThat(((AccountLiveFeed.Balance) update.data()).balance()).isEqualByComparingTo(expected);
+    }
+
+    private static void assertMovement(AccountLiveFeed.Update update, String id) {
+        assertThat(update.event()).isEqualTo("movement");
+        assertThat(((PendingMovement) update.data()).getId()).isEqualTo(id);
+    }
+}
@@ -0,0 +1,102 @@
+package com.nttdata.account_service.service;
+
+import com.nttdata.account_service.domain.Account;
+import com.nttdata.account_service.domain.AccountType;
+import com.nttdata.account_service.domain.PendingMovement;
+import com.nttdata.account_service.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Eventos en vivo desde el change stream de "accounts". MongoDBContainer arranca un replica set de
+ * un nodo, lo mínimo que necesitan los change streams. Requiere Docker (se omite si no está disponible).
+ */
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+class AccountLiveFeedTests {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    /** Tiempo para que el change stream quede abierto antes de escribir. */
+    private static final Duration WATCH_OPEN = Duration.ofSeconds(1);
+
+    @Autowired
+    private ReactiveMongoTemplate template;
+
+    @Autowired
+    private AccountRepository repository;
+
+    private String accountId;
+
+    @BeforeEach
+    void setUp() {
+        accountId = repository.deleteAll()
+                .then(repository.save(Account.builder()
+                        .customerId("c-1").accountType(AccountType.SAVINGS).balance(new BigDecimal("100.00")).build()))
+                .map(Account::getId)
+                .block();
+    }
+
+    @Test
+    void publishesBalanceAndMovements() {
+        AccountLiveFeed feed = new AccountLiveFeed(template, repository, 16);
+
+        StepVerifier.create(feed.subscribe(accountId))
+                .assertNext(u -> assertBalance(u, "100.00"))
+                .thenAwait(WATCH_OPEN)
+                .then(() -> deposit("25.00"))
+                .assertNext(u -> {
+                    assertThat(u.event()).isEqualTo("movement");
+                    assertThat(((PendingMovement) u.data()).getAmount()).isEqualByComparingTo("25.00");
+                })
+                .assertNext(u -> assertBalance(u, "125.00"))
+                .then(() -> deposit("5.00"))
+                .expectNextMatches(u -> u.event().equals("movement"))
+                .assertNext(u -> assertBalance(u, "130.00"))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void dropsSlowSubscriber() {
+        AccountLiveFeed feed = new AccountLiveFeed(template, repository, 4);
+
+        // pide solo el saldo inicial: cada depósito deja 2 eventos y el buffer admite 4
+        StepVerifier.create(feed.subscribe(accountId), 1)
+                .expectNextCount(1)
+                .thenAwait(WATCH_OPEN)
+                .then(() -> Flux.range(0, 5).concatMap(i -> repository.adjustBalance(accountId,
+                        BigDecimal.ONE, null, PendingMovement.of("DEPOSIT", BigDecimal.ONE, "test"))).blockLast())
+                .thenAwait(WATCH_OPEN)
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(4)
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    private void deposit(String amount) {
+        BigDecimal value = new BigDecimal(amount);
+        repository.adjustBalance(accountId, value, null, PendingMovement.of("DEPOSIT", value, "test")).block();
+    }
+
+    private static void assertBalance(AccountLiveFeed.Update update, String expected) {
+        assertThat(update.event()).isEqualTo("balance");
+        assertThat(((AccountLiveFeed.Balance) update.data()).balance()).isEqualByComparingTo(expected);
+    }
+}
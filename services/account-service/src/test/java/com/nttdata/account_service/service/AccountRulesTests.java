@@ -0,0 +1,93 @@
+package com.nttdata.account_service.service;
+
+import com.nttdata.account_service.domain.AccountType;
+import com.nttdata.account_service.domain.CustomerProfile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AccountRulesTests {
+
+    private StandardEnvironment environment;
+    private Map<String, Object> rules;
+
+    @BeforeEach
+    void setUp() {
+        rules = new HashMap<>();
+        for (AccountType type : AccountType.values()) {
+            rules.put("rules.opening.minimum." + type, "0");
+            rules.put("rules.freeTransactions." + type, "10");
+            rules.put("rules.transactionFee." + type, "1.50");
+        }
+        rules.put("rules.opening.minimum.FIXED_TERM", "100");
+        rules.put("rules.vip.minDailyAvg", "1500.00");
+        rules.put("rules.vip.requiresCreditCard", "true");
+        rules.put("rules.pyme.maintenanceFee", "0.00");
+        rules.put("rules.pyme.requiresCreditCard", "true");
+        environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("rules", rules));
+    }
+
+    @Test
+    void compilesEveryTypeAndProfile() {
+        AccountRules.Table table = new AccountRules(environment).current();
+
+        assertThat(table.movement(AccountType.FIXED_TERM).minimumOpening()).isEqualByComparingTo("100");
+        assertThat(table.movement(AccountType.SAVINGS).freeTransactions()).isEqualTo(10);
+        assertThat(table.movement(AccountType.CURRENT).fee()).isEqualByComparingTo("1.50");
+        for (CustomerProfile profile : CustomerProfile.values()) {
+            for (AccountType type : AccountType.values()) {
+                assertThat(table.opening(profile, type)).isNotNull();
+            }
+        }
+        // PYME: solo cuenta corriente (por defecto), con tarjeta y sin mantenimiento
+        assertThat(table.opening(CustomerProfile.BUSINESS_PYME, AccountType.SAVINGS).allowed()).isFalse();
+        AccountRules.Opening pyme = table.opening(CustomerProfile.BUSINESS_PYME, AccountType.CURRENT);
+        assertThat(pyme.allowed()).isTrue();
+        assertThat(pyme.requiresCreditCard()).isTrue();
+        assertThat(pyme.maintenanceFee()).isEqualByComparingTo("0");
+        assertThat(table.opening(CustomerProfile.PERSONAL_VIP, AccountType.SAVINGS).minDailyAverage())
+                .isEqualByComparingTo("1500");
+        assertThat(table.opening(CustomerProfile.PERSONAL_STANDARD, AccountType.SAVINGS).requiresCreditCard()).isFalse();
+    }
+
+    @Test
+    void rejectsUnknownKeysAndMissingTypes() {
+        rules.put("rules.transactionFee.CHECKING", "1.00");
+        assertThatThrownBy(() -> new AccountRules(environment)).isInstanceOf(BindException.class);   // tipo inexistente
+
+        rules.remove("rules.transactionFee.CHECKING");
+        rules.put("rules.vip.minDailyAverage", "1500");
+        assertThatThrownBy(() -> new AccountRules(environment)).isInstanceOf(BindException.class);   // clave desconocida
+
+        rules.remove("rules.vip.minDailyAverage");
+        rules.remove("rules.freeTransactions.CURRENT");
+        assertThatThrownBy(() -> new AccountRules(environment)).hasMessageContaining("freeTransactions has no value for CURRENT");
+    }
+
+    @Test
+    void swapsTableOnRefreshAndKeepsItWhenInvalid() {
+        AccountRules accountRules = new AccountRules(environment);
+        AccountRules.Table before = accountRules.current();
+
+        rules.put("rules.transactionFee.SAVINGS", "0.75");
+        accountRules.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("rules.transactionFee.SAVINGS")));
+        assertThat(accountRules.current()).isNotSameAs(before);
+        assertThat(accountRules.current().movement(AccountType.SAVINGS).fee()).isEqualByComparingTo("0.75");
+
+        AccountRules.Table valid = accountRules.current();
+        rules.put("rules.transactionFee.SAVINGS", "-1");
+        accountRules.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("rules.transactionFee.SAVINGS")));
+        assertThat(accountRules.current()).isSameAs(valid);
+    }
+}
@@ -0,0 +1,110 @@
+package com.nttdata.account_service.service;
+
+import com.nttdata.account_service.domain.AccountType;
+import com.nttdata.account_service.model.BankAccount;
+import com.nttdata.account_service.repository.BlockingAccountRepository;
+import com.nttdata.changenotifier.ChangeNotifier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * AccountBalanceConcurrencyTests para el perfil blocking: las mismas garantías de saldo con el
+ * driver síncrono, cada operación en un hilo propio. Requiere Docker (se omite si no está disponible).
+ */
+@DataMongoTest
+@ActiveProfiles(BlockingExecution.PROFILE)
+@Testcontainers(disabledWithoutDocker = true)
+class BlockingAccountConcurrencyTests {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private static final int OPERATIONS = 500;
+
+    @Autowired
+    private MongoTemplate template;
+
+    private final ExecutorService threads = Executors.newFixedThreadPool(32);
+    private BlockingAccountService service;
+    private String accountId;
+
+    @BeforeEach
+    void setUp() {
+        template.dropCollection(BankAccount.class);
+        service = new BlockingAccountService(new BlockingAccountRepository(template),
+                new ChangeNotifier("accounts", WebClient.builder(), List.of(), null), new BlockingExecution(threads), freeMovements());
+        accountId = template.save(BankAccount.builder()
+                .customerId("c-1").type("SAVINGS").balance(new BigDecimal("1000.00")).build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    void concurrentWithdrawalsNeverOverdraw() {
+        // 500 x 3.00 = 1500 > 1000: solo deben pasar 333 retiros
+        Long ok = Flux.range(0, OPERATIONS)
+                .flatMap(i -> service.withdraw(accountId, new BigDecimal("3.00"))
+                        .map(a -> 1)
+                        .onErrorResume(IllegalStateException.class, e -> Mono.empty()), 32)
+                .count()
+                .block();
+
+        assertThat(ok).isEqualTo(333L);
+        assertThat(balance()).isEqualByComparingTo("1.00");
+    }
+
+    @Test
+    void mixedDepositsAndWithdrawalsAddUp() {
+        Flux.range(0, OPERATIONS)
+                .flatMap(i -> i % 2 == 0
+                        ? service.deposit(accountId, new BigDecimal("2.00"))
+                        : service.withdraw(accountId, new BigDecimal("1.00")), 32)
+                .blockLast();
+
+        assertThat(balance()).isEqualByComparingTo("1250.00");
+    }
+
+    private BigDecimal balance() {
+        return service.findById(accountId).map(BankAccount::getBalance).block();
+    }
+
+    /** Operaciones siempre gratuitas y sin límite: aquí solo interesa el saldo. */
+    private static AccountDomainService freeMovements() {
+        Map<String, Object> rules = new HashMap<>();
+        for (AccountType type : AccountType.values()) {
+            rules.put("rules.opening.minimum." + type, "0");
+            rules.put("rules.freeTransactions." + type, String.valueOf(OPERATIONS));
+            rules.put("rules.transactionFee." + type, "0");
+        }
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("rules", rules));
+        return new AccountDomainService(new AccountRules(environment), null, null, null);
+    }
+}
@@ -0,0 +1,69 @@
+package com.nttdata.account_service.service;
+
+import com.nttdata.account_service.domain.Account;
+import com.nttdata.account_service.service.TransferOperations.BatchItem;
+import com.nttdata.account_service.service.TransferOperations.BatchResult;
+import com.nttdata.account_service.service.TransferOperations.Scope;
+import com.nttdata.account_service.service.TransferService.ChunkPlan;
+import com.nttdata.account_service.service.TransferService.Reversal;
+import org.junit.jupiter.api.Test;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class TransferChunkPlanTests {
+
+    private static final Map<String, Account> ACCOUNTS = Map.of(
+            "A1", account("A1", "C1", "100"),
+            "A2", account("A2", "C1", "0"),
+            "B1", account("B1", "C2", "0"));
+
+    @Test
+    void appliesTheScopeOfEachTransfer() {
+        ChunkPlan plan = ChunkPlan.of(chunk(
+                new BatchItem("A1", "A2", BigDecimal.TEN, Scope.OWN),
+                new BatchItem("A1", "B1", BigDecimal.TEN, Scope.OWN),
+                new BatchItem("A1", "A2", BigDecimal.TEN, Scope.THIRD_PARTY),
+                new BatchItem("A1", "B1", BigDecimal.TEN, Scope.ANY)), ACCOUNTS);
+
+        assertThat(plan.results()).extracting(BatchResult::status)
+                .containsExactly("APPLIED", "REJECTED", "REJECTED", "APPLIED");
+        assertThat(plan.results().get(1).error()).isEqualTo("Accounts belong to different customers");
+        assertThat(plan.net()).containsEntry("A1", new BigDecimal("-20"));
+    }
+
+    @Test
+    void transfersTouchingAnAccountDeletedBeforeTheCreditAreUndone() {
+        ChunkPlan plan = ChunkPlan.of(chunk(
+                new BatchItem("A1", "B1", new BigDecimal("30"), Scope.ANY),
+                new BatchItem("B1", "A2", new BigDecimal("5"), Scope.ANY),
+                new BatchItem("A1", "A2", new BigDecimal("1"), Scope.ANY)), ACCOUNTS);
+
+        List<Reversal> reversals = plan.reversals(Set.of("B1"));
+
+        assertThat(reversals).extracting(Reversal::accountId, Reversal::delta)
+                .containsExactly(
+                        tuple("A1", new BigDecimal("30")),     // se devuelve el débito
+                        tuple("A2", new BigDecimal("-5")));    // se retira el abono
+        assertThat(plan.resultsWithout(Set.of("B1"))).extracting(BatchResult::status)
+                .containsExactly("REJECTED", "REJECTED", "APPLIED");
+    }
+
+    private static List<Tuple2<Long, BatchItem>> chunk(BatchItem... items) {
+        List<Tuple2<Long, BatchItem>> chunk = new ArrayList<>();
+        for (int i = 0; i < items.length; i++) chunk.add(Tuples.of((long) i, items[i]));
+        return chunk;
+    }
+
+    private static Account account(String id, String customerId, String balance) {
+        return Account.builder().id(id).customerId(customerId).balance(new BigDecimal(balance)).build();
+    }
+}
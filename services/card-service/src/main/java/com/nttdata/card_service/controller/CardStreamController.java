@@ -0,0 +1,26 @@
+package com.nttdata.card_service.controller;
+
+import com.nttdata.card_service.service.CardLiveFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+/**
+ * Crédito disponible y movimientos en vivo por Server-Sent Events, en lugar de consultar
+ * GET /cards/{id}/balance periódicamente. Primer evento: "balance"; luego "balance" y "movement".
+ */
+@RestController
+@RequestMapping("/api/v1/cards")
+@RequiredArgsConstructor
+public class CardStreamController {
+
+    private final CardLiveFeed feed;
+
+    @GetMapping(path = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> stream(@PathVariable String id) {
+        return feed.subscribe(id)
+                .map(u -> ServerSentEvent.builder(u.data()).event(u.event()).build());
+    }
+}
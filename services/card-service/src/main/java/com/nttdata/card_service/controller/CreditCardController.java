@@ -1,6 +1,7 @@
 package com.nttdata.card_service.controller;
 
 import com.nttdata.card_service.model.CreditCard;
+import com.nttdata.card_service.service.CardAuthorizationEngine;
 import com.nttdata.card_service.service.CreditCardService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +22,9 @@ public class CreditCardController {
 
     @GetMapping public Flux<CreditCard> findAll() { return service.findAll(); }
     @GetMapping("/{id}") public Mono<CreditCard> findById(@PathVariable String id) { return service.findById(id); }
+    @GetMapping("/by-customer/{customerId}") public Flux<CreditCard> findByCustomer(@PathVariable String customerId) {
+        return service.findByCustomer(customerId);
+    }
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping public Mono<CreditCard> create(@RequestBody CreditCard c) { return service.create(c); }
@@ -42,11 +46,36 @@ public class CreditCardController {
         return service.pay(id, req.getAmount());
     }
 
+    /** Retiene crédito (preautorización); se confirma con capture o se libera con DELETE. */
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping("/{id}/holds")
+    public Mono<CardAuthorizationEngine.Hold> hold(@PathVariable String id, @RequestBody AmountRequest req) {
+        return service.hold(id, req.getAmount());
+    }
+
+    /** Captura la retención; sin amount se captura el total retenido. */
+    @PostMapping("/{id}/holds/{holdId}/capture")
+    public Mono<CreditCard> capture(@PathVariable String id, @PathVariable String holdId,
+                                    @RequestBody(required = false) AmountRequest req) {
+        return service.capture(id, holdId, req == null ? null : req.getAmount());
+    }
+
+    @DeleteMapping("/{id}/holds/{holdId}")
+    public Mono<CreditCard> release(@PathVariable String id, @PathVariable String holdId) {
+        return service.release(id, holdId);
+    }
+
     @GetMapping("/{id}/balance")
     public Mono<Map<String, BigDecimal>> balance(@PathVariable String id) {
         return service.available(id).map(av -> Map.of("available", av));
     }
 
+    /** Solo si el cliente tiene alguna tarjeta (true/false), sin listar sus tarjetas. */
+    @GetMapping("/customers/{customerId}/exists")
+    public Mono<Boolean> customerHasCards(@PathVariable String customerId) {
+        return service.customerHasCards(customerId);
+    }
+
     @Data
     public static class AmountRequest {
         private BigDecimal amount;
@@ -0,0 +1,20 @@
+package com.nttdata.card_service.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Propiedad de una partición de tarjetas para CardAuthorizationEngine: solo la instancia
+ * {@code owner} decide y escribe en card_ledger las tarjetas de la partición mientras no venza {@code until}.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+@Document(collection = "card_leases")
+public class CardLease {
+    @Id
+    private String id;       // número de partición (CardAuthorizationEngine#partitionOf)
+    private String owner;
+    private Instant until;
+}
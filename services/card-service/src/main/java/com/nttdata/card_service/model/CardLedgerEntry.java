@@ -0,0 +1,33 @@
+package com.nttdata.card_service.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Entrada del log de autorizaciones (append-only). Cada cambio de saldo de una tarjeta hecho por
+ * CardAuthorizationEngine genera una, con secuencia consecutiva por tarjeta.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+@Document(collection = "card_ledger")
+public class CardLedgerEntry {
+
+    public enum Type { CHARGE, HOLD, CAPTURE, RELEASE, PAYMENT }
+
+    @Id
+    private String id;            // cardId:seq, así reescribir un bloque no duplica entradas
+    private String cardId;
+    private long seq;
+    private Type type;
+    private BigDecimal amount;    // en PAYMENT, lo efectivamente descontado de used
+    private String holdId;        // HOLD, CAPTURE, RELEASE
+    private Instant at;
+    private long batch;           // bloque de write-behind en que se persistió
+
+    public static String idOf(String cardId, long seq) {
+        return cardId + ":" + seq;
+    }
+}
\ No newline at end of file
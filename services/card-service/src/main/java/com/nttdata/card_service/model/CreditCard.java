@@ -1,10 +1,12 @@
 package com.nttdata.card_service.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
+import java.util.Map;
 
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
 @Document(collection = "cards")
@@ -15,4 +17,10 @@ public class CreditCard {
     private String type;             // PERSONAL | BUSINESS
     private BigDecimal creditLimit;  // límite total
     private BigDecimal used;         // monto utilizado
+
+    // Estado que mantiene CardAuthorizationEngine: retenciones abiertas y última entrada
+    // de card_ledger reflejada en used/holds (snapshot escrito por el write-behind)
+    private Map<String, BigDecimal> holds;   // holdId -> monto retenido
+    @JsonIgnore
+    private Long ledgerSeq;
 }
\ No newline at end of file
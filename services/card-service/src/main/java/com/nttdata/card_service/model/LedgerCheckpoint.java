@@ -0,0 +1,19 @@
+package com.nttdata.card_service.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Último bloque de write-behind cuyo snapshot (used/holds/ledgerSeq de cada tarjeta) quedó escrito.
+ * Al reconstruir solo se releen las entradas de bloques posteriores.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+@Document(collection = "card_ledger_checkpoint")
+public class LedgerCheckpoint {
+    public static final String ID = "authorization";
+
+    @Id
+    private String id;
+    private long batch;
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.nttdata.card_service.repository;
+
+import com.nttdata.card_service.model.CardLedgerEntry;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+public interface CardLedgerRepository extends ReactiveMongoRepository<CardLedgerEntry, String>, CardLedgerWriteRepository {
+
+    /** Entradas aún no reflejadas en el snapshot de las tarjetas (cola del log), por tarjeta y orden. */
+    Flux<CardLedgerEntry> findByBatchGreaterThanOrderByCardIdAscSeqAsc(long batch);
+
+    Flux<CardLedgerEntry> findByCardIdAndSeqGreaterThanOrderBySeqAsc(String cardId, long seq);
+}
\ No newline at end of file
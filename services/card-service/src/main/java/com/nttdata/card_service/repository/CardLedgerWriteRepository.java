@@ -0,0 +1,53 @@
+package com.nttdata.card_service.repository;
+
+import com.nttdata.card_service.model.CardLedgerEntry;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Escrituras del write-behind de CardAuthorizationEngine: log, snapshot de tarjetas, checkpoint y
+ * la propiedad (lease) de cada partición de tarjetas.
+ */
+public interface CardLedgerWriteRepository {
+
+    /**
+     * Inserta en bloque (no ordenado). Una entrada cuyo id ya existe solo se acepta si es idéntica
+     * (reintento del mismo bloque); si no, otra instancia escribió esa secuencia de la tarjeta: se
+     * borra lo insertado por este bloque para esa tarjeta y se informa.
+     *
+     * @return tarjetas en conflicto (vacío si no hubo)
+     */
+    Mono<Set<String>> append(List<CardLedgerEntry> entries);
+
+    /** Escribe used/holds/ledgerSeq de cada tarjeta, salvo que ya tenga un snapshot más reciente. */
+    Mono<Void> snapshot(List<CardSnapshot> snapshots);
+
+    /** @return último bloque con snapshot completo, 0 si no hay */
+    Mono<Long> lastCheckpoint();
+
+    Mono<Void> checkpoint(long batch);
+
+    /**
+     * Toma la partición para {@code owner} durante {@code ttl} si está libre, vencida o ya es suya.
+     *
+     * @return false si otra instancia la tiene
+     */
+    Mono<Boolean> acquireLease(String partition, String owner, Duration ttl);
+
+    /**
+     * Extiende {@code ttl} las particiones que siguen siendo de {@code owner}.
+     *
+     * @return las que siguen siendo suyas; el resto las tomó otra instancia
+     */
+    Mono<Set<String>> renewLeases(Collection<String> partitions, String owner, Duration ttl);
+
+    Mono<Void> ensureIndexes();
+
+    record CardSnapshot(String cardId, BigDecimal used, Map<String, BigDecimal> holds, long seq) { }
+}
@@ -0,0 +1,155 @@
+package com.nttdata.card_service.repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoWriteException;
+import com.nttdata.card_service.model.CardLease;
+import com.nttdata.card_service.model.CardLedgerEntry;
+import com.nttdata.card_service.model.CreditCard;
+import com.nttdata.card_service.model.LedgerCheckpoint;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+class CardLedgerWriteRepositoryImpl implements CardLedgerWriteRepository {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ReactiveMongoTemplate mongo;
+
+    @Override
+    public Mono<Set<String>> append(List<CardLedgerEntry> entries) {
+        if (entries.isEmpty()) return Mono.just(Set.of());
+        return mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, CardLedgerEntry.class)
+                .insert(entries)
+                .execute()
+                .thenReturn(Set.<String>of())
+                .onErrorResume(e -> {
+                    List<CardLedgerEntry> duplicated = duplicatesOf(e, entries);
+                    return duplicated == null ? Mono.error(e) : conflicts(duplicated);
+                });
+    }
+
+    @Override
+    public Mono<Void> snapshot(List<CardSnapshot> snapshots) {
+        if (snapshots.isEmpty()) return Mono.empty();
+        ReactiveBulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, CreditCard.class);
+        snapshots.forEach(s -> ops.updateOne(
+                new Query(Criteria.where("_id").is(s.cardId())
+                        .orOperator(Criteria.where("ledgerSeq").lt(s.seq()), Criteria.where("ledgerSeq").exists(false))),
+                new Update().set("used", s.used()).set("holds", s.holds()).set("ledgerSeq", s.seq())));
+        return ops.execute().then();
+    }
+
+    @Override
+    public Mono<Long> lastCheckpoint() {
+        return mongo.findById(LedgerCheckpoint.ID, LedgerCheckpoint.class)
+                .map(LedgerCheckpoint::getBatch)
+                .defaultIfEmpty(0L);
+    }
+
+    @Override
+    public Mono<Void> checkpoint(long batch) {
+        return mongo.upsert(new Query(Criteria.where("_id").is(LedgerCheckpoint.ID).and("batch").lt(batch)),
+                        new Update().set("batch", batch), LedgerCheckpoint.class)
+                .onErrorResume(e -> isDuplicate(e) ? Mono.empty() : Mono.error(e)) // ya hay uno posterior
+                .then();
+    }
+
+    @Override
+    public Mono<Boolean> acquireLease(String partition, String owner, Duration ttl) {
+        Instant now = Instant.now();
+        Query free = new Query(Criteria.where("_id").is(partition)
+                .orOperator(Criteria.where("owner").is(owner), Criteria.where("until").lt(now)));
+        return mongo.upsert(free, new Update().set("owner", owner).set("until", now.plus(ttl)), CardLease.class)
+                .thenReturn(true)
+                .onErrorResume(e -> isDuplicate(e) ? Mono.just(false) : Mono.error(e)); // la tiene otra instancia
+    }
+
+    @Override
+    public Mono<Set<String>> renewLeases(Collection<String> partitions, String owner, Duration ttl) {
+        Query mine = new Query(Criteria.where("_id").in(partitions).and("owner").is(owner));
+        return mongo.updateMulti(mine, new Update().set("until", Instant.now().plus(ttl)), CardLease.class)
+                .thenMany(mongo.find(mine, CardLease.class))
+                .map(CardLease::getId)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Mono<Void> ensureIndexes() {
+        return Mono.when(
+                mongo.indexOps(CardLedgerEntry.class).ensureIndex(new CompoundIndexDefinition(
+                        new Document("cardId", 1).append("seq", 1)).named("card_seq")),
+                mongo.indexOps(CardLedgerEntry.class).ensureIndex(new CompoundIndexDefinition(
+                        new Document("batch", 1)).named("batch")));
+    }
+
+    /**
+     * Entradas del bloque que ya existían comparadas con las guardadas: si alguna difiere, las entradas
+     * que este bloque sí insertó para esa tarjeta se borran (su secuencia ya no es la de la tarjeta).
+     */
+    private Mono<Set<String>> conflicts(List<CardLedgerEntry> duplicated) {
+        Map<String, CardLedgerEntry> ours = duplicated.stream()
+                .collect(Collectors.toMap(CardLedgerEntry::getId, e -> e));
+        return mongo.find(new Query(Criteria.where("_id").in(ours.keySet())), CardLedgerEntry.class)
+                .filter(stored -> !sameEntry(stored, ours.get(stored.getId())))
+                .collectList()
+                .flatMap(conflicting -> {
+                    if (conflicting.isEmpty()) return Mono.just(Set.<String>of());
+                    Set<String> cards = conflicting.stream().map(CardLedgerEntry::getCardId).collect(Collectors.toSet());
+                    Set<String> ids = conflicting.stream().map(CardLedgerEntry::getId).collect(Collectors.toSet());
+                    long batch = duplicated.get(0).getBatch();
+                    return mongo.remove(new Query(Criteria.where("cardId").in(cards).and("batch").is(batch)
+                                    .and("_id").nin(ids)), CardLedgerEntry.class)
+                            .thenReturn(cards);
+                });
+    }
+
+    /** Entradas del bloque rechazadas por id repetido, o null si el error no es solo eso. */
+    private static List<CardLedgerEntry> duplicatesOf(Throwable e, List<CardLedgerEntry> entries) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof MongoBulkWriteException bulk) {
+                boolean onlyDuplicates = bulk.getWriteConcernError() == null
+                        && bulk.getWriteErrors().stream().allMatch(w -> w.getCode() == DUPLICATE_KEY);
+                return onlyDuplicates
+                        ? bulk.getWriteErrors().stream().map(w -> entries.get(w.getIndex())).toList()
+                        : null;
+            }
+        }
+        return null;
+    }
+
+    /** Misma entrada: el mismo bloque la escribió antes (at se compara con precisión de milisegundos en Mongo, se ignora). */
+    private static boolean sameEntry(CardLedgerEntry stored, CardLedgerEntry ours) {
+        return Objects.equals(stored.getCardId(), ours.getCardId())
+                && stored.getSeq() == ours.getSeq()
+                && stored.getType() == ours.getType()
+                && stored.getAmount() != null && ours.getAmount() != null
+                && stored.getAmount().compareTo(ours.getAmount()) == 0
+                && Objects.equals(stored.getHoldId(), ours.getHoldId())
+                && stored.getBatch() == ours.getBatch();
+    }
+
+    private static boolean isDuplicate(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof MongoWriteException w && w.getCode() == DUPLICATE_KEY) return true;
+        }
+        return false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.nttdata.card_service.repository;
+
+import reactor.core.publisher.Mono;
+
+public interface CreditCardIndexRepository {
+
+    /** Índice por cliente de la colección cards (idempotente). */
+    Mono<Void> ensureCustomerIndex();
+}
\ No newline at end of file
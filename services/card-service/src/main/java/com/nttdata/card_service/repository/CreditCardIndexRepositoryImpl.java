@@ -0,0 +1,21 @@
+package com.nttdata.card_service.repository;
+
+import com.nttdata.card_service.model.CreditCard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+class CreditCardIndexRepositoryImpl implements CreditCardIndexRepository {
+
+    private final ReactiveMongoTemplate mongo;
+
+    @Override
+    public Mono<Void> ensureCustomerIndex() {
+        return mongo.indexOps(CreditCard.class)
+                .ensureIndex(new Index("customerId", Sort.Direction.ASC).named("customer_id"))
+                .then();
+    }
+}
\ No newline at end of file
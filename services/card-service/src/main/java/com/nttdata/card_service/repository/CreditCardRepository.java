@@ -2,5 +2,14 @@ package com.nttdata.card_service.repository;
 
 import com.nttdata.card_service.model.CreditCard;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-public interface CreditCardRepository extends ReactiveMongoRepository<CreditCard, String> { }
\ No newline at end of file
+public interface CreditCardRepository extends ReactiveMongoRepository<CreditCard, String>, CreditCardIndexRepository,
+        CreditCardWriteRepository {
+
+    /** Resuelto sobre el índice customerId (lee a lo sumo una entrada). */
+    Mono<Boolean> existsByCustomerId(String customerId);
+
+    Flux<CreditCard> findByCustomerId(String customerId);
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.nttdata.card_service.repository;
+
+import com.nttdata.card_service.model.CreditCard;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Escrituras parciales sobre cards: used/holds/ledgerSeq los escribe solo el write-behind de
+ * CardAuthorizationEngine, así que el resto de cambios no debe reescribir el documento entero.
+ */
+public interface CreditCardWriteRepository {
+
+    /**
+     * Cambia tipo y límite sin tocar el saldo.
+     *
+     * @return la tarjeta actualizada, o vacío si no existe
+     */
+    Mono<CreditCard> updateTerms(String id, String type, BigDecimal creditLimit);
+}
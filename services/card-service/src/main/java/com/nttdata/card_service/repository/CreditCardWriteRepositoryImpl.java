@@ -0,0 +1,25 @@
+package com.nttdata.card_service.repository;
+
+import com.nttdata.card_service.model.CreditCard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+@RequiredArgsConstructor
+class CreditCardWriteRepositoryImpl implements CreditCardWriteRepository {
+
+    private final ReactiveMongoTemplate mongo;
+
+    @Override
+    public Mono<CreditCard> updateTerms(String id, String type, BigDecimal creditLimit) {
+        return mongo.findAndModify(new Query(Criteria.where("_id").is(id)),
+                new Update().set("type", type).set("creditLimit", creditLimit),
+                FindAndModifyOptions.options().returnNew(true), CreditCard.class);
+    }
+}
@@ -0,0 +1,521 @@
+package com.nttdata.card_service.service;
+
+import com.nttdata.card_service.model.CardLedgerEntry;
+import com.nttdata.card_service.model.CardLedgerEntry.Type;
+import com.nttdata.card_service.model.CreditCard;
+import com.nttdata.card_service.repository.CardLedgerRepository;
+import com.nttdata.card_service.repository.CardLedgerWriteRepository.CardSnapshot;
+import com.nttdata.card_service.repository.CreditCardRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Motor de autorizaciones: el crédito disponible de cada tarjeta vive en memoria y se decide ahí,
+ * sin leer ni escribir Mongo en el camino de la autorización.
+ *
+ * - Shards por id de tarjeta, cada uno con un único hilo: todas las operaciones de una tarjeta se
+ *   ejecutan en orden en el mismo hilo (single writer), así dos cargos concurrentes no pueden
+ *   pasar ambos el control de límite.
+ * - Retenciones (hold) que reservan crédito y luego se capturan (total o parcial) o se liberan.
+ * - Cada cambio genera una entrada en card_ledger. Se persisten en bloque cada
+ *   cards.authorization.flush-interval (write-behind), seguidas del snapshot de las tarjetas tocadas
+ *   (used/holds/ledgerSeq) y del checkpoint del bloque.
+ * - Al arrancar se reconstruye el estado: snapshot de cada tarjeta + entradas posteriores al checkpoint.
+ *
+ * Write-behind: una decisión se responde antes de persistirse; si el proceso muere sin poder hacer
+ * el último flush (se intenta al apagar), se pierden a lo sumo las decisiones de ese intervalo.
+ *
+ * Una tarjeta se autoriza siempre en la misma instancia: las tarjetas se reparten en
+ * cards.authorization.partitions particiones (igual en todas las instancias) y cada una tiene un
+ * lease en card_leases. Solo se decide sobre tarjetas de particiones propias con el lease vigente;
+ * cada flush lo renueva antes de escribir, y si otra instancia tomó la partición, lo pendiente de
+ * ella se descarta y sus tarjetas salen de memoria. Una entrada de card_ledger ya escrita con otro
+ * contenido (otra instancia usó esa secuencia) descarta igual la tarjeta. Con el lease de otra
+ * instancia, find devuelve el documento (último flush) y el resto de operaciones falla.
+ */
+@Slf4j
+@Component
+public class CardAuthorizationEngine {
+
+    private final CreditCardRepository cards;
+    private final CardLedgerRepository ledger;
+    private final Shard[] shards;
+    private final int partitions;
+    private final Duration leaseTtl;
+    private final String owner = UUID.randomUUID().toString();
+
+    /** Particiones propias -> System.nanoTime() hasta el que el lease es válido. */
+    private final Map<Integer, Long> leases = new ConcurrentHashMap<>();
+
+    /** Bloque de write-behind pendiente de reintento (solo lo toca el hilo del flush). */
+    private Batch retry;
+    private long lastBatch;
+    private long lastRenewal;
+
+    public CardAuthorizationEngine(CreditCardRepository cards, CardLedgerRepository ledger,
+                                   @Value("${cards.authorization.shards:0}") int shardCount,
+                                   @Value("${cards.authorization.partitions:64}") int partitions,
+                                   @Value("${cards.authorization.lease-ttl:10s}") Duration leaseTtl) {
+        if (partitions <= 0) throw new IllegalArgumentException("cards.authorization.partitions must be > 0");
+        this.cards = cards;
+        this.ledger = ledger;
+        this.partitions = partitions;
+        this.leaseTtl = leaseTtl;
+        this.lastRenewal = System.nanoTime() - leaseTtl.toNanos();
+        int n = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        this.shards = new Shard[n];
+        for (int i = 0; i < n; i++) shards[i] = new Shard(i);
+    }
+
+    /* ======================= Autorizaciones ======================= */
+
+    /** Cargo directo (autoriza y captura). */
+    public Mono<CreditCard> charge(String cardId, BigDecimal amount) {
+        requirePositive(amount);
+        return execute(cardId, (shard, card) -> {
+            card.reserve(amount);
+            card.used = card.used.add(amount);
+            shard.append(card, Type.CHARGE, amount, null);
+            return card.view();
+        });
+    }
+
+    /** Reserva crédito sin cargarlo todavía. */
+    public Mono<Hold> hold(String cardId, BigDecimal amount) {
+        requirePositive(amount);
+        return execute(cardId, (shard, card) -> {
+            card.reserve(amount);
+            String holdId = UUID.randomUUID().toString();
+            card.holds.put(holdId, amount);
+            shard.append(card, Type.HOLD, amount, holdId);
+            return new Hold(holdId, card.id, amount, card.available());
+        });
+    }
+
+    /**
+     * Captura una retención: carga {@code amount} (o el total retenido si es nulo) y libera el resto.
+     */
+    public Mono<CreditCard> capture(String cardId, String holdId, BigDecimal amount) {
+        if (amount != null) requirePositive(amount);
+        return execute(cardId, (shard, card) -> {
+            BigDecimal held = card.requireHold(holdId);
+            BigDecimal captured = amount == null ? held : amount;
+            if (captured.compareTo(held) > 0) {
+                throw new IllegalArgumentException("Capture exceeds hold: " + held);
+            }
+            card.holds.remove(holdId);
+            card.used = card.used.add(captured);
+            shard.append(card, Type.CAPTURE, captured, holdId);
+            return card.view();
+        });
+    }
+
+    public Mono<CreditCard> release(String cardId, String holdId) {
+        return execute(cardId, (shard, card) -> {
+            BigDecimal held = card.requireHold(holdId);
+            card.holds.remove(holdId);
+            shard.append(card, Type.RELEASE, held, holdId);
+            return card.view();
+        });
+    }
+
+    /** Pago: reduce lo utilizado, sin bajar de cero. */
+    public Mono<CreditCard> pay(String cardId, BigDecimal amount) {
+        requirePositive(amount);
+        return execute(cardId, (shard, card) -> {
+            BigDecimal applied = amount.min(card.used);
+            card.used = card.used.subtract(applied);
+            shard.append(card, Type.PAYMENT, applied, null);
+            return card.view();
+        });
+    }
+
+    public Mono<BigDecimal> available(String cardId) {
+        return execute(cardId, (shard, card) -> card.available());
+    }
+
+    /** Con la tarjeta en otra instancia, el documento (saldo según su último flush). */
+    public Mono<CreditCard> find(String cardId) {
+        return execute(cardId, (shard, card) -> card.view())
+                .onErrorResume(IllegalStateException.class, e -> cards.findById(cardId));
+    }
+
+    /* ======================= Ciclo de vida de tarjetas ======================= */
+
+    /** Tarjeta recién creada (o modificada): toma límite y datos del documento, conserva el saldo en memoria. */
+    public Mono<CreditCard> register(CreditCard doc) {
+        Shard shard = shardOf(doc.getId());
+        int partition = partitionOf(doc.getId());
+        return lease(partition).then(shard.run(() -> {
+            requireLease(partition);
+            CardState card = shard.cards.get(doc.getId());
+            if (card == null) {
+                card = CardState.of(doc);
+                shard.cards.put(card.id, card);
+            } else {
+                card.customerId = doc.getCustomerId();
+                card.type = doc.getType();
+                card.limit = orZero(doc.getCreditLimit());
+            }
+            return card.view();
+        }));
+    }
+
+    public Mono<Void> remove(String cardId) {
+        Shard shard = shardOf(cardId);
+        return shard.run(() -> shard.cards.remove(cardId)).then();
+    }
+
+    /**
+     * Toma las particiones libres y reconstruye el estado de sus tarjetas: snapshot de cada documento +
+     * entradas del log de bloques posteriores al último checkpoint (las que no alcanzaron a reflejarse
+     * en el snapshot). Las tarjetas de particiones ajenas se cargan si más adelante se toma su lease.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        ledger.ensureIndexes()
+                .onErrorResume(e -> {
+                    log.warn("card_ledger indexes not created: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .thenMany(Flux.range(0, partitions).concatMap(p -> lease(p).onErrorResume(e -> Mono.empty())))
+                .then(ledger.lastCheckpoint())
+                .flatMap(checkpoint -> ledger.findByBatchGreaterThanOrderByCardIdAscSeqAsc(checkpoint)
+                        .collectMultimap(CardLedgerEntry::getCardId)
+                        .flatMap(tail -> cards.findAll()
+                                .filter(doc -> leased(partitionOf(doc.getId())))
+                                .flatMap(doc -> restore(doc, tail.getOrDefault(doc.getId(), List.of())))
+                                .count()))
+                .subscribe(
+                        n -> log.info("Card authorization state rebuilt: {} cards", n),
+                        e -> log.error("Card authorization state not rebuilt: {}", e.getMessage()));
+    }
+
+    /* ======================= Write-behind ======================= */
+
+    /**
+     * Persiste lo acumulado desde el último flush: renueva los leases, y escribe log, snapshots y
+     * checkpoint, en ese orden. Sin nada que escribir, solo renueva (cada tercio de lease-ttl).
+     * Si falla, el mismo bloque se reintenta en la siguiente pasada antes de tomar uno nuevo.
+     */
+    @Scheduled(fixedDelayString = "${cards.authorization.flush-interval:50}")
+    public synchronized void flush() {
+        if (retry == null) retry = drain();
+        if (retry == null && System.nanoTime() - lastRenewal < leaseTtl.toNanos() / 3) return;
+        Batch batch = retry;
+        try {
+            renewLeases();
+            if (retry == null) return;
+            batch = retry;
+            Set<String> conflicts = ledger.append(batch.entries).block();
+            if (conflicts != null && !conflicts.isEmpty()) {
+                log.error("Card ledger batch {}: cards {} already have these sequences written by another instance; "
+                        + "their pending decisions are discarded", batch.number, conflicts);
+                discard(conflicts::contains);
+                if (retry == null) return;
+                batch = retry;
+            }
+            ledger.snapshot(batch.snapshots)
+                    .then(ledger.checkpoint(batch.number))
+                    .block();
+            retry = null;
+        } catch (RuntimeException e) {
+            log.warn("Card ledger batch {} ({} entries) not persisted, will retry: {}",
+                    batch == null ? "-" : batch.number, batch == null ? 0 : batch.entries.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        for (Shard shard : shards) shard.executor.shutdown();
+    }
+
+    /** Renueva los leases propios; las particiones que tomó otra instancia se descartan. */
+    private void renewLeases() {
+        long started = System.nanoTime();
+        Map<String, Integer> held = new HashMap<>();
+        leases.keySet().forEach(p -> held.put(String.valueOf(p), p));
+        if (!held.isEmpty()) {
+            Set<String> owned = ledger.renewLeases(held.keySet(), owner, leaseTtl).block();
+            Set<Integer> lost = new HashSet<>();
+            held.forEach((id, p) -> {
+                if (owned != null && owned.contains(id)) leases.put(p, started + leaseTtl.toNanos());
+                else lost.add(p);
+            });
+            if (!lost.isEmpty()) {
+                lost.forEach(leases::remove);
+                log.error("Card partitions {} taken by another instance; their pending decisions are discarded", lost);
+                discard(cardId -> lost.contains(partitionOf(cardId)));
+            }
+        }
+        lastRenewal = started;
+    }
+
+    /** Saca de memoria (y del bloque pendiente) las tarjetas cuyo estado dejó de ser el vigente. */
+    private void discard(Predicate<String> card) {
+        List<CompletableFuture<Integer>> dropped = new ArrayList<>(shards.length);
+        for (Shard shard : shards) dropped.add(CompletableFuture.supplyAsync(() -> shard.evict(card), shard.executor));
+        int pending = dropped.stream().mapToInt(CompletableFuture::join).sum();
+        int unwritten = 0;
+        if (retry != null) {
+            unwritten = (int) retry.entries.stream().filter(e -> card.test(e.getCardId())).count();
+            retry = retry.without(card);
+            if (retry.entries.isEmpty()) retry = null;
+        }
+        if (pending + unwritten > 0) log.error("{} card ledger entries discarded", pending + unwritten);
+    }
+
+    private Batch drain() {
+        List<CompletableFuture<Shard.Drained>> drained = new ArrayList<>(shards.length);
+        for (Shard shard : shards) drained.add(CompletableFuture.supplyAsync(shard::drain, shard.executor));
+
+        List<CardLedgerEntry> entries = new ArrayList<>();
+        List<CardSnapshot> snapshots = new ArrayList<>();
+        for (CompletableFuture<Shard.Drained> f : drained) {
+            Shard.Drained d = f.join();
+            entries.addAll(d.entries());
+            snapshots.addAll(d.snapshots());
+        }
+        if (entries.isEmpty()) return null;
+
+        // creciente también entre reinicios (el checkpoint anterior siempre queda por debajo)
+        long number = Math.max(lastBatch + 1, System.currentTimeMillis());
+        lastBatch = number;
+        entries.forEach(e -> e.setBatch(number));
+        return new Batch(number, entries, snapshots);
+    }
+
+    /* ======================= Internos ======================= */
+
+    private <T> Mono<T> execute(String cardId, CardOperation<T> op) {
+        Shard shard = shardOf(cardId);
+        int partition = partitionOf(cardId);
+        Mono<Void> loaded = Mono.defer(() -> shard.cards.containsKey(cardId) ? Mono.empty() : load(cardId));
+        return lease(partition).then(loaded).then(shard.run(() -> {
+            requireLease(partition);
+            CardState card = shard.cards.get(cardId);
+            return card == null ? null : op.apply(shard, card);
+        }));
+    }
+
+    /**
+     * Toma la partición si aún no es propia. Una propia con el lease vencido (sin renovar, p. ej. Mongo
+     * caído) no se retoma aquí: la renueva el flush o, si la tomó otra instancia, la descarta.
+     */
+    private Mono<Void> lease(int partition) {
+        if (leases.containsKey(partition)) return Mono.empty();
+        long started = System.nanoTime();
+        return ledger.acquireLease(String.valueOf(partition), owner, leaseTtl)
+                .flatMap(acquired -> {
+                    if (!acquired) {
+                        return Mono.error(new IllegalStateException("Card partition " + partition + " is owned by another instance"));
+                    }
+                    leases.putIfAbsent(partition, started + leaseTtl.toNanos());
+                    return Mono.<Void>empty();
+                });
+    }
+
+    private boolean leased(int partition) {
+        Long until = leases.get(partition);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    private void requireLease(int partition) {
+        if (!leased(partition)) throw new IllegalStateException("Card partition " + partition + " lease expired");
+    }
+
+    /** Tarjeta aún no cargada (p. ej. creada por otra vía): snapshot + entradas posteriores a él. */
+    private Mono<Void> load(String cardId) {
+        return cards.findById(cardId)
+                .flatMap(doc -> ledger.findByCardIdAndSeqGreaterThanOrderBySeqAsc(cardId, orZero(doc.getLedgerSeq()))
+                        .collectList()
+                        .flatMap(tail -> restore(doc, tail)))
+                .then();
+    }
+
+    private Mono<Boolean> restore(CreditCard doc, Iterable<CardLedgerEntry> tail) {
+        CardState card = CardState.of(doc);
+        for (CardLedgerEntry e : tail) card.replay(e);
+        Shard shard = shardOf(card.id);
+        return shard.run(() -> shard.cards.putIfAbsent(card.id, card) == null);
+    }
+
+    int partitionOf(String cardId) {
+        return Math.floorMod(cardId.hashCode(), partitions);
+    }
+
+    private Shard shardOf(String cardId) {
+        return shards[Math.floorMod(cardId.hashCode(), shards.length)];
+    }
+
+    private static void requirePositive(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) throw new IllegalArgumentException("Amount must be positive");
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    private static long orZero(Long value) {
+        return value == null ? 0L : value;
+    }
+
+    /** Resultado de una retención. */
+    public record Hold(String holdId, String cardId, BigDecimal amount, BigDecimal available) { }
+
+    @FunctionalInterface
+    private interface CardOperation<T> {
+        T apply(Shard shard, CardState card);
+    }
+
+    private record Batch(long number, List<CardLedgerEntry> entries, List<CardSnapshot> snapshots) {
+        Batch without(Predicate<String> card) {
+            return new Batch(number,
+                    entries.stream().filter(e -> !card.test(e.getCardId())).toList(),
+                    snapshots.stream().filter(s -> !card.test(s.cardId())).toList());
+        }
+    }
+
+    /** Tarjetas de un shard; su estado solo se modifica desde el hilo del shard. */
+    private static final class Shard {
+        private final ExecutorService executor;
+        private final Map<String, CardState> cards = new ConcurrentHashMap<>();
+        private final List<CardLedgerEntry> pending = new ArrayList<>();
+        private final Map<String, CardState> dirty = new LinkedHashMap<>();
+
+        private Shard(int index) {
+            this.executor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "card-auth-" + index);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        <T> Mono<T> run(Supplier<T> task) {
+            // suppressCancel: una operación ya encolada se completa aunque el cliente cancele
+            return Mono.fromFuture(() -> CompletableFuture.supplyAsync(task, executor), true);
+        }
+
+        void append(CardState card, Type type, BigDecimal amount, String holdId) {
+            card.seq++;
+            pending.add(CardLedgerEntry.builder()
+                    .id(CardLedgerEntry.idOf(card.id, card.seq))
+                    .cardId(card.id).seq(card.seq).type(type)
+                    .amount(amount).holdId(holdId).at(Instant.now())
+                    .build());
+            dirty.put(card.id, card);
+        }
+
+        Drained drain() {
+            List<CardLedgerEntry> entries = new ArrayList<>(pending);
+            List<CardSnapshot> snapshots = dirty.values().stream()
+                    .map(c -> new CardSnapshot(c.id, c.used, new HashMap<>(c.holds), c.seq))
+                    .toList();
+            pending.clear();
+            dirty.clear();
+            return new Drained(entries, snapshots);
+        }
+
+        /** @return entradas pendientes descartadas */
+        int evict(Predicate<String> card) {
+            cards.keySet().removeIf(card);
+            dirty.keySet().removeIf(card);
+            int before = pending.size();
+            pending.removeIf(e -> card.test(e.getCardId()));
+            return before - pending.size();
+        }
+
+        record Drained(List<CardLedgerEntry> entries, List<CardSnapshot> snapshots) { }
+    }
+
+    /** Estado en memoria de una tarjeta. */
+    private static final class CardState {
+        private final String id;
+        private String customerId;
+        private String type;
+        private BigDecimal limit;
+        private BigDecimal used;
+        private final Map<String, BigDecimal> holds;
+        private long seq;
+
+        private CardState(String id, Map<String, BigDecimal> holds) {
+            this.id = id;
+            this.holds = holds;
+        }
+
+        static CardState of(CreditCard doc) {
+            CardState card = new CardState(doc.getId(),
+                    doc.getHolds() == null ? new HashMap<>() : new HashMap<>(doc.getHolds()));
+            card.customerId = doc.getCustomerId();
+            card.type = doc.getType();
+            card.limit = orZero(doc.getCreditLimit());
+            card.used = orZero(doc.getUsed());
+            card.seq = orZero(doc.getLedgerSeq());
+            return card;
+        }
+
+        BigDecimal available() {
+            BigDecimal held = holds.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+            return limit.subtract(used).subtract(held);
+        }
+
+        void reserve(BigDecimal amount) {
+            if (amount.compareTo(available()) > 0) throw new IllegalStateException("Limit exceeded");
+        }
+
+        BigDecimal requireHold(String holdId) {
+            BigDecimal held = holds.get(holdId);
+            if (held == null) throw new NoSuchElementException("Hold not found: " + holdId);
+            return held;
+        }
+
+        void replay(CardLedgerEntry e) {
+            if (e.getSeq() <= seq) return; // ya reflejada en el snapshot
+            switch (e.getType()) {
+                case CHARGE -> used = used.add(e.getAmount());
+                case HOLD -> holds.put(e.getHoldId(), e.getAmount());
+                case CAPTURE -> {
+                    holds.remove(e.getHoldId());
+                    used = used.add(e.getAmount());
+                }
+                case RELEASE -> holds.remove(e.getHoldId());
+                case PAYMENT -> used = used.subtract(e.getAmount());
+            }
+            seq = e.getSeq();
+        }
+
+        CreditCard view() {
+            return CreditCard.builder()
+                    .id(id).customerId(customerId).type(type)
+                    .creditLimit(limit).used(used).holds(Map.copyOf(holds)).ledgerSeq(seq)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.nttdata.card_service.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import com.mongodb.reactivestreams.client.ChangeStreamPublisher;
+import com.nttdata.card_service.model.CardLedgerEntry;
+import com.nttdata.card_service.model.CreditCard;
+import com.nttdata.card_service.repository.CreditCardRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Crédito disponible y movimientos en vivo de las tarjetas (SSE), a partir de un único change
+ * stream por instancia sobre "cards" y "card_ledger".
+ *
+ * - Movimientos: cada entrada que se inserta en card_ledger (append-only).
+ * - Saldo: los snapshots que el write-behind de CardAuthorizationEngine escribe en cards
+ *   (used/holds). Llega con el atraso del flush (cards.authorization.flush-interval).
+ * - Para no pedir el documento completo en cada cambio, cada tarjeta suscrita guarda límite, usado
+ *   y retenciones y les aplica los campos modificados.
+ * - El change stream se abre con el primer suscriptor y se cierra con el último; si se corta, se
+ *   reabre desde el último resume token (con backoff).
+ * - Cada suscriptor tiene un buffer acotado (cards.live.buffer); si se llena (cliente lento) se le
+ *   cierra el stream y, al reconectar, recibe de nuevo el saldo.
+ *
+ * Los change streams requieren replica set; en local basta uno de un nodo
+ * (mongod --replSet rs0 y luego rs.initiate()).
+ */
+@Slf4j
+@Component
+public class CardLiveFeed {
+
+    private static final String CARDS = "cards";
+    private static final String LEDGER = "card_ledger";
+    private static final String HOLDS = "holds";
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private static final List<Bson> PIPELINE = List.of(Aggregates.match(Filters.or(
+            Filters.and(Filters.eq("ns.coll", LEDGER), Filters.eq("operationType", "insert")),
+            Filters.and(Filters.eq("ns.coll", CARDS), Filters.in("operationType", "update", "replace", "delete")))));
+
+    private final ReactiveMongoTemplate mongo;
+    private final CreditCardRepository cards;
+    private final int bufferSize;
+
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+    private Disposable watch;                    // protegido por synchronized (attach/detach)
+    private volatile BsonDocument resumeToken;
+
+    public CardLiveFeed(ReactiveMongoTemplate mongo, CreditCardRepository cards,
+                        @Value("${cards.live.buffer:256}") int bufferSize) {
+        this.mongo = mongo;
+        this.cards = cards;
+        this.bufferSize = bufferSize;
+    }
+
+    /** Crédito disponible actual y luego cada cambio de saldo o movimiento nuevo de la tarjeta. */
+    public Flux<Update> subscribe(String cardId) {
+        return Flux.defer(() -> {
+            Sinks.Many<Update> sink = Sinks.many().unicast()
+                    .onBackpressureBuffer(Queues.<Update>get(bufferSize).get());
+            // suscrito antes de leer la tarjeta: un cambio posterior a la lectura queda en el buffer
+            Topic topic = attach(cardId, sink);
+            return cards.findById(cardId)
+                    .switchIfEmpty(Mono.error(new NoSuchElementException("Card not found: " + cardId)))
+                    .map(topic::initial)
+                    .concatWith(sink.asFlux())
+                    .doFinally(s -> detach(cardId, topic, sink));
+        });
+    }
+
+    private synchronized Topic attach(String cardId, Sinks.Many<Update> sink) {
+        Topic topic = topics.computeIfAbsent(cardId, Topic::new);
+        topic.sinks.add(sink);
+        if (watch == null) {
+            watch = changes().subscribe(this::dispatch,
+                    e -> log.error("Cards change stream stopped: {}", e.getMessage()));
+        }
+        return topic;
+    }
+
+    private synchronized void detach(String cardId, Topic topic, Sinks.Many<Update> sink) {
+        topic.sinks.remove(sink);
+        if (topic.sinks.isEmpty()) topics.remove(cardId, topic);
+        if (topics.isEmpty() && watch != null) {
+            watch.dispose();
+            watch = null;
+            resumeToken = null;
+        }
+    }
+
+    private Flux<ChangeStreamDocument<Document>> changes() {
+        return Flux.defer(() -> mongo.getMongoDatabase().flatMapMany(db -> {
+                    ChangeStreamPublisher<Document> stream = db.watch(PIPELINE);
+                    BsonDocument token = resumeToken;
+                    return token == null ? stream : stream.resumeAfter(token);
+                }))
+                .doOnError(this::interrupted)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)));
+    }
+
+    private void interrupted(Throwable e) {
+        log.warn("Cards change stream interrupted: {}", e.getMessage());
+        if (e instanceof MongoCommandException mce && mce.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+            // ya no se puede retomar sin perder cambios: se cierran los streams para que resincronicen
+            resumeToken = null;
+            topics.values().forEach(Topic::close);
+        }
+    }
+
+    private void dispatch(ChangeStreamDocument<Document> change) {
+        resumeToken = change.getResumeToken();
+        try {
+            if (LEDGER.equals(change.getNamespace().getCollectionName())) {
+                CardLedgerEntry entry = mongo.getConverter().read(CardLedgerEntry.class, change.getFullDocument());
+                Topic topic = entry.getCardId() == null ? null : topics.get(entry.getCardId());
+                if (topic != null) topic.emit(new Update("movement", entry));
+                return;
+            }
+            String cardId = idOf(change.getDocumentKey());
+            Topic topic = cardId == null ? null : topics.get(cardId);
+            if (topic == null) return;
+            switch (change.getOperationType()) {
+                case DELETE -> topic.close();
+                case REPLACE -> topic.replaced(mongo.getConverter().read(CreditCard.class, change.getFullDocument()));
+                case UPDATE -> topic.updated(change.getUpdateDescription());
+                default -> { }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Card change not published: {}", e.getMessage());
+        }
+    }
+
+    private static String idOf(BsonDocument key) {
+        BsonValue id = key == null ? null : key.get("_id");
+        if (id == null) return null;
+        if (id.isObjectId()) return id.asObjectId().getValue().toHexString();
+        return id.isString() ? id.asString().getValue() : null;
+    }
+
+    private static BigDecimal decimal(BsonValue value) {
+        if (value.isDecimal128()) return value.asDecimal128().getValue().bigDecimalValue();
+        if (value.isInt32() || value.isInt64()) return BigDecimal.valueOf(value.asNumber().longValue());
+        if (value.isDouble()) return BigDecimal.valueOf(value.asDouble().getValue());
+        return value.isString() ? new BigDecimal(value.asString().getValue()) : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    /**
+     * Suscriptores de una tarjeta y su último saldo conocido. El saldo lo inicializa la primera
+     * lectura y luego solo lo cambia el hilo del change stream.
+     */
+    private final class Topic {
+        private final String cardId;
+        private final List<Sinks.Many<Update>> sinks = new CopyOnWriteArrayList<>();
+        private boolean loaded;
+        private BigDecimal limit = BigDecimal.ZERO;
+        private BigDecimal used = BigDecimal.ZERO;
+        private final Map<String, BigDecimal> holds = new HashMap<>();
+
+        Topic(String cardId) {
+            this.cardId = cardId;
+        }
+
+        synchronized Update initial(CreditCard card) {
+            if (!loaded) replaceState(card);
+            return balance();
+        }
+
+        synchronized void replaced(CreditCard card) {
+            replaceState(card);
+            emit(balance());
+        }
+
+        /** Campos del snapshot: used y holds (entero o por retención), o creditLimit. */
+        synchronized void updated(UpdateDescription change) {
+            boolean changed = false;
+            if (change.getUpdatedFields() != null) {
+                for (Map.Entry<String, BsonValue> field : change.getUpdatedFields().entrySet()) {
+                    changed |= set(field.getKey(), field.getValue());
+                }
+            }
+            if (change.getRemovedFields() != null) {
+                for (String name : change.getRemovedFields()) changed |= set(name, null);
+            }
+            if (changed) emit(balance());
+        }
+
+        /** @return si el campo afecta el saldo ({@code value} null: campo eliminado) */
+        private boolean set(String name, BsonValue value) {
+            switch (name) {
+                case "used" -> used = value == null ? BigDecimal.ZERO : decimal(value);
+                case "creditLimit" -> limit = value == null ? BigDecimal.ZERO : decimal(value);
+                case HOLDS -> {
+                    holds.clear();
+                    if (value != null && value.isDocument()) {
+                        value.asDocument().forEach((holdId, amount) -> holds.put(holdId, decimal(amount)));
+                    }
+                }
+                default -> {
+                    if (!name.startsWith(HOLDS + ".")) return false;
+                    String holdId = name.substring(HOLDS.length() + 1);
+                    if (value == null) holds.remove(holdId);
+                    else holds.put(holdId, decimal(value));
+                }
+            }
+            return true;
+        }
+
+        private void replaceState(CreditCard card) {
+            loaded = true;
+            limit = orZero(card.getCreditLimit());
+            used = orZero(card.getUsed());
+            holds.clear();
+            if (card.getHolds() != null) holds.putAll(card.getHolds());
+        }
+
+        private Update balance() {
+            BigDecimal held = holds.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+            return new Update("balance", new Balance(cardId, limit.subtract(used).subtract(held)));
+        }
+
+        void emit(Update update) {
+            List<Sinks.Many<Update>> slow = new ArrayList<>();
+            for (Sinks.Many<Update> sink : sinks) {
+                if (sink.tryEmitNext(update) == Sinks.EmitResult.FAIL_OVERFLOW) slow.add(sink);
+            }
+            for (Sinks.Many<Update> sink : slow) {
+                log.debug("Dropping slow live-feed subscriber of card {} ({} updates buffered)", cardId, bufferSize);
+                sinks.remove(sink);
+                sink.tryEmitComplete();     // recibe lo ya encolado y termina; el cliente reconecta
+            }
+        }
+
+        void close() {
+            sinks.forEach(Sinks.Many::tryEmitComplete);
+        }
+    }
+
+    /** Evento para el cliente: "balance" (Balance) o "movement" (CardLedgerEntry). */
+    public record Update(String event, Object data) { }
+
+    public record Balance(String cardId, BigDecimal available) { }
+}
@@ -2,54 +2,71 @@ package com.nttdata.card_service.service;
 
 import com.nttdata.card_service.model.CreditCard;
 import com.nttdata.card_service.repository.CreditCardRepository;
+import com.nttdata.changenotifier.ChangeNotifier;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 
+@Slf4j
 @Service @RequiredArgsConstructor
 public class CreditCardService {
 
     private final CreditCardRepository repository;
+    private final ChangeNotifier changeNotifier; // invalida cachés de otros servicios
+    private final CardAuthorizationEngine engine;     // crédito disponible en memoria
 
-    public Flux<CreditCard> findAll() { return repository.findAll(); }
-    public Mono<CreditCard> findById(String id) { return repository.findById(id); }
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        repository.ensureCustomerIndex()
+                .subscribe(null, e -> log.warn("cards customerId index not created: {}", e.getMessage()));
+    }
+
+    public Flux<CreditCard> findAll() { return repository.findAll(); } // saldo según el último flush
+    public Mono<CreditCard> findById(String id) { return engine.find(id); }
+    public Flux<CreditCard> findByCustomer(String customerId) {
+        // saldo vigente desde el motor (el documento refleja el último flush)
+        return repository.findByCustomerId(customerId).concatMap(card -> engine.find(card.getId()));
+    }
     public Mono<CreditCard> create(CreditCard c) {
         if (c.getUsed() == null) c.setUsed(BigDecimal.ZERO);
-        return repository.save(c);
+        return repository.save(c)
+                .flatMap(engine::register)
+                .flatMap(saved -> changeNotifier.changed(saved.getCustomerId()).thenReturn(saved));
     }
     public Mono<CreditCard> update(String id, CreditCard c) {
-        return repository.findById(id).flatMap(db -> {
-            db.setType(c.getType());
-            db.setCreditLimit(c.getCreditLimit());
-            return repository.save(db);
-        });
+        // solo tipo y límite: used/holds los escribe el write-behind del motor
+        return repository.updateTerms(id, c.getType(), c.getCreditLimit()).flatMap(engine::register);
     }
-    public Mono<Void> delete(String id) { return repository.deleteById(id); }
-
-    public Mono<CreditCard> charge(String id, BigDecimal amount) {
-        return repository.findById(id).flatMap(card -> {
-            var newUsed = card.getUsed().add(amount);
-            if (newUsed.compareTo(card.getCreditLimit()) > 0) {
-                return Mono.error(new IllegalStateException("Limit exceeded"));
-            }
-            card.setUsed(newUsed);
-            return repository.save(card);
-        });
+    public Mono<Void> delete(String id) {
+        return repository.findById(id)
+                .flatMap(card -> repository.delete(card)
+                        .then(engine.remove(id))
+                        .then(changeNotifier.changed(card.getCustomerId())));
     }
 
-    public Mono<CreditCard> pay(String id, BigDecimal amount) {
-        return repository.findById(id).flatMap(card -> {
-            var newUsed = card.getUsed().subtract(amount);
-            if (newUsed.compareTo(BigDecimal.ZERO) < 0) newUsed = BigDecimal.ZERO;
-            card.setUsed(newUsed);
-            return repository.save(card);
-        });
+    public Mono<Boolean> customerHasCards(String customerId) {
+        return repository.existsByCustomerId(customerId);
     }
 
-    public Mono<BigDecimal> available(String id) {
-        return repository.findById(id).map(card -> card.getCreditLimit().subtract(card.getUsed()));
+    /* Autorizaciones: las decide CardAuthorizationEngine en memoria */
+
+    public Mono<CreditCard> charge(String id, BigDecimal amount) { return engine.charge(id, amount); }
+
+    public Mono<CreditCard> pay(String id, BigDecimal amount) { return engine.pay(id, amount); }
+
+    public Mono<CardAuthorizationEngine.Hold> hold(String id, BigDecimal amount) { return engine.hold(id, amount); }
+
+    public Mono<CreditCard> capture(String id, String holdId, BigDecimal amount) {
+        return engine.capture(id, holdId, amount);
     }
+
+    public Mono<CreditCard> release(String id, String holdId) { return engine.release(id, holdId); }
+
+    public Mono<BigDecimal> available(String id) { return engine.available(id); }
 }
\ No newline at end of file
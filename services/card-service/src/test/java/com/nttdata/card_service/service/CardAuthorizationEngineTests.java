@@ -0,0 +1,158 @@
+package com.nttdata.card_service.service;
+
+import com.nttdata.card_service.model.CardLedgerEntry;
+import com.nttdata.card_service.model.CreditCard;
+import com.nttdata.card_service.repository.CardLedgerRepository;
+import com.nttdata.card_service.repository.CreditCardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Motor de autorizaciones sin Mongo: los repositorios son mocks, el estado vive en memoria.
+ */
+class CardAuthorizationEngineTests {
+
+    private static final String CARD = "card-1";
+
+    private CreditCardRepository cards;
+    private CardLedgerRepository ledger;
+    private CardAuthorizationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        cards = mock(CreditCardRepository.class);
+        ledger = mock(CardLedgerRepository.class);
+        when(ledger.findByCardIdAndSeqGreaterThanOrderBySeqAsc(anyString(), anyLong())).thenReturn(Flux.empty());
+        when(ledger.append(any())).thenReturn(Mono.just(Set.of()));
+        when(ledger.acquireLease(anyString(), anyString(), any())).thenReturn(Mono.just(true));
+        when(ledger.renewLeases(any(), anyString(), any())).thenAnswer(i -> Mono.just(Set.copyOf(i.<Collection<String>>getArgument(0))));
+        when(ledger.snapshot(any())).thenReturn(Mono.empty());
+        when(ledger.checkpoint(anyLong())).thenReturn(Mono.empty());
+        engine = new CardAuthorizationEngine(cards, ledger, 4, 16, Duration.ofSeconds(10));
+    }
+
+    @Test
+    void concurrentChargesNeverExceedTheLimit() {
+        card(1000, 0);
+
+        Long approved = Flux.range(0, 2000)
+                .parallel(32).runOn(Schedulers.parallel())
+                .flatMap(i -> engine.charge(CARD, BigDecimal.ONE).map(c -> 1L).onErrorResume(IllegalStateException.class, e -> Mono.empty()))
+                .sequential()
+                .count()
+                .block();
+
+        assertThat(approved).isEqualTo(1000L);
+        StepVerifier.create(engine.available(CARD)).expectNextMatches(a -> a.signum() == 0).verifyComplete();
+    }
+
+    @Test
+    void holdReservesCreditUntilCapturedOrReleased() {
+        card(1000, 100);
+
+        CardAuthorizationEngine.Hold hold = engine.hold(CARD, new BigDecimal("300")).block();
+        assertThat(hold.available()).isEqualByComparingTo("600");
+
+        StepVerifier.create(engine.charge(CARD, new BigDecimal("700")))
+                .expectErrorMatches(e -> e instanceof IllegalStateException && e.getMessage().equals("Limit exceeded"))
+                .verify();
+
+        StepVerifier.create(engine.capture(CARD, hold.holdId(), new BigDecimal("200")))
+                .expectNextMatches(c -> c.getUsed().compareTo(new BigDecimal("300")) == 0 && c.getHolds().isEmpty())
+                .verifyComplete();
+        StepVerifier.create(engine.release(CARD, hold.holdId()))
+                .expectError(NoSuchElementException.class)
+                .verify();
+        StepVerifier.create(engine.available(CARD)).expectNextMatches(a -> a.compareTo(new BigDecimal("700")) == 0).verifyComplete();
+    }
+
+    @Test
+    void flushPersistsLogInOrderAndRebuildReplaysIt() {
+        card(1000, 0);
+        engine.charge(CARD, new BigDecimal("50")).block();
+        CardAuthorizationEngine.Hold hold = engine.hold(CARD, new BigDecimal("20")).block();
+        engine.pay(CARD, new BigDecimal("80")).block();   // solo descuenta lo utilizado (50)
+
+        engine.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CardLedgerEntry>> written = ArgumentCaptor.forClass(List.class);
+        verify(ledger).append(written.capture());
+        assertThat(written.getValue()).extracting(CardLedgerEntry::getSeq).containsExactly(1L, 2L, 3L);
+        assertThat(written.getValue().get(2).getAmount()).isEqualByComparingTo("50");
+
+        // otra instancia arranca desde el documento sin snapshot y relee el log
+        CardLedgerRepository replay = mock(CardLedgerRepository.class);
+        when(replay.findByCardIdAndSeqGreaterThanOrderBySeqAsc(CARD, 0L)).thenReturn(Flux.fromIterable(written.getValue()));
+        when(replay.acquireLease(anyString(), anyString(), any())).thenReturn(Mono.just(true));
+        CardAuthorizationEngine restarted = new CardAuthorizationEngine(cards, replay, 2, 16, Duration.ofSeconds(10));
+
+        StepVerifier.create(restarted.find(CARD))
+                .expectNextMatches(c -> c.getUsed().signum() == 0 && c.getHolds().containsKey(hold.holdId()))
+                .verifyComplete();
+        StepVerifier.create(restarted.available(CARD)).expectNextMatches(a -> a.compareTo(new BigDecimal("980")) == 0).verifyComplete();
+    }
+
+    @Test
+    void partitionTakenByAnotherInstanceDiscardsPendingDecisions() {
+        card(1000, 0);
+        engine.charge(CARD, new BigDecimal("50")).block();
+
+        doReturn(Mono.just(Set.of())).when(ledger).renewLeases(any(), anyString(), any());
+        when(ledger.acquireLease(anyString(), anyString(), any())).thenReturn(Mono.just(false));
+        engine.flush();
+
+        verify(ledger, never()).append(any());
+        StepVerifier.create(engine.charge(CARD, BigDecimal.ONE)).expectError(IllegalStateException.class).verify();
+        // la lectura cae al documento (último flush de la otra instancia)
+        StepVerifier.create(engine.find(CARD)).expectNextMatches(c -> c.getUsed().signum() == 0).verifyComplete();
+    }
+
+    @Test
+    void sequenceWrittenByAnotherInstanceDropsTheCardAndItsSnapshot() {
+        card(1000, 0);
+        engine.charge(CARD, new BigDecimal("50")).block();
+        when(ledger.append(any())).thenReturn(Mono.just(Set.of(CARD)));
+
+        engine.flush();
+
+        verify(ledger, never()).snapshot(any());   // el bloque solo tenía esa tarjeta
+        // se vuelve a cargar desde Mongo en la siguiente operación
+        StepVerifier.create(engine.available(CARD)).expectNextMatches(a -> a.compareTo(new BigDecimal("1000")) == 0).verifyComplete();
+    }
+
+    @Test
+    void unknownCardIsEmpty() {
+        when(cards.findById(anyString())).thenReturn(Mono.empty());
+        StepVerifier.create(engine.charge("missing", BigDecimal.ONE)).verifyComplete();
+    }
+
+    private void card(int limit, int used) {
+        when(cards.findById(CARD)).thenReturn(Mono.just(CreditCard.builder()
+                .id(CARD).customerId("c1").type("PERSONAL")
+                .creditLimit(BigDecimal.valueOf(limit)).used(BigDecimal.valueOf(used))
+                .build()));
+    }
+}
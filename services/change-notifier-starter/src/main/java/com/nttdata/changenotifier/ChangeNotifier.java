@@ -0,0 +1,74 @@
+package com.nttdata.changenotifier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Avisa a los servicios que cachean datos de un cliente (p. ej. el portafolio en customer-service)
+ * que algo suyo cambió: DELETE {listener}/{customerId} a cada URL de {prefix}.change-listeners.
+ *
+ * Cada instancia del destino tiene su propia caché, así que el aviso va a todas: si el host de la URL
+ * es un servicio registrado en discovery (http://customer-service/...), se envía a cada instancia
+ * registrada; si no (o sin discovery), a la URL tal cual.
+ *
+ * Un aviso fallido no hace fallar la operación: la caché del otro lado expira por TTL.
+ */
+public class ChangeNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeNotifier.class);
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(2);
+
+    private final String prefix;
+    private final WebClient webClient;
+    private final List<String> listeners;
+    private final ReactiveDiscoveryClient discovery;   // null: sin discovery, URLs tal cual
+
+    public ChangeNotifier(String prefix, WebClient.Builder builder, List<String> listeners,
+                          ReactiveDiscoveryClient discovery) {
+        this.prefix = prefix;
+        this.webClient = builder.build();
+        this.listeners = listeners.stream().filter(url -> !url.isBlank()).toList();
+        this.discovery = discovery;
+    }
+
+    public Mono<Void> changed(String customerId) {
+        if (customerId == null) return Mono.empty();
+        return Flux.fromIterable(listeners)
+                .flatMap(this::targets)
+                .flatMap(url -> webClient.delete()
+                        .uri(url + "/{id}", customerId)
+                        .retrieve()
+                        .toBodilessEntity()
+                        .timeout(TIMEOUT)
+                        .onErrorResume(e -> {
+                            log.warn("Change of {} of customer {} not delivered to {}: {}", prefix, customerId, url, e.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    /** Una URL por instancia registrada del servicio nombrado en el host de {@code listener}. */
+    Flux<String> targets(String listener) {
+        if (discovery == null) return Flux.just(listener);
+        URI uri = URI.create(listener);
+        return discovery.getInstances(uri.getHost())
+                .map(instance -> UriComponentsBuilder.fromUri(instance.getUri()).path(uri.getRawPath()).toUriString())
+                .collectList()
+                .onErrorResume(e -> Mono.just(List.of()))
+                .flatMapIterable(urls -> urls.isEmpty() ? List.of(listener) : urls);
+    }
+
+    List<String> listeners() {
+        return listeners;
+    }
+}
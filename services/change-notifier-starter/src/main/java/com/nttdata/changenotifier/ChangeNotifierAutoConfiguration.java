@@ -0,0 +1,38 @@
+package com.nttdata.changenotifier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.reactive.function.client.WebClientAutoConfiguration;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+
+/**
+ * Un ChangeNotifier por servicio. banking.change-notifier.prefix dice qué datos avisa el servicio
+ * (accounts, cards, credits, customers) y de dónde salen los destinos: {prefix}.change-listeners.
+ * Si hay un ReactiveDiscoveryClient (Eureka), los destinos se resuelven a todas sus instancias.
+ */
+@AutoConfiguration(after = WebClientAutoConfiguration.class)
+@ConditionalOnProperty("banking.change-notifier.prefix")
+public class ChangeNotifierAutoConfiguration {
+
+    static final String PREFIX_PROPERTY = "banking.change-notifier.prefix";
+
+    @Bean
+    @ConditionalOnMissingBean
+    ChangeNotifier changeNotifier(Environment environment, WebClient.Builder builder,
+                                  ObjectProvider<ReactiveDiscoveryClient> discovery) {
+        String prefix = environment.getRequiredProperty(PREFIX_PROPERTY);
+        List<String> listeners = Binder.get(environment)
+                .bind(prefix + ".change-listeners", Bindable.listOf(String.class))
+                .orElse(List.of());
+        return new ChangeNotifier(prefix, builder, listeners, discovery.getIfAvailable());
+    }
+}
@@ -0,0 +1,108 @@
+package com.nttdata.changenotifier;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.web.reactive.function.client.WebClientAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChangeNotifierTests {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(WebClientAutoConfiguration.class, ChangeNotifierAutoConfiguration.class));
+
+    private HttpServer server;
+    private final List<String> received = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void startListener() {
+        server = listener();
+    }
+
+    @AfterEach
+    void stopListener() {
+        server.stop(0);
+    }
+
+    private HttpServer listener() {
+        try {
+            HttpServer listener = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            listener.createContext("/api/v1/cache/portfolios", exchange -> {
+                received.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+                exchange.sendResponseHeaders(204, -1);
+                exchange.close();
+            });
+            listener.start();
+            return listener;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    void readsListenersUnderTheConfiguredPrefix() {
+        runner.withPropertyValues("banking.change-notifier.prefix=accounts",
+                        "accounts.change-listeners[0]=http://localhost:8081/api/v1/cache/portfolios",
+                        "accounts.change-listeners[1]=",
+                        "cards.change-listeners[0]=http://localhost:8082/api/v1/cache/cards")
+                .run(context -> assertThat(context.getBean(ChangeNotifier.class).listeners())
+                        .containsExactly("http://localhost:8081/api/v1/cache/portfolios"));
+
+        runner.run(context -> assertThat(context).doesNotHaveBean(ChangeNotifier.class));
+    }
+
+    @Test
+    void deliversToEveryListenerAndIgnoresFailures() {
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        ChangeNotifier notifier = new ChangeNotifier("accounts", WebClient.builder(),
+                List.of(base + "/api/v1/cache/portfolios", base + "/missing", "http://127.0.0.1:1/api/v1/cache/cards"), null);
+
+        StepVerifier.create(notifier.changed("c-1")).verifyComplete();
+        StepVerifier.create(notifier.changed(null)).verifyComplete();
+
+        assertThat(received).containsExactly("DELETE /api/v1/cache/portfolios/c-1");
+    }
+
+    @Test
+    void broadcastsToEveryRegisteredInstance() {
+        HttpServer second = listener();
+        try {
+            ReactiveDiscoveryClient discovery = mock(ReactiveDiscoveryClient.class);
+            when(discovery.getInstances("customer-service")).thenReturn(Flux.just(
+                    instance(server.getAddress().getPort()), instance(second.getAddress().getPort())));
+            when(discovery.getInstances("127.0.0.1")).thenReturn(Flux.empty());
+            String unregistered = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1/cache/portfolios";
+            ChangeNotifier notifier = new ChangeNotifier("accounts", WebClient.builder(),
+                    List.of("http://customer-service/api/v1/cache/portfolios", unregistered), discovery);
+
+            StepVerifier.create(notifier.changed("c-1")).verifyComplete();
+
+            // dos instancias registradas + la URL sin registro, tal cual
+            assertThat(received).hasSize(3).containsOnly("DELETE /api/v1/cache/portfolios/c-1");
+        } finally {
+            second.stop(0);
+        }
+    }
+
+    private static ServiceInstance instance(int port) {
+        return new DefaultServiceInstance("customer-service-" + port, "customer-service", "127.0.0.1", port, false);
+    }
+}
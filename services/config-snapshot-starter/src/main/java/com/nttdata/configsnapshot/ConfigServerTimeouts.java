@@ -0,0 +1,37 @@
+package com.nttdata.configsnapshot;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.config.ConfigDataEnvironmentPostProcessor;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Acota la espera por el config-server. Por defecto el config client espera hasta 10 s para conectar
+ * y 185 s por la respuesta; con un config-server lento eso es lo que tarda en arrancar cada instancia.
+ *
+ * Corre antes de cargar la configuración y agrega los valores con la menor precedencia: si
+ * spring.cloud.config.request-*-timeout está definido en otro lado, gana ese.
+ */
+public class ConfigServerTimeouts implements EnvironmentPostProcessor, Ordered {
+
+    static final String SOURCE = "configSnapshotTimeouts";
+
+    static final Map<String, Object> DEFAULTS = Map.of(
+            "spring.cloud.config.request-connect-timeout", 1000,
+            "spring.cloud.config.request-read-timeout", 3000);
+
+    @Override
+    public int getOrder() {
+        return ConfigDataEnvironmentPostProcessor.ORDER - 1;
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (!ConfigSnapshot.enabled(environment)) return;
+        environment.getPropertySources().addLast(new MapPropertySource(SOURCE, DEFAULTS));
+    }
+}
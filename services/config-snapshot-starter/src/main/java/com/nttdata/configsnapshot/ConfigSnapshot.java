@@ -0,0 +1,96 @@
+package com.nttdata.configsnapshot;
+
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Copia local de lo que entregó el config-server: un .properties por aplicación.
+ *
+ * Solo se copian las propiedades que vinieron del config-server (las del jar ya están en el jar).
+ * Se escribe en un archivo temporal y se renombra, para que un arranque concurrente nunca lea una
+ * copia a medio escribir.
+ */
+final class ConfigSnapshot {
+
+    static final Path DEFAULT_DIR = Path.of(System.getProperty("user.home"), ".banking", "config-snapshot");
+
+    /** Fuentes que agrega el config client (spring-cloud-config-client) al recibir la configuración. */
+    private static final String CONFIG_SERVER_SOURCE_PREFIX = "configserver:";
+    private static final String CONFIG_CLIENT_SOURCE = "configClient";
+
+    private ConfigSnapshot() { }
+
+    static boolean enabled(Environment environment) {
+        return environment.getProperty(ConfigSnapshotProperties.PREFIX + ".enabled", Boolean.class, true);
+    }
+
+    static Path file(Environment environment, String application) {
+        String dir = environment.getProperty(ConfigSnapshotProperties.PREFIX + ".dir");
+        return file(dir == null ? DEFAULT_DIR : Path.of(dir), application);
+    }
+
+    static Path file(Path dir, String application) {
+        return dir.resolve(application + ".properties");
+    }
+
+    /** Si el config-server respondió en este arranque. */
+    static boolean fromConfigServer(ConfigurableEnvironment environment) {
+        for (PropertySource<?> source : environment.getPropertySources()) {
+            if (isConfigServer(source) || CONFIG_CLIENT_SOURCE.equals(source.getName())) return true;
+        }
+        return false;
+    }
+
+    /** Propiedades del config-server, con la precedencia que tienen en el entorno. */
+    static Map<String, String> configServerValues(ConfigurableEnvironment environment) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (PropertySource<?> source : environment.getPropertySources()) {   // de mayor a menor precedencia
+            if (!isConfigServer(source) || !(source instanceof EnumerablePropertySource<?> enumerable)) continue;
+            for (String name : enumerable.getPropertyNames()) {
+                Object value = enumerable.getProperty(name);
+                if (value != null) values.putIfAbsent(name, value.toString());
+            }
+        }
+        return values;
+    }
+
+    static Properties read(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    static void write(Path file, Map<String, String> values, String comment) throws IOException {
+        Properties properties = new Properties();
+        properties.putAll(values);
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                properties.store(writer, comment);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static boolean isConfigServer(PropertySource<?> source) {
+        return source.getName().startsWith(CONFIG_SERVER_SOURCE_PREFIX);
+    }
+}
@@ -0,0 +1,27 @@
+package com.nttdata.configsnapshot;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * Arranque sin depender de un config-server lento (perfil fast-startup de cada servicio):
+ *
+ * - ConfigServerTimeouts: la espera por el config-server se acota a segundos.
+ * - ConfigSnapshotWriter: al quedar listo, guarda lo que entregó el config-server.
+ * - ConfigSnapshotFallback: si el config-server no respondió, se arranca con esa copia.
+ *
+ * Se desactiva con banking.config-snapshot.enabled=false.
+ */
+@AutoConfiguration
+@ConditionalOnProperty(prefix = ConfigSnapshotProperties.PREFIX, name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(ConfigSnapshotProperties.class)
+public class ConfigSnapshotAutoConfiguration {
+
+    @Bean
+    ConfigSnapshotWriter configSnapshotWriter(ConfigurableEnvironment environment, ConfigSnapshotProperties properties) {
+        return new ConfigSnapshotWriter(environment, properties);
+    }
+}
@@ -0,0 +1,73 @@
+package com.nttdata.configsnapshot;
+
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.config.ConfigDataEnvironmentPostProcessor;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Si el config-server no respondió (caído o fuera del timeout de ConfigServerTimeouts), arranca con
+ * la última configuración que entregó (ver ConfigSnapshotWriter) en lugar de arrancar sin ella.
+ *
+ * La copia queda con la precedencia que tendría el config-server: por encima de los application.yml
+ * del jar y por debajo de variables de entorno y argumentos.
+ */
+public class ConfigSnapshotFallback implements EnvironmentPostProcessor, Ordered {
+
+    static final String SOURCE_PREFIX = "configSnapshot:";
+
+    /** Fuentes de los archivos de configuración (application.yml, imports de archivos). */
+    private static final String CONFIG_FILE_SOURCE_PREFIX = "Config resource ";
+
+    private final Log log;
+
+    public ConfigSnapshotFallback(DeferredLogFactory logFactory) {
+        this.log = logFactory.getLog(ConfigSnapshotFallback.class);
+    }
+
+    @Override
+    public int getOrder() {
+        return ConfigDataEnvironmentPostProcessor.ORDER + 1;
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        String name = environment.getProperty("spring.application.name");
+        if (name == null || !ConfigSnapshot.enabled(environment) || ConfigSnapshot.fromConfigServer(environment)) return;
+
+        Path file = ConfigSnapshot.file(environment, name);
+        if (!Files.isReadable(file)) {
+            log.warn("Config server unavailable and no configuration snapshot at " + file);
+            return;
+        }
+        try {
+            Properties values = ConfigSnapshot.read(file);
+            insert(environment.getPropertySources(), new PropertiesPropertySource(SOURCE_PREFIX + file, values));
+            log.warn("Config server unavailable: starting with the configuration snapshot of "
+                    + Files.getLastModifiedTime(file) + " (" + file + ")");
+        } catch (IOException e) {
+            log.warn("Config server unavailable and configuration snapshot unreadable: " + e.getMessage());
+        }
+    }
+
+    static void insert(MutablePropertySources sources, PropertySource<?> snapshot) {
+        for (PropertySource<?> source : sources) {
+            if (source.getName().startsWith(CONFIG_FILE_SOURCE_PREFIX)) {
+                sources.addBefore(source.getName(), snapshot);
+                return;
+            }
+        }
+        sources.addLast(snapshot);
+    }
+}
@@ -0,0 +1,27 @@
+package com.nttdata.configsnapshot;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * banking.config-snapshot.*: si se guarda/usa la copia local de la configuración y dónde.
+ *
+ * Los post-processors del entorno leen las mismas claves antes de que exista este bean (ver ConfigSnapshot).
+ */
+@ConfigurationProperties(ConfigSnapshotProperties.PREFIX)
+public class ConfigSnapshotProperties {
+
+    static final String PREFIX = "banking.config-snapshot";
+
+    /** Guarda la configuración del config-server al arrancar y la usa si el config-server no responde. */
+    private boolean enabled = true;
+
+    /** Carpeta de las copias ({spring.application.name}.properties). */
+    private Path dir = ConfigSnapshot.DEFAULT_DIR;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public Path getDir() { return dir; }
+    public void setDir(Path dir) { this.dir = dir; }
+}
@@ -0,0 +1,45 @@
+package com.nttdata.configsnapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Guarda la configuración del config-server una vez que el servicio arrancó con ella: solo una
+ * configuración con la que el servicio llegó a estar listo reemplaza la copia anterior.
+ */
+public class ConfigSnapshotWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigSnapshotWriter.class);
+
+    private final ConfigurableEnvironment environment;
+    private final ConfigSnapshotProperties properties;
+
+    ConfigSnapshotWriter(ConfigurableEnvironment environment, ConfigSnapshotProperties properties) {
+        this.environment = environment;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void save() {
+        String name = environment.getProperty("spring.application.name");
+        // sin config-server en este arranque (p. ej. se usó la copia): la copia vigente se conserva
+        if (name == null || !ConfigSnapshot.fromConfigServer(environment)) return;
+        Map<String, String> values = ConfigSnapshot.configServerValues(environment);
+        if (values.isEmpty()) return;
+
+        Path file = ConfigSnapshot.file(properties.getDir(), name);
+        try {
+            ConfigSnapshot.write(file, values, "Last configuration served by the config server to " + name);
+            log.info("Configuration snapshot saved to {} ({} properties)", file, values.size());
+        } catch (IOException e) {
+            log.warn("Configuration snapshot not saved to {}: {}", file, e.getMessage());
+        }
+    }
+}
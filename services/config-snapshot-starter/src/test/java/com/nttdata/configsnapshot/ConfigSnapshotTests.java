@@ -0,0 +1,98 @@
+package com.nttdata.configsnapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.logging.DeferredLogs;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConfigSnapshotTests {
+
+    private static final String APPLICATION_YML = "Config resource 'class path resource [application.yml]' via location 'optional:classpath:/'";
+    private static final String CONFIG_SERVER = "configserver:file:config/account-service.yml";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void savesOnlyConfigServerPropertiesWithTheirPrecedence() throws Exception {
+        StandardEnvironment environment = environment();
+        environment.getPropertySources().addBefore(APPLICATION_YML, new MapPropertySource(CONFIG_SERVER,
+                Map.of("rules.transactionFee.SAVINGS", "1.50", "server.port", 8082)));
+        environment.getPropertySources().addBefore(CONFIG_SERVER, new MapPropertySource("configserver:overrides",
+                Map.of("server.port", 9082)));
+
+        new ConfigSnapshotWriter(environment, properties()).save();
+
+        Path file = ConfigSnapshot.file(dir, "account-service");
+        assertThat(ConfigSnapshot.read(file)).containsOnly(
+                Map.entry("rules.transactionFee.SAVINGS", "1.50"),
+                Map.entry("server.port", "9082"));
+        try (var files = Files.list(dir)) {
+            assertThat(files).containsExactly(file);   // sin temporales
+        }
+    }
+
+    @Test
+    void keepsPreviousSnapshotWhenConfigServerDidNotAnswer() throws Exception {
+        Path file = ConfigSnapshot.file(dir, "account-service");
+        ConfigSnapshot.write(file, Map.of("server.port", "8082"), null);
+
+        new ConfigSnapshotWriter(environment(), properties()).save();
+
+        assertThat(ConfigSnapshot.read(file)).containsOnly(Map.entry("server.port", "8082"));
+    }
+
+    @Test
+    void startsFromSnapshotOnlyWithoutConfigServer() throws Exception {
+        ConfigSnapshot.write(ConfigSnapshot.file(dir, "account-service"), Map.of("server.port", "8082"), null);
+        ConfigSnapshotFallback fallback = new ConfigSnapshotFallback(new DeferredLogs());
+
+        StandardEnvironment withoutServer = environment();
+        fallback.postProcessEnvironment(withoutServer, new SpringApplication());
+        assertThat(withoutServer.getProperty("server.port")).isEqualTo("8082");
+        assertThat(withoutServer.getPropertySources().stream().map(PropertySource::getName))
+                .containsSubsequence("systemProperties", ConfigSnapshotFallback.SOURCE_PREFIX
+                        + ConfigSnapshot.file(dir, "account-service"), APPLICATION_YML);
+
+        StandardEnvironment withServer = environment();
+        withServer.getPropertySources().addBefore(APPLICATION_YML, new MapPropertySource(CONFIG_SERVER, Map.of("server.port", 9082)));
+        fallback.postProcessEnvironment(withServer, new SpringApplication());
+        assertThat(withServer.getProperty("server.port")).isEqualTo("9082");
+    }
+
+    @Test
+    void boundsConfigServerWaitUnlessConfigured() {
+        StandardEnvironment environment = environment();
+        environment.getPropertySources().addFirst(new MapPropertySource("args",
+                Map.of("spring.cloud.config.request-read-timeout", 500)));
+
+        new ConfigServerTimeouts().postProcessEnvironment(environment, new SpringApplication());
+
+        assertThat(environment.getProperty("spring.cloud.config.request-connect-timeout")).isEqualTo("1000");
+        assertThat(environment.getProperty("spring.cloud.config.request-read-timeout")).isEqualTo("500");
+    }
+
+    private StandardEnvironment environment() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addLast(new MapPropertySource(APPLICATION_YML, Map.of(
+                "spring.application.name", "account-service",
+                "server.port", 8080,
+                ConfigSnapshotProperties.PREFIX + ".dir", dir.toString())));
+        return environment;
+    }
+
+    private ConfigSnapshotProperties properties() {
+        ConfigSnapshotProperties properties = new ConfigSnapshotProperties();
+        properties.setDir(dir);
+        return properties;
+    }
+}
@@ -0,0 +1,24 @@
+package com.nttdata.credit_service.controller;
+
+import com.nttdata.credit_service.service.InterestAccrualEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/credits/accrual")
+@RequiredArgsConstructor
+public class AccrualController {
+
+    private final InterestAccrualEngine engine;
+
+    /** Ejecuta (o retoma) el devengo hasta {@code date}; por defecto, hasta ayer. */
+    @PostMapping
+    public Mono<InterestAccrualEngine.AccrualReport> run(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return engine.run(date != null ? date : LocalDate.now().minusDays(1));
+    }
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.nttdata.credit_service.controller;
 
 import com.nttdata.credit_service.model.Credit;
+import com.nttdata.credit_service.model.CustomerCreditSummary;
 import com.nttdata.credit_service.service.CreditService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +21,20 @@ public class CreditController {
 
     @GetMapping public Flux<Credit> findAll() { return service.findAll(); }
     @GetMapping("/{id}") public Mono<Credit> findById(@PathVariable String id) { return service.findById(id); }
+    @GetMapping("/by-customer/{customerId}") public Flux<Credit> findByCustomer(@PathVariable String customerId) {
+        return service.findByCustomer(customerId);
+    }
+
+    /** Créditos por tipo y saldo por pagar del cliente (lectura por id sobre credit_summaries). */
+    @GetMapping("/customers/{customerId}/summary")
+    public Mono<CustomerCreditSummary> summary(@PathVariable String customerId) {
+        return service.findSummary(customerId);
+    }
+
+    /** Recalcula credit_summaries desde credits. */
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @PostMapping("/summaries/rebuild")
+    public Mono<Void> rebuildSummaries() { return service.rebuildSummaries(); }
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping public Mono<Credit> create(@RequestBody Credit c) { return service.create(c); }
@@ -0,0 +1,30 @@
+package com.nttdata.credit_service.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Avance de una corrida de devengo de intereses (una por fecha). lastCreditId es el checkpoint:
+ * todos los créditos con id menor o igual ya fueron procesados, así una corrida caída se retoma ahí.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+@Document(collection = "accrual_runs")
+public class AccrualRun {
+
+    public enum Status { RUNNING, COMPLETED }
+
+    @Id
+    private String id;            // fecha de devengo (yyyy-MM-dd)
+    private LocalDate accrualDate;
+    private Status status;
+    private String lastCreditId;
+    private long processed;       // créditos leídos
+    private long accrued;         // créditos actualizados
+    private long skipped;         // créditos que cambiaron en cada reintento; devengan esos días en la próxima corrida
+    private Instant startedAt;
+    private Instant finishedAt;
+}
\ No newline at end of file
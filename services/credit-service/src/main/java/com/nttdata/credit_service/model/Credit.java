@@ -5,6 +5,7 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
 @Document(collection = "credits")
@@ -14,5 +15,8 @@ public class Credit {
     private String customerId;
     private String type;          // PERSONAL | BUSINESS
     private BigDecimal amount;    // monto del crédito
-    private BigDecimal balance;   // saldo por pagar
+    private BigDecimal balance;   // saldo por pagar: capital + accruedInterest redondeado a céntimos
+    private BigDecimal annualRate;    // tasa anual (0.18 = 18%); sin tasa no devenga intereses
+    private LocalDate accruedThrough; // último día con intereses devengados (ver InterestAccrualEngine)
+    private BigDecimal accruedInterest; // interés devengado y no pagado, sin redondear (null: 0)
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.nttdata.credit_service.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Resumen de créditos de un cliente (uno por cliente, id = customerId). Se mantiene con $inc en cada
+ * alta, baja y pago, así la regla de elegibilidad se valida con una lectura por _id en lugar de contar
+ * sobre credits. Ver CreditSummaryWriteRepository.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+@Document(collection = "credit_summaries")
+public class CustomerCreditSummary {
+    @Id
+    private String customerId;
+    private Map<String, Integer> counts;      // créditos por tipo (PERSONAL, BUSINESS)
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal outstanding;           // saldo total por pagar
+    private Instant updatedAt;
+
+    public static CustomerCreditSummary empty(String customerId) {
+        return new CustomerCreditSummary(customerId, Map.of(), BigDecimal.ZERO, null);
+    }
+}
@@ -0,0 +1,6 @@
+package com.nttdata.credit_service.repository;
+
+import com.nttdata.credit_service.model.AccrualRun;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface AccrualRunRepository extends ReactiveMongoRepository<AccrualRun, String> { }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.nttdata.credit_service.repository;
+
+import com.nttdata.credit_service.model.Credit;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Lectura por bloques y escritura en bloque para el devengo de intereses.
+ */
+public interface CreditAccrualRepository {
+
+    /** Hasta {@code limit} créditos con id mayor que {@code afterId} (null: desde el primero), en orden de id. */
+    Flux<Credit> findChunkAfter(String afterId, int limit);
+
+    /**
+     * Aplica los nuevos saldos con un bulk write no ordenado. Cada actualización solo se aplica si el
+     * crédito sigue con el saldo, el interés y la fecha de devengo leídos (un pago concurrente gana;
+     * InterestAccrualEngine relee el crédito y reintenta).
+     *
+     * @return créditos actualizados
+     */
+    Mono<Long> applyAccruals(List<Accrual> accruals);
+
+    record Accrual(String creditId, String customerId, BigDecimal previousBalance, BigDecimal previousAccruedInterest,
+                   LocalDate previousAccruedThrough, BigDecimal newBalance, BigDecimal accruedInterest,
+                   LocalDate accruedThrough) { }
+}
\ No newline at end of file
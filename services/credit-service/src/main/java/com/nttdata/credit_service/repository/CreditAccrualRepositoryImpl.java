@@ -0,0 +1,43 @@
+package com.nttdata.credit_service.repository;
+
+import com.nttdata.credit_service.model.Credit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+class CreditAccrualRepositoryImpl implements CreditAccrualRepository {
+
+    private final ReactiveMongoTemplate mongo;
+
+    @Override
+    public Flux<Credit> findChunkAfter(String afterId, int limit) {
+        Query query = afterId == null ? new Query() : new Query(Criteria.where("_id").gt(afterId));
+        query.with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+        return mongo.find(query, Credit.class);
+    }
+
+    @Override
+    public Mono<Long> applyAccruals(List<Accrual> accruals) {
+        if (accruals.isEmpty()) return Mono.just(0L);
+        ReactiveBulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Credit.class);
+        accruals.forEach(a -> ops.updateOne(
+                new Query(Criteria.where("_id").is(a.creditId())
+                        .and("balance").is(a.previousBalance())
+                        .and("accruedInterest").is(a.previousAccruedInterest())
+                        .and("accruedThrough").is(a.previousAccruedThrough())),
+                new Update().set("balance", a.newBalance())
+                        .set("accruedInterest", a.accruedInterest())
+                        .set("accruedThrough", a.accruedThrough())));
+        return ops.execute().map(r -> (long) r.getModifiedCount());
+    }
+}
\ No newline at end of file
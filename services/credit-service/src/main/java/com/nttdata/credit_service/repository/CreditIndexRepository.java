@@ -0,0 +1,9 @@
+package com.nttdata.credit_service.repository;
+
+import reactor.core.publisher.Mono;
+
+public interface CreditIndexRepository {
+
+    /** Índice (customerId, type) de la colección credits (idempotente). */
+    Mono<Void> ensureCustomerIndex();
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.nttdata.credit_service.repository;
+
+import com.nttdata.credit_service.model.Credit;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+class CreditIndexRepositoryImpl implements CreditIndexRepository {
+
+    private final ReactiveMongoTemplate mongo;
+
+    @Override
+    public Mono<Void> ensureCustomerIndex() {
+        // sirve a findByCustomerId (prefijo) y a countByCustomerIdAndType
+        return mongo.indexOps(Credit.class)
+                .ensureIndex(new CompoundIndexDefinition(new Document("customerId", 1).append("type", 1))
+                        .named("customer_type"))
+                .then();
+    }
+}
\ No newline at end of file
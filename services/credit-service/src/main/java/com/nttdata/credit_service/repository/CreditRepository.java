@@ -2,8 +2,14 @@ package com.nttdata.credit_service.repository;
 
 import com.nttdata.credit_service.model.Credit;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface CreditRepository extends ReactiveMongoRepository<Credit, String> {
+public interface CreditRepository extends ReactiveMongoRepository<Credit, String>, CreditAccrualRepository,
+        CreditIndexRepository, CreditWriteRepository {
+    /** Para auditoría; la elegibilidad en altas se resuelve con credit_summaries (ver CreditService). */
     Mono<Long> countByCustomerIdAndType(String customerId, String type);
+
+    /** Resuelto sobre el índice (customerId, type). */
+    Flux<Credit> findByCustomerId(String customerId);
 }
\ No newline at end of file
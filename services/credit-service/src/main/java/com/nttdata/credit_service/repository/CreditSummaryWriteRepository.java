@@ -0,0 +1,33 @@
+package com.nttdata.credit_service.repository;
+
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Escrituras atómicas sobre credit_summaries. Todas son una sola operación por _id.
+ */
+public interface CreditSummaryWriteRepository {
+
+    /**
+     * Reserva un crédito de {@code type} para el cliente: suma 1 al contador del tipo y {@code balance}
+     * al saldo por pagar, solo si el contador sigue por debajo de {@code maxOfType} (null: sin límite).
+     * Crea el resumen si el cliente aún no tiene uno. Dos altas simultáneas no pueden pasar ambas el límite.
+     *
+     * @return false si el cliente ya alcanzó el máximo para ese tipo
+     */
+    Mono<Boolean> reserve(String customerId, String type, BigDecimal balance, Integer maxOfType);
+
+    /** Deshace una reserva (baja del crédito): resta 1 al tipo y {@code balance} al saldo por pagar. */
+    Mono<Void> release(String customerId, String type, BigDecimal balance);
+
+    /** Suma {@code delta} (negativo en pagos) al saldo por pagar. */
+    Mono<Void> addOutstanding(String customerId, BigDecimal delta);
+
+    /** {@link #addOutstanding} de varios clientes en un bulk write no ordenado (devengo de intereses). */
+    Mono<Void> addOutstanding(Map<String, BigDecimal> deltas);
+
+    /** Recalcula todos los resúmenes (contadores y saldo) a partir de credits. Para migración y reparación. */
+    Mono<Void> rebuild();
+}
@@ -0,0 +1,127 @@
+package com.nttdata.credit_service.repository;
+
+import com.nttdata.credit_service.model.Credit;
+import com.nttdata.credit_service.model.CustomerCreditSummary;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class CreditSummaryWriteRepositoryImpl implements CreditSummaryWriteRepository {
+
+    private static final String SUMMARIES = "credit_summaries";
+
+    private final ReactiveMongoTemplate mongo;
+
+    @Override
+    public Mono<Boolean> reserve(String customerId, String type, BigDecimal balance, Integer maxOfType) {
+        // si el resumen existe pero no cumple el límite, el upsert intenta insertar el mismo _id y falla
+        // con clave duplicada. También falla el perdedor de dos upserts simultáneos sobre un cliente
+        // nuevo: se reintenta una vez, con el documento ya creado la condición se evalúa normalmente.
+        return upsertReserve(customerId, type, balance, maxOfType)
+                .onErrorResume(DuplicateKeyException.class, e -> upsertReserve(customerId, type, balance, maxOfType)
+                        .onErrorReturn(DuplicateKeyException.class, false));
+    }
+
+    private Mono<Boolean> upsertReserve(String customerId, String type, BigDecimal balance, Integer maxOfType) {
+        Criteria criteria = Criteria.where("_id").is(customerId);
+        if (maxOfType != null) criteria.and(countField(type)).not().gte(maxOfType);  // $not también acepta el campo ausente
+        Update update = new Update()
+                .inc(countField(type), 1)
+                .inc("outstanding", balance)
+                .set("updatedAt", Instant.now());
+        return mongo.upsert(new Query(criteria), update, CustomerCreditSummary.class)
+                .map(r -> r.getMatchedCount() > 0 || r.getUpsertedId() != null);
+    }
+
+    @Override
+    public Mono<Void> release(String customerId, String type, BigDecimal balance) {
+        Update update = new Update()
+                .inc(countField(type), -1)
+                .inc("outstanding", balance.negate())
+                .set("updatedAt", Instant.now());
+        return mongo.updateFirst(byId(customerId), update, CustomerCreditSummary.class).then();
+    }
+
+    @Override
+    public Mono<Void> addOutstanding(String customerId, BigDecimal delta) {
+        if (delta.signum() == 0) return Mono.empty();
+        Update update = new Update().inc("outstanding", delta).set("updatedAt", Instant.now());
+        return mongo.updateFirst(byId(customerId), update, CustomerCreditSummary.class).then();
+    }
+
+    @Override
+    public Mono<Void> addOutstanding(Map<String, BigDecimal> deltas) {
+        ReactiveBulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, CustomerCreditSummary.class);
+        Instant now = Instant.now();
+        deltas.forEach((customerId, delta) -> {
+            if (delta.signum() != 0) ops.updateOne(byId(customerId), new Update().inc("outstanding", delta).set("updatedAt", now));
+        });
+        return deltas.values().stream().allMatch(d -> d.signum() == 0) ? Mono.empty() : ops.execute().then();
+    }
+
+    @Override
+    public Mono<Void> rebuild() {
+        return run(List.of(
+                matchCustomerAndType(),
+                stage("$group", new Document("_id", new Document("customerId", "$customerId").append("type", "$type"))
+                        .append("n", new Document("$sum", 1))
+                        .append("outstanding", new Document("$sum", decimalBalance()))),
+                stage("$group", new Document("_id", "$_id.customerId")
+                        .append("counts", new Document("$push", new Document("k", "$_id.type").append("v", "$n")))
+                        .append("outstanding", new Document("$sum", "$outstanding"))),
+                stage("$set", new Document("counts", new Document("$arrayToObject", "$counts"))
+                        .append("updatedAt", "$$NOW")),
+                stage("$merge", new Document("into", SUMMARIES)
+                        .append("on", "_id")
+                        .append("whenMatched", "replace")
+                        .append("whenNotMatched", "insert"))));
+    }
+
+    private Mono<Void> run(List<AggregationOperation> stages) {
+        Aggregation aggregation = Aggregation.newAggregation(stages)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        return mongo.aggregate(aggregation, mongo.getCollectionName(Credit.class), Document.class).then();
+    }
+
+    private static AggregationOperation matchCustomerAndType() {
+        return stage("$match", new Document("customerId", new Document("$type", "string"))
+                .append("type", new Document("$type", "string")));
+    }
+
+    /** balance se guarda como texto (BigDecimal por defecto); se suma como decimal. */
+    private static Document decimalBalance() {
+        return new Document("$convert", new Document("input", "$balance")
+                .append("to", "decimal")
+                .append("onError", 0)
+                .append("onNull", 0));
+    }
+
+    private static AggregationOperation stage(String operator, Document body) {
+        Document stage = new Document(operator, body);
+        return context -> stage;
+    }
+
+    private static String countField(String type) {
+        return "counts." + type;
+    }
+
+    private static Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+}
@@ -0,0 +1,33 @@
+package com.nttdata.credit_service.repository;
+
+import com.nttdata.credit_service.model.Credit;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Escrituras condicionadas sobre un crédito, para mantener credit_summaries con el valor exacto
+ * que quedó (o salió) de la colección.
+ */
+public interface CreditWriteRepository {
+
+    /**
+     * Cambia saldo e interés devengado solo si siguen siendo los leídos en {@code expected}
+     * (el devengo puede cambiar solo el interés, sin llegar a mover el saldo redondeado).
+     *
+     * @return el crédito actualizado, o vacío si otra operación cambió el saldo entretanto
+     */
+    Mono<Credit> compareAndSetBalance(Credit expected, BigDecimal newBalance, BigDecimal newAccruedInterest);
+
+    /**
+     * Cambia tipo, monto y saldo solo si tipo, saldo e interés devengado siguen siendo los leídos en
+     * {@code expected} (un pago o el devengo concurrente no se pisan).
+     *
+     * @return el crédito actualizado, o vacío si otra operación lo cambió entretanto
+     */
+    Mono<Credit> compareAndSetTerms(Credit expected, String type, BigDecimal amount, BigDecimal balance,
+                                    BigDecimal accruedInterest);
+
+    /** Borra el crédito y lo devuelve tal como estaba al borrarse (vacío si no existía). */
+    Mono<Credit> removeById(String id);
+}
@@ -0,0 +1,44 @@
+package com.nttdata.credit_service.repository;
+
+import com.nttdata.credit_service.model.Credit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+@RequiredArgsConstructor
+class CreditWriteRepositoryImpl implements CreditWriteRepository {
+
+    private final ReactiveMongoTemplate mongo;
+
+    @Override
+    public Mono<Credit> compareAndSetBalance(Credit expected, BigDecimal newBalance, BigDecimal newAccruedInterest) {
+        Query query = new Query(Criteria.where("_id").is(expected.getId())
+                .and("balance").is(expected.getBalance())
+                .and("accruedInterest").is(expected.getAccruedInterest()));
+        return mongo.findAndModify(query, new Update().set("balance", newBalance).set("accruedInterest", newAccruedInterest),
+                FindAndModifyOptions.options().returnNew(true), Credit.class);
+    }
+
+    @Override
+    public Mono<Credit> compareAndSetTerms(Credit expected, String type, BigDecimal amount, BigDecimal balance,
+                                           BigDecimal accruedInterest) {
+        Query query = new Query(Criteria.where("_id").is(expected.getId())
+                .and("type").is(expected.getType())
+                .and("balance").is(expected.getBalance())
+                .and("accruedInterest").is(expected.getAccruedInterest()));
+        Update update = new Update().set("type", type).set("amount", amount)
+                .set("balance", balance).set("accruedInterest", accruedInterest);
+        return mongo.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Credit.class);
+    }
+
+    @Override
+    public Mono<Credit> removeById(String id) {
+        return mongo.findAndRemove(new Query(Criteria.where("_id").is(id)), Credit.class);
+    }
+}
@@ -0,0 +1,7 @@
+package com.nttdata.credit_service.repository;
+
+import com.nttdata.credit_service.model.CustomerCreditSummary;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface CustomerCreditSummaryRepository extends ReactiveMongoRepository<CustomerCreditSummary, String>,
+        CreditSummaryWriteRepository { }
@@ -1,45 +1,165 @@
 package com.nttdata.credit_service.service;
 
+import com.nttdata.changenotifier.ChangeNotifier;
 import com.nttdata.credit_service.model.Credit;
+import com.nttdata.credit_service.model.CustomerCreditSummary;
 import com.nttdata.credit_service.repository.CreditRepository;
+import com.nttdata.credit_service.repository.CustomerCreditSummaryRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.util.Map;
 
+/**
+ * Los contadores por tipo y el saldo por pagar de cada cliente viven en credit_summaries y se
+ * actualizan en la misma operación que valida la regla (ver CreditSummaryWriteRepository.reserve):
+ * un alta es una lectura/escritura condicionada por _id, sin contar sobre credits.
+ */
+@Slf4j
 @Service @RequiredArgsConstructor
 public class CreditService {
 
+    /** Máximo de créditos por tipo y cliente; los tipos sin entrada no tienen límite. */
+    static final Map<String, Integer> MAX_PER_TYPE = Map.of("PERSONAL", 1);
+
+    /** Reintentos de un pago o una modificación cuando otra operación cambió el saldo entre la lectura y la escritura. */
+    private static final int PAY_ATTEMPTS = 3;
+    private static final int UPDATE_ATTEMPTS = 3;
+
     private final CreditRepository repository;
+    private final CustomerCreditSummaryRepository summaries;
+    private final ChangeNotifier changeNotifier; // invalida cachés de otros servicios
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        repository.ensureCustomerIndex()
+                .subscribe(null, e -> log.warn("credits customerId index not created: {}", e.getMessage()));
+        // primera ejecución sobre datos existentes: se arman los resúmenes desde credits
+        summaries.count()
+                .filter(n -> n == 0)
+                .flatMap(n -> repository.count())
+                .filter(n -> n > 0)
+                .flatMap(n -> summaries.rebuild().doOnSuccess(v -> log.info("credit_summaries rebuilt from {} credits", n)))
+                .subscribe(null, e -> log.warn("credit_summaries not rebuilt: {}", e.getMessage()));
+    }
 
     public Flux<Credit> findAll() { return repository.findAll(); }
     public Mono<Credit> findById(String id) { return repository.findById(id); }
+    public Flux<Credit> findByCustomer(String customerId) { return repository.findByCustomerId(customerId); }
+
+    public Mono<CustomerCreditSummary> findSummary(String customerId) {
+        return summaries.findById(customerId).defaultIfEmpty(CustomerCreditSummary.empty(customerId));
+    }
+
+    public Mono<Void> rebuildSummaries() { return summaries.rebuild(); }
 
     public Mono<Credit> create(Credit c) {
+        if (c.getCustomerId() == null || c.getType() == null) {
+            return Mono.error(new IllegalArgumentException("customerId and type are required"));
+        }
         if (c.getBalance() == null) c.setBalance(c.getAmount());
-        // Aquí podrías validar: if PERSONAL && count >=1 -> error
-        return repository.save(c);
+        BigDecimal balance = orZero(c.getBalance());
+        return summaries.reserve(c.getCustomerId(), c.getType(), balance, MAX_PER_TYPE.get(c.getType()))
+                .flatMap(eligible -> eligible
+                        ? repository.save(c)
+                                // la reserva ya se contó: se devuelve si el alta no llega a guardarse
+                                .onErrorResume(e -> summaries.release(c.getCustomerId(), c.getType(), balance).then(Mono.error(e)))
+                        : Mono.error(notEligible(c.getCustomerId(), c.getType())))
+                .flatMap(this::notifyChanged);
     }
+
     public Mono<Credit> update(String id, Credit c) {
+        if (c.getType() == null) return Mono.error(new IllegalArgumentException("type is required"));
+        return update(id, c, UPDATE_ATTEMPTS).flatMap(this::notifyChanged);
+    }
+
+    /**
+     * Escritura condicionada al tipo, saldo e interés leídos (ver CreditWriteRepository#compareAndSetTerms):
+     * un pago o un devengo entre la lectura y la escritura hace releer, y el resumen se ajusta con la
+     * diferencia exacta respecto de lo que se pisó.
+     */
+    private Mono<Credit> update(String id, Credit c, int attempts) {
         return repository.findById(id).flatMap(db -> {
-            db.setType(c.getType());
-            db.setAmount(c.getAmount());
-            db.setBalance(c.getBalance());
-            return repository.save(db);
+            String customerId = db.getCustomerId();
+            String oldType = db.getType();
+            BigDecimal oldBalance = orZero(db.getBalance());
+            BigDecimal balance = c.getBalance() == null ? db.getBalance() : c.getBalance();
+            BigDecimal newBalance = orZero(balance);
+            // el interés devengado sigue siendo parte del saldo, sin superarlo
+            BigDecimal interest = db.getAccruedInterest() == null ? null : db.getAccruedInterest().min(newBalance);
+            Mono<Credit> write = repository.compareAndSetTerms(db, c.getType(), c.getAmount(), balance, interest);
+            Mono<Credit> retry = Mono.defer(() -> attempts > 1
+                    ? update(id, c, attempts - 1)
+                    : Mono.error(new IllegalStateException("Credit " + id + " changed concurrently, retry the update")));
+
+            if (c.getType().equals(oldType)) {
+                return write
+                        .flatMap(saved -> summaries.addOutstanding(customerId, newBalance.subtract(oldBalance)).thenReturn(saved))
+                        .switchIfEmpty(retry);
+            }
+            // cambio de tipo: el nuevo tipo se valida como un alta y el anterior se libera
+            return summaries.reserve(customerId, c.getType(), newBalance, MAX_PER_TYPE.get(c.getType()))
+                    .flatMap(eligible -> eligible
+                            ? write.flatMap(saved -> release(customerId, oldType, oldBalance).thenReturn(saved))
+                                    // se devuelve la reserva antes de releer
+                                    .switchIfEmpty(Mono.defer(() -> summaries.release(customerId, c.getType(), newBalance).then(retry)))
+                            : Mono.error(notEligible(customerId, c.getType())));
         });
     }
-    public Mono<Void> delete(String id) { return repository.deleteById(id); }
+
+    public Mono<Void> delete(String id) {
+        // se libera con el saldo que tenía el crédito al borrarse, no con uno leído antes
+        return repository.removeById(id)
+                .flatMap(cr -> release(cr.getCustomerId(), cr.getType(), orZero(cr.getBalance()))
+                        .then(changeNotifier.changed(cr.getCustomerId())));
+    }
 
     public Mono<Credit> pay(String id, BigDecimal amount) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            return Mono.error(new IllegalArgumentException("Invalid amount"));
+        }
+        return pay(id, amount, PAY_ATTEMPTS).flatMap(this::notifyChanged);
+    }
+
+    private Mono<Credit> pay(String id, BigDecimal amount, int attempts) {
         return repository.findById(id)
                 .flatMap(cr -> {
-                    if (amount.compareTo(BigDecimal.ZERO) <= 0) return Mono.error(new IllegalArgumentException("Invalid amount"));
-                    var newBalance = cr.getBalance().subtract(amount);
+                    BigDecimal balance = orZero(cr.getBalance());
+                    var newBalance = balance.subtract(amount);
                     if (newBalance.compareTo(BigDecimal.ZERO) < 0) newBalance = BigDecimal.ZERO;
-                    cr.setBalance(newBalance);
-                    return repository.save(cr);
+                    BigDecimal paid = balance.subtract(newBalance);
+                    // el pago cubre primero el interés devengado, luego el capital
+                    BigDecimal interest = orZero(cr.getAccruedInterest()).subtract(paid).max(BigDecimal.ZERO);
+                    return repository.compareAndSetBalance(cr, newBalance, interest)
+                            .flatMap(saved -> summaries.addOutstanding(cr.getCustomerId(), paid.negate()).thenReturn(saved))
+                            .switchIfEmpty(Mono.defer(() -> attempts > 1
+                                    ? pay(id, amount, attempts - 1)
+                                    : Mono.error(new IllegalStateException("Credit " + id + " changed concurrently, retry the payment"))));
                 });
     }
-}
\ No newline at end of file
+
+    private Mono<Void> release(String customerId, String type, BigDecimal balance) {
+        // créditos antiguos sin tipo no están contados en el resumen
+        return type == null ? summaries.addOutstanding(customerId, balance.negate())
+                : summaries.release(customerId, type, balance);
+    }
+
+    private Mono<Credit> notifyChanged(Credit c) {
+        return changeNotifier.changed(c.getCustomerId()).thenReturn(c);
+    }
+
+    private static IllegalStateException notEligible(String customerId, String type) {
+        return new IllegalStateException("Customer " + customerId + " already holds the maximum of "
+                + MAX_PER_TYPE.get(type) + " " + type + " credit(s)");
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+}
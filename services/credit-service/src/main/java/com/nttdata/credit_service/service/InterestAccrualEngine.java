@@ -0,0 +1,243 @@
+package com.nttdata.credit_service.service;
+
+import com.nttdata.credit_service.model.AccrualRun;
+import com.nttdata.credit_service.model.Credit;
+import com.nttdata.credit_service.repository.AccrualRunRepository;
+import com.nttdata.credit_service.repository.CreditAccrualRepository.Accrual;
+import com.nttdata.credit_service.repository.CreditRepository;
+import com.nttdata.credit_service.repository.CustomerCreditSummaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Devengo diario de intereses sobre el capital de los créditos (interés simple, base 365).
+ *
+ * - El interés se acumula sin redondear en accruedInterest y el saldo es capital + ese interés
+ *   redondeado a céntimos: el capital es balance - accruedInterest redondeado, así el interés no
+ *   genera interés y las fracciones de céntimo de saldos pequeños se acumulan en vez de perderse.
+ *   Los pagos cubren primero el interés (ver CreditService#pay).
+ * - Recorre la colección por bloques ordenados por id (keyset), leyendo el siguiente bloque mientras
+ *   los anteriores se calculan en paralelo (un bloque por núcleo) y se escriben con bulk no ordenado.
+ * - Cada crédito guarda hasta qué día devengó (accruedThrough): una corrida solo suma los días que
+ *   faltan, así repetirla o retomarla no cobra dos veces.
+ * - Un crédito que un pago cambió entre la lectura y la escritura se relee y se reintenta; si sigue
+ *   cambiando se cuenta como skipped y devenga esos días en la próxima corrida.
+ * - El avance se guarda en accrual_runs al terminar cada bloque, en orden: una corrida caída se
+ *   retoma desde el último bloque completo.
+ * - El saldo por pagar de credit_summaries se ajusta con $inc por cliente con lo que sumó cada
+ *   devengo aplicado, así no pisa pagos ni altas concurrentes. Si el proceso cae entre la escritura
+ *   de un bloque y su $inc, el resumen queda corto en ese interés: se corrige con /summaries/rebuild.
+ */
+@Slf4j
+@Service
+public class InterestAccrualEngine {
+
+    private static final BigDecimal DAYS_PER_YEAR = BigDecimal.valueOf(365);
+    private static final int MONEY_SCALE = 2;
+    private static final int INTEREST_SCALE = 10;
+    /** Escrituras de un crédito que otra operación cambió entretanto (la primera incluida). */
+    private static final int ACCRUAL_ATTEMPTS = 3;
+
+    private final CreditRepository credits;
+    private final AccrualRunRepository runs;
+    private final CustomerCreditSummaryRepository summaries;
+    private final int chunkSize;
+    private final int parallelism;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public InterestAccrualEngine(CreditRepository credits, AccrualRunRepository runs,
+                                 CustomerCreditSummaryRepository summaries,
+                                 @Value("${credits.accrual.chunk-size:5000}") int chunkSize,
+                                 @Value("${credits.accrual.parallelism:0}") int parallelism) {
+        this.credits = credits;
+        this.runs = runs;
+        this.summaries = summaries;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /** Corrida nocturna: devenga hasta el día anterior. */
+    @Scheduled(cron = "${credits.accrual.cron:0 30 1 * * *}")
+    public void nightly() {
+        run(LocalDate.now().minusDays(1))
+                .subscribe(null, e -> log.error("Interest accrual failed: {}", e.getMessage()));
+    }
+
+    /**
+     * Devenga intereses de todos los créditos hasta {@code date} (inclusive). Si ya hay una corrida
+     * sin terminar para esa fecha, continúa desde su checkpoint.
+     */
+    public Mono<AccrualReport> run(LocalDate date) {
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return Mono.error(new IllegalStateException("An accrual run is already in progress"));
+            }
+            return runs.findById(date.toString())
+                    .defaultIfEmpty(AccrualRun.builder().id(date.toString()).accrualDate(date).build())
+                    .flatMap(run -> run.getStatus() == AccrualRun.Status.COMPLETED
+                            ? Mono.just(report(run, Duration.ZERO, 0))
+                            : execute(run))
+                    .doFinally(s -> running.set(false));
+        });
+    }
+
+    private Mono<AccrualReport> execute(AccrualRun run) {
+        Instant started = Instant.now();
+        long resumedFrom = run.getProcessed();
+        if (run.getStatus() == null) run.setStartedAt(started);
+        else log.info("Resuming interest accrual {} after credit {}", run.getId(), run.getLastCreditId());
+        run.setStatus(AccrualRun.Status.RUNNING);
+
+        LocalDate date = run.getAccrualDate();
+        return runs.save(run)
+                .thenMany(chunks(run.getLastCreditId()))
+                // cálculo en paralelo (un bloque por hilo) y escritura; flatMapSequential entrega los
+                // resultados en orden de id, así el checkpoint nunca salta un bloque sin terminar
+                .flatMapSequential(chunk -> Mono.fromCallable(() -> accrue(chunk, date))
+                        .subscribeOn(Schedulers.parallel())
+                        .flatMap(accruals -> apply(accruals, date, ACCRUAL_ATTEMPTS))
+                        .map(applied -> new ChunkResult(chunk.get(chunk.size() - 1).getId(), chunk.size(),
+                                applied.updated(), applied.skipped())),
+                        parallelism)
+                .concatMap(result -> {
+                    run.setLastCreditId(result.lastId());
+                    run.setProcessed(run.getProcessed() + result.read());
+                    run.setAccrued(run.getAccrued() + result.updated());
+                    run.setSkipped(run.getSkipped() + result.skipped());
+                    return runs.save(run);
+                })
+                .then(Mono.defer(() -> {
+                    run.setStatus(AccrualRun.Status.COMPLETED);
+                    run.setFinishedAt(Instant.now());
+                    return runs.save(run);
+                }))
+                .map(done -> {
+                    AccrualReport report = report(done, Duration.between(started, Instant.now()), resumedFrom);
+                    log.info("Interest accrual {}: {} credits read, {} accrued, {} skipped in {} ms ({} credits/s)",
+                            report.accrualDate(), report.processed(), report.accrued(), report.skipped(),
+                            report.elapsedMillis(), report.creditsPerSecond());
+                    return report;
+                });
+    }
+
+    /**
+     * Escribe los devengos; los créditos que no quedaron devengados hasta {@code date} (otra operación
+     * cambió saldo o interés entretanto) se releen y se recalculan, hasta {@code attempts} veces.
+     */
+    private Mono<Applied> apply(List<Accrual> accruals, LocalDate date, int attempts) {
+        if (accruals.isEmpty()) return Mono.just(new Applied(0, 0));
+        return credits.applyAccruals(accruals).flatMap(updated -> {
+            if (updated == accruals.size()) {
+                return addOutstanding(accruals).thenReturn(new Applied(updated, 0));
+            }
+            return credits.findAllById(accruals.stream().map(Accrual::creditId).toList())
+                    .filter(c -> !date.equals(c.getAccruedThrough()))
+                    .collectList()
+                    .flatMap(changed -> {
+                        Set<String> pending = changed.stream().map(Credit::getId).collect(Collectors.toSet());
+                        List<Accrual> done = accruals.stream().filter(a -> !pending.contains(a.creditId())).toList();
+                        List<Accrual> again = accrue(changed, date);
+                        Mono<Applied> rest = attempts <= 1
+                                ? Mono.just(new Applied(0, again.size()))
+                                : apply(again, date, attempts - 1);
+                        return addOutstanding(done).then(rest)
+                                .map(retried -> new Applied(done.size() + retried.updated(), retried.skipped()));
+                    });
+        });
+    }
+
+    /** Lo que sumaron al saldo los devengos aplicados, por cliente. */
+    private Mono<Void> addOutstanding(List<Accrual> applied) {
+        Map<String, BigDecimal> byCustomer = new HashMap<>();
+        applied.stream().filter(a -> a.customerId() != null).forEach(a ->
+                byCustomer.merge(a.customerId(), a.newBalance().subtract(a.previousBalance()), BigDecimal::add));
+        if (byCustomer.isEmpty()) return Mono.empty();
+        return summaries.addOutstanding(byCustomer)
+                .onErrorResume(e -> {
+                    log.warn("credit_summaries outstanding not updated for {} customers: {}", byCustomer.size(), e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /** Bloques consecutivos por id; el siguiente se pide con el último id del anterior. */
+    private Flux<List<Credit>> chunks(String afterId) {
+        return readChunk(afterId)
+                .expand(chunk -> chunk.size() < chunkSize
+                        ? Mono.empty()
+                        : readChunk(chunk.get(chunk.size() - 1).getId()));
+    }
+
+    private Mono<List<Credit>> readChunk(String afterId) {
+        return credits.findChunkAfter(afterId, chunkSize)
+                .collectList()
+                .filter(chunk -> !chunk.isEmpty());
+    }
+
+    /** Intereses de un bloque; solo créditos con tasa, capital y días pendientes. */
+    static List<Accrual> accrue(List<Credit> chunk, LocalDate date) {
+        List<Accrual> out = new ArrayList<>();
+        for (Credit c : chunk) {
+            BigDecimal balance = c.getBalance();
+            BigDecimal rate = c.getAnnualRate();
+            if (balance == null || balance.signum() <= 0 || rate == null || rate.signum() <= 0) continue;
+
+            // sin fecha previa se devenga un día (el crédito se incorpora al proceso)
+            long days = c.getAccruedThrough() == null ? 1 : ChronoUnit.DAYS.between(c.getAccruedThrough(), date);
+            if (days <= 0) continue;
+
+            BigDecimal accrued = c.getAccruedInterest() == null ? BigDecimal.ZERO : c.getAccruedInterest();
+            BigDecimal principal = balance.subtract(money(accrued));
+            if (principal.signum() <= 0) continue;
+
+            BigDecimal interest = accrued.add(principal.multiply(rate).multiply(BigDecimal.valueOf(days))
+                    .divide(DAYS_PER_YEAR, INTEREST_SCALE, RoundingMode.HALF_EVEN));
+            out.add(new Accrual(c.getId(), c.getCustomerId(), balance, c.getAccruedInterest(), c.getAccruedThrough(),
+                    principal.add(money(interest)), interest, date));
+        }
+        return out;
+    }
+
+    private static BigDecimal money(BigDecimal amount) {
+        return amount.setScale(MONEY_SCALE, RoundingMode.HALF_EVEN);
+    }
+
+    private static AccrualReport report(AccrualRun run, Duration elapsed, long resumedFrom) {
+        long millis = elapsed.toMillis();
+        long thisRun = run.getProcessed() - resumedFrom;
+        double perSecond = millis == 0 ? 0 : thisRun * 1000.0 / millis;
+        return new AccrualReport(run.getAccrualDate(), run.getStatus(), run.getProcessed(), run.getAccrued(),
+                run.getSkipped(), millis, Math.round(perSecond));
+    }
+
+    private record ChunkResult(String lastId, int read, long updated, long skipped) { }
+
+    private record Applied(long updated, long skipped) { }
+
+    /**
+     * @param processed        créditos leídos en la corrida (incluye los de una ejecución anterior retomada)
+     * @param accrued          créditos a los que se sumó interés
+     * @param skipped          créditos que siguieron cambiando tras los reintentos (devengan en la próxima corrida)
+     * @param creditsPerSecond throughput de esta ejecución
+     */
+    public record AccrualReport(LocalDate accrualDate, AccrualRun.Status status, long processed, long accrued,
+                                long skipped, long elapsedMillis, long creditsPerSecond) { }
+}
@@ -0,0 +1,112 @@
+package com.nttdata.credit_service.service;
+
+import com.nttdata.changenotifier.ChangeNotifier;
+import com.nttdata.credit_service.model.Credit;
+import com.nttdata.credit_service.repository.CreditRepository;
+import com.nttdata.credit_service.repository.CustomerCreditSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CreditServiceTests {
+
+    private CreditRepository credits;
+    private CustomerCreditSummaryRepository summaries;
+    private CreditService service;
+
+    @BeforeEach
+    void setUp() {
+        credits = mock(CreditRepository.class);
+        summaries = mock(CustomerCreditSummaryRepository.class);
+        ChangeNotifier notifier = mock(ChangeNotifier.class);
+        when(notifier.changed(anyString())).thenReturn(Mono.empty());
+        when(summaries.release(anyString(), anyString(), any())).thenReturn(Mono.empty());
+        when(summaries.addOutstanding(anyString(), any())).thenReturn(Mono.empty());
+        service = new CreditService(credits, summaries, notifier);
+    }
+
+    @Test
+    void rejectsSecondPersonalCreditWithoutCountingCredits() {
+        when(summaries.reserve("c1", "PERSONAL", new BigDecimal("500"), 1)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(service.create(credit("PERSONAL", "500")))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        verify(credits, never()).save(any(Credit.class));
+        verify(credits, never()).countByCustomerIdAndType(anyString(), anyString());
+    }
+
+    @Test
+    void releasesReservationWhenSaveFails() {
+        when(summaries.reserve("c1", "BUSINESS", new BigDecimal("900"), null)).thenReturn(Mono.just(true));
+        when(credits.save(any(Credit.class))).thenReturn(Mono.error(new IllegalStateException("write failed")));
+
+        StepVerifier.create(service.create(credit("BUSINESS", "900")))
+                .expectErrorMessage("write failed")
+                .verify();
+
+        verify(summaries).release("c1", "BUSINESS", new BigDecimal("900"));
+    }
+
+    @Test
+    void paymentRetriesWhenBalanceChangedAndUpdatesOutstandingOnce() {
+        Credit first = credit("PERSONAL", "100");
+        Credit second = credit("PERSONAL", "80");   // otro pago de 20 entró entre la lectura y la escritura
+        when(credits.findById("cr1")).thenReturn(Mono.just(first), Mono.just(second));
+        when(credits.compareAndSetBalance(eq(first), any(), any())).thenReturn(Mono.empty());
+        when(credits.compareAndSetBalance(second, new BigDecimal("50"), BigDecimal.ZERO))
+                .thenReturn(Mono.just(credit("PERSONAL", "50")));
+
+        StepVerifier.create(service.pay("cr1", new BigDecimal("30")))
+                .expectNextMatches(c -> c.getBalance().compareTo(new BigDecimal("50")) == 0)
+                .verifyComplete();
+
+        verify(summaries).addOutstanding("c1", new BigDecimal("-30"));
+    }
+
+    @Test
+    void updateRereadsWhenAPaymentChangedTheBalanceAndAdjustsOutstandingAgainstWhatItReplaced() {
+        Credit first = credit("PERSONAL", "100");
+        Credit second = credit("PERSONAL", "70");   // pago de 30 entre la lectura y la escritura
+        when(credits.findById("cr1")).thenReturn(Mono.just(first), Mono.just(second));
+        when(credits.compareAndSetTerms(eq(first), any(), any(), any(), any())).thenReturn(Mono.empty());
+        when(credits.compareAndSetTerms(eq(second), eq("PERSONAL"), any(), eq(new BigDecimal("120")), any()))
+                .thenReturn(Mono.just(credit("PERSONAL", "120")));
+
+        StepVerifier.create(service.update("cr1", credit("PERSONAL", "120")))
+                .expectNextMatches(c -> c.getBalance().compareTo(new BigDecimal("120")) == 0)
+                .verifyComplete();
+
+        verify(summaries).addOutstanding("c1", new BigDecimal("50"));
+        verify(credits, never()).save(any(Credit.class));
+    }
+
+    @Test
+    void paymentCoversAccruedInterestBeforePrincipal() {
+        Credit cr = credit("PERSONAL", "102.00");
+        cr.setAccruedInterest(new BigDecimal("2.0041"));
+        when(credits.findById("cr1")).thenReturn(Mono.just(cr));
+        when(credits.compareAndSetBalance(any(), any(), any())).thenReturn(Mono.just(cr));
+
+        service.pay("cr1", new BigDecimal("1.50")).block();
+
+        verify(credits).compareAndSetBalance(cr, new BigDecimal("100.50"), new BigDecimal("0.5041"));
+    }
+
+    private static Credit credit(String type, String balance) {
+        return Credit.builder().id("cr1").customerId("c1").type(type)
+                .amount(new BigDecimal(balance)).balance(new BigDecimal(balance)).build();
+    }
+}
@@ -0,0 +1,161 @@
+package com.nttdata.credit_service.service;
+
+import com.nttdata.credit_service.model.AccrualRun;
+import com.nttdata.credit_service.model.Credit;
+import com.nttdata.credit_service.repository.AccrualRunRepository;
+import com.nttdata.credit_service.repository.CreditAccrualRepository.Accrual;
+import com.nttdata.credit_service.repository.CreditRepository;
+import com.nttdata.credit_service.repository.CustomerCreditSummaryRepository;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InterestAccrualEngineTests {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 3, 31);
+
+    @Test
+    void accruesSimpleInterestForPendingDaysOnly() {
+        List<Credit> chunk = List.of(
+                credit("a", "1000.00", "0.365", LocalDate.of(2026, 3, 29)),  // 2 días: 1000 * 0.365 * 2 / 365
+                credit("b", "1000.00", "0.365", DATE),                        // ya devengado
+                credit("c", "0", "0.365", null),                              // sin saldo
+                credit("d", "500.00", null, null),                            // sin tasa
+                credit("e", "730.00", "0.10", null));                         // primer día
+
+        List<Accrual> out = InterestAccrualEngine.accrue(chunk, DATE);
+
+        assertThat(out).extracting(Accrual::creditId).containsExactly("a", "e");
+        assertThat(out.get(0).newBalance()).isEqualByComparingTo("1002.00");
+        assertThat(out.get(1).newBalance()).isEqualByComparingTo("730.20");
+        assertThat(out).allMatch(a -> a.accruedThrough().equals(DATE));
+    }
+
+    @Test
+    void subCentInterestIsCarriedAndNeverCompounds() {
+        // 1.00 al 10%: 0.000274 por día, no llega a un céntimo pero se acumula
+        Credit small = credit("s", "1.00", "0.10", DATE.minusDays(1));
+        Accrual first = InterestAccrualEngine.accrue(List.of(small), DATE).get(0);
+        assertThat(first.newBalance()).isEqualByComparingTo("1.00");
+        assertThat(first.accruedInterest()).isEqualByComparingTo("0.0002739726");
+
+        small.setAccruedInterest(new BigDecimal("0.0049"));
+        small.setAccruedThrough(DATE.minusDays(2));
+        assertThat(InterestAccrualEngine.accrue(List.of(small), DATE).get(0).newBalance()).isEqualByComparingTo("1.01");
+
+        // 1002.00 con 2.00 de interés devengado: el interés del día se calcula sobre los 1000 de capital
+        Credit big = credit("b", "1002.00", "0.365", DATE.minusDays(1));
+        big.setAccruedInterest(new BigDecimal("2.00"));
+        Accrual next = InterestAccrualEngine.accrue(List.of(big), DATE).get(0);
+        assertThat(next.accruedInterest()).isEqualByComparingTo("3.00");
+        assertThat(next.newBalance()).isEqualByComparingTo("1003.00");
+    }
+
+    @Test
+    void resumesFromCheckpointAndProcessesEveryChunkOnce() {
+        List<Credit> all = IntStream.range(0, 25)
+                .mapToObj(i -> credit(String.format("%03d", i), "100.00", "0.365", DATE.minusDays(1)))
+                .toList();
+
+        CreditRepository credits = mock(CreditRepository.class);
+        when(credits.findChunkAfter(any(), anyInt())).thenAnswer(inv -> {
+            String after = inv.getArgument(0);
+            int limit = inv.getArgument(1);
+            return Flux.fromIterable(all).filter(c -> after == null || c.getId().compareTo(after) > 0).take(limit);
+        });
+        List<String> written = new ArrayList<>();
+        when(credits.applyAccruals(any())).thenAnswer(inv -> {
+            List<Accrual> accruals = inv.getArgument(0);
+            synchronized (written) { accruals.forEach(a -> written.add(a.creditId())); }
+            return Mono.just((long) accruals.size());
+        });
+
+        // corrida anterior caída tras procesar hasta el crédito 009
+        ConcurrentHashMap<String, AccrualRun> stored = new ConcurrentHashMap<>();
+        stored.put(DATE.toString(), AccrualRun.builder().id(DATE.toString()).accrualDate(DATE)
+                .status(AccrualRun.Status.RUNNING).lastCreditId("009").processed(10).accrued(10).build());
+        AccrualRunRepository runs = mock(AccrualRunRepository.class);
+        when(runs.findById(anyString())).thenAnswer(inv -> Mono.justOrEmpty(stored.get((String) inv.getArgument(0))));
+        when(runs.save(any())).thenAnswer(inv -> {
+            AccrualRun r = inv.getArgument(0);
+            stored.put(r.getId(), r);
+            return Mono.just(r);
+        });
+
+        CustomerCreditSummaryRepository summaries = mock(CustomerCreditSummaryRepository.class);
+        List<BigDecimal> outstanding = new ArrayList<>();
+        when(summaries.addOutstanding(anyMap())).thenAnswer(inv -> {
+            Map<String, BigDecimal> deltas = inv.getArgument(0);
+            synchronized (outstanding) { outstanding.addAll(deltas.values()); }
+            return Mono.empty();
+        });
+
+        InterestAccrualEngine.AccrualReport report =
+                new InterestAccrualEngine(credits, runs, summaries, 4, 3).run(DATE).block();
+
+        assertThat(written).hasSize(15).doesNotContain("009").contains("010", "024");
+        assertThat(report.status()).isEqualTo(AccrualRun.Status.COMPLETED);
+        assertThat(report.processed()).isEqualTo(25);
+        assertThat(report.accrued()).isEqualTo(25);
+        assertThat(stored.get(DATE.toString()).getLastCreditId()).isEqualTo("024");
+        // 15 créditos de 100 al 36.5%: 0.10 cada uno, sumado por $inc al cliente
+        assertThat(outstanding.stream().reduce(BigDecimal.ZERO, BigDecimal::add)).isEqualByComparingTo("1.50");
+    }
+
+    @Test
+    void rereadsAndRetriesCreditsChangedByAConcurrentPayment() {
+        Credit original = credit("001", "100.00", "0.365", DATE.minusDays(1));
+        Credit paid = credit("001", "60.00", "0.365", DATE.minusDays(1));   // pago de 40 entre lectura y escritura
+
+        CreditRepository credits = mock(CreditRepository.class);
+        when(credits.findChunkAfter(any(), anyInt())).thenReturn(Flux.just(original), Flux.empty());
+        List<Accrual> written = new ArrayList<>();
+        when(credits.applyAccruals(any())).thenAnswer(inv -> {
+            List<Accrual> accruals = inv.getArgument(0);
+            written.addAll(accruals);
+            return Mono.just(written.size() == 1 ? 0L : (long) accruals.size());
+        });
+        when(credits.findAllById(anyIterable())).thenReturn(Flux.just(paid));
+
+        AccrualRunRepository runs = mock(AccrualRunRepository.class);
+        when(runs.findById(anyString())).thenReturn(Mono.empty());
+        when(runs.save(any())).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+        CustomerCreditSummaryRepository summaries = mock(CustomerCreditSummaryRepository.class);
+        when(summaries.addOutstanding(anyMap())).thenReturn(Mono.empty());
+
+        InterestAccrualEngine.AccrualReport report =
+                new InterestAccrualEngine(credits, runs, summaries, 4, 1).run(DATE).block();
+
+        assertThat(written).extracting(Accrual::previousBalance)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("100.00"), new BigDecimal("60.00"));
+        assertThat(report.accrued()).isEqualTo(1);
+        assertThat(report.skipped()).isZero();
+        verify(summaries).addOutstanding(Map.of("c", new BigDecimal("0.06")));   // solo el devengo aplicado, sobre 60
+    }
+
+    private static Credit credit(String id, String balance, String rate, LocalDate accruedThrough) {
+        return Credit.builder().id(id).customerId("c").type("PERSONAL")
+                .amount(new BigDecimal(balance)).balance(new BigDecimal(balance))
+                .annualRate(rate == null ? null : new BigDecimal(rate)).accruedThrough(accruedThrough)
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.nttdata.customer_service.controller;
+
+import com.nttdata.customer_service.service.PortfolioService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Invalidación del portafolio cacheado. La llaman account-, credit- y card-service al cambiar
+ * los productos de un cliente.
+ */
+@RestController
+@RequestMapping("/api/v1/cache")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final PortfolioService portfolios;
+
+    @DeleteMapping("/portfolios/{customerId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> evictPortfolio(@PathVariable String customerId) {
+        return Mono.fromRunnable(() -> portfolios.evict(customerId));
+    }
+}
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.nttdata.customer_service.controller;
 
 
+import com.nttdata.customer_service.dto.CustomerPortfolio;
 import com.nttdata.customer_service.model.Customer;
 import com.nttdata.customer_service.service.CustomerService;
+import com.nttdata.customer_service.service.PortfolioService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
@@ -14,6 +16,7 @@ import reactor.core.publisher.Mono;
 public class CustomerController {
 
     private final CustomerService service;
+    private final PortfolioService portfolioService;
 
     @GetMapping
     public Flux<Customer> getAll() {
@@ -25,6 +28,12 @@ public class CustomerController {
         return service.findById(id);
     }
 
+    /** Cliente con sus cuentas, créditos y tarjetas en un solo documento. */
+    @GetMapping("/{id}/portfolio")
+    public Mono<CustomerPortfolio> getPortfolio(@PathVariable String id) {
+        return portfolioService.portfolio(id);
+    }
+
     @PostMapping
     public Mono<Customer> create(@RequestBody Customer customer) {
         return service.save(customer);
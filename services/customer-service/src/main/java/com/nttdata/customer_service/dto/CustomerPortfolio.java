@@ -0,0 +1,22 @@
+package com.nttdata.customer_service.dto;
+
+import com.nttdata.customer_service.model.Customer;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Posición consolidada del cliente. Cuentas, créditos y tarjetas se devuelven tal como los entrega
+ * cada servicio; {@code unavailable} lista las secciones que no respondieron a tiempo (vienen vacías).
+ */
+public record CustomerPortfolio(
+        Customer customer,
+        List<Map<String, Object>> accounts,
+        List<Map<String, Object>> credits,
+        List<Map<String, Object>> cards,
+        List<String> unavailable
+) {
+    public boolean complete() {
+        return unavailable.isEmpty();
+    }
+}
\ No newline at end of file
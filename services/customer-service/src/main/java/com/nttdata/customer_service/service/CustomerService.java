@@ -1,5 +1,6 @@
 package com.nttdata.customer_service.service;
 
+import com.nttdata.changenotifier.ChangeNotifier;
 import com.nttdata.customer_service.model.Customer;
 import com.nttdata.customer_service.repository.CustomerRepository;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +13,8 @@ import reactor.core.publisher.Mono;
 public class CustomerService {
 
     private final CustomerRepository repository;
+    private final ChangeNotifier changeNotifier; // invalida cachés de otros servicios
+    private final PortfolioService portfolios;
 
     public Flux<Customer> findAll() {
         return repository.findAll();
@@ -32,10 +35,14 @@ public class CustomerService {
                     existing.setType(customer.getType());
                     existing.setDocumentNumber(customer.getDocumentNumber());
                     return repository.save(existing);
-                });
+                })
+                .doOnNext(saved -> portfolios.evict(id))
+                .flatMap(saved -> changeNotifier.changed(id).thenReturn(saved));
     }
 
     public Mono<Void> delete(String id) {
-        return repository.deleteById(id);
+        return repository.deleteById(id)
+                .then(Mono.fromRunnable(() -> portfolios.evict(id)))
+                .then(changeNotifier.changed(id));
     }
 }
\ No newline at end of file
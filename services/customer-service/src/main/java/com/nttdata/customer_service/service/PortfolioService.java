@@ -0,0 +1,117 @@
+package com.nttdata.customer_service.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nttdata.customer_service.dto.CustomerPortfolio;
+import com.nttdata.customer_service.model.Customer;
+import com.nttdata.customer_service.repository.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Portafolio del cliente: cliente local + cuentas, créditos y tarjetas consultados en paralelo
+ * (una sola ola de llamadas, cada una con su timeout) a las consultas por cliente de cada servicio.
+ *
+ * El resultado se cachea brevemente (services.portfolio.cache-ttl). Los servicios avisan cuando cambian
+ * los productos de un cliente (evict); un portafolio incompleto no se cachea.
+ */
+@Slf4j
+@Service
+public class PortfolioService {
+
+    static final String CACHE_NAME = "customerPortfolios";
+    private static final ParameterizedTypeReference<Map<String, Object>> ITEM = new ParameterizedTypeReference<>() { };
+
+    private final CustomerRepository customers;
+    private final WebClient accounts;
+    private final WebClient credits;
+    private final WebClient cards;
+    private final Duration timeout;
+    private final AsyncCache<String, CustomerPortfolio> cache;
+
+    public PortfolioService(CustomerRepository customers, WebClient.Builder builder, MeterRegistry registry,
+                            @Value("${services.account.base-url:http://localhost:8082}") String accountUrl,
+                            @Value("${services.credit.base-url:http://localhost:8083}") String creditUrl,
+                            @Value("${services.card.base-url:http://localhost:8084}") String cardUrl,
+                            @Value("${services.portfolio.timeout:2s}") Duration timeout,
+                            @Value("${services.portfolio.cache-ttl:30s}") Duration cacheTtl,
+                            @Value("${services.portfolio.cache-size:10000}") long cacheSize) {
+        this.customers = customers;
+        this.accounts = builder.clone().baseUrl(accountUrl).build();
+        this.credits = builder.clone().baseUrl(creditUrl).build();
+        this.cards = builder.clone().baseUrl(cardUrl).build();
+        this.timeout = timeout;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /** @return el portafolio, o vacío si el cliente no existe */
+    public Mono<CustomerPortfolio> portfolio(String customerId) {
+        CompletableFuture<CustomerPortfolio> future =
+                cache.get(customerId, (id, executor) -> load(id).toFuture());
+        return Mono.fromFuture(future, true)
+                .doOnNext(p -> {
+                    // incompleto: se entrega pero no se reutiliza
+                    if (!p.complete()) cache.asMap().remove(customerId, future);
+                });
+    }
+
+    public void evict(String customerId) {
+        cache.synchronous().invalidate(customerId);
+    }
+
+    private Mono<CustomerPortfolio> load(String customerId) {
+        return customers.findById(customerId)
+                .flatMap(customer -> Mono.zip(
+                                section(accounts, "/api/v1/accounts/by-customer/{id}", customerId),
+                                section(credits, "/api/v1/credits/by-customer/{id}", customerId),
+                                section(cards, "/api/v1/cards/by-customer/{id}", customerId))
+                        .map(t -> merge(customer, t.getT1(), t.getT2(), t.getT3())));
+    }
+
+    private Mono<Section> section(WebClient client, String uri, String customerId) {
+        return client.get()
+                .uri(uri, customerId)
+                .retrieve()
+                .bodyToFlux(ITEM)
+                .collectList()
+                .timeout(timeout)
+                .map(Section::of)
+                .onErrorResume(e -> {
+                    log.warn("Portfolio of {}: {} unavailable: {}", customerId, uri, e.getMessage());
+                    return Mono.just(Section.UNAVAILABLE);
+                });
+    }
+
+    private static CustomerPortfolio merge(Customer customer, Section accounts, Section credits, Section cards) {
+        List<String> unavailable = new ArrayList<>();
+        if (accounts.failed()) unavailable.add("accounts");
+        if (credits.failed()) unavailable.add("credits");
+        if (cards.failed()) unavailable.add("cards");
+        return new CustomerPortfolio(customer, accounts.items(), credits.items(), cards.items(), List.copyOf(unavailable));
+    }
+
+    private record Section(List<Map<String, Object>> items, boolean failed) {
+        static final Section UNAVAILABLE = new Section(List.of(), true);
+
+        static Section of(List<Map<String, Object>> items) {
+            return new Section(items, false);
+        }
+    }
+}
\ No newline at end of file
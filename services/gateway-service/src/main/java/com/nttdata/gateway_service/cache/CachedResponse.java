@@ -0,0 +1,19 @@
+package com.nttdata.gateway_service.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Respuesta GET guardada por el gateway: cuerpo completo, cabeceras del backend y su ETag fuerte.
+ */
+public record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, String etag,
+                             Instant storedAt, Duration ttl) {
+
+    /** Segundos desde que se guardó (cabecera Age). */
+    public long ageSeconds() {
+        return Math.max(0, Duration.between(storedAt, Instant.now()).toSeconds());
+    }
+}
@@ -0,0 +1,226 @@
+package com.nttdata.gateway_service.cache;
+
+import com.nttdata.gateway_service.coalesce.CoalesceGatewayFilterFactory;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Caché de lecturas por ruta, con ETag fuerte y GET condicional.
+ *
+ * <pre>
+ * filters:
+ *   - name: ResponseCache
+ *     args:
+ *       ttl: 30s          # vida de cada entrada
+ *       purge-depth: 5    # segmentos que identifican el recurso: /card-service/api/v1/cards/{id}
+ *       max-body-size: 256KB
+ *       bypass:           # vistas que combinan varios recursos: no se guardan
+ *         - /card-service/api/v1/cards/by-customer/**
+ * </pre>
+ *
+ * - GET: si hay entrada vigente responde sin ir al backend (304 si If-None-Match coincide con su ETag).
+ *   Si no, la respuesta 200 del backend se guarda con un ETag calculado sobre el cuerpo.
+ * - POST/PUT/PATCH/DELETE: pasan al backend y, al terminar, se purgan las entradas del recurso
+ *   (los primeros purge-depth segmentos del path), sus subrecursos y sus rutas padre. Una respuesta
+ *   pedida antes de cualquier purga no se guarda (la generación del almacén cambió), así un GET que
+ *   corre en paralelo con la escritura no deja el dato anterior en caché.
+ * - La purga sigue el path: las vistas que mezclan recursos de otro path (por cliente, portafolio)
+ *   no se enteran de la escritura y van en bypass, que nunca se guarda.
+ * - No se guardan respuestas en streaming (NDJSON, SSE), con Set-Cookie, no-store/private, ni mayores
+ *   que max-body-size.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private static final Set<HttpMethod> UNSAFE = Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+    private static final List<MediaType> STREAMING = List.of(MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM);
+    private static final Set<String> NOT_STORED_HEADERS = Set.of(HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONNECTION, HttpHeaders.DATE, HttpHeaders.ETAG, HttpHeaders.AGE, CACHE_STATUS_HEADER);
+
+    private final ResponseCacheStore store;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheStore store) {
+        super(Config.class);
+        this.store = store;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // antes de NettyWriteResponseFilter, igual que ModifyResponseBody: así se ve el cuerpo del backend;
+        // y por fuera de Coalesce, que solo recibe los fallos de caché
+        List<PathPattern> bypass = config.getBypass().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            HttpMethod method = request.getMethod();
+            if (UNSAFE.contains(method)) {
+                String resource = resourcePath(request.getPath().value(), config.getPurgeDepth());
+                return chain.filter(exchange).doFinally(s -> store.purge(resource));
+            }
+            if (method != HttpMethod.GET) return chain.filter(exchange);
+            PathContainer path = request.getPath().pathWithinApplication();
+            if (bypass.stream().anyMatch(p -> p.matches(path))) return chain.filter(exchange);
+
+            ResponseCacheStore.Key key = keyOf(request);
+            CachedResponse cached = noCache(request) ? null : store.get(key);
+            if (cached != null) return writeCached(exchange, cached);
+
+            return chain.filter(exchange.mutate().response(new CachingResponse(exchange, key, config, store.generation())).build());
+        }, CoalesceGatewayFilterFactory.ORDER - 1);
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().setETag(cached.etag());
+        response.getHeaders().set(HttpHeaders.AGE, Long.toString(cached.ageSeconds()));
+        response.getHeaders().set(CACHE_STATUS_HEADER, "HIT");
+        if (matches(exchange.getRequest(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.status());
+        response.getHeaders().addAll(cached.headers());
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    /** Guarda el cuerpo de una respuesta 200 cacheable mientras lo entrega al cliente. */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final ResponseCacheStore.Key key;
+        private final Config config;
+        private final long generation;   // del almacén al empezar el GET
+
+        CachingResponse(ServerWebExchange exchange, ResponseCacheStore.Key key, Config config, long generation) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.config = config;
+            this.generation = generation;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!cacheable()) {
+                getHeaders().set(CACHE_STATUS_HEADER, "BYPASS");
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                if (bytes.length <= config.getMaxBodySize().toBytes()) {
+                    String etag = etag(bytes);
+                    boolean stored = store.put(key, new CachedResponse(HttpStatus.OK, storedHeaders(getHeaders()), bytes, etag,
+                            Instant.now(), config.getTtl()), generation);
+                    getHeaders().setETag(etag);
+                    getHeaders().set(CACHE_STATUS_HEADER, stored ? "MISS" : "BYPASS");
+                    if (matches(exchange.getRequest(), etag)) {
+                        setStatusCode(HttpStatus.NOT_MODIFIED);
+                        getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                        return setComplete();
+                    }
+                } else {
+                    getHeaders().set(CACHE_STATUS_HEADER, "BYPASS");
+                }
+                return super.writeWith(Mono.fromSupplier(() -> bufferFactory().wrap(bytes)));
+            });
+        }
+
+        private boolean cacheable() {
+            HttpHeaders headers = getHeaders();
+            if (!HttpStatus.OK.equals(getStatusCode()) || headers.containsKey(HttpHeaders.SET_COOKIE)) return false;
+            long length = headers.getContentLength();
+            if (length > config.getMaxBodySize().toBytes()) return false;
+            MediaType type = headers.getContentType();
+            if (type != null && STREAMING.stream().anyMatch(type::isCompatibleWith)) return false;
+            String cacheControl = headers.getCacheControl();
+            return cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+        }
+    }
+
+    static ResponseCacheStore.Key keyOf(ServerHttpRequest request) {
+        return new ResponseCacheStore.Key(request.getPath().value(), request.getURI().getRawQuery(),
+                request.getHeaders().getFirst(HttpHeaders.ACCEPT));
+    }
+
+    /** Los primeros {@code depth} segmentos del path; el path completo si depth es 0 o el path es más corto. */
+    static String resourcePath(String path, int depth) {
+        if (depth <= 0) return path;
+        String[] segments = Arrays.stream(path.split("/")).filter(s -> !s.isEmpty()).toArray(String[]::new);
+        if (segments.length <= depth) return path;
+        return "/" + String.join("/", Arrays.copyOf(segments, depth));
+    }
+
+    private static boolean noCache(ServerHttpRequest request) {
+        String cacheControl = request.getHeaders().getCacheControl();
+        return cacheControl != null && cacheControl.contains("no-cache");
+    }
+
+    /** If-None-Match usa comparación débil: W/"x" coincide con "x". */
+    private static boolean matches(ServerHttpRequest request, String etag) {
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            String tag = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private static HttpHeaders storedHeaders(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (NOT_STORED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) copy.addAll(name, values);
+        });
+        return copy;
+    }
+
+    /** ETag fuerte: SHA-256 del cuerpo (los primeros 16 bytes, base64url). */
+    static String etag(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Data
+    public static class Config {
+        private Duration ttl = Duration.ofSeconds(30);
+        private int purgeDepth = 0;
+        private DataSize maxBodySize = DataSize.ofKilobytes(256);
+        private List<String> bypass = List.of();
+    }
+}
@@ -0,0 +1,102 @@
+package com.nttdata.gateway_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Almacén en memoria de las respuestas cacheadas por el filtro ResponseCache, compartido por todas
+ * las rutas. Acotado por bytes de cuerpo (gateway.cache.max-size); cada entrada expira con el TTL
+ * de la ruta que la guardó.
+ */
+@Component
+public class ResponseCacheStore {
+
+    static final String CACHE_NAME = "gatewayResponses";
+
+    /** Costo fijo estimado por entrada (clave, cabeceras) además del cuerpo. */
+    private static final int ENTRY_OVERHEAD = 512;
+
+    private final Cache<Key, CachedResponse> cache;
+
+    /** Sube con cada purga: una respuesta pedida antes de una purga no se guarda (ver {@link #put}). */
+    private final AtomicLong generation = new AtomicLong();
+
+    public ResponseCacheStore(MeterRegistry registry,
+                              @Value("${gateway.cache.max-size:64MB}") DataSize maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key k, CachedResponse v) -> v.body().length + ENTRY_OVERHEAD)
+                .expireAfter(new Expiry<Key, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(Key key, CachedResponse value, long currentTime) {
+                        return value.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, CachedResponse value, long currentTime, long currentDuration) {
+                        return value.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    public CachedResponse get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    /** Generación actual; se toma al empezar un GET que puede terminar guardándose. */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Guarda la respuesta solo si no hubo purgas desde {@code generation}: un GET que corrió en paralelo
+     * con una escritura puede traer el dato anterior a ella.
+     *
+     * @return false si no se guardó
+     */
+    public boolean put(Key key, CachedResponse response, long generation) {
+        if (this.generation.get() != generation) return false;
+        cache.put(key, response);
+        // una purga entre la comprobación y el put pudo recorrer las claves antes de que estuviera
+        if (this.generation.get() != generation) {
+            cache.asMap().remove(key, response);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Quita las entradas del recurso {@code resourcePath} y de sus subrecursos
+     * ({@code /cards/1}, {@code /cards/1/balance}), y las de sus rutas padre ({@code /cards}: el listado).
+     * Recorre las claves: el almacén está acotado, y las escrituras son mucho menos que las lecturas.
+     */
+    public void purge(String resourcePath) {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.path().equals(resourcePath)
+                || key.path().startsWith(resourcePath + "/")
+                || resourcePath.startsWith(key.path() + "/"));
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /** Variantes de una misma URL según Accept (p. ej. JSON y NDJSON) se guardan por separado. */
+    public record Key(String path, String query, String accept) { }
+}
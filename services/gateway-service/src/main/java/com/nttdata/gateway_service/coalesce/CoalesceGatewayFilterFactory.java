@@ -0,0 +1,190 @@
+package com.nttdata.gateway_service.coalesce;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Single-flight de GETs: mientras una petición está en curso hacia el backend, las idénticas que
+ * llegan (misma ruta, path, query y cabeceras configuradas) esperan su respuesta en lugar de hacer
+ * otra llamada. No guarda nada: al terminar la llamada la entrada desaparece, así que nunca se
+ * entrega una respuesta anterior a la petición.
+ *
+ * <pre>
+ * filters:
+ *   - name: Coalesce
+ *     args:
+ *       headers: Accept        # cabeceras que distinguen respuestas (p. ej. JSON / NDJSON)
+ *       max-body-size: 1MB
+ * </pre>
+ *
+ * Respuestas en streaming, con Set-Cookie o más grandes que max-body-size no se comparten: quienes
+ * esperaban hacen su propia llamada. Métrica gateway.coalesce.requests{route, outcome=upstream|coalesced}.
+ */
+@Component
+public class CoalesceGatewayFilterFactory extends AbstractGatewayFilterFactory<CoalesceGatewayFilterFactory.Config> {
+
+    /**
+     * Va por dentro de ResponseCache (solo los fallos de caché llegan a agruparse) y por fuera de
+     * ConcurrencyLimit (quienes esperan no ocupan cupo del backend).
+     */
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    static final String METRIC = "gateway.coalesce.requests";
+    static final String COALESCED_HEADER = "X-Coalesced";
+
+    private static final List<MediaType> STREAMING = List.of(MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM);
+    private static final Set<String> NOT_SHARED_HEADERS = Set.of(HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONNECTION, HttpHeaders.DATE);
+
+    private final ConcurrentMap<Key, Sinks.One<Shared>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+
+    public CoalesceGatewayFilterFactory(MeterRegistry registry) {
+        super(Config.class);
+        this.registry = registry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (exchange.getRequest().getMethod() != HttpMethod.GET) return chain.filter(exchange);
+
+            String routeId = routeId(exchange);
+            Key key = keyOf(routeId, exchange.getRequest(), config.getHeaders());
+            Sinks.One<Shared> flight = Sinks.one();
+            Sinks.One<Shared> leader = inFlight.putIfAbsent(key, flight);
+            if (leader != null) {
+                counter(routeId, "coalesced").increment();
+                return leader.asMono().flatMap(shared -> shared == Shared.NONE
+                        ? chain.filter(exchange)                 // no compartible: llamada propia
+                        : write(exchange.getResponse(), shared));
+            }
+
+            counter(routeId, "upstream").increment();
+            SharingResponse response = new SharingResponse(exchange.getResponse(), key, flight, config);
+            return chain.filter(exchange.mutate().response(response).build())
+                    .doFinally(s -> response.publish(Shared.NONE));  // error o cancelación: cada uno llama solo
+        }, ORDER);
+    }
+
+    private Mono<Void> write(ServerHttpResponse response, Shared shared) {
+        response.setStatusCode(shared.status());
+        response.getHeaders().addAll(shared.headers());
+        response.getHeaders().setContentLength(shared.body().length);
+        response.getHeaders().set(COALESCED_HEADER, "true");
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(shared.body())));
+    }
+
+    /** Respuesta del líder: la entrega a su cliente y la publica a quienes esperan. */
+    private class SharingResponse extends ServerHttpResponseDecorator {
+
+        private final Key key;
+        private final Sinks.One<Shared> flight;
+        private final Config config;
+
+        SharingResponse(ServerHttpResponse delegate, Key key, Sinks.One<Shared> flight, Config config) {
+            super(delegate);
+            this.key = key;
+            this.flight = flight;
+            this.config = config;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!shareable()) {
+                publish(Shared.NONE);
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+                publish(new Shared(getStatusCode(), sharedHeaders(getHeaders()), bytes));
+                return super.writeWith(Mono.fromSupplier(() -> bufferFactory().wrap(bytes)));
+            });
+        }
+
+        /** Se quita la entrada antes de publicar: una petición posterior ya no se une a esta llamada. */
+        void publish(Shared shared) {
+            inFlight.remove(key, flight);
+            flight.tryEmitValue(shared);
+        }
+
+        private boolean shareable() {
+            HttpHeaders headers = getHeaders();
+            if (getStatusCode() == null || headers.containsKey(HttpHeaders.SET_COOKIE)) return false;
+            if (headers.getContentLength() > config.getMaxBodySize().toBytes()) return false;
+            MediaType type = headers.getContentType();
+            return type == null || STREAMING.stream().noneMatch(type::isCompatibleWith);
+        }
+    }
+
+    static Key keyOf(String routeId, ServerHttpRequest request, List<String> headers) {
+        List<String> values = headers.stream()
+                .map(name -> String.valueOf(request.getHeaders().get(name)))
+                .toList();
+        return new Key(routeId, request.getPath().value(), request.getURI().getRawQuery(), values);
+    }
+
+    private static HttpHeaders sharedHeaders(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (NOT_SHARED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) copy.addAll(name, values);
+        });
+        return copy;
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unknown";
+    }
+
+    private Counter counter(String routeId, String outcome) {
+        return Counter.builder(METRIC)
+                .description("GET requests sent upstream or coalesced into an in-flight identical request")
+                .tag("route", routeId)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    record Key(String routeId, String path, String query, List<String> headers) { }
+
+    /** Respuesta compartida; NONE indica que quienes esperan deben hacer su propia llamada. */
+    record Shared(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+        static final Shared NONE = new Shared(null, null, null);
+    }
+
+    @Data
+    public static class Config {
+        private List<String> headers = List.of(HttpHeaders.ACCEPT);
+        private DataSize maxBodySize = DataSize.ofMegabytes(1);
+    }
+}
@@ -0,0 +1,50 @@
+package com.nttdata.gateway_service.internal;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Endpoints que los servicios exponen solo entre ellos (p. ej. DELETE /api/v1/cache/** que usa
+ * ChangeNotifier para invalidar cachés): no se enrutan hacia fuera, ni por las rutas explícitas ni
+ * por las del discovery locator. El gateway responde 404 sin llamar al servicio.
+ *
+ * <pre>
+ * gateway:
+ *   internal-paths: /*&#47;api/v1/cache/**
+ * </pre>
+ */
+@Component
+public class InternalPathsFilter implements GlobalFilter, Ordered {
+
+    private final List<PathPattern> internal;
+
+    public InternalPathsFilter(@Value("${gateway.internal-paths:/*/api/v1/cache/**}") List<String> paths) {
+        this.internal = paths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        if (internal.stream().anyMatch(p -> p.matches(path))) {
+            exchange.getResponse().setStatusCode(HttpStatus.NOT_FOUND);
+            return exchange.getResponse().setComplete();
+        }
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
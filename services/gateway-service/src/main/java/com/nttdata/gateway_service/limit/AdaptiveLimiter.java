@@ -0,0 +1,99 @@
+package com.nttdata.gateway_service.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de concurrencia adaptativo (variante de Gradient2): el límite se deriva de la latencia observada.
+ *
+ * - Se siguen dos medias móviles de latencia: una corta (lo que pasa ahora) y una larga (lo normal).
+ * - gradiente = tolerancia * larga / corta, acotado a [0.5, 1]: mientras la latencia actual no supere
+ *   la habitual por más de la tolerancia el límite crece (+ sqrt(límite), la cola permitida); si la
+ *   supera, se reduce en proporción.
+ * - Una respuesta fallida (5xx, error de conexión) reduce el límite un 10%.
+ * - Si el límite no se está usando (en vuelo < límite/2) no crece: sin carga no hay información.
+ */
+public class AdaptiveLimiter {
+
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+    private static final int WARMUP_SAMPLES = 10;
+    private static final double SMOOTHING = 0.2;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double estimatedLimit;
+    private double shortRtt;
+    private double longRtt;
+    private long samples;
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double rttTolerance) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limits: initial=" + initialLimit
+                    + ", min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /** @return true si hay cupo; quien lo obtiene debe llamar luego a {@link #release}. */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) return false;
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /** Libera el cupo y aporta la muestra de latencia. */
+    public void release(long rttNanos, boolean dropped) {
+        int inflight = inFlight.getAndDecrement();
+        onSample(rttNanos, inflight, dropped);
+    }
+
+    /** Libera el cupo sin muestra (petición cancelada por el cliente). */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    synchronized void onSample(long rttNanos, int inflight, boolean dropped) {
+        if (dropped) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * DROP_BACKOFF);
+            return;
+        }
+        if (samples++ == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt = ema(shortRtt, rttNanos, SHORT_WINDOW);
+        longRtt = ema(longRtt, rttNanos, LONG_WINDOW);
+        if (samples < WARMUP_SAMPLES) return;
+
+        // latencia alta sostenida: la referencia larga se acerca para no quedar anclada al pasado
+        if (longRtt / shortRtt > 2) longRtt *= 0.95;
+        if (inflight < estimatedLimit / 2) return;
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+        double next = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        next = estimatedLimit * (1 - SMOOTHING) + next * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    public int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private static double ema(double previous, double sample, int window) {
+        return previous + (sample - previous) * (2.0 / (window + 1));
+    }
+}
@@ -0,0 +1,98 @@
+package com.nttdata.gateway_service.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Límite de concurrencia adaptativo por ruta (ver AdaptiveLimiter). Cada ruta tiene su propio cupo:
+ * un backend lento llena solo el suyo y el resto de rutas sigue respondiendo (bulkhead).
+ * Sin cupo se responde 503 con Retry-After de inmediato, sin encolar.
+ *
+ * <pre>
+ * filters:
+ *   - name: ConcurrencyLimit
+ *     args:
+ *       initial-limit: 20
+ *       min-limit: 4
+ *       max-limit: 200
+ *       rtt-tolerance: 1.5   # cuánto puede subir la latencia sobre la habitual antes de reducir el límite
+ *       retry-after: 1s
+ * </pre>
+ *
+ * Métricas por ruta: gateway.concurrency.limit, gateway.concurrency.inflight, gateway.concurrency.rejected.
+ */
+@Component
+public class ConcurrencyLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ConcurrencyLimitGatewayFilterFactory.Config> {
+
+    /**
+     * Por dentro de ResponseCache y Coalesce (los aciertos y las esperas no ocupan cupo) y después de
+     * NettyWriteResponseFilter: la latencia medida llega hasta las cabeceras del backend.
+     */
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER + 1;
+
+    private final MeterRegistry registry;
+
+    public ConcurrencyLimitGatewayFilterFactory(MeterRegistry registry) {
+        super(Config.class);
+        this.registry = registry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String route = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        AdaptiveLimiter limiter = new AdaptiveLimiter(config.getInitialLimit(), config.getMinLimit(),
+                config.getMaxLimit(), config.getRttTolerance());
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveLimiter::getLimit)
+                .description("Current adaptive concurrency limit").tag("route", route).register(registry);
+        Gauge.builder("gateway.concurrency.inflight", limiter, AdaptiveLimiter::getInFlight)
+                .description("Requests in flight to the backend").tag("route", route).register(registry);
+        Counter rejected = Counter.builder("gateway.concurrency.rejected")
+                .description("Requests rejected with 503 because the route was at its limit")
+                .tag("route", route).register(registry);
+        String retryAfter = Long.toString(Math.max(1, config.getRetryAfter().toSeconds()));
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (!limiter.tryAcquire()) {
+                rejected.increment();
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+                return response.setComplete();
+            }
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doOnSuccess(v -> {
+                        HttpStatusCode status = exchange.getResponse().getStatusCode();
+                        limiter.release(System.nanoTime() - start, status != null && status.is5xxServerError());
+                    })
+                    .doOnError(e -> limiter.release(System.nanoTime() - start, true))
+                    .doOnCancel(limiter::release);
+        }, ORDER);
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+        private String routeId;
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 200;
+        private double rttTolerance = 1.5;
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
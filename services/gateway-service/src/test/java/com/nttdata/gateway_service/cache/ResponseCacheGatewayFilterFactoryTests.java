@@ -0,0 +1,131 @@
+package com.nttdata.gateway_service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheGatewayFilterFactoryTests {
+
+    private static final String BALANCE = "/card-service/api/v1/cards/c1/balance";
+
+    private final AtomicInteger backendCalls = new AtomicInteger();
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheStore store = new ResponseCacheStore(new SimpleMeterRegistry(), DataSize.ofMegabytes(1));
+        ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config();
+        config.setPurgeDepth(5);
+        config.setBypass(List.of("/card-service/api/v1/cards/by-customer/**"));
+        filter = new ResponseCacheGatewayFilterFactory(store).apply(config);
+    }
+
+    @Test
+    void servesRepeatedReadsFromCacheAndAnswersConditionalGetWith304() {
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get(BALANCE));
+        filter.filter(first, backend("{\"available\":100}")).block();
+        String etag = first.getResponse().getHeaders().getETag();
+        assertThat(first.getResponse().getBodyAsString().block()).isEqualTo("{\"available\":100}");
+        assertThat(etag).startsWith("\"").endsWith("\"");
+
+        MockServerWebExchange second = exchange(MockServerHttpRequest.get(BALANCE));
+        filter.filter(second, backend("changed")).block();
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("{\"available\":100}");
+        assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+
+        MockServerWebExchange conditional = exchange(MockServerHttpRequest.get(BALANCE).header(HttpHeaders.IF_NONE_MATCH, etag));
+        filter.filter(conditional, backend("changed")).block();
+        assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        assertThat(backendCalls).hasValue(1);
+    }
+
+    @Test
+    void unsafeMethodOnResourcePurgesItsEntries() {
+        filter.filter(exchange(MockServerHttpRequest.get(BALANCE)), backend("{\"available\":100}")).block();
+
+        filter.filter(exchange(MockServerHttpRequest.post("/card-service/api/v1/cards/c1/pay")), backend("{}")).block();
+
+        MockServerWebExchange after = exchange(MockServerHttpRequest.get(BALANCE));
+        filter.filter(after, backend("{\"available\":150}")).block();
+        assertThat(after.getResponse().getBodyAsString().block()).isEqualTo("{\"available\":150}");
+        assertThat(backendCalls).hasValue(3);
+    }
+
+    @Test
+    void readThatRacedAWriteIsNotStored() {
+        // el backend responde el saldo anterior mientras una escritura sobre la tarjeta termina y purga
+        GatewayFilterChain racing = exchange -> {
+            filter.filter(exchange(MockServerHttpRequest.post("/card-service/api/v1/cards/c1/charge")), backend("{}")).block();
+            return backend("{\"available\":100}").filter(exchange);
+        };
+        MockServerWebExchange stale = exchange(MockServerHttpRequest.get(BALANCE));
+        filter.filter(stale, racing).block();
+        assertThat(stale.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("BYPASS");
+
+        MockServerWebExchange next = exchange(MockServerHttpRequest.get(BALANCE));
+        filter.filter(next, backend("{\"available\":50}")).block();
+        assertThat(next.getResponse().getBodyAsString().block()).isEqualTo("{\"available\":50}");
+    }
+
+    @Test
+    void bypassRoutesAreNeverCached() {
+        for (int i = 0; i < 2; i++) {
+            filter.filter(exchange(MockServerHttpRequest.get("/card-service/api/v1/cards/by-customer/cu1")),
+                    backend("[]")).block();
+        }
+        assertThat(backendCalls).hasValue(2);
+    }
+
+    @Test
+    void streamingResponsesAreNotCached() {
+        for (int i = 0; i < 2; i++) {
+            MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/transaction-service/api/v1/transactions")
+                    .accept(MediaType.APPLICATION_NDJSON));
+            filter.filter(exchange, backend("{}\n", MediaType.APPLICATION_NDJSON)).block();
+        }
+        assertThat(backendCalls).hasValue(2);
+    }
+
+    @Test
+    void resourcePathKeepsConfiguredSegments() {
+        assertThat(ResponseCacheGatewayFilterFactory.resourcePath("/card-service/api/v1/cards/c1/pay", 5))
+                .isEqualTo("/card-service/api/v1/cards/c1");
+        assertThat(ResponseCacheGatewayFilterFactory.resourcePath("/card-service/api/v1/cards", 5))
+                .isEqualTo("/card-service/api/v1/cards");
+    }
+
+    private GatewayFilterChain backend(String body) {
+        return backend(body, MediaType.APPLICATION_JSON);
+    }
+
+    private GatewayFilterChain backend(String body, MediaType type) {
+        return exchange -> {
+            backendCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            exchange.getResponse().getHeaders().setContentType(type);
+            return exchange.getResponse().writeWith(Mono.just(
+                    DefaultDataBufferFactory.sharedInstance.wrap(body.getBytes(StandardCharsets.UTF_8))));
+        };
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request);
+    }
+}
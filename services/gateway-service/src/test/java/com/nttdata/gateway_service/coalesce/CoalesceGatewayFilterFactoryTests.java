@@ -0,0 +1,93 @@
+package com.nttdata.gateway_service.coalesce;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoalesceGatewayFilterFactoryTests {
+
+    private static final String PATH = "/customer-service/api/v1/customers/c1";
+
+    private final AtomicInteger backendCalls = new AtomicInteger();
+    private final Sinks.Empty<Void> release = Sinks.empty();
+    private SimpleMeterRegistry registry;
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        filter = new CoalesceGatewayFilterFactory(registry).apply(new CoalesceGatewayFilterFactory.Config());
+    }
+
+    @Test
+    void identicalInFlightRequestsShareOneUpstreamCall() {
+        List<MockServerWebExchange> exchanges = List.of(get(PATH), get(PATH), get(PATH));
+        List<Mono<Void>> running = exchanges.stream()
+                .map(e -> filter.filter(e, backend("{\"id\":\"c1\"}", MediaType.APPLICATION_JSON)).cache())
+                .toList();
+        running.forEach(Mono::subscribe);   // los tres llegan antes de que responda el backend
+
+        release.tryEmitEmpty();
+        Mono.when(running).block();
+
+        assertThat(backendCalls).hasValue(1);
+        assertThat(exchanges).allSatisfy(e ->
+                assertThat(e.getResponse().getBodyAsString().block()).isEqualTo("{\"id\":\"c1\"}"));
+        assertThat(registry.get(CoalesceGatewayFilterFactory.METRIC).tag("outcome", "coalesced").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void requestsAfterCompletionGoUpstreamAgain() {
+        release.tryEmitEmpty();
+        filter.filter(get(PATH), backend("{}", MediaType.APPLICATION_JSON)).block();
+        filter.filter(get(PATH), backend("{}", MediaType.APPLICATION_JSON)).block();
+
+        assertThat(backendCalls).hasValue(2);
+    }
+
+    @Test
+    void streamingResponseIsNotSharedAndWaitersCallOnTheirOwn() {
+        MockServerWebExchange first = get(PATH);
+        MockServerWebExchange second = get(PATH);
+        Mono<Void> a = filter.filter(first, backend("{}\n", MediaType.APPLICATION_NDJSON)).cache();
+        Mono<Void> b = filter.filter(second, backend("{}\n", MediaType.APPLICATION_NDJSON)).cache();
+        a.subscribe();
+        b.subscribe();
+
+        release.tryEmitEmpty();
+        Mono.when(a, b).block();
+
+        assertThat(backendCalls).hasValue(2);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("{}\n");
+    }
+
+    private GatewayFilterChain backend(String body, MediaType type) {
+        return exchange -> release.asMono().then(Mono.defer(() -> {
+            backendCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            exchange.getResponse().getHeaders().setContentType(type);
+            return exchange.getResponse().writeWith(Mono.just(
+                    DefaultDataBufferFactory.sharedInstance.wrap(body.getBytes(StandardCharsets.UTF_8))));
+        }));
+    }
+
+    private static MockServerWebExchange get(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+}
@@ -0,0 +1,44 @@
+package com.nttdata.gateway_service.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InternalPathsFilterTests {
+
+    private final InternalPathsFilter filter = new InternalPathsFilter(List.of("/*/api/v1/cache/**"));
+    private final AtomicInteger routed = new AtomicInteger();
+    private final GatewayFilterChain chain = exchange -> {
+        routed.incrementAndGet();
+        return Mono.empty();
+    };
+
+    @Test
+    void cacheEndpointsAreNotRouted() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.delete("/account-service/api/v1/cache/customers/c1"));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(routed).hasValue(0);
+    }
+
+    @Test
+    void otherPathsAreRouted() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/account-service/api/v1/accounts/a1"));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(routed).hasValue(1);
+    }
+}
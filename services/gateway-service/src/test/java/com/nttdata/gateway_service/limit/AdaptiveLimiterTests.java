@@ -0,0 +1,63 @@
+package com.nttdata.gateway_service.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimiterTests {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+    @Test
+    void growsWhileLatencyIsSteadyAndShrinksWhenItRises() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(20, 4, 200, 1.5);
+        for (int i = 0; i < 50; i++) limiter.onSample(FAST, limiter.getLimit(), false);
+        int grown = limiter.getLimit();
+        assertThat(grown).isGreaterThan(20);
+
+        for (int i = 0; i < 50; i++) limiter.onSample(SLOW, limiter.getLimit(), false);
+        assertThat(limiter.getLimit()).isLessThan(grown / 2);
+    }
+
+    @Test
+    void doesNotGrowWhenTheLimitIsNotUsed() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(20, 4, 200, 1.5);
+        for (int i = 0; i < 50; i++) limiter.onSample(FAST, 2, false);
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void rejectsBeyondTheLimitWith503AndRetryAfter() {
+        ConcurrencyLimitGatewayFilterFactory.Config config = new ConcurrencyLimitGatewayFilterFactory.Config();
+        config.setRouteId("transaction-service");
+        config.setInitialLimit(4);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GatewayFilter filter = new ConcurrencyLimitGatewayFilterFactory(registry).apply(config);
+
+        // cuatro peticiones colgadas en un backend que no responde ocupan todo el cupo
+        for (int i = 0; i < 4; i++) filter.filter(exchange(), e -> Mono.never()).subscribe();
+
+        MockServerWebExchange rejected = exchange();
+        filter.filter(rejected, e -> Mono.empty()).block();
+
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(registry.get("gateway.concurrency.rejected").tag("route", "transaction-service").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("gateway.concurrency.inflight").gauge().value()).isEqualTo(4);
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/transaction-service/api/v1/transactions"));
+    }
+}
@@ -0,0 +1,173 @@
+package com.nttdata.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Los flujos de BankMicroservices.postman_collection.json: alta de cliente (cliente, dos cuentas
+ * propias y una tarjeta), depósito, retiro, transferencia entre cuentas propias, cargo a tarjeta y
+ * reporte de saldo promedio diario. Cada llegada elige una operación según {@link Operation#weight}
+ * sobre un cliente al azar de los ya dados de alta.
+ */
+final class BankScenario {
+
+    static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    /** Etiquetas de endpoint en el reporte. */
+    static final class Endpoint {
+        static final String CREATE_CUSTOMER = "POST /api/v1/customers";
+        static final String OPEN_ACCOUNT = "POST /api/v1/accounts";
+        static final String DEPOSIT = "POST /api/v1/accounts/{id}/deposit";
+        static final String WITHDRAW = "POST /api/v1/accounts/{id}/withdraw";
+        static final String TRANSFER = "POST /api/v1/transfers/own";
+        static final String CREATE_CARD = "POST /api/v1/cards";
+        static final String CHARGE = "POST /api/v1/cards/{id}/charge";
+        static final String REPORT = "GET /api/v1/reports/customers/{id}/daily-balance";
+
+        private Endpoint() { }
+    }
+
+    /** Mezcla de operaciones; los pesos suman 100. */
+    enum Operation {
+        ONBOARD(5), DEPOSIT(25), WITHDRAW(20), TRANSFER(20), CHARGE(20), REPORT(10);
+
+        final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+
+        static Operation pick(int roll) {
+            for (Operation op : values()) {
+                if (roll < op.weight) return op;
+                roll -= op.weight;
+            }
+            throw new IllegalArgumentException("roll out of range");
+        }
+    }
+
+    /** Cliente dado de alta con sus productos. */
+    record Session(String customerId, String savingsId, String currentId, String cardId) { }
+
+    private static final BigDecimal OPENING_BALANCE = BigDecimal.valueOf(10_000);
+    private static final BigDecimal CREDIT_LIMIT = BigDecimal.valueOf(1_000_000);
+
+    private final WebClient customers;
+    private final WebClient accounts;
+    private final WebClient cards;
+    private final WebClient transactions;
+    private final LatencyRecorder recorder;
+    private final List<Session> sessions = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    BankScenario(WebClient.Builder builder, LatencyRecorder recorder) {
+        this.customers = builder.clone().baseUrl("http://localhost:8081").build();
+        this.accounts = builder.clone().baseUrl("http://localhost:8082").build();
+        this.cards = builder.clone().baseUrl("http://localhost:8084").build();
+        this.transactions = builder.clone().baseUrl("http://localhost:8085").build();
+        this.recorder = recorder;
+    }
+
+    /** Da de alta {@code count} clientes antes de medir (con hasta 16 altas en paralelo). */
+    Mono<Void> seed(int count) {
+        return Flux.range(0, count)
+                .flatMap(i -> onboard(System.nanoTime()), 16)
+                .then();
+    }
+
+    int sessions() {
+        return sessions.size();
+    }
+
+    /** Una llegada del generador; {@code intended} es su instante previsto. */
+    Mono<?> arrival(long intended) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation op = Operation.pick(random.nextInt(100));
+        if (op == Operation.ONBOARD) return onboard(intended);
+
+        Session s = sessions.get(random.nextInt(sessions.size()));
+        BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(50));
+        return switch (op) {
+            case DEPOSIT -> timed(Endpoint.DEPOSIT, intended, () -> post(accounts, "/api/v1/accounts/{id}/deposit",
+                    Map.of("amount", amount), s.savingsId()));
+            case WITHDRAW -> timed(Endpoint.WITHDRAW, intended, () -> post(accounts, "/api/v1/accounts/{id}/withdraw",
+                    Map.of("amount", amount), s.savingsId()));
+            case TRANSFER -> {
+                boolean forward = random.nextBoolean();
+                yield timed(Endpoint.TRANSFER, intended, () -> post(accounts, "/api/v1/transfers/own", Map.of(
+                        "fromAccountId", forward ? s.savingsId() : s.currentId(),
+                        "toAccountId", forward ? s.currentId() : s.savingsId(),
+                        "amount", amount)));
+            }
+            case CHARGE -> timed(Endpoint.CHARGE, intended, () -> post(cards, "/api/v1/cards/{id}/charge",
+                    Map.of("amount", amount), s.cardId()));
+            case REPORT -> timed(Endpoint.REPORT, intended, () -> transactions.get()
+                    .uri("/api/v1/reports/customers/{id}/daily-balance", s.customerId())
+                    .retrieve()
+                    .toBodilessEntity()
+                    .then());
+            case ONBOARD -> throw new IllegalStateException("handled above");
+        };
+    }
+
+    /** Cliente, luego sus dos cuentas y la tarjeta en paralelo; cada petición se mide por separado. */
+    private Mono<Session> onboard(long intended) {
+        long n = sequence.incrementAndGet();
+        return timed(Endpoint.CREATE_CUSTOMER, intended, () -> create(customers, "/api/v1/customers", Map.of(
+                "name", "Load " + n, "type", "PERSONAL", "documentNumber", "LT-" + n)))
+                .flatMap(customerId -> Mono.zip(
+                        timed(Endpoint.OPEN_ACCOUNT, System.nanoTime(), () -> create(accounts, "/api/v1/accounts",
+                                account(customerId, "SAVINGS"))),
+                        timed(Endpoint.OPEN_ACCOUNT, System.nanoTime(), () -> create(accounts, "/api/v1/accounts",
+                                account(customerId, "CURRENT"))),
+                        timed(Endpoint.CREATE_CARD, System.nanoTime(), () -> create(cards, "/api/v1/cards", Map.of(
+                                "customerId", customerId, "type", "PERSONAL",
+                                "creditLimit", CREDIT_LIMIT, "used", BigDecimal.ZERO))))
+                        .map(ids -> new Session(customerId, ids.getT1(), ids.getT2(), ids.getT3())))
+                .doOnNext(sessions::add);
+    }
+
+    private static Map<String, Object> account(String customerId, String type) {
+        return Map.of("customerId", customerId, "type", type, "balance", OPENING_BALANCE,
+                "monthlyMovementLimit", 1_000_000);
+    }
+
+    /** POST que crea un recurso; devuelve su id. */
+    private static Mono<String> create(WebClient client, String path, Object body) {
+        return client.post().uri(path)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .map(json -> json.path("id").asText());
+    }
+
+    private static Mono<Void> post(WebClient client, String path, Object body, Object... vars) {
+        return client.post().uri(path, vars)
+                .bodyValue(body)
+                .retrieve()
+                .toBodilessEntity()
+                .then();
+    }
+
+    /**
+     * Ejecuta la llamada y registra su latencia desde {@code since}; errores HTTP, de red o de
+     * timeout cuentan como error del endpoint.
+     */
+    private <T> Mono<T> timed(String endpoint, long since, Supplier<Mono<T>> call) {
+        return Mono.defer(call)
+                .timeout(TIMEOUT)
+                .doOnSuccess(v -> recorder.record(endpoint, System.nanoTime() - since, true))
+                .doOnError(e -> recorder.record(endpoint, System.nanoTime() - since, false));
+    }
+}
@@ -0,0 +1,438 @@
+package com.nttdata.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * account-service en sus dos modos de ejecución, lado a lado: reactive (por defecto) y blocking
+ * (perfil blocking: driver síncrono de Mongo y cada petición entera en un hilo). Mismo jar, mismo -Xmx,
+ * misma carga.
+ *
+ * Por modo, una JVM nueva con su propio InMemoryMongo y un transaction-service mínimo que acepta los
+ * envíos del relay del outbox. Se abren las cuentas y, por cada escalón de {@code rates}, calentamiento
+ * y medición con carga abierta (OpenLoopGenerator): depósito, retiro, transferencia propia y consulta.
+ * Durante cada medición se muestrea una vez por segundo el heap usado y los hilos vivos
+ * (/actuator/prometheus) y la memoria residente del proceso (/proc, solo Linux).
+ *
+ * Requiere el jar normal de account-service (mvn package): target/account-service-0.0.1-SNAPSHOT-exec.jar.
+ * La salida de cada JVM queda en target/execution-mode/{modo}.log.
+ */
+public final class ExecutionModeBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionModeBenchmark.class);
+
+    private static final Path OUTPUT = Path.of("target", "execution-mode");
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration SAMPLE_EVERY = Duration.ofSeconds(1);
+    private static final long MB = 1024 * 1024;
+
+    private ExecutionModeBenchmark() { }
+
+    public static void main(String[] args) {
+        ExecutionModeOptions options = ExecutionModeOptions.parse(args);
+        int status = 0;
+        try {
+            ExecutionModeReport report = run(options);
+            report.print(System.out);
+            report.write(options.report());
+            log.info("Report written to {}", options.report().toAbsolutePath());
+        } catch (IOException | RuntimeException e) {
+            log.error("Execution mode benchmark failed", e);
+            status = 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = 1;
+        }
+        System.exit(status);
+    }
+
+    static ExecutionModeReport run(ExecutionModeOptions options) throws IOException, InterruptedException {
+        Files.createDirectories(OUTPUT);
+        Path module = options.servicesDir().resolve(StartupBenchmark.Service.ACCOUNT.name).toAbsolutePath().normalize();
+        List<Step> steps = new ArrayList<>();
+        for (String mode : options.modes()) {
+            steps.addAll(runMode(mode, module, options));
+        }
+        return new ExecutionModeReport(Instant.now(), options.heap(), steps);
+    }
+
+    private static List<Step> runMode(String mode, Path module, ExecutionModeOptions options)
+            throws IOException, InterruptedException {
+        Path workingDir = StartupBenchmark.Build.CURRENT.workingDir(module);
+        int port = StartupBenchmark.freePort();
+        List<String> command = new ArrayList<>(StartupBenchmark.Build.CURRENT.command(StartupBenchmark.Service.ACCOUNT, workingDir));
+        command.add(1, "-Xmx" + options.heap());
+
+        try (InMemoryMongo mongo = new InMemoryMongo(); DownstreamStub downstream = new DownstreamStub()) {
+            command.addAll(arguments(mode, options, mongo, downstream, port));
+            Process process = new ProcessBuilder(command).directory(workingDir.toFile())
+                    .redirectErrorStream(true).redirectOutput(OUTPUT.resolve(mode + ".log").toAbsolutePath().toFile())
+                    .start();
+            try {
+                awaitReady(process, port);
+                log.info("account-service ({}) ready on port {}", mode, port);
+                return measure(mode, process, port, options);
+            } finally {
+                process.destroy();
+                if (!process.waitFor(10, TimeUnit.SECONDS)) process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static List<String> arguments(String mode, ExecutionModeOptions options, InMemoryMongo mongo,
+                                          DownstreamStub downstream, int port) {
+        Path configDir = options.configDir().toAbsolutePath().normalize();
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=" + port,
+                "--spring.data.mongodb.uri=" + mongo.uri("accountsdb"),
+                // lo mismo que serviría config-server (perfil native), sin config-server
+                "--spring.config.import=optional:file:" + configDir.resolve("application.yml")
+                        + ",optional:file:" + configDir.resolve("account-service.yml"),
+                "--services.transaction.base-url=http://127.0.0.1:" + downstream.port(),
+                "--services.customer.base-url=http://127.0.0.1:" + downstream.port(),
+                "--eureka.client.enabled=false",
+                "--management.endpoints.web.exposure.include=health,prometheus",
+                // sin DEBUG por petición: se mediría la escritura del log
+                "--logging.level.com.nttdata=WARN"));
+        if (!mode.equals("reactive")) args.add("--spring.profiles.active=" + mode);
+        return args;
+    }
+
+    private static void awaitReady(Process process, int port) throws InterruptedException {
+        HttpRequest probe = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/v1/accounts/by-customer/probe"))
+                .timeout(Duration.ofSeconds(1)).build();
+        long deadline = System.nanoTime() + READY_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) throw new IllegalStateException("account-service exited with " + process.exitValue());
+            if (StartupBenchmark.answered(probe)) return;
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("account-service not ready after " + READY_TIMEOUT.toSeconds() + " s");
+    }
+
+    private static List<Step> measure(String mode, Process process, int port, ExecutionModeOptions options) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        WebClient client = WebClient.builder().baseUrl("http://127.0.0.1:" + port).build();
+        AccountScenario scenario = new AccountScenario(client, recorder);
+
+        log.info("Opening accounts for {} customers", options.customers());
+        scenario.seed(options.customers()).block();
+        if (scenario.sessions() == 0) throw new IllegalStateException("No account could be opened");
+
+        List<Step> steps = new ArrayList<>();
+        for (double rate : options.rates()) {
+            OpenLoopGenerator generator = new OpenLoopGenerator(rate, options.maxInFlight(), recorder);
+            if (!options.warmup().isZero()) {
+                log.info("{}: warming up for {} s at {} arrivals/s", mode, options.warmup().toSeconds(), rate);
+                generator.run(options.warmup(), scenario::arrival).block();
+            }
+
+            log.info("{}: measuring for {} s at {} arrivals/s", mode, options.duration().toSeconds(), rate);
+            MemorySampler memory = new MemorySampler(client, process.pid());
+            Disposable sampling = memory.start();
+            Instant startedAt = Instant.now();
+            long start = System.nanoTime();
+            recorder.start();
+            generator.run(options.duration(), scenario::arrival).block();
+            recorder.stop();
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            sampling.dispose();
+
+            LoadReport load = LoadReport.of(startedAt, rate, elapsed.toNanos() / 1e9,
+                    recorder.droppedCount(), recorder.snapshot(elapsed));
+            System.out.printf("%n[%s]", mode);
+            load.print(System.out);
+            steps.add(new Step(mode, rate, load, memory.stats()));
+        }
+        return steps;
+    }
+
+    /**
+     * Cuentas de ahorro y corriente por cliente; cada llegada elige una operación según
+     * {@link Operation#weight} sobre un cliente al azar.
+     */
+    static final class AccountScenario {
+
+        static final Duration TIMEOUT = Duration.ofSeconds(30);
+        private static final BigDecimal OPENING_BALANCE = BigDecimal.valueOf(10_000);
+
+        enum Operation {
+            DEPOSIT("POST /api/v1/accounts/{id}/deposit", 25),
+            WITHDRAW("POST /api/v1/accounts/{id}/withdraw", 25),
+            TRANSFER("POST /api/v1/transfers/own", 30),
+            READ("GET /api/v1/accounts/{id}", 20);
+
+            final String endpoint;
+            final int weight;
+
+            Operation(String endpoint, int weight) {
+                this.endpoint = endpoint;
+                this.weight = weight;
+            }
+
+            static Operation pick(int roll) {
+                for (Operation op : values()) {
+                    if (roll < op.weight) return op;
+                    roll -= op.weight;
+                }
+                throw new IllegalArgumentException("roll out of range");
+            }
+        }
+
+        record Session(String savingsId, String currentId) { }
+
+        private final WebClient client;
+        private final LatencyRecorder recorder;
+        private final List<Session> sessions = new CopyOnWriteArrayList<>();
+
+        AccountScenario(WebClient client, LatencyRecorder recorder) {
+            this.client = client;
+            this.recorder = recorder;
+        }
+
+        /** Abre las dos cuentas de {@code customers} clientes (hasta 8 clientes en paralelo). */
+        Mono<Void> seed(int customers) {
+            return Flux.range(0, customers)
+                    .flatMap(i -> Mono.zip(open("EM-" + i, "SAVINGS"), open("EM-" + i, "CURRENT"))
+                            .map(ids -> new Session(ids.getT1(), ids.getT2())), 8)
+                    .doOnNext(sessions::add)
+                    .then();
+        }
+
+        int sessions() {
+            return sessions.size();
+        }
+
+        Mono<?> arrival(long intended) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Operation op = Operation.pick(random.nextInt(100));
+            Session s = sessions.get(random.nextInt(sessions.size()));
+            BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(50));
+            return switch (op) {
+                case DEPOSIT -> timed(op, intended, () -> post("/api/v1/accounts/{id}/deposit",
+                        Map.of("amount", amount), s.savingsId()));
+                case WITHDRAW -> timed(op, intended, () -> post("/api/v1/accounts/{id}/withdraw",
+                        Map.of("amount", amount), s.currentId()));
+                case TRANSFER -> {
+                    boolean forward = random.nextBoolean();
+                    yield timed(op, intended, () -> post("/api/v1/transfers/own", Map.of(
+                            "fromAccountId", forward ? s.savingsId() : s.currentId(),
+                            "toAccountId", forward ? s.currentId() : s.savingsId(),
+                            "amount", amount)));
+                }
+                case READ -> timed(op, intended, () -> client.get()
+                        .uri("/api/v1/accounts/{id}", random.nextBoolean() ? s.savingsId() : s.currentId())
+                        .retrieve()
+                        .toBodilessEntity()
+                        .then());
+            };
+        }
+
+        private Mono<String> open(String customerId, String type) {
+            return client.post().uri("/api/v1/accounts")
+                    .bodyValue(Map.of("customerId", customerId, "type", type, "balance", OPENING_BALANCE,
+                            "monthlyMovementLimit", 1_000_000))
+                    .retrieve()
+                    .bodyToMono(JsonNode.class)
+                    .map(json -> json.path("id").asText());
+        }
+
+        private Mono<Void> post(String path, Object body, Object... vars) {
+            return client.post().uri(path, vars)
+                    .bodyValue(body)
+                    .retrieve()
+                    .toBodilessEntity()
+                    .then();
+        }
+
+        /** Como BankScenario: latencia desde la llegada prevista; errores HTTP, de red o timeout cuentan como error. */
+        private <T> Mono<T> timed(Operation op, long since, Supplier<Mono<T>> call) {
+            return Mono.defer(call)
+                    .timeout(TIMEOUT)
+                    .doOnSuccess(v -> recorder.record(op.endpoint, System.nanoTime() - since, true))
+                    .doOnError(e -> recorder.record(op.endpoint, System.nanoTime() - since, false));
+        }
+    }
+
+    /**
+     * transaction-service y customer-service mínimos: acepta los bloques del relay del outbox
+     * (POST .../batch) sin guardarlos y responde cualquier cliente como PERSONAL (la apertura valida el perfil).
+     */
+    static final class DownstreamStub implements AutoCloseable {
+
+        private final HttpServer server;
+
+        DownstreamStub() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/api/v1/transactions/batch", exchange -> {
+                try (InputStream body = exchange.getRequestBody()) {
+                    body.transferTo(OutputStream.nullOutputStream());
+                }
+                exchange.sendResponseHeaders(201, -1);
+                exchange.close();
+            });
+            server.createContext("/api/v1/customers/", exchange -> {
+                String id = exchange.getRequestURI().getPath().substring("/api/v1/customers/".length());
+                byte[] body = ("{\"id\":\"" + id + "\",\"type\":\"PERSONAL\"}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+        }
+
+        int port() {
+            return server.getAddress().getPort();
+        }
+
+        @Override
+        public void close() {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Muestras de memoria e hilos de account-service durante una medición. El heap sale de
+     * jvm_memory_used_bytes{area="heap"}, los hilos de jvm_threads_live_threads y la memoria
+     * residente de /proc/{pid}/status (VmRSS); fuera de Linux queda en null.
+     */
+    static final class MemorySampler {
+
+        private final WebClient client;
+        private final Path status;
+        private final List<Long> heap = new CopyOnWriteArrayList<>();
+        private final List<Long> threads = new CopyOnWriteArrayList<>();
+        private final List<Long> rss = new CopyOnWriteArrayList<>();
+
+        MemorySampler(WebClient client, long pid) {
+            this.client = client;
+            this.status = Path.of("/proc", Long.toString(pid), "status");
+        }
+
+        Disposable start() {
+            return Flux.interval(Duration.ZERO, SAMPLE_EVERY)
+                    .concatMap(tick -> client.get().uri("/actuator/prometheus")
+                            .retrieve()
+                            .bodyToMono(String.class)
+                            .timeout(SAMPLE_EVERY)
+                            .doOnNext(this::sample)
+                            .onErrorResume(e -> Mono.empty()))
+                    .subscribe();
+        }
+
+        private void sample(String prometheus) {
+            long heapUsed = 0;
+            for (String line : prometheus.split("\n")) {
+                if (line.startsWith("jvm_memory_used_bytes{") && line.contains("area=\"heap\"")) heapUsed += value(line);
+                else if (line.startsWith("jvm_threads_live_threads")) threads.add(value(line));
+            }
+            heap.add(heapUsed);
+            Long resident = residentBytes();
+            if (resident != null) rss.add(resident);
+        }
+
+        private Long residentBytes() {
+            try {
+                for (String line : Files.readAllLines(status)) {
+                    // VmRSS:	  123456 kB
+                    if (line.startsWith("VmRSS:")) return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            } catch (IOException | NumberFormatException e) {
+                // sin /proc (no es Linux) o el proceso terminó
+            }
+            return null;
+        }
+
+        private static long value(String line) {
+            return (long) Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+        }
+
+        Memory stats() {
+            return new Memory(heap.size(), megabytes(max(heap)), megabytes(avg(heap)), megabytes(max(rss)), max(threads));
+        }
+
+        private static Long max(List<Long> values) {
+            return values.stream().max(Long::compare).orElse(null);
+        }
+
+        private static Long avg(List<Long> values) {
+            return values.isEmpty() ? null : (long) values.stream().mapToLong(Long::longValue).average().orElse(0);
+        }
+
+        private static Long megabytes(Long bytes) {
+            return bytes == null ? null : bytes / MB;
+        }
+    }
+
+    /** Memoria de account-service durante una medición (MB) e hilos vivos. */
+    record Memory(int samples, Long heapMaxMb, Long heapAvgMb, Long rssMaxMb, Long threadsMax) { }
+
+    record Step(String mode, double rate, LoadReport load, Memory memory) { }
+
+    record ExecutionModeReport(Instant finishedAt, String heap, List<Step> steps) {
+
+        void print(PrintStream out) {
+            out.printf("%naccount-service by execution mode (-Xmx%s); latency: worst endpoint%n%n", heap);
+            out.printf("%-10s %8s %9s %7s %8s %9s %10s %12s %12s %11s %8s%n", "mode", "offered", "req/s", "errors",
+                    "dropped", "p99 ms", "p99.9 ms", "heap max MB", "heap avg MB", "rss max MB", "threads");
+            for (Step s : steps) {
+                LoadReport l = s.load();
+                double p99 = l.endpoints().stream().mapToDouble(LatencyRecorder.EndpointStats::p99).max().orElse(0);
+                double p999 = l.endpoints().stream().mapToDouble(LatencyRecorder.EndpointStats::p999).max().orElse(0);
+                out.printf("%-10s %8.0f %9.1f %7d %8d %9.2f %10.2f %12s %12s %11s %8s%n", s.mode(), s.rate(),
+                        l.achievedRate(), l.errors(), l.dropped(), p99, p999, text(s.memory().heapMaxMb()),
+                        text(s.memory().heapAvgMb()), text(s.memory().rssMaxMb()), text(s.memory().threadsMax()));
+            }
+        }
+
+        void write(Path file) {
+            try {
+                if (file.getParent() != null) Files.createDirectories(file.getParent());
+                new ObjectMapper()
+                        .registerModule(new JavaTimeModule())
+                        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        .enable(SerializationFeature.INDENT_OUTPUT)
+                        .writeValue(file.toFile(), this);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write " + file, e);
+            }
+        }
+
+        private static String text(Long value) {
+            return value == null ? "-" : value.toString();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.nttdata.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parámetros de ExecutionModeBenchmark, como argumentos {@code --clave=valor}:
+ *
+ * - modes: modos de account-service a comparar, separados por coma. Default reactive,blocking.
+ * - rates: escalones de llegadas por segundo, en orden, sobre la misma JVM. Default 200,500,1000.
+ * - duration / warmup: medición y calentamiento de cada escalón. Default 30s / 10s.
+ * - customers: clientes, con una cuenta de ahorro y una corriente cada uno, creados antes de medir. Default 200.
+ * - max-in-flight: tope de peticiones abiertas; las llegadas por encima se cuentan como descartadas.
+ * - heap: -Xmx de account-service, igual en todos los modos. Default 512m.
+ * - config-dir: carpeta con los yml de cada servicio. Default ../../config.
+ * - services-dir: carpeta con los módulos de los servicios ya construidos. Default ..
+ * - report: JSON con el resultado. Default target/execution-mode-report.json.
+ */
+record ExecutionModeOptions(List<String> modes, List<Double> rates, Duration duration, Duration warmup,
+                            int customers, int maxInFlight, String heap, Path configDir, Path servicesDir,
+                            Path report) {
+
+    ExecutionModeOptions {
+        if (modes.isEmpty()) throw new IllegalArgumentException("modes must not be empty");
+        if (rates.isEmpty() || rates.stream().anyMatch(r -> r <= 0)) throw new IllegalArgumentException("rates must be > 0");
+        if (duration.isNegative() || duration.isZero()) throw new IllegalArgumentException("duration must be > 0");
+        if (warmup.isNegative()) throw new IllegalArgumentException("warmup must be >= 0");
+        if (customers < 1) throw new IllegalArgumentException("customers must be >= 1");
+        if (maxInFlight < 1) throw new IllegalArgumentException("max-in-flight must be >= 1");
+    }
+
+    static ExecutionModeOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        ExecutionModeOptions options = new ExecutionModeOptions(
+                list(values.getOrDefault("modes", "reactive,blocking")),
+                list(values.getOrDefault("rates", "200,500,1000")).stream().map(Double::parseDouble).toList(),
+                LoadTestOptions.duration(values.getOrDefault("duration", "30s")),
+                LoadTestOptions.duration(values.getOrDefault("warmup", "10s")),
+                Integer.parseInt(values.getOrDefault("customers", "200")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "10000")),
+                values.getOrDefault("heap", "512m"),
+                Path.of(values.getOrDefault("config-dir", "../../config")),
+                Path.of(values.getOrDefault("services-dir", "..")),
+                Path.of(values.getOrDefault("report", "target/execution-mode-report.json")));
+        values.keySet().removeAll(Set.of("modes", "rates", "duration", "warmup", "customers", "max-in-flight",
+                "heap", "config-dir", "services-dir", "report"));
+        if (!values.isEmpty()) throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        return options;
+    }
+
+    private static List<String> list(String value) {
+        return Arrays.stream(value.split(",")).map(String::trim).filter(v -> !v.isEmpty()).toList();
+    }
+}
@@ -0,0 +1,30 @@
+package com.nttdata.loadtest;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Mongo en memoria que habla el protocolo wire, en loopback y puerto libre. Los repositorios
+ * reactivos de cada servicio (incluidas sus partes con ReactiveMongoTemplate) se usan sin cambios;
+ * cada servicio conserva su propia base de datos.
+ */
+final class InMemoryMongo implements AutoCloseable {
+
+    private final MongoServer server = new MongoServer(new MemoryBackend());
+    private final InetSocketAddress address;
+
+    InMemoryMongo() {
+        this.address = server.bind(); // loopback, puerto libre
+    }
+
+    String uri(String database) {
+        return "mongodb://" + address.getHostString() + ":" + address.getPort() + "/" + database;
+    }
+
+    @Override
+    public void close() {
+        server.shutdownNow();
+    }
+}
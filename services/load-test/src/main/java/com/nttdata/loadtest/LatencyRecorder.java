@@ -0,0 +1,83 @@
+package com.nttdata.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias por endpoint (HdrHistogram, 3 dígitos significativos, hasta 1 minuto).
+ * Solo registra mientras está activo: el calentamiento pasa sin dejar rastro.
+ */
+final class LatencyRecorder {
+
+    private static final long MAX_TRACKABLE = TimeUnit.MINUTES.toNanos(1);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean active;
+
+    void start() {
+        endpoints.clear();
+        dropped.reset();
+        active = true;
+    }
+
+    void stop() {
+        active = false;
+    }
+
+    /** @param nanos desde la llegada prevista (incluye la espera en cola) hasta la respuesta */
+    void record(String endpoint, long nanos, boolean ok) {
+        if (!active) return;
+        Endpoint e = endpoints.computeIfAbsent(endpoint, k -> new Endpoint());
+        e.histogram.recordValue(Math.min(Math.max(nanos, 0), MAX_TRACKABLE));
+        if (!ok) e.errors.increment();
+    }
+
+    /** Llegada que no se envió por superar el tope de peticiones abiertas. */
+    void dropped() {
+        if (active) dropped.increment();
+    }
+
+    long droppedCount() {
+        return dropped.sum();
+    }
+
+    List<EndpointStats> snapshot(Duration elapsed) {
+        double seconds = Math.max(elapsed.toNanos(), 1) / 1e9;
+        return endpoints.entrySet().stream()
+                .map(e -> EndpointStats.of(e.getKey(), e.getValue(), seconds))
+                .sorted(Comparator.comparing(EndpointStats::endpoint))
+                .toList();
+    }
+
+    private static final class Endpoint {
+        final ConcurrentHistogram histogram = new ConcurrentHistogram(MAX_TRACKABLE, 3);
+        final LongAdder errors = new LongAdder();
+    }
+
+    /** Latencias en milisegundos; throughput en respuestas por segundo (incluye errores). */
+    record EndpointStats(String endpoint, long count, long errors, double throughput,
+                         double p50, double p90, double p99, double p999, double max) {
+
+        static EndpointStats of(String endpoint, Endpoint e, double seconds) {
+            Histogram h = e.histogram.copy();
+            long count = h.getTotalCount();
+            return new EndpointStats(endpoint, count, e.errors.sum(), count / seconds,
+                    millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                    millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)),
+                    millis(h.getMaxValue()));
+        }
+
+        private static double millis(long nanos) {
+            return Math.round(nanos / 10_000.0) / 100.0;
+        }
+    }
+}
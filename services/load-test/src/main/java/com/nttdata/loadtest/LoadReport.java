@@ -0,0 +1,53 @@
+package com.nttdata.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Resultado de una corrida: tasa ofrecida y alcanzada, y por endpoint cantidad, errores,
+ * respuestas por segundo y percentiles de latencia (ms).
+ */
+record LoadReport(Instant startedAt, double offeredRate, double durationSeconds, long responses, long errors,
+                  long dropped, double achievedRate, List<LatencyRecorder.EndpointStats> endpoints) {
+
+    static LoadReport of(Instant startedAt, double offeredRate, double durationSeconds, long dropped,
+                         List<LatencyRecorder.EndpointStats> endpoints) {
+        long responses = endpoints.stream().mapToLong(LatencyRecorder.EndpointStats::count).sum();
+        long errors = endpoints.stream().mapToLong(LatencyRecorder.EndpointStats::errors).sum();
+        return new LoadReport(startedAt, offeredRate, durationSeconds, responses, errors, dropped,
+                responses / durationSeconds, endpoints);
+    }
+
+    void print(PrintStream out) {
+        out.printf("%nOffered %.1f arrivals/s for %.1f s: %d responses (%.1f/s), %d errors, %d dropped%n%n",
+                offeredRate, durationSeconds, responses, achievedRate, errors, dropped);
+        out.printf("%-50s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (LatencyRecorder.EndpointStats e : endpoints) {
+            out.printf("%-50s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    e.endpoint(), e.count(), e.errors(), e.throughput(), e.p50(), e.p90(), e.p99(), e.p999(), e.max());
+        }
+    }
+
+    void write(Path file) {
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            new ObjectMapper()
+                    .registerModule(new JavaTimeModule())
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(file.toFile(), this);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + file, e);
+        }
+    }
+}
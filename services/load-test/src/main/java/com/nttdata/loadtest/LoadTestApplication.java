@@ -0,0 +1,67 @@
+package com.nttdata.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Prueba de carga en un solo proceso y sin red: Mongo en memoria, los cinco servicios con el
+ * perfil loadtest y un generador de carga abierta que repite los flujos de la colección Postman.
+ *
+ * 1. Alta de {@code customers} clientes (no se mide).
+ * 2. Calentamiento a la tasa pedida durante {@code warmup} (no se mide).
+ * 3. Medición durante {@code duration}; reporte en consola y en {@code report} (JSON).
+ */
+public final class LoadTestApplication {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestApplication.class);
+
+    private LoadTestApplication() { }
+
+    public static void main(String[] args) {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        int status = 0;
+        try (InMemoryMongo mongo = new InMemoryMongo();
+             ServiceStack stack = ServiceStack.start(options.configDir(), mongo)) {
+            run(options);
+        } catch (RuntimeException e) {
+            log.error("Load test failed", e);
+            status = 1;
+        }
+        // hilos de Netty/schedulers de los contextos cerrados no deben retener la JVM
+        System.exit(status);
+    }
+
+    static LoadReport run(LoadTestOptions options) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        BankScenario scenario = new BankScenario(WebClient.builder(), recorder);
+        OpenLoopGenerator generator = new OpenLoopGenerator(options.rate(), options.maxInFlight(), recorder);
+
+        log.info("Seeding {} customers", options.customers());
+        scenario.seed(options.customers()).block();
+        if (scenario.sessions() == 0) throw new IllegalStateException("No customer could be onboarded");
+
+        if (!options.warmup().isZero()) {
+            log.info("Warming up for {} s at {} arrivals/s", options.warmup().toSeconds(), options.rate());
+            generator.run(options.warmup(), scenario::arrival).block();
+        }
+
+        log.info("Measuring for {} s at {} arrivals/s", options.duration().toSeconds(), options.rate());
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        recorder.start();
+        generator.run(options.duration(), scenario::arrival).block();
+        recorder.stop();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        LoadReport report = LoadReport.of(startedAt, options.rate(), elapsed.toNanos() / 1e9,
+                recorder.droppedCount(), recorder.snapshot(elapsed));
+        report.print(System.out);
+        report.write(options.report());
+        log.info("Report written to {}", options.report().toAbsolutePath());
+        return report;
+    }
+}
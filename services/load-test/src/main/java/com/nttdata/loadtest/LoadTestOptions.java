@@ -0,0 +1,62 @@
+package com.nttdata.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parámetros de la corrida, como argumentos {@code --clave=valor}:
+ *
+ * - rate: llegadas por segundo (carga abierta: no espera a que terminen las anteriores). Default 200.
+ * - duration / warmup: medición y calentamiento previo (no se registra). Default 60s / 10s.
+ * - customers: clientes (con dos cuentas y una tarjeta) creados antes de empezar. Default 100.
+ * - max-in-flight: tope de peticiones abiertas; las llegadas por encima se cuentan como descartadas.
+ * - config-dir: carpeta con los yml de cada servicio. Default ../../config.
+ * - report: JSON con el resultado. Default target/load-report.json.
+ */
+record LoadTestOptions(double rate, Duration duration, Duration warmup, int customers, int maxInFlight,
+                       Path configDir, Path report) {
+
+    LoadTestOptions {
+        if (rate <= 0) throw new IllegalArgumentException("rate must be > 0");
+        if (duration.isNegative() || duration.isZero()) throw new IllegalArgumentException("duration must be > 0");
+        if (warmup.isNegative()) throw new IllegalArgumentException("warmup must be >= 0");
+        if (customers < 1) throw new IllegalArgumentException("customers must be >= 1");
+        if (maxInFlight < 1) throw new IllegalArgumentException("max-in-flight must be >= 1");
+    }
+
+    static LoadTestOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        LoadTestOptions options = new LoadTestOptions(
+                Double.parseDouble(values.getOrDefault("rate", "200")),
+                duration(values.getOrDefault("duration", "60s")),
+                duration(values.getOrDefault("warmup", "10s")),
+                Integer.parseInt(values.getOrDefault("customers", "100")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "10000")),
+                Path.of(values.getOrDefault("config-dir", "../../config")),
+                Path.of(values.getOrDefault("report", "target/load-report.json")));
+        values.keySet().removeAll(Set.of("rate", "duration", "warmup", "customers", "max-in-flight",
+                "config-dir", "report"));
+        if (!values.isEmpty()) throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        return options;
+    }
+
+    /** 90s, 2m, 500ms o ISO-8601 (PT1M). */
+    static Duration duration(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.startsWith("pt")) return Duration.parse(v.toUpperCase());
+        if (v.endsWith("ms")) return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        if (v.endsWith("s")) return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        if (v.endsWith("m")) return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+}
@@ -0,0 +1,77 @@
+package com.nttdata.loadtest;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+/**
+ * Carga abierta: las llegadas siguen un calendario fijo (una cada 1/rate segundos) sin importar
+ * cuánto tarden las respuestas. Cada llegada recibe su instante previsto (System.nanoTime), así la
+ * latencia medida desde ahí incluye el tiempo que el sistema la hizo esperar (sin coordinated omission).
+ *
+ * Un tick cada 10 ms emite las llegadas vencidas desde el anterior, con lo que el calendario se
+ * sostiene a cualquier tasa; si hay más de {@code maxInFlight} abiertas, la llegada se descarta.
+ */
+final class OpenLoopGenerator {
+
+    static final Duration TICK = Duration.ofMillis(10);
+
+    private final double rate;
+    private final int maxInFlight;
+    private final LatencyRecorder recorder;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    OpenLoopGenerator(double rate, int maxInFlight, LatencyRecorder recorder) {
+        this.rate = rate;
+        this.maxInFlight = maxInFlight;
+        this.recorder = recorder;
+    }
+
+    /**
+     * Lanza {@code rate * duration} llegadas repartidas en {@code duration}; termina cuando todas
+     * respondieron. Los errores de una llegada no cortan la corrida (cada escenario registra los suyos).
+     */
+    Mono<Void> run(Duration duration, LongFunction<Mono<?>> arrival) {
+        return Mono.defer(() -> {
+            long total = (long) Math.ceil(rate * duration.toNanos() / 1e9);
+            double interval = 1e9 / rate;
+            long start = System.nanoTime();
+            long[] issued = { 0 };
+
+            return Flux.interval(Duration.ZERO, TICK)
+                    .takeWhile(tick -> issued[0] < total)
+                    .concatMapIterable(tick -> {
+                        long elapsed = System.nanoTime() - start;
+                        long due = Math.min(total, (long) (elapsed / interval) + 1);
+                        List<Long> arrivals = new ArrayList<>((int) Math.max(0, due - issued[0]));
+                        for (long i = issued[0]; i < due; i++) arrivals.add(start + (long) (i * interval));
+                        issued[0] = due;
+                        return arrivals;
+                    })
+                    .flatMap(intended -> send(intended, arrival), Integer.MAX_VALUE)
+                    .then();
+        });
+    }
+
+    private Mono<?> send(long intended, LongFunction<Mono<?>> arrival) {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            recorder.dropped();
+            return Mono.empty();
+        }
+        return Mono.defer(() -> arrival.apply(intended))
+                .onErrorResume(e -> Mono.empty())
+                // antes de avisar el fin (doFinally iría después): al terminar run() el contador ya está en 0
+                .doOnTerminate(inFlight::decrementAndGet)
+                .doOnCancel(inFlight::decrementAndGet);
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,106 @@
+package com.nttdata.loadtest;
+
+import com.nttdata.account_service.AccountServiceApplication;
+import com.nttdata.card_service.CardServiceApplication;
+import com.nttdata.credit_service.CreditServiceApplication;
+import com.nttdata.customer_service.CustomerServiceApplication;
+import com.nttdata.transaction_service.TransactionServiceApplication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Los cinco servicios en este proceso, cada uno con su propio contexto y su puerto de siempre.
+ *
+ * - Configuración: el yml de cada servicio en {@code config/} (el mismo que sirve config-server) más
+ *   el perfil {@code loadtest} (loadtest.yml); no se consulta config-server.
+ * - Descubrimiento estático: los servicios ya se llaman por services.*.base-url (localhost:808x).
+ * - Mongo: la URI de cada servicio apunta a {@link InMemoryMongo}.
+ */
+final class ServiceStack implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceStack.class);
+
+    /**
+     * En orden de arranque. account-service va último para cerrarse primero: su relay del outbox
+     * llama a transaction-service en segundo plano, y los contextos comparten los loops de Reactor
+     * Netty, que se liberan con el primer contexto cerrado.
+     */
+    enum Service {
+        TRANSACTION("transaction-service", TransactionServiceApplication.class, "transactionsdb", null),
+        CARD("card-service", CardServiceApplication.class, "cardsdb", "cards"),
+        CREDIT("credit-service", CreditServiceApplication.class, "creditsdb", "credits"),
+        CUSTOMER("customer-service", CustomerServiceApplication.class, "customersdb", "customers"),
+        ACCOUNT("account-service", AccountServiceApplication.class, "accountsdb", "accounts");
+
+        final String name;
+        final Class<?> application;
+        final String database;
+        final String notifierPrefix;   // banking.change-notifier.prefix del application.yml del servicio
+
+        Service(String name, Class<?> application, String database, String notifierPrefix) {
+            this.name = name;
+            this.application = application;
+            this.database = database;
+            this.notifierPrefix = notifierPrefix;
+        }
+    }
+
+    private final Deque<ConfigurableApplicationContext> contexts = new ArrayDeque<>();
+
+    static ServiceStack start(Path configDir, InMemoryMongo mongo) {
+        ServiceStack stack = new ServiceStack();
+        try {
+            for (Service service : Service.values()) {
+                stack.contexts.push(stack.boot(service, configDir, mongo));
+            }
+            return stack;
+        } catch (RuntimeException e) {
+            stack.close();
+            throw e;
+        }
+    }
+
+    private ConfigurableApplicationContext boot(Service service, Path configDir, InMemoryMongo mongo) {
+        Path yml = configDir.resolve(service.name + ".yml").toAbsolutePath().normalize();
+        if (!Files.isRegularFile(yml)) {
+            throw new IllegalArgumentException("Missing configuration " + yml + " (see --config-dir)");
+        }
+        long started = System.nanoTime();
+        // argumentos de línea de comandos: ganan sobre el yml del servicio
+        List<String> args = new ArrayList<>(List.of("--spring.application.name=" + service.name,
+                // solo estos archivos: el application.yml de cada jar importaría config-server
+                "--spring.config.location=file:" + yml + ",classpath:/loadtest.yml",
+                "--spring.data.mongodb.uri=" + mongo.uri(service.database)));
+        if (service.notifierPrefix != null) args.add("--banking.change-notifier.prefix=" + service.notifierPrefix);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(service.application)
+                .main(service.application)
+                .web(WebApplicationType.REACTIVE)
+                .profiles("loadtest")
+                .run(args.toArray(String[]::new));
+        log.info("{} started in {} ms", service.name, (System.nanoTime() - started) / 1_000_000);
+        return context;
+    }
+
+    /** Cierra en orden inverso al arranque. */
+    @Override
+    public void close() {
+        while (!contexts.isEmpty()) {
+            ConfigurableApplicationContext context = contexts.pop();
+            try {
+                context.close();
+            } catch (RuntimeException e) {
+                log.warn("Error closing {}: {}", context.getId(), e.getMessage());
+            }
+        }
+    }
+}
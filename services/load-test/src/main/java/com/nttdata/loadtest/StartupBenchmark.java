@@ -0,0 +1,286 @@
+package com.nttdata.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo hasta la primera respuesta exitosa de cada servicio: build actual contra perfil fast-startup.
+ *
+ * Cada arranque es una JVM nueva. Se lanza el jar y se consulta cada 20 ms una lectura de su API (en los
+ * servicios con Mongo, una consulta real a InMemoryMongo) o /actuator/health en los demás; se mide desde
+ * el lanzamiento hasta el primer 200. No se usa el health de Mongo: InMemoryMongo no responde a "hello".
+ * Los arranques de uno y otro build se alternan, para que ninguno se lleve solo el disco frío.
+ *
+ * - current: target/{servicio}-0.0.1-SNAPSHOT-exec.jar (mvn package).
+ * - fast-startup: target/fast-startup/ (mvn package -Pfast-startup): AOT + AppCDS, y en los clientes
+ *   del config-server la espera acotada y la copia local de la configuración.
+ *
+ * La salida de cada arranque queda en target/startup/{servicio}-{build}-{n}.log.
+ */
+public final class StartupBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupBenchmark.class);
+
+    private static final String VERSION = "0.0.1-SNAPSHOT";
+    private static final int CONFIG_SERVER_PORT = 8888;
+    private static final Duration POLL = Duration.ofMillis(20);
+    private static final Path OUTPUT = Path.of("target", "startup");
+
+    private static final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(500)).build();
+
+    /**
+     * Servicios medibles. database null: no usa Mongo. exec: el build normal deja el ejecutable como
+     * -exec.jar (los que usa load-test como dependencia). aot: eureka-server es solo AppCDS.
+     * probe: GET que cuenta como primera respuesta exitosa.
+     */
+    enum Service {
+        CONFIG_SERVER("config-server", null, false, false, true, "/actuator/health"),
+        EUREKA_SERVER("eureka-server", null, false, false, false, "/actuator/health"),
+        GATEWAY("gateway-service", null, false, false, true, "/actuator/health"),
+        CUSTOMER("customer-service", "customersdb", true, true, true, "/api/v1/customers"),
+        ACCOUNT("account-service", "accountsdb", true, true, true, "/api/v1/accounts"),
+        CREDIT("credit-service", "creditsdb", true, true, true, "/api/v1/credits"),
+        CARD("card-service", "cardsdb", true, true, true, "/api/v1/cards"),
+        TRANSACTION("transaction-service", "transactionsdb", true, true, true, "/api/v1/transactions/by-product/startup-probe");
+
+        final String name;
+        final String database;
+        final boolean configClient;
+        final boolean exec;
+        final boolean aot;
+        final String probe;
+
+        Service(String name, String database, boolean configClient, boolean exec, boolean aot, String probe) {
+            this.name = name;
+            this.database = database;
+            this.configClient = configClient;
+            this.exec = exec;
+            this.aot = aot;
+            this.probe = probe;
+        }
+
+        static List<String> names() {
+            return Arrays.stream(values()).map(s -> s.name).toList();
+        }
+
+        static Service of(String name) {
+            return Arrays.stream(values()).filter(s -> s.name.equals(name)).findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown service " + name + "; expected one of " + names()));
+        }
+    }
+
+    enum Build {
+        CURRENT("current"),
+        FAST_STARTUP("fast-startup");
+
+        final String label;
+
+        Build(String label) {
+            this.label = label;
+        }
+
+        Path workingDir(Path module) {
+            return this == CURRENT ? module.resolve("target") : module.resolve("target").resolve("fast-startup");
+        }
+
+        /** Los mismos flags que la corrida de entrenamiento del perfil fast-startup (sin spring.context.exit). */
+        List<String> command(Service service, Path workingDir) {
+            String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+            String jar = service.name + "-" + VERSION;
+            if (this == CURRENT) return List.of(java, "-jar", jar(workingDir, jar + (service.exec ? "-exec.jar" : ".jar")));
+            if (!Files.isRegularFile(workingDir.resolve("application.jsa"))) {
+                throw new IllegalStateException("No CDS archive in " + workingDir + ": build " + service.name + " with -Pfast-startup");
+            }
+            List<String> command = new ArrayList<>(List.of(java, "-XX:SharedArchiveFile=application.jsa", "-Xlog:cds=error"));
+            if (service.aot) command.add("-Dspring.aot.enabled=true");
+            command.addAll(List.of("-jar", jar(workingDir, jar + "-fast.jar")));
+            return command;
+        }
+
+        private static String jar(Path dir, String name) {
+            if (!Files.isRegularFile(dir.resolve(name))) throw new IllegalStateException("Missing " + dir.resolve(name));
+            return name;    // relativo al directorio de trabajo, como en el entrenamiento (CDS compara el classpath)
+        }
+    }
+
+    private StartupBenchmark() { }
+
+    public static void main(String[] args) {
+        StartupOptions options = StartupOptions.parse(args);
+        int status = 0;
+        try (InMemoryMongo mongo = new InMemoryMongo();
+             ServerSocket stalled = options.configServer() == StartupOptions.ConfigServer.STALLED ? stall() : null) {
+            StartupReport report = run(options, mongo);
+            report.print(System.out);
+            report.write(options.report());
+            log.info("Report written to {}", options.report().toAbsolutePath());
+        } catch (IOException | RuntimeException e) {
+            log.error("Startup benchmark failed", e);
+            status = 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = 1;
+        }
+        System.exit(status);
+    }
+
+    static StartupReport run(StartupOptions options, InMemoryMongo mongo) throws IOException, InterruptedException {
+        Files.createDirectories(OUTPUT);
+        List<Result> results = new ArrayList<>();
+        for (String name : options.services()) {
+            Service service = Service.of(name);
+            Path module = options.servicesDir().resolve(service.name).toAbsolutePath().normalize();
+            Map<Build, List<Long>> millis = new EnumMap<>(Build.class);
+            for (int run = 1; run <= options.runs(); run++) {
+                for (Build build : Build.values()) {
+                    Long elapsed = start(service, build, module, options, mongo, run);
+                    millis.computeIfAbsent(build, b -> new ArrayList<>()).add(elapsed);
+                    log.info("{} {} #{}: {}", service.name, build.label, run, elapsed == null ? "failed" : elapsed + " ms");
+                }
+            }
+            millis.forEach((build, values) -> results.add(Result.of(service.name, build.label, values)));
+        }
+        return new StartupReport(Instant.now(), options.configServer().name().toLowerCase(), options.runs(), results);
+    }
+
+    /** @return ms hasta el primer 200, o null si el proceso terminó o no respondió a tiempo */
+    private static Long start(Service service, Build build, Path module, StartupOptions options, InMemoryMongo mongo,
+                              int run) throws IOException, InterruptedException {
+        Path workingDir = build.workingDir(module);
+        int port = freePort();
+        List<String> command = new ArrayList<>(build.command(service, workingDir));
+        command.addAll(arguments(service, build, options, mongo, port));
+        Path output = OUTPUT.resolve(service.name + "-" + build.label + "-" + run + ".log").toAbsolutePath();
+        HttpRequest probe = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + service.probe))
+                .timeout(Duration.ofSeconds(1)).build();
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command).directory(workingDir.toFile())
+                .redirectErrorStream(true).redirectOutput(output.toFile()).start();
+        try {
+            long deadline = started + options.timeout().toNanos();
+            while (System.nanoTime() < deadline && process.isAlive()) {
+                if (answered(probe)) return (System.nanoTime() - started) / 1_000_000;
+                Thread.sleep(POLL.toMillis());
+            }
+            return null;
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static List<String> arguments(Service service, Build build, StartupOptions options, InMemoryMongo mongo, int port) {
+        Path configDir = options.configDir().toAbsolutePath().normalize();
+        List<String> args = new ArrayList<>(List.of("--server.port=" + port));
+        if (service.database != null) args.add("--spring.data.mongodb.uri=" + mongo.uri(service.database));
+        if (service == Service.CONFIG_SERVER) {
+            args.add("--spring.cloud.config.server.native.search-locations=file:" + configDir + "/");
+        }
+        if (service.configClient && options.configServer() != StartupOptions.ConfigServer.LIVE) {
+            // lo mismo que serviría config-server (perfil native): application.yml + {servicio}.yml
+            args.add("--spring.config.import=optional:file:" + configDir.resolve("application.yml")
+                    + ",optional:file:" + configDir.resolve(service.name + ".yml"));
+        }
+        if (service.configClient && build == Build.FAST_STARTUP) {
+            args.add("--banking.config-snapshot.dir=" + OUTPUT.resolve("config-snapshot").toAbsolutePath());
+        }
+        return args;
+    }
+
+    static boolean answered(HttpRequest probe) throws InterruptedException {
+        try {
+            return http.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;   // aún no escucha
+        }
+    }
+
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /** Config-server que acepta conexiones (el backlog del sistema completa el handshake) y nunca responde. */
+    private static ServerSocket stall() throws IOException {
+        try {
+            return new ServerSocket(CONFIG_SERVER_PORT, 1000);
+        } catch (IOException e) {
+            throw new IOException("config-server=stalled needs port " + CONFIG_SERVER_PORT + " free: " + e.getMessage(), e);
+        }
+    }
+
+    /** Arranques de un servicio con un build; los fallidos cuentan en failures y no en los tiempos. */
+    record Result(String service, String build, int runs, int failures, Long medianMs, Long minMs, Long maxMs,
+                  List<Long> startsMs) {
+
+        static Result of(String service, String build, List<Long> starts) {
+            List<Long> ok = starts.stream().filter(Objects::nonNull).sorted().toList();
+            return new Result(service, build, starts.size(), starts.size() - ok.size(),
+                    ok.isEmpty() ? null : ok.get((ok.size() - 1) / 2),
+                    ok.isEmpty() ? null : ok.get(0),
+                    ok.isEmpty() ? null : ok.get(ok.size() - 1),
+                    starts);
+        }
+    }
+
+    record StartupReport(Instant finishedAt, String configServer, int runs, List<Result> results) {
+
+        void print(PrintStream out) {
+            out.printf("%nTime to first successful request (config-server: %s, %d runs)%n%n", configServer, runs);
+            out.printf("%-22s %-14s %6s %10s %10s %10s %12s%n",
+                    "service", "build", "ok", "median ms", "min ms", "max ms", "vs current");
+            Map<String, Long> current = new HashMap<>();
+            for (Result r : results) {
+                if (r.build().equals(Build.CURRENT.label) && r.medianMs() != null) current.put(r.service(), r.medianMs());
+                Long baseline = current.get(r.service());
+                String delta = r.build().equals(Build.CURRENT.label) || baseline == null || r.medianMs() == null ? ""
+                        : String.format("%+.0f%%", 100.0 * (r.medianMs() - baseline) / baseline);
+                out.printf("%-22s %-14s %6s %10s %10s %10s %12s%n", r.service(), r.build(),
+                        (r.runs() - r.failures()) + "/" + r.runs(), text(r.medianMs()), text(r.minMs()), text(r.maxMs()), delta);
+            }
+        }
+
+        void write(Path file) {
+            try {
+                if (file.getParent() != null) Files.createDirectories(file.getParent());
+                new ObjectMapper()
+                        .registerModule(new JavaTimeModule())
+                        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        .enable(SerializationFeature.INDENT_OUTPUT)
+                        .writeValue(file.toFile(), this);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write " + file, e);
+            }
+        }
+
+        private static String text(Long value) {
+            return value == null ? "-" : value.toString();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.nttdata.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parámetros de StartupBenchmark, como argumentos {@code --clave=valor}:
+ *
+ * - services: servicios a medir, separados por coma. Default: todos (ver StartupBenchmark.Service).
+ * - runs: arranques por servicio y build (cada uno en una JVM nueva). Default 5.
+ * - timeout: espera máxima por la primera respuesta antes de dar el arranque por fallido. Default 120s.
+ * - config-server: de dónde sale la configuración de cada servicio. Default files.
+ *     files:   los yml de config-dir, sin config-server (no hay nada en :8888).
+ *     stalled: los mismos yml, con un config-server que acepta conexiones y nunca responde.
+ *     live:    solo el config-server que esté corriendo en :8888.
+ * - config-dir: carpeta con los yml de cada servicio. Default ../../config.
+ * - services-dir: carpeta con los módulos de los servicios ya construidos. Default ..
+ * - report: JSON con el resultado. Default target/startup-report.json.
+ */
+record StartupOptions(List<String> services, int runs, Duration timeout, ConfigServer configServer,
+                      Path configDir, Path servicesDir, Path report) {
+
+    enum ConfigServer { FILES, STALLED, LIVE }
+
+    StartupOptions {
+        if (services.isEmpty()) throw new IllegalArgumentException("services must not be empty");
+        if (runs < 1) throw new IllegalArgumentException("runs must be >= 1");
+        if (timeout.isNegative() || timeout.isZero()) throw new IllegalArgumentException("timeout must be > 0");
+    }
+
+    static StartupOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        String services = values.getOrDefault("services", "");
+        StartupOptions options = new StartupOptions(
+                services.isBlank() ? StartupBenchmark.Service.names()
+                        : Arrays.stream(services.split(",")).map(String::trim).toList(),
+                Integer.parseInt(values.getOrDefault("runs", "5")),
+                LoadTestOptions.duration(values.getOrDefault("timeout", "120s")),
+                ConfigServer.valueOf(values.getOrDefault("config-server", "files").toUpperCase()),
+                Path.of(values.getOrDefault("config-dir", "../../config")),
+                Path.of(values.getOrDefault("services-dir", "..")),
+                Path.of(values.getOrDefault("report", "target/startup-report.json")));
+        values.keySet().removeAll(Set.of("services", "runs", "timeout", "config-server", "config-dir",
+                "services-dir", "report"));
+        if (!values.isEmpty()) throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        return options;
+    }
+}
@@ -0,0 +1,79 @@
+package com.nttdata.loadtest;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenLoopGeneratorTests {
+
+    @Test
+    void keepsTheArrivalScheduleWhenResponsesAreSlow() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        OpenLoopGenerator generator = new OpenLoopGenerator(100, 10_000, recorder);
+        List<Long> intended = new CopyOnWriteArrayList<>();
+        AtomicInteger maxOpen = new AtomicInteger();
+        AtomicInteger open = new AtomicInteger();
+
+        recorder.start();
+        long start = System.nanoTime();
+        generator.run(Duration.ofMillis(500), at -> {
+            intended.add(at);
+            maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+            // cada respuesta tarda 300 ms: en carga cerrada saldrían muy pocas llegadas
+            return Mono.delay(Duration.ofMillis(300))
+                    .doOnNext(x -> recorder.record("slow", System.nanoTime() - at, true))
+                    .doFinally(s -> open.decrementAndGet());
+        }).block(Duration.ofSeconds(5));
+        long elapsed = System.nanoTime() - start;
+
+        assertThat(intended).hasSize(50);
+        assertThat(intended).isSorted();
+        assertThat(intended.get(1) - intended.get(0)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(10));
+        assertThat(maxOpen.get()).isGreaterThan(20);                      // varias abiertas a la vez
+        assertThat(elapsed).isLessThan(TimeUnit.MILLISECONDS.toNanos(1500));
+
+        LatencyRecorder.EndpointStats stats = recorder.snapshot(Duration.ofNanos(elapsed)).get(0);
+        assertThat(stats.count()).isEqualTo(50);
+        assertThat(stats.p50()).isGreaterThanOrEqualTo(300);
+    }
+
+    @Test
+    void dropsArrivalsAboveTheInFlightCap() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        OpenLoopGenerator generator = new OpenLoopGenerator(200, 5, recorder);
+        AtomicInteger sent = new AtomicInteger();
+
+        recorder.start();
+        generator.run(Duration.ofMillis(200), at -> {
+            sent.incrementAndGet();
+            return Mono.delay(Duration.ofSeconds(1));
+        }).block(Duration.ofSeconds(5));
+
+        assertThat(sent.get()).isEqualTo(5);
+        assertThat(recorder.droppedCount()).isEqualTo(35);
+        assertThat(generator.inFlight()).isZero();
+    }
+
+    @Test
+    void ignoresSamplesWhileInactive() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record("warmup", 1_000_000, true);
+        recorder.start();
+        recorder.record("measured", 2_000_000, false);
+        recorder.stop();
+        recorder.record("measured", 3_000_000, true);
+
+        List<LatencyRecorder.EndpointStats> stats = recorder.snapshot(Duration.ofSeconds(1));
+        assertThat(stats).extracting(LatencyRecorder.EndpointStats::endpoint).containsExactly("measured");
+        assertThat(stats.get(0).count()).isEqualTo(1);
+        assertThat(stats.get(0).errors()).isEqualTo(1);
+        assertThat(stats.get(0).max()).isEqualTo(2.0);
+    }
+}
@@ -0,0 +1,89 @@
+package com.nttdata.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.ClientRequestObservationConvention;
+
+import java.util.Set;
+
+/**
+ * Métricas de latencia comunes a todos los servicios:
+ *
+ * - repository.invocations: cada método de repositorio (ver RepositoryTimingInterceptor).
+ * - http.client.requests: cada llamada WebClient, con client.name = servicio destino.
+ * - http.server.requests: cada endpoint (lo registra Spring Boot; aquí solo se configura).
+ *
+ * Las tres publican p50/p95/p99 (banking.metrics.percentiles) y todas llevan la etiqueta application.
+ * La etiqueta uri de las métricas HTTP se limita a banking.metrics.max-uri-tags valores.
+ */
+@AutoConfiguration
+@ConditionalOnClass(MeterRegistry.class)
+@EnableConfigurationProperties(ObservabilityProperties.class)
+public class ObservabilityAutoConfiguration {
+
+    static final Set<String> TIMED = Set.of(RepositoryTimingInterceptor.METRIC, "http.client.requests", "http.server.requests");
+
+    @Bean
+    MeterRegistryCustomizer<MeterRegistry> applicationTag(@Value("${spring.application.name:unknown}") String application) {
+        return registry -> registry.config().commonTags("application", application);
+    }
+
+    @Bean
+    MeterFilter latencyPercentiles(ObservabilityProperties properties) {
+        double[] percentiles = properties.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray();
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!TIMED.contains(id.getName())) return config;
+                return DistributionStatisticConfig.builder()
+                        .percentiles(percentiles)
+                        .percentilesHistogram(properties.isHistogram())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+
+    @Bean
+    MeterFilter serverUriCardinality(ObservabilityProperties properties) {
+        return MeterFilter.maximumAllowableTags("http.server.requests", "uri", properties.getMaxUriTags(), MeterFilter.deny());
+    }
+
+    @Bean
+    MeterFilter clientUriCardinality(ObservabilityProperties properties) {
+        return MeterFilter.maximumAllowableTags("http.client.requests", "uri", properties.getMaxUriTags(), MeterFilter.deny());
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport")
+    static class RepositoryMetricsConfiguration {
+
+        // estático: un BeanPostProcessor no debe forzar la creación temprana de su configuración
+        @Bean
+        static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+            return new RepositoryMetricsPostProcessor(registry);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.web.reactive.function.client.WebClient")
+    static class WebClientMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(ClientRequestObservationConvention.class)
+        ClientRequestObservationConvention targetServiceObservationConvention() {
+            return new TargetServiceObservationConvention();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.nttdata.observability;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * banking.metrics.*: percentiles publicados y tope de valores distintos de la etiqueta uri.
+ */
+@ConfigurationProperties("banking.metrics")
+public class ObservabilityProperties {
+
+    /** Percentiles calculados en el servicio (no agregables entre instancias). */
+    private List<Double> percentiles = List.of(0.5, 0.95, 0.99);
+
+    /** Publica además buckets de histograma (agregables en Prometheus, pero ~70 series más por timer). */
+    private boolean histogram = false;
+
+    /** Máximo de valores de uri por métrica HTTP; los que exceden se descartan en lugar de crear series. */
+    private int maxUriTags = 100;
+
+    public List<Double> getPercentiles() { return percentiles; }
+    public void setPercentiles(List<Double> percentiles) { this.percentiles = percentiles; }
+    public boolean isHistogram() { return histogram; }
+    public void setHistogram(boolean histogram) { this.histogram = histogram; }
+    public int getMaxUriTags() { return maxUriTags; }
+    public void setMaxUriTags(int maxUriTags) { this.maxUriTags = maxUriTags; }
+}
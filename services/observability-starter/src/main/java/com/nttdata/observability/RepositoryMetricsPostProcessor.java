@@ -0,0 +1,29 @@
+package com.nttdata.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Añade {@link RepositoryTimingInterceptor} al proxy de cada repositorio Spring Data, antes de que
+ * su factory bean lo cree. Cubre también los fragmentos personalizados (métodos *Impl).
+ */
+class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxy, info) -> proxy.addAdvice(new RepositoryTimingInterceptor(registry,
+                            info.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+}
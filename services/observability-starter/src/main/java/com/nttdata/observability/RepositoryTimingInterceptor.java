@@ -0,0 +1,82 @@
+package com.nttdata.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide cada método de un repositorio: {@code repository.invocations{repository, method, outcome}}.
+ * En los métodos reactivos el tiempo va de la suscripción a la terminación (la consulta real), no
+ * del armado del Mono/Flux. Etiquetas acotadas por el código: interfaz, método y resultado.
+ */
+class RepositoryTimingInterceptor implements MethodInterceptor {
+
+    static final String METRIC = "repository.invocations";
+
+    private final ObjectProvider<MeterRegistry> registry;
+    private final String repository;
+
+    RepositoryTimingInterceptor(ObjectProvider<MeterRegistry> registry, String repository) {
+        this.registry = registry;
+        this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String method = invocation.getMethod().getName();
+        if (invocation.getMethod().getDeclaringClass() == Object.class) return invocation.proceed();
+
+        Class<?> returnType = invocation.getMethod().getReturnType();
+        if (Mono.class.isAssignableFrom(returnType)) {
+            Mono<?> mono = (Mono<?>) invocation.proceed();
+            return mono == null ? null : Mono.defer(() -> {
+                long start = System.nanoTime();
+                return mono.doFinally(signal -> record(method, signal, start));
+            });
+        }
+        if (Flux.class.isAssignableFrom(returnType)) {
+            Flux<?> flux = (Flux<?>) invocation.proceed();
+            return flux == null ? null : Flux.defer(() -> {
+                long start = System.nanoTime();
+                return flux.doFinally(signal -> record(method, signal, start));
+            });
+        }
+
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            Object result = invocation.proceed();
+            outcome = "success";
+            return result;
+        } finally {
+            record(method, outcome, start);
+        }
+    }
+
+    private void record(String method, SignalType signal, long start) {
+        record(method, switch (signal) {
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancelled";
+            default -> "success";
+        }, start);
+    }
+
+    private void record(String method, String outcome, long start) {
+        MeterRegistry meters = registry.getIfAvailable();
+        if (meters == null) return;
+        Timer.builder(METRIC)
+                .description("Repository method latency, from subscription to termination for reactive methods")
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .register(meters)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,22 @@
+package com.nttdata.observability;
+
+import io.micrometer.common.KeyValue;
+import org.springframework.web.reactive.function.client.ClientRequestObservationContext;
+import org.springframework.web.reactive.function.client.DefaultClientRequestObservationConvention;
+
+import java.net.URI;
+
+/**
+ * http.client.requests etiquetado por servicio destino: {@code client.name} pasa a ser host:puerto
+ * (localhost:8082, customer-service) en lugar de solo el host, que en local es igual para todos.
+ */
+class TargetServiceObservationConvention extends DefaultClientRequestObservationConvention {
+
+    @Override
+    protected KeyValue clientName(ClientRequestObservationContext context) {
+        if (context.getRequest() == null) return super.clientName(context);
+        URI uri = context.getRequest().url();
+        if (uri.getHost() == null) return super.clientName(context);
+        return KeyValue.of("client.name", uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort());
+    }
+}
@@ -0,0 +1,77 @@
+package com.nttdata.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ObservabilityAutoConfigurationTests {
+
+    interface SampleRepository {
+        Mono<String> findById(String id);
+        Flux<String> findAll();
+    }
+
+    @Test
+    void timesReactiveRepositoryMethodsFromSubscriptionToTermination() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SampleRepository repository = proxy(registry, new SampleRepository() {
+            @Override public Mono<String> findById(String id) { return Mono.just(id).delayElement(Duration.ofMillis(50)); }
+            @Override public Flux<String> findAll() { return Flux.error(new IllegalStateException("down")); }
+        });
+
+        Mono<String> assembled = repository.findById("a");
+        assertThat(registry.find(RepositoryTimingInterceptor.METRIC).timers()).isEmpty();   // aún sin suscribir
+
+        StepVerifier.create(assembled).expectNext("a").verifyComplete();
+        StepVerifier.create(repository.findAll()).expectError().verify();
+
+        Timer found = registry.get(RepositoryTimingInterceptor.METRIC)
+                .tags("repository", "SampleRepository", "method", "findById", "outcome", "success").timer();
+        assertThat(found.count()).isEqualTo(1);
+        assertThat(found.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(45);
+        assertThat(registry.get(RepositoryTimingInterceptor.METRIC).tags("method", "findAll", "outcome", "error").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void publishesConfiguredPercentilesForTimedMetrics() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(ObservabilityAutoConfiguration.class))
+                .run(context -> {
+                    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                    context.getBeansOfType(MeterFilter.class).values().forEach(registry.config()::meterFilter);
+
+                    Timer timer = registry.timer(RepositoryTimingInterceptor.METRIC, "repository", "R", "method", "m");
+                    timer.record(Duration.ofMillis(10));
+                    assertThat(timer.takeSnapshot().percentileValues())
+                            .extracting(ValueAtPercentile::percentile)
+                            .containsExactly(0.5, 0.95, 0.99);
+                    assertThat(context).hasSingleBean(RepositoryMetricsPostProcessor.class);
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(MeterRegistry registry, SampleRepository target) {
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("registry", registry);
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.addInterface(SampleRepository.class);
+        factory.addAdvice(new RepositoryTimingInterceptor(beans.getBeanProvider(MeterRegistry.class), "SampleRepository"));
+        return (T) factory.getProxy();
+    }
+}
@@ -0,0 +1,88 @@
+package com.nttdata.transaction_service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compara un resultado JMH (JSON) contra la línea base guardada en src/jmh/baseline y termina con
+ * código 1 si algún benchmark empeora más de lo tolerado, en tiempo (score, menor es mejor) o en
+ * bytes asignados por operación (gc.alloc.rate.norm, con -prof gc).
+ *
+ * En tiempo, una diferencia solo cuenta como regresión si además supera el error de ambas mediciones
+ * (scoreError de JMH, intervalo del 99.9%, combinados en cuadratura): con pocas iteraciones el ruido
+ * de la máquina puede pasar de la tolerancia sin que el código haya cambiado.
+ *
+ * Solo se comparan los benchmarks/parámetros presentes en ambos archivos.
+ *
+ * Uso: BenchmarkBaselineCheck baseline.json result.json [toleranciaTiempo=0.15] [toleranciaAlloc=0.10]
+ */
+public final class BenchmarkBaselineCheck {
+
+    private static final String ALLOC = "gc.alloc.rate.norm";
+
+    private BenchmarkBaselineCheck() { }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkBaselineCheck <baseline.json> <result.json> [timeTolerance] [allocTolerance]");
+            System.exit(2);
+        }
+        double timeTolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.15;
+        double allocTolerance = args.length > 3 ? Double.parseDouble(args[3]) : 0.10;
+
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        int regressions = 0;
+        int compared = 0;
+        for (Map.Entry<String, JsonNode> e : current.entrySet()) {
+            JsonNode base = baseline.get(e.getKey());
+            if (base == null) continue;
+            compared++;
+            double baseScore = base.at("/primaryMetric/score").asDouble();
+            double score = e.getValue().at("/primaryMetric/score").asDouble();
+            double error = Math.hypot(error(base), error(e.getValue()));
+            boolean slower = score > baseScore * (1 + timeTolerance) && score - baseScore > error;
+
+            double baseAlloc = alloc(base);
+            double allocNow = alloc(e.getValue());
+            // margen absoluto: unos bytes de diferencia en benchmarks que casi no asignan no son regresión
+            boolean allocates = baseAlloc >= 0 && allocNow > baseAlloc * (1 + allocTolerance) + 64;
+
+            String unit = e.getValue().at("/primaryMetric/scoreUnit").asText();
+            System.out.printf("%-5s %-70s %12.3f -> %12.3f ± %.3f %s   alloc %14.0f -> %14.0f B/op%n",
+                    slower || allocates ? "FAIL" : "ok", e.getKey(), baseScore, score, error, unit, baseAlloc, allocNow);
+            if (slower || allocates) regressions++;
+        }
+
+        System.out.printf("%d benchmarks compared, %d regressions (time +%.0f%%, alloc +%.0f%%)%n",
+                compared, regressions, timeTolerance * 100, allocTolerance * 100);
+        if (regressions > 0) System.exit(1);
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+            run.path("params").fields().forEachRemaining(p -> key.append(' ').append(p.getKey()).append('=').append(p.getValue().asText()));
+            byKey.put(key.toString(), run);
+        }
+        return byKey;
+    }
+
+    /** scoreError de JMH; NaN (una sola iteración) cuenta como 0. */
+    private static double error(JsonNode run) {
+        double error = run.at("/primaryMetric/scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static double alloc(JsonNode run) {
+        JsonNode metric = run.path("secondaryMetrics").path(ALLOC);
+        return metric.isMissingNode() ? -1 : metric.path("score").asDouble();
+    }
+}
@@ -0,0 +1,59 @@
+package com.nttdata.transaction_service.application;
+
+import com.nttdata.transaction_service.domain.DailyBalance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reporte de saldo promedio diario (ReportAppService.averageOf, BigDecimal con DECIMAL64) para todos
+ * los clientes, sobre las filas de daily_balances que deja la proyección. El costo crece con productos
+ * por cliente y días del periodo, no con la cantidad de movimientos de cada día.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 3, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DailyAverageBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    int transactions;
+
+    @Param({"1", "5", "20"})
+    int productsPerCustomer;
+
+    List<List<List<DailyBalance>>> customers;
+    LocalDate start;
+    LocalDate end;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        customers = SyntheticTransactions.dailyRowsByCustomer(
+                SyntheticTransactions.generate(transactions, productsPerCustomer), productsPerCustomer);
+        start = SyntheticTransactions.FIRST_DAY.plusMonths(1);
+        end = start.plusMonths(1).minusDays(1);
+    }
+
+    @Benchmark
+    public void dailyAverages(Blackhole bh) {
+        for (List<List<DailyBalance>> products : customers) {
+            for (List<DailyBalance> rows : products) bh.consume(ReportAppService.averageOf(rows, start, end));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.nttdata.transaction_service.application;
+
+import com.nttdata.transaction_service.domain.DailyBalance;
+import com.nttdata.transaction_service.domain.Transaction;
+import com.nttdata.transaction_service.domain.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Datos sintéticos deterministas (semilla fija) para los benchmarks: cada producto tiene en promedio
+ * {@link #TX_PER_PRODUCT} movimientos repartidos en {@link #DAYS} días, en orden de producto y fecha
+ * (el orden que recorre la reconstrucción de la proyección).
+ */
+final class SyntheticTransactions {
+
+    static final int TX_PER_PRODUCT = 200;
+    static final int DAYS = 90;
+    static final LocalDate FIRST_DAY = LocalDate.of(2026, 1, 1);
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final String[] PRODUCT_TYPES = {"SAVINGS", "CHECKING", "FIXED_TERM", "CREDIT_CARD"};
+
+    private SyntheticTransactions() { }
+
+    static int products(int transactions) {
+        return Math.max(1, transactions / TX_PER_PRODUCT);
+    }
+
+    static List<Transaction> generate(int transactions, int productsPerCustomer) {
+        SplittableRandom random = new SplittableRandom(42);
+        int products = products(transactions);
+        List<Transaction> out = new ArrayList<>(transactions);
+        for (int p = 0; p < products; p++) {
+            String productId = "P" + p;
+            String customerId = "C" + (p / productsPerCustomer);
+            String productType = PRODUCT_TYPES[p % PRODUCT_TYPES.length];
+            int count = transactions / products + (p < transactions % products ? 1 : 0);
+            LocalDateTime at = FIRST_DAY.atStartOfDay();
+            long step = DAYS * 24L * 60 / Math.max(1, count);   // minutos entre movimientos
+            for (int i = 0; i < count; i++) {
+                TransactionType type = TYPES[random.nextInt(TYPES.length)];
+                BigDecimal amount = BigDecimal.valueOf(random.nextLong(1, 500_000), 2);
+                out.add(Transaction.builder()
+                        .id(productId + "-" + i)
+                        .productId(productId)
+                        .productType(productType)
+                        .customerId(customerId)
+                        .type(type)
+                        .amount(amount)
+                        .commission(type == TransactionType.FEE ? amount : BigDecimal.ZERO)
+                        .occurredAt(at)
+                        .build());
+                at = at.plusMinutes(step);
+            }
+        }
+        return out;
+    }
+
+    /** Filas de daily_balances de cada producto, agrupadas por cliente. */
+    static List<List<List<DailyBalance>>> dailyRowsByCustomer(List<Transaction> txs, int productsPerCustomer) {
+        List<List<List<DailyBalance>>> customers = new ArrayList<>();
+        DailyBalanceProjection.ProductReplay replay = null;
+        String product = null;
+        for (Transaction t : txs) {
+            if (!t.getProductId().equals(product)) {
+                if (replay != null) add(customers, replay.rows(), productsPerCustomer);
+                replay = new DailyBalanceProjection.ProductReplay();
+                product = t.getProductId();
+            }
+            replay.add(t);
+        }
+        if (replay != null) add(customers, replay.rows(), productsPerCustomer);
+        return customers;
+    }
+
+    private static void add(List<List<List<DailyBalance>>> customers, List<DailyBalance> rows, int productsPerCustomer) {
+        if (customers.isEmpty() || customers.get(customers.size() - 1).size() == productsPerCustomer) {
+            customers.add(new ArrayList<>(productsPerCustomer));
+        }
+        customers.get(customers.size() - 1).add(rows);
+    }
+}
@@ -0,0 +1,72 @@
+package com.nttdata.transaction_service.application;
+
+import com.nttdata.transaction_service.domain.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recorridos sobre el histórico de movimientos:
+ * - signedAmount: el signo por tipo que usan la proyección y los reportes.
+ * - changesByProduct: cambios por producto de un lote (escritura de la proyección, createAll).
+ * - replay: reconstrucción de daily_balances (acumulado por día y filas por producto).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 3, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TransactionFoldBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    int transactions;
+
+    List<Transaction> txs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        txs = SyntheticTransactions.generate(transactions, 5);
+    }
+
+    @Benchmark
+    public BigDecimal signedAmount() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Transaction t : txs) total = total.add(DailyBalanceProjection.signedAmount(t));
+        return total;
+    }
+
+    @Benchmark
+    public Object changesByProduct() {
+        return DailyBalanceProjection.changesByProduct(txs, List.of());
+    }
+
+    @Benchmark
+    public void replay(Blackhole bh) {
+        DailyBalanceProjection.ProductReplay replay = null;
+        String product = null;
+        for (Transaction t : txs) {
+            if (!t.getProductId().equals(product)) {
+                if (replay != null) bh.consume(replay.rows());
+                replay = new DailyBalanceProjection.ProductReplay();
+                product = t.getProductId();
+            }
+            replay.add(t);
+        }
+        if (replay != null) bh.consume(replay.rows());
+    }
+}
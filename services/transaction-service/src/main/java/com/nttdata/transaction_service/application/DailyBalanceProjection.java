@@ -0,0 +1,276 @@
+package com.nttdata.transaction_service.application;
+
+import com.nttdata.transaction_service.domain.DailyBalance;
+import com.nttdata.transaction_service.domain.Transaction;
+import com.nttdata.transaction_service.repository.DailyBalanceRepository;
+import com.nttdata.transaction_service.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Mantiene la proyección de saldos diarios (colección daily_balances) a medida que se escriben
+ * transacciones, y la reconstruye desde el histórico cuando hace falta (backfill).
+ *
+ * Idempotente por transacción: cada día guarda el monto de cada transacción aplicada (entries), así un
+ * reintento (el relay del outbox reenviando un lote, un alta que falló después de guardar) reemplaza
+ * el monto en lugar de sumarlo otra vez. Cada escritura de un producto, en vivo o de reconstrucción,
+ * se hace con su lease tomado (daily_balance_locks): se leen el día anterior y los posteriores, se
+ * aplican los cambios y se recalculan las aperturas sin que otra escritura del producto se cruce.
+ *
+ * El saldo de apertura de una cuenta llega como su primer movimiento (DEPOSIT de apertura, ver
+ * account-service); un producto sin ese movimiento parte de 0.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailyBalanceProjection {
+
+    private static final Duration LIVE_LEASE = Duration.ofSeconds(10);
+    private static final Duration REBUILD_LEASE = Duration.ofMinutes(10);   // un producto, todo su histórico
+    private static final int LOCK_ATTEMPTS = 100;
+    private static final Duration LOCK_RETRY = Duration.ofMillis(50);
+
+    private final DailyBalanceRepository dailyRepo;
+    private final TransactionRepository txRepo;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        dailyRepo.ensureIndexes()
+                .subscribe(null, e -> log.warn("daily_balances indexes not created: {}", e.getMessage()));
+    }
+
+    public Mono<Void> added(Transaction t) {
+        return apply(List.of(t), List.of());
+    }
+
+    /**
+     * Aplica los movimientos agregados/eliminados (los eliminados primero), producto por producto con
+     * su lease; productos distintos, en paralelo.
+     */
+    public Mono<Void> apply(List<Transaction> added, List<Transaction> removed) {
+        return Flux.fromIterable(changesByProduct(added, removed).entrySet())
+                .flatMap(e -> locked(List.of(e.getKey()), LIVE_LEASE, replay(e.getKey(), e.getValue())))
+                .then();
+    }
+
+    /**
+     * Cambio de una transacción ya guardada ({@code before}) a {@code after} (null: se elimina): se
+     * proyecta y luego se ejecuta {@code write}, con los productos de ambas versiones bloqueados. Si
+     * {@code write} falla, el reintento vuelve a leer {@code before} y la proyección se repite igual.
+     */
+    public <T> Mono<T> replace(Transaction before, Transaction after, Mono<T> write) {
+        Map<String, List<Change>> changes = changesByProduct(after == null ? List.of() : List.of(after), List.of(before));
+        Mono<Void> project = Flux.fromIterable(changes.entrySet())
+                .concatMap(e -> replay(e.getKey(), e.getValue()))
+                .then();
+        return locked(new ArrayList<>(new TreeSet<>(changes.keySet())), LIVE_LEASE, project.then(write));
+    }
+
+    /**
+     * Reconstruye la proyección producto por producto: con el lease del producto tomado (las escrituras
+     * en vivo esperan), lee su histórico por fecha, lo acumula por día y reemplaza sus filas.
+     *
+     * @return productos y días reconstruidos
+     */
+    public Mono<Map<String, Long>> rebuild() {
+        return txRepo.findProductIds()
+                .concatMap(productId -> locked(List.of(productId), REBUILD_LEASE,
+                        txRepo.findByProductIdOrderByOccurredAtAsc(productId)
+                                .filter(t -> t.getOccurredAt() != null)
+                                .reduceWith(ProductReplay::new, ProductReplay::add)
+                                .flatMap(replay -> dailyRepo.deleteByProductId(productId)
+                                        .thenMany(dailyRepo.insert(replay.rows()))
+                                        .count())))
+                .reduceWith(() -> new long[2], (acc, days) -> { acc[0]++; acc[1] += days; return acc; })
+                .map(acc -> Map.of("products", acc[0], "days", acc[1]))
+                .doOnSuccess(r -> log.info("Daily balance projection rebuilt: {}", r));
+    }
+
+    /** Lee el día anterior y los siguientes al primer cambio, aplica los cambios y escribe lo que cambió. */
+    private Mono<Void> replay(String productId, List<Change> changes) {
+        LocalDate from = changes.stream().map(Change::date).min(Comparator.naturalOrder()).orElseThrow();
+        return Mono.zip(dailyRepo.findPrevious(productId, from).map(DailyBalance::closingBalance).defaultIfEmpty(BigDecimal.ZERO),
+                        dailyRepo.findByProductFrom(productId, from).collectList())
+                .flatMap(t -> {
+                    DayWrites writes = replay(productId, t.getT1(), t.getT2(), changes);
+                    return dailyRepo.write(writes.upserts(), writes.deletedIds());
+                });
+    }
+
+    /**
+     * Aplica {@code changes} a los días {@code days} (desde el primer cambio, en orden) y recalcula sus
+     * aperturas desde {@code opening}. Solo devuelve los días tocados o cuya apertura se movió; los días
+     * que quedaron sin movimientos se borran.
+     */
+    static DayWrites replay(String productId, BigDecimal opening, List<DailyBalance> days, List<Change> changes) {
+        TreeMap<LocalDate, DailyBalance> byDate = new TreeMap<>();
+        days.forEach(d -> byDate.put(d.getDate(), d));
+
+        Set<LocalDate> touched = new HashSet<>();
+        for (Change c : changes) {
+            DailyBalance day = byDate.get(c.date());
+            if (day == null) {
+                if (c.amount() == null) continue;               // retiro de algo que no estaba
+                day = DailyBalance.builder()
+                        .id(DailyBalance.idOf(productId, c.date()))
+                        .productId(productId)
+                        .productType(c.productType())
+                        .customerId(c.customerId())
+                        .date(c.date())
+                        .netChange(BigDecimal.ZERO)
+                        .build();
+                byDate.put(c.date(), day);
+            }
+            day.apply(c.txId(), c.amount());
+            touched.add(c.date());
+        }
+
+        List<DailyBalance> upserts = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>();
+        BigDecimal running = opening;
+        for (DailyBalance day : byDate.values()) {
+            if (day.getEntries() != null && day.getEntries().isEmpty() && day.getNetChange().signum() == 0) {
+                deletedIds.add(day.getId());
+                continue;
+            }
+            boolean moved = day.getOpeningBalance() == null || day.getOpeningBalance().compareTo(running) != 0;
+            day.setOpeningBalance(running);
+            if (moved || touched.contains(day.getDate())) upserts.add(day);
+            running = day.closingBalance();
+        }
+        return new DayWrites(upserts, deletedIds);
+    }
+
+    /** {@code work} con el lease de cada producto tomado, en el orden dado (siempre el mismo orden: ordenados). */
+    private <T> Mono<T> locked(List<String> productIds, Duration lease, Mono<T> work) {
+        if (productIds.isEmpty()) return work;
+        String productId = productIds.get(0);
+        Mono<String> lock = dailyRepo.tryLock(productId, lease)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Daily balance of product " + productId + " is locked")))
+                .retryWhen(Retry.fixedDelay(LOCK_ATTEMPTS, LOCK_RETRY)
+                        .filter(IllegalStateException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+        return Mono.usingWhen(lock,
+                token -> locked(productIds.subList(1, productIds.size()), lease, work),
+                token -> dailyRepo.unlock(productId, token));
+    }
+
+    /** Cambios por producto de un lote: primero los eliminados (se retiran), luego los agregados. */
+    static Map<String, List<Change>> changesByProduct(List<Transaction> added, List<Transaction> removed) {
+        Map<String, List<Change>> byProduct = new LinkedHashMap<>();
+        removed.forEach(t -> accumulate(byProduct, t, null));
+        added.forEach(t -> accumulate(byProduct, t, signedAmount(t)));
+        return byProduct;
+    }
+
+    /** Transfers/withdrawals disminuyen, deposits aumentan; fee disminuye balance. */
+    static BigDecimal signedAmount(Transaction t) {
+        if (t.getAmount() == null || t.getType() == null) return BigDecimal.ZERO;
+        return switch (t.getType()) {
+            case DEPOSIT, TRANSFER_IN -> t.getAmount();
+            case WITHDRAW, TRANSFER_OUT, FEE -> t.getAmount().negate();
+        };
+    }
+
+    private static void accumulate(Map<String, List<Change>> byProduct, Transaction t, BigDecimal signed) {
+        if (t.getProductId() == null || t.getOccurredAt() == null) return;
+        byProduct.computeIfAbsent(t.getProductId(), k -> new ArrayList<>())
+                .add(new Change(t.getId(), t.getOccurredAt().toLocalDate(), signed, t.getProductType(), t.getCustomerId()));
+    }
+
+    /** Monto con signo de la transacción {@code txId} en el día {@code date}; null la retira. */
+    record Change(String txId, LocalDate date, BigDecimal amount, String productType, String customerId) { }
+
+    record DayWrites(List<DailyBalance> upserts, List<String> deletedIds) { }
+
+    /**
+     * Acumulado por día de un producto durante la reconstrucción. Los movimientos llegan en orden de
+     * fecha y se suman por día en enteros (ver DailyNetRuns); si llegan desordenados o
+     * un monto o total no cabe en long, sigue sumando BigDecimal por día (mismo resultado).
+     */
+    static final class ProductReplay {
+        private String productId;
+        private String productType;
+        private String customerId;
+        private final DailyNetRuns days = new DailyNetRuns();
+        private final Map<LocalDate, List<DailyBalance.Entry>> entries = new HashMap<>();
+        private TreeMap<LocalDate, BigDecimal> netByDay;     // solo en el camino BigDecimal
+
+        ProductReplay add(Transaction t) {
+            productId = t.getProductId();
+            if (productType == null && t.getProductType() != null && !t.getProductType().isBlank()) {
+                productType = t.getProductType();
+            }
+            if (customerId == null) customerId = t.getCustomerId();
+            entries.computeIfAbsent(t.getOccurredAt().toLocalDate(), d -> new ArrayList<>())
+                    .add(new DailyBalance.Entry(t.getId(), signedAmount(t)));
+            if (netByDay == null && days.add(t)) return this;
+
+            if (netByDay == null) netByDay = days.toDecimal();
+            netByDay.merge(t.getOccurredAt().toLocalDate(), signedAmount(t), BigDecimal::add);
+            return this;
+        }
+
+        List<DailyBalance> rows() {
+            if (netByDay == null) {
+                try {
+                    return rowsFromRuns();
+                } catch (ArithmeticException e) {
+                    netByDay = days.toDecimal();
+                }
+            }
+            List<DailyBalance> rows = new ArrayList<>(netByDay.size());
+            BigDecimal opening = BigDecimal.ZERO;
+            for (Map.Entry<LocalDate, BigDecimal> day : netByDay.entrySet()) {
+                rows.add(row(day.getKey(), opening, day.getValue()));
+                opening = opening.add(day.getValue());
+            }
+            return rows;
+        }
+
+        private List<DailyBalance> rowsFromRuns() {
+            List<DailyBalance> rows = new ArrayList<>(days.size());
+            long opening = 0;
+            int openingScale = 0;                               // parte de BigDecimal.ZERO
+            for (int i = 0; i < days.size(); i++) {
+                rows.add(row(days.date(i), days.decimal(opening, openingScale), days.decimal(days.minor(i), days.scale(i))));
+                opening = Math.addExact(opening, days.minor(i));
+                openingScale = Math.max(openingScale, days.scale(i));
+            }
+            return rows;
+        }
+
+        private DailyBalance row(LocalDate date, BigDecimal opening, BigDecimal netChange) {
+            return DailyBalance.builder()
+                    .id(DailyBalance.idOf(productId, date))
+                    .productId(productId)
+                    .productType(productType)
+                    .customerId(customerId)
+                    .date(date)
+                    .openingBalance(opening)
+                    .netChange(netChange)
+                    .entries(entries.getOrDefault(date, new ArrayList<>()))
+                    .build();
+        }
+    }
+}
\ No newline at end of file
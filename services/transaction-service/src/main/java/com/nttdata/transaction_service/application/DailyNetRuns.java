@@ -0,0 +1,151 @@
+package com.nttdata.transaction_service.application;
+
+import com.nttdata.transaction_service.domain.Transaction;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * Neto por día de los movimientos de un producto que llegan en orden de fecha (la reconstrucción de
+ * la proyección los recorre por occurredAt). Cada monto se decodifica a entero sin escala con el
+ * signo del tipo y los del mismo día se suman al llegar en arreglos primitivos: no hay BigDecimal
+ * por movimiento ni nodos de TreeMap por día.
+ *
+ * Los netos son idénticos a sumar los BigDecimal con {@code add}, escala incluida (la mayor de los
+ * sumandos): todas las sumas van en la mayor escala vista y, si llega una mayor, se reescalan las
+ * anteriores. Un movimiento desordenado, o un monto o suma que no cabe en long, no se agrega
+ * ({@link #add} devuelve false) y el llamador sigue con BigDecimal desde {@link #toDecimal}.
+ */
+final class DailyNetRuns {
+
+    /** Monto que no cabe en long (Long.MIN_VALUE: tampoco se le puede cambiar el signo). */
+    private static final long NOT_REPRESENTABLE = Long.MIN_VALUE;
+
+    private static final long[] POW10 = new long[19];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    private int[] day = new int[32];
+    private long[] net = new long[32];
+    private int[] scale = new int[32];
+    private int size;
+    private int unit;                                       // los netos están en 10^-unit
+
+    /**
+     * @return false (sin cambios) si el movimiento es de un día anterior al último, o si el monto o
+     *         la suma no caben en long
+     */
+    boolean add(Transaction t) {
+        long value = signedUnscaled(t);
+        if (value == NOT_REPRESENTABLE) return false;
+        int s = t.getAmount() == null || t.getType() == null ? 0 : t.getAmount().scale();
+        int epochDay = (int) t.getOccurredAt().toLocalDate().toEpochDay();
+        if (size > 0 && epochDay < day[size - 1]) return false;
+        try {
+            if (size == 0) unit = s;
+            else if (s > unit) rescaleTo(s);
+            long minor = rescale(value, s, unit);
+            if (size > 0 && day[size - 1] == epochDay) {
+                net[size - 1] = Math.addExact(net[size - 1], minor);
+                scale[size - 1] = Math.max(scale[size - 1], s);
+            } else {
+                if (size == day.length) grow();
+                day[size] = epochDay;
+                net[size] = minor;
+                scale[size] = s;
+                size++;
+            }
+            return true;
+        } catch (ArithmeticException e) {
+            return false;                                   // rescaleTo no cambia nada si falla
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    LocalDate date(int i) {
+        return LocalDate.ofEpochDay(day[i]);
+    }
+
+    /** Neto del día en 10^-unit (sumable entre días). */
+    long minor(int i) {
+        return net[i];
+    }
+
+    int scale(int i) {
+        return scale[i];
+    }
+
+    /** {@code minor} (en 10^-unit) con la escala pedida; exacto si los sumandos tenían escala <= scale. */
+    BigDecimal decimal(long minor, int scale) {
+        return BigDecimal.valueOf(minor, unit).setScale(scale);
+    }
+
+    /** Los mismos netos como BigDecimal, para seguir por el camino BigDecimal. */
+    TreeMap<LocalDate, BigDecimal> toDecimal() {
+        TreeMap<LocalDate, BigDecimal> byDay = new TreeMap<>();
+        for (int i = 0; i < size; i++) byDay.put(date(i), decimal(net[i], scale[i]));
+        return byDay;
+    }
+
+    /**
+     * Monto con el signo de {@link DailyBalanceProjection#signedAmount} como entero sin escala; sin
+     * monto o sin tipo, 0.
+     */
+    private static long signedUnscaled(Transaction t) {
+        BigDecimal amount = t.getAmount();
+        if (amount == null || t.getType() == null) return 0;
+        long value = unscaledOf(amount);
+        if (value == NOT_REPRESENTABLE) return value;
+        return switch (t.getType()) {
+            case DEPOSIT, TRANSFER_IN -> value;
+            case WITHDRAW, TRANSFER_OUT, FEE -> -value;
+        };
+    }
+
+    /**
+     * Entero sin escala de {@code amount}, o NOT_REPRESENTABLE si no cabe en long.
+     *
+     * Con escala 1..18 y hasta 15 dígitos, doubleValue() es una sola división correctamente redondeada
+     * (sin objetos) y el error de volver a multiplicar por 10^scale es menor a 0.25: el redondeo
+     * devuelve el entero exacto. El resto pasa por unscaledValue(), que crea un BigInteger.
+     */
+    private static long unscaledOf(BigDecimal amount) {
+        int scale = amount.scale();
+        int precision = amount.precision();
+        if (scale == 0 && precision <= 18) return amount.longValue();
+        if (scale > 0 && scale < POW10.length && precision <= 15) {
+            return Math.round(amount.doubleValue() * POW10[scale]);
+        }
+        BigInteger u = amount.unscaledValue();
+        return u.bitLength() > 63 ? NOT_REPRESENTABLE : u.longValue();
+    }
+
+    /** {@code unscaled} (con escala {@code from}) expresado con escala {@code to} >= from. */
+    private static long rescale(long unscaled, int from, int to) {
+        int shift = to - from;
+        if (shift >= POW10.length) throw new ArithmeticException("scale range too wide");
+        return Math.multiplyExact(unscaled, POW10[shift]);
+    }
+
+    private void rescaleTo(int newUnit) {
+        long[] rescaled = new long[net.length];
+        for (int i = 0; i < size; i++) rescaled[i] = rescale(net[i], unit, newUnit);
+        net = rescaled;
+        unit = newUnit;
+    }
+
+    private void grow() {
+        int capacity = day.length * 2;
+        day = Arrays.copyOf(day, capacity);
+        net = Arrays.copyOf(net, capacity);
+        scale = Arrays.copyOf(scale, capacity);
+    }
+}
@@ -1,31 +1,32 @@
 package com.nttdata.transaction_service.application;
 
-import com.nttdata.transaction_service.domain.Transaction;
+import com.nttdata.transaction_service.domain.DailyBalance;
 import com.nttdata.transaction_service.dto.CommissionReportDto;
 import com.nttdata.transaction_service.dto.DailyBalanceReportDto;
+import com.nttdata.transaction_service.repository.DailyBalanceRepository;
 import com.nttdata.transaction_service.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Report use cases:
  *  - Daily average balance of all client products for current month.
  *  - Total commissions grouped by product in a date range.
  *
- * Nota: Para reconstruir saldos diarios se acumulan los cambios del día.
- *      Si quieres mayor exactitud, trae el balance inicial del producto
- *      desde account-service y úsalo como "carry" inicial.
+ * Los saldos diarios se leen de la proyección daily_balances (ver DailyBalanceProjection),
+ * mantenida al escribir cada transacción; el reporte no recorre el histórico de movimientos.
  */
 @Service
 @RequiredArgsConstructor
@@ -34,6 +35,8 @@ public class ReportAppService {
     private static final MathContext MC = MathContext.DECIMAL64;
 
     private final TransactionRepository txRepo;
+    private final DailyBalanceRepository dailyRepo;
+    private final DailyBalanceProjection dailyBalances;
 
     /**
      * Daily average balance for the current month for all products of a client.
@@ -45,12 +48,21 @@ public class ReportAppService {
         LocalDate start = ym.atDay(1);
         LocalDate end = LocalDate.now(); // hasta hoy
 
-        LocalDateTime from = start.atStartOfDay();
-        LocalDateTime to = end.plusDays(1).atStartOfDay().minusNanos(1);
+        // saldo arrastrado de antes del mes + días con movimientos del mes
+        return Flux.concat(dailyRepo.findLatestBefore(customerId, start),
+                        dailyRepo.findByCustomerInRange(customerId, start, end))
+                .collectMultimap(DailyBalance::getProductId)
+                .flatMapMany(byProduct -> Flux.fromIterable(byProduct.values()))
+                .map(days -> averageOf(days, start, end));
+    }
 
-        return txRepo.findByCustomerIdAndOccurredAtBetween(customerId, from, to)
-                .collectList()
-                .flatMapMany(list -> Flux.fromIterable(computeDailyAverages(list, start, end)));
+    /**
+     * Rebuilds the daily balance projection from the full transaction history
+     * (backfill, or after loading transactions outside the API).
+     * @return number of products and days written
+     */
+    public Mono<Map<String, Long>> rebuildDailyBalances() {
+        return dailyBalances.rebuild();
     }
 
     /**
@@ -62,86 +74,44 @@ public class ReportAppService {
         LocalDateTime f = from.atStartOfDay();
         LocalDateTime t = to.plusDays(1).atStartOfDay().minusNanos(1);
 
-        return txRepo.findByOccurredAtBetweenAndCommissionGreaterThan(f, t, BigDecimal.ZERO)
-                .collectList()
-                .flatMapMany(list -> {
-                    Map<String, List<Transaction>> byProduct = list.stream()
-                            .collect(Collectors.groupingBy(Transaction::getProductId));
-                    List<CommissionReportDto> out = byProduct.entrySet().stream()
-                            .map(e -> {
-                                String productId = e.getKey();
-                                String productType = e.getValue().stream()
-                                        .map(Transaction::getProductType)
-                                        .filter(s -> s != null && !s.isBlank())
-                                        .findFirst().orElse("UNKNOWN");
-                                BigDecimal total = e.getValue().stream()
-                                        .map(Transaction::getCommission)
-                                        .filter(c -> c != null)
-                                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-                                return new CommissionReportDto(productId, productType, total);
-                            })
-                            .toList();
-                    return Flux.fromIterable(out);
-                });
+        // agrupado por producto en MongoDB: cada fila se emite según llega del cursor
+        return txRepo.sumCommissionsByProduct(f, t);
     }
 
     /* ======================= Helpers ======================= */
 
-    private List<DailyBalanceReportDto> computeDailyAverages(List<Transaction> txs,
-                                                             LocalDate start, LocalDate end) {
-        // Group by product
-        Map<String, List<Transaction>> byProduct = txs.stream()
-                .collect(Collectors.groupingBy(Transaction::getProductId));
-
-        return byProduct.entrySet().stream()
-                .map(entry -> {
-                    String productId = entry.getKey();
-                    List<Transaction> list = entry.getValue().stream()
-                            .sorted(Comparator.comparing(Transaction::getOccurredAt))
-                            .toList();
-
-                    String productType = list.stream()
-                            .map(Transaction::getProductType)
-                            .filter(s -> s != null && !s.isBlank())
-                            .findFirst().orElse("UNKNOWN");
-
-                    // Net change per day
-                    Map<LocalDate, BigDecimal> changesPerDay = list.stream()
-                            .collect(Collectors.groupingBy(
-                                    t -> t.getOccurredAt().toLocalDate(),
-                                    Collectors.reducing(
-                                            BigDecimal.ZERO,
-                                            this::signedAmount,
-                                            BigDecimal::add)));
-
-                    // Rebuild end-of-day balances assuming starting balance = 0 (ver nota arriba)
-                    BigDecimal running = BigDecimal.ZERO;
-                    BigDecimal sumEod = BigDecimal.ZERO;
-                    int daysCount = 0;
-
-                    LocalDate cursor = start;
-                    while (!cursor.isAfter(end)) {
-                        BigDecimal delta = changesPerDay.getOrDefault(cursor, BigDecimal.ZERO);
-                        running = running.add(delta, MC); // end of day balance
-                        sumEod = sumEod.add(running, MC);
-                        daysCount++;
-                        cursor = cursor.plusDays(1);
-                    }
-
-                    BigDecimal avg = daysCount == 0 ? BigDecimal.ZERO
-                            : sumEod.divide(BigDecimal.valueOf(daysCount), MC);
-
-                    return new DailyBalanceReportDto(productId, productType, avg);
-                })
+    /**
+     * Promedio de saldos de cierre entre start y end; los días sin movimientos mantienen
+     * el cierre del último día anterior.
+     */
+    static DailyBalanceReportDto averageOf(Collection<DailyBalance> rows, LocalDate start, LocalDate end) {
+        List<DailyBalance> days = rows.stream()
+                .sorted(Comparator.comparing(DailyBalance::getDate))
                 .toList();
-    }
 
-    private BigDecimal signedAmount(Transaction t) {
-        if (t.getAmount() == null) return BigDecimal.ZERO;
-        // Transfers/withdrawals disminuyen, deposits aumentan; fee disminuye balance
-        return switch (t.getType()) {
-            case DEPOSIT, TRANSFER_IN -> t.getAmount();
-            case WITHDRAW, TRANSFER_OUT, FEE -> t.getAmount().negate();
-        };
+        String productType = days.stream()
+                .map(DailyBalance::getProductType)
+                .filter(s -> s != null && !s.isBlank())
+                .findFirst().orElse("UNKNOWN");
+
+        BigDecimal running = BigDecimal.ZERO;
+        BigDecimal sumEod = BigDecimal.ZERO;
+        int daysCount = 0;
+        int next = 0;
+
+        LocalDate cursor = start;
+        while (!cursor.isAfter(end)) {
+            while (next < days.size() && !days.get(next).getDate().isAfter(cursor)) {
+                running = days.get(next++).closingBalance(); // end of day balance
+            }
+            sumEod = sumEod.add(running, MC);
+            daysCount++;
+            cursor = cursor.plusDays(1);
+        }
+
+        BigDecimal avg = daysCount == 0 ? BigDecimal.ZERO
+                : sumEod.divide(BigDecimal.valueOf(daysCount), MC);
+
+        return new DailyBalanceReportDto(days.get(0).getProductId(), productType, avg);
     }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.nttdata.transaction_service.application;
+
+import com.nttdata.transaction_service.repository.TransactionIndexRepository.QueryPlan;
+import com.nttdata.transaction_service.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Índices de transactions: se crean al arrancar y luego se verifica con explain que cada consulta
+ * del repositorio los use. Una consulta sin índice (COLLSCAN) se avisa en el log de arranque y
+ * aparece en /actuator/health (componente transactionIndex).
+ *
+ * El health devuelve el resultado de esa verificación de arranque (UNKNOWN mientras no termina):
+ * los explain no se repiten en cada consulta al endpoint.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionIndexHealthIndicator implements ReactiveHealthIndicator {
+
+    private final TransactionRepository txRepo;
+
+    private final AtomicReference<Health> verified =
+            new AtomicReference<>(Health.unknown().withDetail("reason", "index verification pending").build());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureAndVerify() {
+        txRepo.ensureIndexes()
+                .thenMany(txRepo.explainQueries())
+                .collectList()
+                .subscribe(
+                        plans -> {
+                            plans.stream().filter(plan -> !plan.indexed()).forEach(plan ->
+                                    log.warn("Query {} is not index-backed (collection scan)", plan.query()));
+                            verified.set(health(plans));
+                        },
+                        e -> {
+                            log.warn("transactions indexes not verified: {}", e.getMessage());
+                            verified.set(Health.unknown().withDetail("error", String.valueOf(e.getMessage())).build());
+                        });
+    }
+
+    @Override
+    public Mono<Health> health() {
+        return Mono.fromSupplier(verified::get);
+    }
+
+    private static Health health(List<QueryPlan> plans) {
+        Map<String, Object> byQuery = new LinkedHashMap<>();
+        plans.forEach(p -> byQuery.put(p.query(), p.indexed() ? p.indexes() : "COLLSCAN"));
+        List<String> unindexed = plans.stream().filter(p -> !p.indexed()).map(QueryPlan::query).toList();
+        // una consulta sin índice no deja el servicio fuera de servicio: se informa en el detalle
+        return Health.up().withDetail("queries", byQuery).withDetail("unindexed", unindexed).build();
+    }
+}
\ No newline at end of file
@@ -1,36 +1,79 @@
 package com.nttdata.transaction_service.controller;
 
-import com.nttdata.transaction_service.model.Transaction;
+import com.nttdata.transaction_service.domain.Transaction;
+import com.nttdata.transaction_service.dto.TransactionCursor;
+import com.nttdata.transaction_service.dto.TransactionPage;
 import com.nttdata.transaction_service.service.TransactionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Map;
+
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/api/v1/transactions")
 public class TransactionController {
 
+    private static final String DEFAULT_PAGE_SIZE = "50"; // máximo: TransactionService.MAX_PAGE_SIZE
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+
     private final TransactionService service;
 
-    @GetMapping
-    public Flux<Transaction> findAll() { return service.findAll(); }
+    /**
+     * Paginado por cursor. El cuerpo sigue siendo el arreglo de transacciones; si hay más, el cursor
+     * va en X-Next-Cursor (se pasa como {@code after}) y la URL de la siguiente página en Link (rel="next").
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<Transaction>>> findAll(@RequestParam(required = false) String after,
+                                                           @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+                                                           ServerHttpRequest request) {
+        return service.findPage(null, cursor(after), limit).map(page -> paged(page, request));
+    }
+
+    /** Historial completo como NDJSON (una transacción por línea), con backpressure. */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Transaction> streamAll(@RequestParam(required = false) String after) {
+        return service.stream(null, cursor(after));
+    }
 
     @GetMapping("/{id}")
     public Mono<Transaction> findById(@PathVariable String id) { return service.findById(id); }
 
-    @GetMapping("/by-product/{productId}")
-    public Flux<Transaction> findByProduct(@PathVariable String productId) {
-        return service.findByProduct(productId);
+    @GetMapping(value = "/by-product/{productId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<Transaction>>> findByProduct(@PathVariable String productId,
+                                                                 @RequestParam(required = false) String after,
+                                                                 @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+                                                                 ServerHttpRequest request) {
+        return service.findPage(productId, cursor(after), limit).map(page -> paged(page, request));
+    }
+
+    @GetMapping(value = "/by-product/{productId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Transaction> streamByProduct(@PathVariable String productId,
+                                             @RequestParam(required = false) String after) {
+        return service.stream(productId, cursor(after));
     }
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
     public Mono<Transaction> create(@Valid @RequestBody Transaction t) { return service.create(t); }
 
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping("/batch")
+    public Mono<Map<String, Long>> createAll(@RequestBody Flux<Transaction> ts) {
+        return service.createAll(ts).map(n -> Map.of("inserted", n));
+    }
+
     @PutMapping("/{id}")
     public Mono<Transaction> update(@PathVariable String id, @Valid @RequestBody Transaction t) {
         return service.update(id, t);
@@ -41,4 +84,24 @@ public class TransactionController {
     public Mono<Void> delete(@PathVariable String id) {
         return service.delete(id);
     }
+
+    private static ResponseEntity<List<Transaction>> paged(TransactionPage page, ServerHttpRequest request) {
+        if (page.nextCursor() == null) return ResponseEntity.ok(page.items());
+        String next = UriComponentsBuilder.fromUri(request.getURI())
+                .replaceQueryParam("after", page.nextCursor())
+                .build().toUriString();
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR, page.nextCursor())
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(page.items());
+    }
+
+    private static TransactionCursor cursor(String after) {
+        if (after == null || after.isBlank()) return null;
+        try {
+            return TransactionCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new ServerWebInputException("Invalid cursor: " + after);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.nttdata.transaction_service.domain;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Proyección del saldo de un producto en un día con movimientos.
+ * Se mantiene al escribir cada transacción (ver DailyBalanceProjection): el saldo de apertura
+ * arrastra el cierre del último día anterior, así el reporte no recorre el histórico.
+ * entries guarda el monto con signo de cada transacción aplicada al día, por id: volver a aplicar
+ * la misma transacción reemplaza su monto en lugar de sumarlo otra vez.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "daily_balances")
+public class DailyBalance {
+
+    @Id
+    private String id;                // productId|yyyy-MM-dd
+
+    private String productId;
+    private String productType;
+    private String customerId;
+    private LocalDate date;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal openingBalance;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal netChange;     // suma con signo de los movimientos del día
+
+    private List<Entry> entries;      // null en filas anteriores a entries: netChange vale como base
+
+    public static String idOf(String productId, LocalDate date) {
+        return productId + "|" + date;
+    }
+
+    public BigDecimal closingBalance() {
+        return openingBalance.add(netChange);
+    }
+
+    /**
+     * Registra el monto con signo de la transacción {@code txId} en el día, o lo retira si
+     * {@code amount} es null; netChange cambia solo en la diferencia con lo ya registrado.
+     */
+    public void apply(String txId, BigDecimal amount) {
+        if (entries == null) entries = new ArrayList<>();
+        BigDecimal previous = BigDecimal.ZERO;
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).getTxId().equals(txId)) {
+                previous = entries.remove(i).getAmount();
+                break;
+            }
+        }
+        if (amount != null) entries.add(new Entry(txId, amount));
+        BigDecimal delta = (amount == null ? BigDecimal.ZERO : amount).subtract(previous);
+        netChange = (netChange == null ? BigDecimal.ZERO : netChange).add(delta);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private String txId;
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal amount;
+    }
+}
\ No newline at end of file
@@ -1,8 +1,13 @@
 package com.nttdata.transaction_service.domain;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -12,19 +17,34 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "transactions")
+@CompoundIndexes({
+        // paginación keyset (occurredAt, id), de todas las transacciones o de un producto;
+        // el de producto también sirve a la reconstrucción de proyecciones
+        @CompoundIndex(name = "occurred_id", def = "{ 'occurredAt': 1, '_id': 1 }"),
+        @CompoundIndex(name = "product_occurred_id", def = "{ 'productId': 1, 'occurredAt': 1, '_id': 1 }"),
+        // reporte de comisiones por rango de fechas
+        @CompoundIndex(name = "occurred_commission", def = "{ 'occurredAt': 1, 'commission': 1 }")
+})
 public class Transaction {
 
     @Id
     private String id;
 
     private String description;
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal amount;
 
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal commission;    // comisión cobrada (movimientos FEE)
+
+    @JsonAlias("operation")           // nombre usado por la API anterior
     private TransactionType type;
 
     private String productId;
     private String productType;
+    private String customerId;
 
+    @JsonAlias("timestamp")           // nombre usado por la API anterior
     private LocalDateTime occurredAt;
 
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.nttdata.transaction_service.dto;
+
+import com.nttdata.transaction_service.domain.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición de paginación keyset: la última transacción entregada, según (occurredAt, id).
+ * Viaja como texto opaco (base64 url-safe); occurredAt puede ser nulo en transacciones antiguas.
+ */
+public record TransactionCursor(LocalDateTime occurredAt, String id) {
+
+    private static final String NO_DATE = "-";
+
+    public static TransactionCursor of(Transaction t) {
+        return new TransactionCursor(t.getOccurredAt(), t.getId());
+    }
+
+    public String encode() {
+        String raw = (occurredAt == null ? NO_DATE : occurredAt.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** @throws IllegalArgumentException si el texto no es un cursor válido */
+    public static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0 || sep == raw.length() - 1) throw new IllegalArgumentException("Invalid cursor");
+            String date = raw.substring(0, sep);
+            return new TransactionCursor(NO_DATE.equals(date) ? null : LocalDateTime.parse(date), raw.substring(sep + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
\ No newline at end of file
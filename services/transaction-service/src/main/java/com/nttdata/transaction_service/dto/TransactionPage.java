@@ -0,0 +1,15 @@
+package com.nttdata.transaction_service.dto;
+
+import com.nttdata.transaction_service.domain.Transaction;
+
+import java.util.List;
+
+/**
+ * Página de transacciones (más recientes primero). nextCursor se pasa como {@code after}
+ * para pedir la siguiente; es nulo en la última página. Por HTTP se responde el arreglo de items
+ * y el cursor va en cabeceras (ver TransactionController).
+ */
+public record TransactionPage(
+        List<Transaction> items,
+        String nextCursor
+) {}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.nttdata.transaction_service.repository;
+
+import com.nttdata.transaction_service.domain.DailyBalance;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+public interface DailyBalanceRepository extends ReactiveMongoRepository<DailyBalance, String>, DailyBalanceUpdateRepository {
+
+    /** Días con movimientos del cliente en [from, to], ordenados por producto y fecha. */
+    @Query(value = "{ 'customerId': ?0, 'date': { $gte: ?1, $lte: ?2 } }", sort = "{ 'productId': 1, 'date': 1 }")
+    Flux<DailyBalance> findByCustomerInRange(String customerId, LocalDate from, LocalDate to);
+
+    /** Días del producto desde {@code from} (inclusive), en orden de fecha. */
+    @Query(value = "{ 'productId': ?0, 'date': { $gte: ?1 } }", sort = "{ 'date': 1 }")
+    Flux<DailyBalance> findByProductFrom(String productId, LocalDate from);
+
+    Mono<Void> deleteByProductId(String productId);
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.nttdata.transaction_service.repository;
+
+import com.nttdata.transaction_service.domain.DailyBalance;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyBalanceUpdateRepository {
+
+    /** Último día del producto anterior a {@code date} (de él sale la apertura del siguiente). */
+    Mono<DailyBalance> findPrevious(String productId, LocalDate date);
+
+    /** Reemplaza (o crea) los días {@code upserts} y borra {@code deletedIds}, en ese orden. */
+    Mono<Void> write(List<DailyBalance> upserts, List<String> deletedIds);
+
+    /**
+     * Toma el lease de la proyección del producto por {@code ttl}.
+     * @return el token del dueño, o vacío si otro lo tiene y no venció
+     */
+    Mono<String> tryLock(String productId, Duration ttl);
+
+    /** Libera el lease si sigue siendo de {@code token}. */
+    Mono<Void> unlock(String productId, String token);
+
+    /** Por cada producto del cliente, el último día con movimientos anterior a {@code date} (saldo arrastrado). */
+    Flux<DailyBalance> findLatestBefore(String customerId, LocalDate date);
+
+    Mono<Void> ensureIndexes();
+}
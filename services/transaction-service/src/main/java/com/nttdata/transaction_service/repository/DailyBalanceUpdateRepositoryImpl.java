@@ -0,0 +1,90 @@
+package com.nttdata.transaction_service.repository;
+
+import com.nttdata.transaction_service.domain.DailyBalance;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+class DailyBalanceUpdateRepositoryImpl implements DailyBalanceUpdateRepository {
+
+    private static final String LOCKS = "daily_balance_locks";
+
+    private final ReactiveMongoTemplate mongo;
+
+    @Override
+    public Mono<DailyBalance> findPrevious(String productId, LocalDate date) {
+        Query previous = new Query(Criteria.where("productId").is(productId).and("date").lt(date))
+                .with(Sort.by(Sort.Direction.DESC, "date"))
+                .limit(1);
+        return mongo.findOne(previous, DailyBalance.class);
+    }
+
+    @Override
+    public Mono<Void> write(List<DailyBalance> upserts, List<String> deletedIds) {
+        if (upserts.isEmpty() && deletedIds.isEmpty()) return Mono.empty();
+        ReactiveBulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.ORDERED, DailyBalance.class);
+        upserts.forEach(day -> ops.replaceOne(byId(day.getId()), day, FindAndReplaceOptions.options().upsert()));
+        if (!deletedIds.isEmpty()) ops.remove(new Query(Criteria.where("_id").in(deletedIds)));
+        return ops.execute().then();
+    }
+
+    @Override
+    public Mono<String> tryLock(String productId, Duration ttl) {
+        // vencido o inexistente: se toma; vigente: el upsert choca con su _id
+        Instant now = Instant.now();
+        String token = UUID.randomUUID().toString();
+        Query free = new Query(Criteria.where("_id").is(productId).and("until").lt(now));
+        Update take = new Update().set("owner", token).set("until", now.plus(ttl));
+        return mongo.upsert(free, take, LOCKS)
+                .thenReturn(token)
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.empty());
+    }
+
+    @Override
+    public Mono<Void> unlock(String productId, String token) {
+        return mongo.remove(new Query(Criteria.where("_id").is(productId).and("owner").is(token)), LOCKS).then();
+    }
+
+    @Override
+    public Flux<DailyBalance> findLatestBefore(String customerId, LocalDate date) {
+        // sort + $first sobre el índice (customerId, productId, date): una lectura por producto
+        Aggregation latest = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("customerId").is(customerId).and("date").lt(date)),
+                Aggregation.sort(Sort.by(Sort.Order.asc("productId"), Sort.Order.desc("date"))),
+                Aggregation.group("productId").first("$$ROOT").as("latest"),
+                Aggregation.replaceRoot("latest"));
+        return mongo.aggregate(latest, DailyBalance.class, DailyBalance.class);
+    }
+
+    @Override
+    public Mono<Void> ensureIndexes() {
+        return Mono.when(
+                mongo.indexOps(DailyBalance.class).ensureIndex(new CompoundIndexDefinition(
+                        new Document("productId", 1).append("date", 1)).named("product_date")),
+                mongo.indexOps(DailyBalance.class).ensureIndex(new CompoundIndexDefinition(
+                        new Document("customerId", 1).append("productId", 1).append("date", 1)).named("customer_product_date")));
+    }
+
+    private static Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.nttdata.transaction_service.repository;
+
+import com.nttdata.transaction_service.domain.Transaction;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+public interface TransactionBulkRepository {
+
+    /**
+     * Inserta en bloque (insertMany no ordenado). Los ids que ya existen se ignoran, de modo que
+     * reenviar un lote (p. ej. el outbox de account-service tras un timeout) no duplica movimientos.
+     *
+     * @return solo las transacciones efectivamente insertadas
+     */
+    Flux<Transaction> insertNew(List<Transaction> transactions);
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.nttdata.transaction_service.repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.nttdata.transaction_service.domain.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+class TransactionBulkRepositoryImpl implements TransactionBulkRepository {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ReactiveMongoTemplate mongo;
+
+    @Override
+    public Flux<Transaction> insertNew(List<Transaction> transactions) {
+        if (transactions.isEmpty()) return Flux.empty();
+
+        return mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class)
+                .insert(transactions)
+                .execute()
+                .thenMany(Flux.fromIterable(transactions))
+                .onErrorResume(e -> {
+                    MongoBulkWriteException bulk = bulkError(e);
+                    if (bulk == null || bulk.getWriteConcernError() != null
+                            || bulk.getWriteErrors().stream().anyMatch(w -> w.getCode() != DUPLICATE_KEY)) {
+                        return Flux.error(e);
+                    }
+                    Set<Integer> duplicated = bulk.getWriteErrors().stream()
+                            .map(BulkWriteError::getIndex)
+                            .collect(Collectors.toSet());
+                    List<Transaction> inserted = new ArrayList<>(transactions.size() - duplicated.size());
+                    for (int i = 0; i < transactions.size(); i++) {
+                        if (!duplicated.contains(i)) inserted.add(transactions.get(i));
+                    }
+                    return Flux.fromIterable(inserted);
+                });
+    }
+
+    private static MongoBulkWriteException bulkError(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof MongoBulkWriteException bulk) return bulk;
+        }
+        return null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.nttdata.transaction_service.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Índices de la colección transactions y verificación de que las consultas del repositorio los usan.
+ */
+public interface TransactionIndexRepository {
+
+    /** Crea los índices declarados en {@code Transaction} (idempotente: los existentes no se tocan). */
+    Mono<Void> ensureIndexes();
+
+    /** Ejecuta explain (queryPlanner) sobre cada consulta del repositorio y devuelve su plan ganador. */
+    Flux<QueryPlan> explainQueries();
+
+    /**
+     * @param query   método del repositorio
+     * @param indexed true si el plan ganador usa índice y no recorre la colección (COLLSCAN)
+     * @param indexes índices usados por el plan
+     */
+    record QueryPlan(String query, boolean indexed, List<String> indexes) { }
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.nttdata.transaction_service.repository;
+
+import com.nttdata.transaction_service.domain.Transaction;
+import com.nttdata.transaction_service.dto.TransactionCursor;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+class TransactionIndexRepositoryImpl implements TransactionIndexRepository {
+
+    private static final String PROBE_ID = "index-check";
+    private static final int PROBE_LIMIT = 50;
+
+    private final ReactiveMongoTemplate mongo;
+
+    @Override
+    public Mono<Void> ensureIndexes() {
+        MongoPersistentEntityIndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongo.getConverter().getMappingContext());
+        return Flux.fromIterable(resolver.resolveIndexFor(Transaction.class))
+                .concatMap(index -> mongo.indexOps(Transaction.class).ensureIndex(index))
+                .then();
+    }
+
+    @Override
+    public Flux<QueryPlan> explainQueries() {
+        LocalDateTime from = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        LocalDateTime to = from.plusMonths(1);
+        TransactionCursor probeCursor = new TransactionCursor(from, new ObjectId().toHexString());
+
+        // una consulta de ejemplo por método del repositorio, con la misma forma (filtro + orden)
+        Map<String, Document> commands = Map.of(
+                "findAfter", find(TransactionKeysetRepositoryImpl.keysetQuery(null, probeCursor, PROBE_LIMIT)),
+                "findAfter(productId)", find(TransactionKeysetRepositoryImpl.keysetQuery(PROBE_ID, probeCursor, PROBE_LIMIT)),
+                "findAllByOrderByProductIdAscOccurredAtAsc", find(
+                        new Query().with(Sort.by(Sort.Order.asc("productId"), Sort.Order.asc("occurredAt")))),
+                "sumCommissionsByProduct", aggregate(TransactionReportRepositoryImpl.commissionPipeline(from, to)));
+
+        return Flux.fromIterable(new TreeSet<>(commands.keySet()))
+                .concatMap(name -> mongo.executeCommand(new Document("explain", commands.get(name))
+                                .append("verbosity", "queryPlanner"))
+                        .map(explain -> planOf(name, explain)));
+    }
+
+    private Document find(Query query) {
+        MongoPersistentEntity<?> entity = mongo.getConverter().getMappingContext().getRequiredPersistentEntity(Transaction.class);
+        QueryMapper mapper = new QueryMapper(mongo.getConverter());
+        return new Document("find", mongo.getCollectionName(Transaction.class))
+                .append("filter", mapper.getMappedObject(query.getQueryObject(), entity))
+                .append("sort", mapper.getMappedSort(query.getSortObject(), entity))
+                .append("limit", query.getLimit());
+    }
+
+    private Document aggregate(Aggregation aggregation) {
+        TypeBasedAggregationOperationContext context = new TypeBasedAggregationOperationContext(Transaction.class,
+                mongo.getConverter().getMappingContext(), new QueryMapper(mongo.getConverter()));
+        return new Document("aggregate", mongo.getCollectionName(Transaction.class))
+                .append("pipeline", aggregation.toPipeline(context))
+                .append("cursor", new Document());
+    }
+
+    /** Busca los winningPlan del explain (find o aggregate, con o sin $cursor) y recorre sus etapas. */
+    private static QueryPlan planOf(String name, Document explain) {
+        List<Document> winning = new ArrayList<>();
+        collect(explain, winning);
+
+        TreeSet<String> indexes = new TreeSet<>();
+        boolean[] collectionScan = { false };
+        winning.forEach(plan -> walk(plan, stage -> {
+            if ("COLLSCAN".equals(stage.getString("stage"))) collectionScan[0] = true;
+            if (stage.get("indexName") instanceof String index) indexes.add(index);
+        }));
+
+        boolean indexed = !winning.isEmpty() && !collectionScan[0] && !indexes.isEmpty();
+        return new QueryPlan(name, indexed, List.copyOf(indexes));
+    }
+
+    private static void collect(Object node, List<Document> winning) {
+        if (node instanceof Document doc) {
+            doc.forEach((key, value) -> {
+                if ("winningPlan".equals(key) && value instanceof Document plan) winning.add(plan);
+                else collect(value, winning);
+            });
+        } else if (node instanceof Collection<?> list) {
+            list.forEach(item -> collect(item, winning));
+        }
+    }
+
+    private static void walk(Object node, Consumer<Document> visitor) {
+        if (node instanceof Document doc) {
+            visitor.accept(doc);
+            doc.values().forEach(value -> walk(value, visitor));
+        } else if (node instanceof Collection<?> list) {
+            list.forEach(item -> walk(item, visitor));
+        }
+    }
+}
\ No newline at end of file
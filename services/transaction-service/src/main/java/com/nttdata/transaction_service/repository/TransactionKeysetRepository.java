@@ -0,0 +1,19 @@
+package com.nttdata.transaction_service.repository;
+
+import com.nttdata.transaction_service.domain.Transaction;
+import com.nttdata.transaction_service.dto.TransactionCursor;
+import reactor.core.publisher.Flux;
+
+/**
+ * Recorrido keyset de transactions en orden (occurredAt, id) descendente: cada página continúa
+ * desde la última fila entregada sobre el índice, sin skip.
+ */
+public interface TransactionKeysetRepository {
+
+    /**
+     * @param productId producto, o null para todas las transacciones
+     * @param after     última transacción entregada, o null para empezar por la más reciente
+     * @param limit     máximo de filas; 0 sin límite (streaming, con backpressure del cursor)
+     */
+    Flux<Transaction> findAfter(String productId, TransactionCursor after, int limit);
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.nttdata.transaction_service.repository;
+
+import com.nttdata.transaction_service.domain.Transaction;
+import com.nttdata.transaction_service.dto.TransactionCursor;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import reactor.core.publisher.Flux;
+
+@RequiredArgsConstructor
+class TransactionKeysetRepositoryImpl implements TransactionKeysetRepository {
+
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    private final ReactiveMongoTemplate mongo;
+
+    @Override
+    public Flux<Transaction> findAfter(String productId, TransactionCursor after, int limit) {
+        return mongo.find(keysetQuery(productId, after, limit), Transaction.class);
+    }
+
+    /** Consulta de una página; también la usa la verificación de índices (explain). */
+    static Query keysetQuery(String productId, TransactionCursor after, int limit) {
+        Query query = new Query();
+        if (productId != null) query.addCriteria(Criteria.where("productId").is(productId));
+        if (after != null) query.addCriteria(after(after));
+        query.with(Sort.by(Sort.Order.desc("occurredAt"), Sort.Order.desc("_id")));
+        if (limit > 0) query.limit(limit);
+        else query.cursorBatchSize(STREAM_BATCH_SIZE);
+        return query;
+    }
+
+    /**
+     * Filas posteriores al cursor en orden descendente. Las transacciones sin fecha van al final
+     * (null ordena antes que cualquier fecha), así que también siguen a cualquier cursor con fecha.
+     */
+    private static Criteria after(TransactionCursor c) {
+        if (c.occurredAt() == null) {
+            return new Criteria().andOperator(Criteria.where("occurredAt").is(null), idAfter(c.id()));
+        }
+        return new Criteria().orOperator(
+                Criteria.where("occurredAt").lt(c.occurredAt()),
+                new Criteria().andOperator(Criteria.where("occurredAt").is(c.occurredAt()), idAfter(c.id())),
+                Criteria.where("occurredAt").is(null));
+    }
+
+    /**
+     * Ids posteriores en orden descendente. Conviven ObjectId (altas por API) y texto (ids del outbox
+     * de account-service); $lt solo compara ids del mismo tipo y los de texto ordenan después.
+     */
+    private static Criteria idAfter(String id) {
+        if (!ObjectId.isValid(id)) return Criteria.where("_id").lt(id);
+        return new Criteria().orOperator(
+                Criteria.where("_id").lt(new ObjectId(id)),
+                Criteria.where("_id").type(JsonSchemaObject.Type.STRING));
+    }
+}
\ No newline at end of file
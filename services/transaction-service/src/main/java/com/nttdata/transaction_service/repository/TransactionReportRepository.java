@@ -0,0 +1,18 @@
+package com.nttdata.transaction_service.repository;
+
+import com.nttdata.transaction_service.dto.CommissionReportDto;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reportes resueltos en MongoDB (pipelines de agregación); el servicio solo recibe el resultado agrupado.
+ */
+public interface TransactionReportRepository {
+
+    /**
+     * Total de comisiones por producto para las transacciones con comisión positiva en [from, to].
+     * Se agrupa en la base: la memoria del servicio no depende del rango consultado.
+     */
+    Flux<CommissionReportDto> sumCommissionsByProduct(LocalDateTime from, LocalDateTime to);
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.nttdata.transaction_service.repository;
+
+import com.nttdata.transaction_service.domain.Transaction;
+import com.nttdata.transaction_service.dto.CommissionReportDto;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+class TransactionReportRepositoryImpl implements TransactionReportRepository {
+
+    private static final String UNKNOWN_TYPE = "UNKNOWN";
+
+    private final ReactiveMongoTemplate mongo;
+
+    @Override
+    public Flux<CommissionReportDto> sumCommissionsByProduct(LocalDateTime from, LocalDateTime to) {
+        return mongo.aggregate(commissionPipeline(from, to), Transaction.class, Document.class)
+                .map(TransactionReportRepositoryImpl::toCommissionReport);
+    }
+
+    /** Pipeline del reporte de comisiones; también lo usa la verificación de índices (explain). */
+    static Aggregation commissionPipeline(LocalDateTime from, LocalDateTime to) {
+        // $toDecimal: las transacciones antiguas guardan el importe como texto, las nuevas como Decimal128
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("occurredAt").gte(from).lte(to).and("commission").ne(null)),
+                Aggregation.addFields()
+                        .addFieldWithValue("commissionValue", ConvertOperators.valueOf("commission").convertToDecimal())
+                        .build(),
+                Aggregation.match(Criteria.where("commissionValue").gt(new Decimal128(BigDecimal.ZERO))),
+                Aggregation.group("productId")
+                        .sum("commissionValue").as("totalCommission")
+                        .max("productType").as("productType")) // $max ignora nulos y prefiere un tipo no vacío
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+    }
+
+    private static CommissionReportDto toCommissionReport(Document row) {
+        String productType = row.getString("productType");
+        Decimal128 total = row.get("totalCommission", Decimal128.class);
+        return new CommissionReportDto(
+                row.getString("_id"),
+                productType == null || productType.isBlank() ? UNKNOWN_TYPE : productType,
+                total == null ? BigDecimal.ZERO : total.bigDecimalValue());
+    }
+}
\ No newline at end of file
@@ -1,10 +1,19 @@
 package com.nttdata.transaction_service.repository;
 
-import com.nttdata.transaction_service.model.Transaction;
+import com.nttdata.transaction_service.domain.Transaction;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
 
-public interface TransactionRepository extends ReactiveMongoRepository<Transaction, String> {
+public interface TransactionRepository extends ReactiveMongoRepository<Transaction, String>, TransactionBulkRepository,
+        TransactionReportRepository, TransactionKeysetRepository, TransactionIndexRepository {
 
-    Flux<Transaction> findByProductIdOrderByOccurredAtDesc(String productId);
-}
\ No newline at end of file
+    /** Productos con transacciones (reconstrucción de proyecciones, producto por producto). */
+    @Meta(allowDiskUse = true)
+    @Aggregation({ "{ $sort: { productId: 1 } }", "{ $group: { _id: '$productId' } }" })
+    Flux<String> findProductIds();
+
+    /** Histórico de un producto por fecha, sobre el índice product_occurred_id. */
+    Flux<Transaction> findByProductIdOrderByOccurredAtAsc(String productId);
+}
@@ -1,34 +1,96 @@
 package com.nttdata.transaction_service.service;
 
-import com.nttdata.transaction_service.model.Transaction;
+import com.nttdata.transaction_service.application.DailyBalanceProjection;
+import com.nttdata.transaction_service.domain.Transaction;
+import com.nttdata.transaction_service.dto.TransactionCursor;
+import com.nttdata.transaction_service.dto.TransactionPage;
 import com.nttdata.transaction_service.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Service @RequiredArgsConstructor
 public class TransactionService {
 
+    private static final int BATCH_SIZE = 500;
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final TransactionRepository repository;
+    private final DailyBalanceProjection dailyBalances; // proyección de saldos diarios (reportes)
 
-    public Flux<Transaction> findAll() { return repository.findAll(); }
     public Mono<Transaction> findById(String id) { return repository.findById(id); }
-    public Mono<Transaction> create(Transaction t) { return repository.save(t); }
+    public Mono<Transaction> create(Transaction t) {
+        if (t.getOccurredAt() == null) t.setOccurredAt(LocalDateTime.now());
+        return repository.save(t)
+                .flatMap(saved -> dailyBalances.added(saved).thenReturn(saved));
+    }
+
+    /**
+     * Alta masiva: inserta en bloques (insertMany) en lugar de un save por movimiento.
+     * Idempotente para transacciones con id ya registrado: no se insertan de nuevo y su proyección se
+     * reemplaza (un reintento tras fallar la proyección la completa).
+     */
+    public Mono<Long> createAll(Flux<Transaction> ts) {
+        return ts.doOnNext(t -> {
+                    if (t.getOccurredAt() == null) t.setOccurredAt(LocalDateTime.now());
+                    if (t.getId() == null) t.setId(new ObjectId().toHexString()); // la proyección se indexa por id
+                })
+                .buffer(BATCH_SIZE)
+                .concatMap(batch -> repository.insertNew(batch).count()
+                        .flatMap(inserted -> dailyBalances.apply(batch, List.of()).thenReturn(inserted)))
+                .reduce(0L, Long::sum);
+    }
+
     public Mono<Transaction> update(String id, Transaction t) {
         return repository.findById(id).flatMap(db -> {
+            Transaction before = copyOf(db);
             db.setDescription(t.getDescription());
             db.setAmount(t.getAmount());
-            db.setOperation(t.getOperation());
+            db.setCommission(t.getCommission());
+            db.setType(t.getType());
             db.setProductId(t.getProductId());
             db.setProductType(t.getProductType());
-            db.setTimestamp(t.getTimestamp());
-            return repository.save(db);
+            db.setCustomerId(t.getCustomerId());
+            db.setOccurredAt(t.getOccurredAt());
+            // proyección antes de guardar: si algo falla, el reintento parte otra vez de la versión guardada
+            return dailyBalances.replace(before, db, repository.save(db));
         });
     }
-    public Mono<Void> delete(String id) { return repository.deleteById(id); }
+    public Mono<Void> delete(String id) {
+        return repository.findById(id)
+                .flatMap(db -> dailyBalances.replace(db, null, repository.delete(db)));
+    }
+
+    /**
+     * Página keyset (más recientes primero), de todas las transacciones o de un producto.
+     * @param productId producto, o null para todas
+     * @param after     cursor de la página anterior, o null para la primera
+     */
+    public Mono<TransactionPage> findPage(String productId, TransactionCursor after, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return repository.findAfter(productId, after, size + 1) // una fila extra indica si hay más
+                .collectList()
+                .map(rows -> rows.size() <= size
+                        ? new TransactionPage(rows, null)
+                        : new TransactionPage(rows.subList(0, size), TransactionCursor.of(rows.get(size - 1)).encode()));
+    }
+
+    /** Mismo orden que {@link #findPage}, sin límite: se emite a medida que el cliente consume. */
+    public Flux<Transaction> stream(String productId, TransactionCursor after) {
+        return repository.findAfter(productId, after, 0);
+    }
 
-    public Flux<Transaction> findByProduct(String productId) {
-        return repository.findByProductIdOrderByOccurredAtDesc(productId);
+    private static Transaction copyOf(Transaction t) {
+        return Transaction.builder()
+                .id(t.getId()).description(t.getDescription())
+                .amount(t.getAmount()).commission(t.getCommission()).type(t.getType())
+                .productId(t.getProductId()).productType(t.getProductType()).customerId(t.getCustomerId())
+                .occurredAt(t.getOccurredAt())
+                .build();
     }
 }
\ No newline at end of file
@@ -5,11 +5,13 @@ import com.nttdata.transaction_service.dto.CommissionReportDto;
 import com.nttdata.transaction_service.dto.DailyBalanceReportDto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/reports")
@@ -23,7 +25,13 @@ public class ReportController {
         return reportService.generateDailyBalanceReport(customerId);
     }
 
-    @GetMapping("/commissions")
+    @PostMapping("/daily-balance/rebuild")
+    public Mono<Map<String, Long>> rebuildDailyBalances() {
+        return reportService.rebuildDailyBalances();
+    }
+
+    /** Filas en streaming según las produce la agregación (JSON array, o una por línea con application/x-ndjson). */
+    @GetMapping(value = "/commissions", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
     public Flux<CommissionReportDto> getCommissionsReport(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
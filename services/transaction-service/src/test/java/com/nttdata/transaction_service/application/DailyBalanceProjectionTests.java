@@ -0,0 +1,100 @@
+package com.nttdata.transaction_service.application;
+
+import com.nttdata.transaction_service.application.DailyBalanceProjection.Change;
+import com.nttdata.transaction_service.application.DailyBalanceProjection.DayWrites;
+import com.nttdata.transaction_service.domain.DailyBalance;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Escritura en vivo de la proyección: repetir una transacción no la suma dos veces y las aperturas
+ * de los días siguientes se recalculan.
+ */
+class DailyBalanceProjectionTests {
+
+    private static final LocalDate D1 = LocalDate.of(2026, 3, 1);
+    private static final LocalDate D2 = D1.plusDays(1);
+    private static final LocalDate D3 = D1.plusDays(2);
+
+    @Test
+    void reapplyingATransactionDoesNotCountItTwice() {
+        List<DailyBalance> days = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            days = merge(days, DailyBalanceProjection.replay("P1", BigDecimal.ZERO, copy(days),
+                    List.of(put("t1", D1, "100"), put("t2", D1, "-30"))));
+        }
+
+        assertThat(days).singleElement().satisfies(d -> {
+            assertThat(d.getNetChange()).isEqualByComparingTo("70");
+            assertThat(d.getEntries()).extracting(DailyBalance.Entry::getTxId).containsExactlyInAnyOrder("t1", "t2");
+        });
+    }
+
+    @Test
+    void backdatedMovementShiftsLaterOpenings() {
+        List<DailyBalance> days = DailyBalanceProjection.replay("P1", BigDecimal.ZERO, List.of(),
+                List.of(put("t1", D1, "100"), put("t3", D3, "5"))).upserts();
+
+        DayWrites writes = DailyBalanceProjection.replay("P1", BigDecimal.ZERO, copy(days), List.of(put("t2", D2, "-40")));
+        List<DailyBalance> all = merge(days, writes);
+
+        assertThat(writes.upserts()).extracting(DailyBalance::getDate).containsExactly(D2, D3);
+        assertThat(all).extracting(DailyBalance::getOpeningBalance)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("0"), new BigDecimal("100"), new BigDecimal("60"));
+    }
+
+    @Test
+    void movingATransactionToAnotherDayRemovesItFromTheFirst() {
+        List<DailyBalance> days = DailyBalanceProjection.replay("P1", BigDecimal.ZERO, List.of(),
+                List.of(put("t1", D1, "100"), put("t2", D2, "10"))).upserts();
+
+        // update de t2: se retira de D2 y se registra en D3; repetirlo no cambia nada
+        List<Change> moved = List.of(new Change("t2", D2, null, "SAVINGS", "C1"), put("t2", D3, "10"));
+        DayWrites writes = DailyBalanceProjection.replay("P1", BigDecimal.ZERO, copy(days), moved);
+        List<DailyBalance> all = merge(days, writes);
+        List<DailyBalance> again = merge(all, DailyBalanceProjection.replay("P1", BigDecimal.ZERO, copy(all), moved));
+
+        assertThat(writes.deletedIds()).containsExactly(DailyBalance.idOf("P1", D2));
+        assertThat(again).extracting(DailyBalance::getDate).containsExactly(D1, D3);
+        assertThat(again.get(1).getOpeningBalance()).isEqualByComparingTo("100");
+        assertThat(again.get(1).getNetChange()).isEqualByComparingTo("10");
+    }
+
+    @Test
+    void legacyDaysKeepTheirNetChangeAsBase() {
+        DailyBalance legacy = DailyBalance.builder().id(DailyBalance.idOf("P1", D1)).productId("P1").date(D1)
+                .openingBalance(BigDecimal.ZERO).netChange(new BigDecimal("50")).build();
+
+        DayWrites writes = DailyBalanceProjection.replay("P1", BigDecimal.ZERO, List.of(legacy), List.of(put("t1", D1, "5")));
+
+        assertThat(writes.upserts()).singleElement()
+                .satisfies(d -> assertThat(d.getNetChange()).isEqualByComparingTo("55"));
+    }
+
+    private static Change put(String txId, LocalDate date, String amount) {
+        return new Change(txId, date, new BigDecimal(amount), "SAVINGS", "C1");
+    }
+
+    /** Lo que queda en la colección tras aplicar {@code writes} sobre {@code days}. */
+    private static List<DailyBalance> merge(List<DailyBalance> days, DayWrites writes) {
+        List<DailyBalance> out = new ArrayList<>(days);
+        out.removeIf(d -> writes.deletedIds().contains(d.getId())
+                || writes.upserts().stream().anyMatch(u -> u.getId().equals(d.getId())));
+        out.addAll(writes.upserts());
+        out.sort((a, b) -> a.getDate().compareTo(b.getDate()));
+        return out;
+    }
+
+    private static List<DailyBalance> copy(List<DailyBalance> days) {
+        return days.stream().map(d -> new DailyBalance(d.getId(), d.getProductId(), d.getProductType(), d.getCustomerId(),
+                d.getDate(), d.getOpeningBalance(), d.getNetChange(),
+                d.getEntries() == null ? null : new ArrayList<>(d.getEntries()))).toList();
+    }
+}
@@ -0,0 +1,122 @@
+package com.nttdata.transaction_service.application;
+
+import com.nttdata.transaction_service.domain.DailyBalance;
+import com.nttdata.transaction_service.domain.Transaction;
+import com.nttdata.transaction_service.domain.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La reconstrucción con netos en enteros debe dar exactamente las mismas filas que sumar BigDecimal
+ * por día (valor y escala).
+ */
+class DailyNetRunsTests {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 1, 9, 30);
+
+    @Test
+    void replayMatchesDecimalSums() {
+        SplittableRandom random = new SplittableRandom(11);
+        for (int round = 0; round < 100; round++) {
+            List<Transaction> txs = random(random, 1 + random.nextInt(300));
+            if (round % 4 != 0) {                                 // el orden de la reconstrucción
+                txs = txs.stream().sorted(Comparator.comparing(Transaction::getOccurredAt)).toList();
+            }
+            assertThat(replay(txs)).usingRecursiveFieldByFieldElementComparator().isEqualTo(expectedRows(txs));
+        }
+    }
+
+    @Test
+    void fallsBackWhenAmountsDoNotFitInALong() {
+        List<Transaction> wide = List.of(
+                tx(TransactionType.DEPOSIT, "12.5", 0),
+                tx(TransactionType.DEPOSIT, "123456789012345678901234.5", 0),     // no cabe en long
+                tx(TransactionType.WITHDRAW, "0.25", 1));
+        List<Transaction> overflow = List.of(
+                tx(TransactionType.DEPOSIT, "9000000000000000000", 0),            // la suma desborda
+                tx(TransactionType.DEPOSIT, "9000000000000000000", 0),
+                tx(TransactionType.FEE, "1E+3", 1));
+        List<Transaction> openingOverflow = List.of(
+                tx(TransactionType.DEPOSIT, "9000000000000000000", 0),            // desborda el saldo inicial
+                tx(TransactionType.DEPOSIT, "9000000000000000000", 1),
+                tx(TransactionType.DEPOSIT, "1", 2));
+        List<Transaction> unordered = List.of(
+                tx(TransactionType.DEPOSIT, "10.00", 3),
+                tx(TransactionType.WITHDRAW, "2.5", 1),
+                tx(TransactionType.DEPOSIT, "3E+2", 3));
+
+        for (List<Transaction> txs : List.of(wide, overflow, openingOverflow, unordered)) {
+            assertThat(replay(txs)).usingRecursiveFieldByFieldElementComparator().isEqualTo(expectedRows(txs));
+        }
+    }
+
+    private static List<DailyBalance> replay(List<Transaction> txs) {
+        DailyBalanceProjection.ProductReplay replay = new DailyBalanceProjection.ProductReplay();
+        txs.forEach(replay::add);
+        return replay.rows();
+    }
+
+    /** Mezcla de escalas (incluidas negativas), montos/tipos nulos y varios movimientos por día. */
+    private static List<Transaction> random(SplittableRandom random, int count) {
+        String[] amounts = {"10", "2.5", "0.01", "1999.999", "3E+2", "7.10", "0"};
+        TransactionType[] types = TransactionType.values();
+        List<Transaction> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String amount = random.nextInt(20) == 0 ? null
+                    : random.nextInt(3) == 0 ? amounts[random.nextInt(amounts.length)]
+                    // hasta 16 dígitos y escala 18: el límite de la decodificación sin objetos
+                    : random.nextInt(5) == 0 ? BigDecimal.valueOf(random.nextLong(-9_999_999_999_999_999L,
+                            9_999_999_999_999_999L), random.nextInt(19)).toPlainString()
+                    : BigDecimal.valueOf(random.nextLong(-1_000_000, 1_000_000), random.nextInt(4)).toPlainString();
+            TransactionType type = random.nextInt(20) == 0 ? null : types[random.nextInt(types.length)];
+            Transaction t = tx(type, amount, random.nextInt(10));
+            if (random.nextInt(10) == 0) t.setProductType(null);
+            out.add(t);
+        }
+        return out;
+    }
+
+    private static Transaction tx(TransactionType type, String amount, int day) {
+        return Transaction.builder()
+                .productId("P1")
+                .productType("SAVINGS")
+                .customerId("C1")
+                .type(type)
+                .amount(amount == null ? null : new BigDecimal(amount))
+                .occurredAt(T0.plusDays(day).plusMinutes(day * 7L))
+                .build();
+    }
+
+    /** La reconstrucción original: TreeMap de BigDecimal por día. */
+    private static List<DailyBalance> expectedRows(List<Transaction> txs) {
+        TreeMap<LocalDate, BigDecimal> byDay = new TreeMap<>();
+        Map<LocalDate, List<DailyBalance.Entry>> entries = new TreeMap<>();
+        String productType = null;
+        for (Transaction t : txs) {
+            if (productType == null && t.getProductType() != null) productType = t.getProductType();
+            byDay.merge(t.getOccurredAt().toLocalDate(), DailyBalanceProjection.signedAmount(t), BigDecimal::add);
+            entries.computeIfAbsent(t.getOccurredAt().toLocalDate(), d -> new ArrayList<>())
+                    .add(new DailyBalance.Entry(t.getId(), DailyBalanceProjection.signedAmount(t)));
+        }
+        List<DailyBalance> rows = new ArrayList<>();
+        BigDecimal opening = BigDecimal.ZERO;
+        for (Map.Entry<LocalDate, BigDecimal> day : byDay.entrySet()) {
+            rows.add(DailyBalance.builder().id(DailyBalance.idOf("P1", day.getKey())).productId("P1")
+                    .productType(productType).customerId("C1").date(day.getKey())
+                    .openingBalance(opening).netChange(day.getValue()).entries(entries.get(day.getKey())).build());
+            opening = opening.add(day.getValue());
+        }
+        return rows;
+    }
+}